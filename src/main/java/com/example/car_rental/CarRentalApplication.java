@@ -2,6 +2,7 @@ package com.example.car_rental;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Главный класс приложения для системы аренды автомобилей "ИжДрайв".
@@ -14,6 +15,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  *     <li>Систему бронирования и оплаты аренды</li>
  *     <li>Административную панель для управления автомобилями, моделями, марками и пользователями</li>
  *     <li>Автоматическую отмену неоплаченных бронирований</li>
+ *     <li>Ежедневный пересчет статусов автомобилей по бронированиям (планировщик Spring)</li>
  * </ul>
  * <p>
  * Приложение использует Spring Boot, Spring Security, Spring Data JPA,
@@ -23,6 +25,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @version 1.0
  */
 @SpringBootApplication
+@EnableScheduling
 public class CarRentalApplication {
 	/**
 	 * Точка входа в приложение.
@@ -0,0 +1,338 @@
+package com.example.car_rental.cluster;
+
+import com.example.car_rental.index.CarIndexMaintainer;
+import com.example.car_rental.index.CarOccupancyCalendar;
+import com.example.car_rental.model.User;
+import com.example.car_rental.repository.UserRepository;
+import com.example.car_rental.service.ReferenceDataCache;
+import com.example.car_rental.service.UserCache;
+import com.example.car_rental.service.UserUniquenessChecker;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Прием сообщений об изменениях с других узлов (PostgreSQL LISTEN) и сброс
+ * закэшированных в памяти данных этого узла.
+ * <p>
+ * Слушатель держит отдельное соединение вне пула и выполняет на нем {@code LISTEN}
+ * в собственном потоке. Сообщения, пришедшие за одно ожидание, объединяются, после чего
+ * применяются одним действием на вид данных: автомобили перечитываются в индекс каталога
+ * одним запросом, справочник марок и моделей помечается устаревшим, пользователи удаляются
+ * из кэша и добавляются в фильтры уникальности, аренды автомобилей перечитываются
+ * в календарь занятости. Свои сообщения узел пропускает.
+ * <p>
+ * Пока соединения нет, сообщения теряются, поэтому после переподключения выполняется
+ * полная синхронизация: индекс, календарь и фильтры перестраиваются, кэши сбрасываются.
+ * Первое соединение открывается при запуске контекста, до построения кэшей.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class ClusterInvalidationListener implements SmartLifecycle {
+
+    /**
+     * Логгер подписки на изменения других узлов
+     */
+    private static final Logger log = LoggerFactory.getLogger(ClusterInvalidationListener.class);
+
+    /**
+     * Время ожидания сообщений за один вызов
+     */
+    private static final int POLL_TIMEOUT_MS = 1000;
+
+    /**
+     * Наибольшая пауза между попытками переподключения
+     */
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    /**
+     * Параметры подключения к базе данных
+     */
+    private final DataSourceProperties dataSourceProperties;
+
+    /**
+     * Публикатор (для идентификатора своего узла)
+     */
+    private final ClusterInvalidationPublisher publisher;
+
+    /**
+     * Обслуживание индекса каталога
+     */
+    private final CarIndexMaintainer carIndexMaintainer;
+
+    /**
+     * Календарь занятости автомобилей
+     */
+    private final CarOccupancyCalendar occupancyCalendar;
+
+    /**
+     * Кэш справочника марок и моделей
+     */
+    private final ReferenceDataCache referenceDataCache;
+
+    /**
+     * Кэш пользователей
+     */
+    private final UserCache userCache;
+
+    /**
+     * Фильтры уникальности данных пользователей
+     */
+    private final UserUniquenessChecker uniquenessChecker;
+
+    /**
+     * Репозиторий пользователей
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Количество примененных сообщений
+     */
+    private final LongAdder received = new LongAdder();
+
+    /**
+     * Количество полных синхронизаций после переподключения
+     */
+    private final LongAdder resyncs = new LongAdder();
+
+    /**
+     * Поток слушателя
+     */
+    private volatile Thread thread;
+
+    /**
+     * Соединение с выполненным LISTEN или null
+     */
+    private volatile Connection connection;
+
+    /**
+     * Конструктор слушателя.
+     *
+     * @param dataSourceProperties параметры подключения к базе данных
+     * @param publisher            публикатор изменений
+     * @param carIndexMaintainer   обслуживание индекса каталога
+     * @param occupancyCalendar    календарь занятости автомобилей
+     * @param referenceDataCache   кэш справочника марок и моделей
+     * @param userCache            кэш пользователей
+     * @param uniquenessChecker    фильтры уникальности данных пользователей
+     * @param userRepository       репозиторий пользователей
+     */
+    public ClusterInvalidationListener(DataSourceProperties dataSourceProperties,
+                                       ClusterInvalidationPublisher publisher,
+                                       CarIndexMaintainer carIndexMaintainer,
+                                       CarOccupancyCalendar occupancyCalendar,
+                                       ReferenceDataCache referenceDataCache,
+                                       UserCache userCache,
+                                       UserUniquenessChecker uniquenessChecker,
+                                       UserRepository userRepository) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.publisher = publisher;
+        this.carIndexMaintainer = carIndexMaintainer;
+        this.occupancyCalendar = occupancyCalendar;
+        this.referenceDataCache = referenceDataCache;
+        this.userCache = userCache;
+        this.uniquenessChecker = uniquenessChecker;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Открывает соединение с LISTEN и запускает поток приема сообщений.
+     */
+    @Override
+    public void start() {
+        try {
+            connection = connect();
+        } catch (SQLException e) {
+            log.warn("Не удалось подписаться на изменения других узлов, повтор в фоне: {}", e.getMessage());
+        }
+        Thread listener = new Thread(this::run, "cluster-invalidation");
+        listener.setDaemon(true);
+        thread = listener;
+        listener.start();
+    }
+
+    /**
+     * Останавливает поток и закрывает соединение.
+     */
+    @Override
+    public void stop() {
+        Thread listener = thread;
+        thread = null;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        close();
+    }
+
+    /**
+     * Проверяет, запущен ли слушатель.
+     *
+     * @return true, если поток приема работает
+     */
+    @Override
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * Возвращает количество примененных сообщений.
+     *
+     * @return количество сообщений
+     */
+    public long getReceived() { return received.sum(); }
+
+    /**
+     * Возвращает количество полных синхронизаций после переподключения.
+     *
+     * @return количество синхронизаций
+     */
+    public long getResyncs() { return resyncs.sum(); }
+
+    /**
+     * Цикл приема сообщений с переподключением.
+     */
+    private void run() {
+        long backoff = 1000;
+        while (thread == Thread.currentThread()) {
+            try {
+                if (connection == null) {
+                    connection = connect();
+                    log.info("Подписка на изменения других узлов восстановлена, полная синхронизация");
+                    resync();
+                    backoff = 1000;
+                }
+                PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                        .getNotifications(POLL_TIMEOUT_MS);
+                if (notifications != null && notifications.length > 0) {
+                    apply(notifications);
+                }
+            } catch (SQLException e) {
+                if (thread != Thread.currentThread()) {
+                    return;
+                }
+                log.warn("Соединение подписки на изменения потеряно, переподключение через {} мс: {}",
+                        backoff, e.getMessage());
+                close();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            } catch (RuntimeException e) {
+                // Ошибка применения не должна останавливать прием сообщений
+                log.error("Ошибка применения изменений других узлов", e);
+            }
+        }
+    }
+
+    /**
+     * Объединяет пришедшие сообщения и применяет их.
+     */
+    private void apply(PGNotification[] notifications) {
+        Map<InvalidationType, Set<String>> changes = new EnumMap<>(InvalidationType.class);
+        for (PGNotification notification : notifications) {
+            InvalidationMessage message = InvalidationMessage.decode(notification.getParameter());
+            if (message.nodeId().equals(publisher.getNodeId())) {
+                continue;
+            }
+            received.increment();
+            message.changes().forEach((type, keys) ->
+                    changes.computeIfAbsent(type, t -> new LinkedHashSet<>()).addAll(keys));
+        }
+
+        Set<String> cars = changes.get(InvalidationType.CAR);
+        if (cars != null) {
+            if (cars.contains(InvalidationMessage.ALL)) {
+                carIndexMaintainer.rebuild();
+            } else {
+                carIndexMaintainer.reload(cars.stream().map(Long::valueOf).toList());
+            }
+        }
+        Set<String> rentals = changes.get(InvalidationType.OCCUPANCY);
+        if (rentals != null) {
+            if (rentals.contains(InvalidationMessage.ALL)) {
+                occupancyCalendar.rebuild();
+            } else {
+                occupancyCalendar.reload(rentals.stream().map(Long::valueOf).toList());
+            }
+        }
+        if (changes.containsKey(InvalidationType.BRAND) || changes.containsKey(InvalidationType.MODEL)) {
+            referenceDataCache.invalidate();
+        }
+        Set<String> users = changes.get(InvalidationType.USER);
+        if (users != null) {
+            if (users.contains(InvalidationMessage.ALL)) {
+                userCache.clear();
+                uniquenessChecker.rebuild();
+            } else {
+                for (String email : users) {
+                    userCache.evict(email);
+                    User user = userRepository.findByEmail(email);
+                    if (user != null) {
+                        uniquenessChecker.added(user);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Полная синхронизация после переподключения: сообщения за время разрыва потеряны.
+     */
+    private void resync() {
+        resyncs.increment();
+        carIndexMaintainer.rebuild();
+        occupancyCalendar.rebuild();
+        referenceDataCache.invalidate();
+        userCache.clear();
+        uniquenessChecker.rebuild();
+    }
+
+    /**
+     * Открывает отдельное соединение и подписывается на канал.
+     */
+    private Connection connect() throws SQLException {
+        Connection opened = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        try (Statement statement = opened.createStatement()) {
+            statement.execute("LISTEN " + ClusterInvalidationPublisher.CHANNEL);
+        } catch (SQLException e) {
+            opened.close();
+            throw e;
+        }
+        return opened;
+    }
+
+    /**
+     * Закрывает соединение, игнорируя ошибки.
+     */
+    private void close() {
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                log.debug("Ошибка закрытия соединения подписки: {}", e.getMessage());
+            }
+        }
+    }
+}
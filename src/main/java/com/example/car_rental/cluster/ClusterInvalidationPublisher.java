@@ -0,0 +1,205 @@
+package com.example.car_rental.cluster;
+
+import com.example.car_rental.event.CarChangedEvent;
+import com.example.car_rental.event.CarsBulkChangedEvent;
+import com.example.car_rental.event.RentalChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Рассылка сообщений об изменениях данных другим узлам приложения через PostgreSQL NOTIFY.
+ * <p>
+ * Изменение ставится в очередь только после фиксации транзакции, в которой оно сделано
+ * (или сразу, если транзакции нет), поэтому другие узлы не перечитывают данные раньше,
+ * чем они станут видны. Очередь отправляется пакетом раз в {@value #FLUSH_INTERVAL_MS} мс:
+ * повторные изменения одной записи за это время схлопываются, а если записей одного вида
+ * больше {@value #MAX_KEYS_PER_TYPE}, вместо них отправляется «изменилось все»
+ * ({@link InvalidationMessage#ALL}). Сообщения принимает {@link ClusterInvalidationListener}.
+ * <p>
+ * Внешний брокер не нужен: используется та же база данных, что и для данных.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class ClusterInvalidationPublisher {
+
+    /**
+     * Логгер рассылки изменений
+     */
+    private static final Logger log = LoggerFactory.getLogger(ClusterInvalidationPublisher.class);
+
+    /**
+     * Канал NOTIFY/LISTEN
+     */
+    public static final String CHANNEL = "car_rental_invalidation";
+
+    /**
+     * Интервал отправки накопленных изменений
+     */
+    static final long FLUSH_INTERVAL_MS = 200;
+
+    /**
+     * Наибольшее количество ключей одного вида в пакете, после которого отправляется «изменилось все»
+     */
+    static final int MAX_KEYS_PER_TYPE = 2000;
+
+    /**
+     * Идентификатор этого узла: свои сообщения узел пропускает
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Накопленные изменения по видам; доступ под блокировкой на самой карте
+     */
+    private final Map<InvalidationType, Set<String>> pending = new EnumMap<>(InvalidationType.class);
+
+    /**
+     * Количество отправленных сообщений
+     */
+    private final LongAdder sent = new LongAdder();
+
+    /**
+     * JDBC-шаблон для отправки NOTIFY
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор публикатора.
+     *
+     * @param jdbcTemplate JDBC-шаблон
+     */
+    public ClusterInvalidationPublisher(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Сообщает другим узлам об изменении записи после фиксации текущей транзакции.
+     *
+     * @param type вид данных
+     * @param key  ключ записи (ID или email); null игнорируется
+     */
+    public void publish(InvalidationType type, Object key) {
+        if (key == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(type, List.of(key.toString()));
+                }
+            });
+        } else {
+            enqueue(type, List.of(key.toString()));
+        }
+    }
+
+    /**
+     * Ставит в очередь изменение автомобиля после фиксации транзакции.
+     *
+     * @param event событие изменения автомобиля
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.getCarId() != null) {
+            enqueue(InvalidationType.CAR, List.of(event.getCarId().toString()));
+        }
+    }
+
+    /**
+     * Ставит в очередь массовое изменение автомобилей после фиксации транзакции.
+     *
+     * @param event событие массового изменения автомобилей
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarsBulkChanged(CarsBulkChangedEvent event) {
+        enqueue(InvalidationType.CAR, event.getCarIds().stream().map(String::valueOf).toList());
+    }
+
+    /**
+     * Ставит в очередь изменение аренд автомобиля после фиксации транзакции.
+     *
+     * @param event событие перехода аренды
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        if (event.getCarId() != null) {
+            enqueue(InvalidationType.OCCUPANCY, List.of(event.getCarId().toString()));
+        }
+    }
+
+    /**
+     * Отправляет накопленные изменения. Если отправить не удалось, изменения возвращаются
+     * в очередь и уходят со следующим пакетом.
+     */
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public void flush() {
+        Map<InvalidationType, Set<String>> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new EnumMap<>(pending);
+            pending.clear();
+        }
+        List<String> payloads = InvalidationMessage.encode(nodeId, batch);
+        try {
+            for (String payload : payloads) {
+                jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, payload);
+                sent.increment();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Не удалось отправить изменения другим узлам, повтор со следующим пакетом: {}", e.getMessage());
+            batch.forEach(this::enqueue);
+        }
+    }
+
+    /**
+     * Возвращает идентификатор этого узла.
+     *
+     * @return идентификатор узла
+     */
+    public String getNodeId() { return nodeId; }
+
+    /**
+     * Возвращает количество отправленных сообщений.
+     *
+     * @return количество сообщений
+     */
+    public long getSent() { return sent.sum(); }
+
+    /**
+     * Добавляет ключи в очередь со схлопыванием повторов.
+     */
+    private void enqueue(InvalidationType type, Iterable<String> keys) {
+        synchronized (pending) {
+            Set<String> queued = pending.computeIfAbsent(type, t -> new LinkedHashSet<>());
+            if (queued.contains(InvalidationMessage.ALL)) {
+                return;
+            }
+            for (String key : keys) {
+                queued.add(key);
+            }
+            if (queued.contains(InvalidationMessage.ALL) || queued.size() > MAX_KEYS_PER_TYPE) {
+                queued.clear();
+                queued.add(InvalidationMessage.ALL);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.car_rental.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Формат сообщений об изменениях, передаваемых через PostgreSQL NOTIFY.
+ * <p>
+ * Первая строка - идентификатор узла-отправителя, далее по строке на изменение:
+ * {@code ВИД ключ}. Ключ {@value #ALL} означает «изменилось все данного вида».
+ * Полезная нагрузка NOTIFY ограничена 8000 байт, поэтому пакет изменений
+ * разбивается на несколько сообщений не длиннее {@link #MAX_PAYLOAD_BYTES}.
+ *
+ * @param nodeId  идентификатор узла-отправителя
+ * @param changes ключи изменений по видам
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public record InvalidationMessage(String nodeId, Map<InvalidationType, Set<String>> changes) {
+
+    /**
+     * Ключ «все записи данного вида»
+     */
+    public static final String ALL = "*";
+
+    /**
+     * Наибольшая длина сообщения в байтах (с запасом до предела NOTIFY в 8000 байт)
+     */
+    static final int MAX_PAYLOAD_BYTES = 7500;
+
+    /**
+     * Кодирует изменения в одно или несколько сообщений.
+     *
+     * @param nodeId  идентификатор узла-отправителя
+     * @param changes ключи изменений по видам
+     * @return тексты сообщений
+     */
+    public static List<String> encode(String nodeId, Map<InvalidationType, Set<String>> changes) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId);
+        int bytes = utf8Length(nodeId);
+        for (Map.Entry<InvalidationType, Set<String>> entry : changes.entrySet()) {
+            for (String key : entry.getValue()) {
+                String line = "\n" + entry.getKey().name() + " " + key;
+                int lineBytes = utf8Length(line);
+                if (bytes + lineBytes > MAX_PAYLOAD_BYTES && payload.length() > nodeId.length()) {
+                    payloads.add(payload.toString());
+                    payload = new StringBuilder(nodeId);
+                    bytes = utf8Length(nodeId);
+                }
+                payload.append(line);
+                bytes += lineBytes;
+            }
+        }
+        if (payload.length() > nodeId.length()) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    /**
+     * Разбирает сообщение. Строки неизвестного вида пропускаются.
+     *
+     * @param payload текст сообщения
+     * @return сообщение
+     */
+    public static InvalidationMessage decode(String payload) {
+        String[] lines = payload.split("\n");
+        Map<InvalidationType, Set<String>> changes = new EnumMap<>(InvalidationType.class);
+        for (int i = 1; i < lines.length; i++) {
+            int space = lines[i].indexOf(' ');
+            if (space <= 0) {
+                continue;
+            }
+            InvalidationType type;
+            try {
+                type = InvalidationType.valueOf(lines[i].substring(0, space));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            changes.computeIfAbsent(type, t -> new LinkedHashSet<>()).add(lines[i].substring(space + 1));
+        }
+        return new InvalidationMessage(lines[0], changes);
+    }
+
+    /**
+     * Длина строки в байтах UTF-8.
+     */
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
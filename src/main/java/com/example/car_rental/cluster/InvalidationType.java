@@ -0,0 +1,36 @@
+package com.example.car_rental.cluster;
+
+/**
+ * Вид данных, закэшированных в памяти узла, которые сбрасываются по сообщению
+ * об изменении на другом узле.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public enum InvalidationType {
+
+    /**
+     * Автомобиль (ключ - ID); индекс каталога
+     */
+    CAR,
+
+    /**
+     * Марка (ключ - ID); справочник марок и моделей
+     */
+    BRAND,
+
+    /**
+     * Модель (ключ - ID); справочник марок и моделей
+     */
+    MODEL,
+
+    /**
+     * Пользователь (ключ - email); кэш пользователей и фильтры уникальности
+     */
+    USER,
+
+    /**
+     * Аренды автомобиля (ключ - ID автомобиля); календарь занятости
+     */
+    OCCUPANCY
+}
@@ -0,0 +1,236 @@
+package com.example.car_rental.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кодировщик паролей BCrypt, выполняющий хеширование в отдельном ограниченном пуле потоков.
+ * <p>
+ * BCrypt намеренно загружает процессор. Если хешировать на потоках Tomcat, всплеск входов
+ * (или перебор учетных данных) занимает все ядра, и остальные страницы, например каталог,
+ * начинают отвечать с задержкой. Здесь одновременно выполняется не больше
+ * {@link #threads} хеширований, остальные ждут в очереди ограниченной длины. Если очередь
+ * заполнена, запрос сразу отклоняется исключением {@link AuthenticationServiceException}:
+ * вход завершается ошибкой, а не ожиданием.
+ * <p>
+ * Для каждой операции записывается время от постановки в очередь до результата;
+ * статистика доступна через {@link #getStats()}.
+ * <p>
+ * {@link #upgradeEncoding(String)} сообщает о необходимости перехешировать пароль,
+ * если стоимость сохраненного хеша отличается от настроенной (в обе стороны).
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    /**
+     * Логгер кодировщика паролей
+     */
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    /**
+     * Сколько последних измерений времени хранится для расчета процентилей
+     */
+    private static final int LATENCY_SAMPLES = 1024;
+
+    /**
+     * Наибольшее время ожидания результата хеширования
+     */
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * Кодировщик BCrypt с настроенной стоимостью
+     */
+    private final BCryptPasswordEncoder delegate;
+
+    /**
+     * Стоимость (log2 числа раундов) новых хешей
+     */
+    private final int strength;
+
+    /**
+     * Количество потоков хеширования
+     */
+    private final int threads;
+
+    /**
+     * Пул потоков хеширования с очередью ограниченной длины
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Последние измерения времени операций в наносекундах (кольцевой буфер)
+     */
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+
+    /**
+     * Количество записанных измерений
+     */
+    private long recorded;
+
+    /**
+     * Количество выполненных операций
+     */
+    private final LongAdder completed = new LongAdder();
+
+    /**
+     * Количество отклоненных из-за переполнения очереди операций
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Создает кодировщик.
+     *
+     * @param strength      стоимость BCrypt (от 4 до 31)
+     * @param threads       количество потоков хеширования
+     * @param queueCapacity наибольшая длина очереди ожидающих операций
+     */
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.threads = threads;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Хеширует пароль в пуле хеширования.
+     *
+     * @param rawPassword пароль
+     * @return хеш BCrypt
+     * @throws AuthenticationServiceException если очередь хеширования переполнена
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Проверяет пароль по хешу в пуле хеширования.
+     *
+     * @param rawPassword     пароль
+     * @param encodedPassword сохраненный хеш
+     * @return true, если пароль совпадает
+     * @throws AuthenticationServiceException если очередь хеширования переполнена
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Проверяет, нужно ли перехешировать пароль: стоимость хеша отличается от настроенной.
+     *
+     * @param encodedPassword сохраненный хеш
+     * @return true, если хеш создан с другой стоимостью
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Формат хеша: $2a$10$... - стоимость записана двумя цифрами после второго "$"
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Возвращает статистику пула хеширования.
+     *
+     * @return статистика
+     */
+    public PasswordHashingStats getStats() {
+        long[] sorted;
+        synchronized (latencies) {
+            sorted = Arrays.copyOf(latencies, (int) Math.min(recorded, LATENCY_SAMPLES));
+        }
+        Arrays.sort(sorted);
+        return new PasswordHashingStats(completed.sum(), rejected.sum(), executor.getQueue().size(),
+                executor.getActiveCount(), threads, percentileMillis(sorted, 0.5), percentileMillis(sorted, 0.99));
+    }
+
+    /**
+     * Останавливает пул хеширования при закрытии контекста приложения.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Выполняет операцию в пуле и ждет результата.
+     */
+    private <T> T execute(Callable<T> task) {
+        long started = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Очередь хеширования паролей переполнена, операция отклонена");
+            throw new AuthenticationServiceException("Сервис входа перегружен, повторите попытку позже");
+        }
+        try {
+            T result = future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            record(System.nanoTime() - started);
+            return result;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Хеширование пароля прервано", e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new AuthenticationServiceException("Превышено время хеширования пароля", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Записывает время выполненной операции.
+     */
+    private void record(long nanos) {
+        completed.increment();
+        synchronized (latencies) {
+            latencies[(int) (recorded % LATENCY_SAMPLES)] = nanos;
+            recorded++;
+        }
+    }
+
+    /**
+     * Процентиль отсортированных измерений в миллисекундах (0, если измерений нет).
+     */
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
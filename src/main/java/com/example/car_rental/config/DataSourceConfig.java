@@ -0,0 +1,71 @@
+package com.example.car_rental.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Конфигурация источников данных: основной сервер и необязательная реплика для чтения.
+ * <p>
+ * Приложение работает с {@link LazyConnectionDataSourceProxy} поверх
+ * {@link SqlStatementCounter} и {@link ReplicaRoutingDataSource}: физическое соединение берется при первом запросе
+ * в транзакции, когда уже известно, только ли она читает данные. Если
+ * {@code datasource.replica.url} не задан, все запросы идут на основной сервер.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Маршрутизирующий источник данных с пулами основного сервера и реплики.
+     *
+     * @param properties            параметры основного сервера ({@code spring.datasource.*})
+     * @param replicaUrl            JDBC URL реплики (пустой - реплики нет)
+     * @param replicaUsername       пользователь реплики (по умолчанию как у основного сервера)
+     * @param replicaPassword       пароль реплики (по умолчанию как у основного сервера)
+     * @param maxLagSeconds         наибольшая допустимая задержка реплики в секундах
+     * @param readYourWritesSeconds окно чтения своих записей в секундах
+     * @return маршрутизирующий источник данных
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource routingDataSource(
+            DataSourceProperties properties,
+            @Value("${datasource.replica.url:}") String replicaUrl,
+            @Value("${datasource.replica.username:}") String replicaUsername,
+            @Value("${datasource.replica.password:}") String replicaPassword,
+            @Value("${datasource.replica.max-lag-seconds:10}") long maxLagSeconds,
+            @Value("${datasource.replica.read-your-writes-seconds:5}") long readYourWritesSeconds) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        HikariDataSource replica = null;
+        if (!replicaUrl.isBlank()) {
+            replica = new HikariDataSource();
+            replica.setPoolName("replica");
+            replica.setJdbcUrl(replicaUrl);
+            replica.setUsername(replicaUsername.isBlank() ? properties.determineUsername() : replicaUsername);
+            replica.setPassword(replicaPassword.isBlank() ? properties.determinePassword() : replicaPassword);
+            replica.setReadOnly(true);
+        }
+        return new ReplicaRoutingDataSource(primary, replica, maxLagSeconds * 1000, readYourWritesSeconds * 1000);
+    }
+
+    /**
+     * Источник данных приложения.
+     *
+     * @param routingDataSource маршрутизирующий источник данных
+     * @return источник данных с отложенным получением соединения и подсчетом запросов
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(new SqlStatementCounter(routingDataSource));
+    }
+}
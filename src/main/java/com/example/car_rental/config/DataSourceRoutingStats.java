@@ -0,0 +1,117 @@
+package com.example.car_rental.config;
+
+/**
+ * Статистика маршрутизации запросов {@link ReplicaRoutingDataSource}.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class DataSourceRoutingStats {
+
+    /**
+     * Настроена ли реплика
+     */
+    private final boolean replicaConfigured;
+
+    /**
+     * Читаются ли сейчас данные с реплики
+     */
+    private final boolean replicaUsable;
+
+    /**
+     * Последняя измеренная задержка реплики в миллисекундах
+     */
+    private final long lagMillis;
+
+    /**
+     * Соединений для чтения, выданных репликой
+     */
+    private final long replicaReads;
+
+    /**
+     * Соединений для чтения, выданных основным сервером
+     */
+    private final long primaryReads;
+
+    /**
+     * Соединений для пишущих транзакций
+     */
+    private final long primaryWrites;
+
+    /**
+     * Соединений для запросов вне транзакции
+     */
+    private final long primaryNonTransactional;
+
+    /**
+     * Создает снимок статистики.
+     *
+     * @param replicaConfigured       настроена ли реплика
+     * @param replicaUsable           читаются ли данные с реплики
+     * @param lagMillis               задержка реплики в мс
+     * @param replicaReads            соединений для чтения с реплики
+     * @param primaryReads            соединений для чтения с основного сервера
+     * @param primaryWrites           соединений для пишущих транзакций
+     * @param primaryNonTransactional соединений для запросов вне транзакции
+     */
+    public DataSourceRoutingStats(boolean replicaConfigured, boolean replicaUsable, long lagMillis,
+                                  long replicaReads, long primaryReads, long primaryWrites,
+                                  long primaryNonTransactional) {
+        this.replicaConfigured = replicaConfigured;
+        this.replicaUsable = replicaUsable;
+        this.lagMillis = lagMillis;
+        this.replicaReads = replicaReads;
+        this.primaryReads = primaryReads;
+        this.primaryWrites = primaryWrites;
+        this.primaryNonTransactional = primaryNonTransactional;
+    }
+
+    /**
+     * Проверяет, настроена ли реплика.
+     *
+     * @return true, если реплика настроена
+     */
+    public boolean isReplicaConfigured() { return replicaConfigured; }
+
+    /**
+     * Проверяет, читаются ли сейчас данные с реплики.
+     *
+     * @return true, если реплика доступна и задержка допустима
+     */
+    public boolean isReplicaUsable() { return replicaUsable; }
+
+    /**
+     * Возвращает последнюю измеренную задержку реплики.
+     *
+     * @return задержка в миллисекундах
+     */
+    public long getLagMillis() { return lagMillis; }
+
+    /**
+     * Возвращает количество соединений для чтения, выданных репликой.
+     *
+     * @return количество соединений
+     */
+    public long getReplicaReads() { return replicaReads; }
+
+    /**
+     * Возвращает количество соединений для чтения, выданных основным сервером.
+     *
+     * @return количество соединений
+     */
+    public long getPrimaryReads() { return primaryReads; }
+
+    /**
+     * Возвращает количество соединений для пишущих транзакций.
+     *
+     * @return количество соединений
+     */
+    public long getPrimaryWrites() { return primaryWrites; }
+
+    /**
+     * Возвращает количество соединений для запросов вне транзакции.
+     *
+     * @return количество соединений
+     */
+    public long getPrimaryNonTransactional() { return primaryNonTransactional; }
+}
@@ -0,0 +1,90 @@
+package com.example.car_rental.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты попыток входа по IP-адресу и по email.
+ * <p>
+ * Проверяется фильтром {@link LoginThrottleFilter} до аутентификации, поэтому попытка
+ * сверх лимита не обращается к базе данных и не запускает BCrypt. Лимит по IP-адресу
+ * сдерживает перебор паролей с одного адреса по многим учетным записям, лимит по email -
+ * подбор пароля одной учетной записи с многих адресов.
+ * <p>
+ * Лимиты задаются свойствами {@code login.throttle.*} в application.properties.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class LoginThrottle {
+
+    /**
+     * Наибольшее количество отслеживаемых ключей каждого вида
+     */
+    private static final int MAX_KEYS = 100_000;
+
+    /**
+     * Лимит попыток по IP-адресу
+     */
+    private final TokenBucketLimiter byIp;
+
+    /**
+     * Лимит попыток по email
+     */
+    private final TokenBucketLimiter byEmail;
+
+    /**
+     * Создает ограничение попыток входа.
+     *
+     * @param ipAttempts     попыток подряд с одного IP-адреса
+     * @param ipMinutes      за сколько минут восстанавливаются попытки IP-адреса
+     * @param emailAttempts  попыток подряд для одного email
+     * @param emailMinutes   за сколько минут восстанавливаются попытки email
+     */
+    public LoginThrottle(@Value("${login.throttle.ip.attempts:20}") int ipAttempts,
+                         @Value("${login.throttle.ip.minutes:1}") long ipMinutes,
+                         @Value("${login.throttle.email.attempts:5}") int emailAttempts,
+                         @Value("${login.throttle.email.minutes:5}") long emailMinutes) {
+        this.byIp = new TokenBucketLimiter(ipAttempts, ipMinutes, TimeUnit.MINUTES, MAX_KEYS);
+        this.byEmail = new TokenBucketLimiter(emailAttempts, emailMinutes, TimeUnit.MINUTES, MAX_KEYS);
+    }
+
+    /**
+     * Учитывает попытку входа.
+     * Попытка, отклоненная по IP-адресу, не расходует лимит email.
+     *
+     * @param ip    IP-адрес клиента
+     * @param email введенный email
+     * @return true, если попытку можно выполнять
+     */
+    public boolean tryAcquire(String ip, String email) {
+        if (!byIp.tryAcquire(ip)) {
+            return false;
+        }
+        return email == null || email.isBlank() || byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Удаляет ключи без попыток входа за время восстановления лимита. Выполняется ежеминутно;
+     * до очистки попытки с новыми ключами сверх {@link #MAX_KEYS} отклоняются.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        byIp.evictIdle();
+        byEmail.evictIdle();
+    }
+
+    /**
+     * Возвращает статистику ограничения попыток входа.
+     *
+     * @return статистика
+     */
+    public LoginThrottleStats getStats() {
+        return new LoginThrottleStats(byIp.getRejected(), byEmail.getRejected(), byIp.size(), byEmail.size());
+    }
+}
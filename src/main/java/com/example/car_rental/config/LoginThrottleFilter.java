@@ -0,0 +1,85 @@
+package com.example.car_rental.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Фильтр, отклоняющий попытки входа сверх лимита {@link LoginThrottle}.
+ * <p>
+ * Стоит в цепочке Spring Security перед фильтром формы входа и обрабатывает только
+ * отправку формы (POST /login). Попытка сверх лимита перенаправляется на страницу входа
+ * с параметром {@code throttled}, не доходя до загрузки пользователя и проверки пароля.
+ * <p>
+ * IP-адрес клиента берется из {@link HttpServletRequest#getRemoteAddr()}. За балансировщиком
+ * это адрес клиента из заголовка X-Forwarded-For, который Tomcat подставляет для запросов
+ * от доверенных прокси ({@code server.forward-headers-strategy=native} и
+ * {@code server.tomcat.remoteip.*} в application.properties); иначе все попытки входа
+ * учитывались бы в одной корзине адреса балансировщика.
+ * <p>
+ * Не является компонентом Spring: регистрируется только в цепочке безопасности
+ * ({@link SecurityConfig}), а не как общий фильтр сервлетов.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    /**
+     * Логгер фильтра
+     */
+    private static final Logger log = LoggerFactory.getLogger(LoginThrottleFilter.class);
+
+    /**
+     * Ограничение попыток входа
+     */
+    private final LoginThrottle throttle;
+
+    /**
+     * Создает фильтр.
+     *
+     * @param throttle ограничение попыток входа
+     */
+    public LoginThrottleFilter(LoginThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    /**
+     * Пропускает только отправку формы входа.
+     *
+     * @param request HTTP-запрос
+     * @return true, если запрос не является отправкой формы входа
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !("POST".equals(request.getMethod()) && "/login".equals(request.getServletPath()));
+    }
+
+    /**
+     * Учитывает попытку входа и отклоняет ее, если лимит исчерпан.
+     *
+     * @param request     HTTP-запрос
+     * @param response    HTTP-ответ
+     * @param filterChain цепочка фильтров
+     * @throws ServletException при ошибке обработки запроса
+     * @throws IOException      при ошибке ввода-вывода
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String ip = request.getRemoteAddr();
+        String email = request.getParameter("username");
+        if (!throttle.tryAcquire(ip, email)) {
+            log.debug("Попытка входа отклонена лимитом: {} {}", ip, email);
+            response.sendRedirect(request.getContextPath() + "/login?throttled");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
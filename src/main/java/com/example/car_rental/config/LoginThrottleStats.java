@@ -0,0 +1,73 @@
+package com.example.car_rental.config;
+
+/**
+ * Статистика ограничения попыток входа {@link LoginThrottle}.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class LoginThrottleStats {
+
+    /**
+     * Попыток, отклоненных по лимиту IP-адреса
+     */
+    private final long ipRejected;
+
+    /**
+     * Попыток, отклоненных по лимиту email
+     */
+    private final long emailRejected;
+
+    /**
+     * Отслеживаемых IP-адресов
+     */
+    private final int trackedIps;
+
+    /**
+     * Отслеживаемых email
+     */
+    private final int trackedEmails;
+
+    /**
+     * Создает снимок статистики.
+     *
+     * @param ipRejected    попыток, отклоненных по IP-адресу
+     * @param emailRejected попыток, отклоненных по email
+     * @param trackedIps    отслеживаемых IP-адресов
+     * @param trackedEmails отслеживаемых email
+     */
+    public LoginThrottleStats(long ipRejected, long emailRejected, int trackedIps, int trackedEmails) {
+        this.ipRejected = ipRejected;
+        this.emailRejected = emailRejected;
+        this.trackedIps = trackedIps;
+        this.trackedEmails = trackedEmails;
+    }
+
+    /**
+     * Возвращает количество попыток, отклоненных по IP-адресу.
+     *
+     * @return количество попыток
+     */
+    public long getIpRejected() { return ipRejected; }
+
+    /**
+     * Возвращает количество попыток, отклоненных по email.
+     *
+     * @return количество попыток
+     */
+    public long getEmailRejected() { return emailRejected; }
+
+    /**
+     * Возвращает количество отслеживаемых IP-адресов.
+     *
+     * @return количество IP-адресов
+     */
+    public int getTrackedIps() { return trackedIps; }
+
+    /**
+     * Возвращает количество отслеживаемых email.
+     *
+     * @return количество email
+     */
+    public int getTrackedEmails() { return trackedEmails; }
+}
@@ -0,0 +1,116 @@
+package com.example.car_rental.config;
+
+/**
+ * Статистика пула хеширования паролей {@link BoundedPasswordEncoder}.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class PasswordHashingStats {
+
+    /**
+     * Количество выполненных операций
+     */
+    private final long completed;
+
+    /**
+     * Количество операций, отклоненных из-за переполнения очереди
+     */
+    private final long rejected;
+
+    /**
+     * Текущая длина очереди
+     */
+    private final int queued;
+
+    /**
+     * Количество выполняющихся сейчас операций
+     */
+    private final int active;
+
+    /**
+     * Количество потоков хеширования
+     */
+    private final int threads;
+
+    /**
+     * Медиана времени операции (ожидание в очереди и хеширование) в миллисекундах
+     */
+    private final double p50Millis;
+
+    /**
+     * 99-й процентиль времени операции в миллисекундах
+     */
+    private final double p99Millis;
+
+    /**
+     * Создает снимок статистики.
+     *
+     * @param completed количество выполненных операций
+     * @param rejected  количество отклоненных операций
+     * @param queued    текущая длина очереди
+     * @param active    количество выполняющихся операций
+     * @param threads   количество потоков
+     * @param p50Millis медиана времени операции в миллисекундах
+     * @param p99Millis 99-й процентиль времени операции в миллисекундах
+     */
+    public PasswordHashingStats(long completed, long rejected, int queued, int active, int threads,
+                                double p50Millis, double p99Millis) {
+        this.completed = completed;
+        this.rejected = rejected;
+        this.queued = queued;
+        this.active = active;
+        this.threads = threads;
+        this.p50Millis = p50Millis;
+        this.p99Millis = p99Millis;
+    }
+
+    /**
+     * Возвращает количество выполненных операций.
+     *
+     * @return количество операций
+     */
+    public long getCompleted() { return completed; }
+
+    /**
+     * Возвращает количество отклоненных операций.
+     *
+     * @return количество отклоненных операций
+     */
+    public long getRejected() { return rejected; }
+
+    /**
+     * Возвращает текущую длину очереди.
+     *
+     * @return длина очереди
+     */
+    public int getQueued() { return queued; }
+
+    /**
+     * Возвращает количество выполняющихся операций.
+     *
+     * @return количество операций
+     */
+    public int getActive() { return active; }
+
+    /**
+     * Возвращает количество потоков хеширования.
+     *
+     * @return количество потоков
+     */
+    public int getThreads() { return threads; }
+
+    /**
+     * Возвращает медиану времени операции.
+     *
+     * @return время в миллисекундах
+     */
+    public double getP50Millis() { return p50Millis; }
+
+    /**
+     * Возвращает 99-й процентиль времени операции.
+     *
+     * @return время в миллисекундах
+     */
+    public double getP99Millis() { return p99Millis; }
+}
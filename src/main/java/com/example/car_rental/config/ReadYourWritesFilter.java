@@ -0,0 +1,69 @@
+package com.example.car_rental.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Фильтр чтения своих записей: запрос клиента, который недавно изменял данные
+ * (cookie {@value ReplicaRoutingDataSource#COOKIE} еще не истекла), читает с основного
+ * сервера, а не с реплики, которая могла еще не получить изменения.
+ * <p>
+ * Фильтр связывает запрос с {@link ReplicaRoutingDataSource} на время обработки,
+ * чтобы тот мог выставить cookie после пишущей транзакции.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * Связывает запрос с маршрутизацией и выполняет его.
+     *
+     * @param request     HTTP-запрос
+     * @param response    HTTP-ответ
+     * @param filterChain цепочка фильтров
+     * @throws ServletException при ошибке обработки запроса
+     * @throws IOException      при ошибке ввода-вывода
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ReplicaRoutingDataSource.bindRequest(response, wroteRecently(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unbindRequest();
+        }
+    }
+
+    /**
+     * Проверяет, не истекло ли окно чтения своих записей клиента.
+     */
+    static boolean wroteRecently(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (ReplicaRoutingDataSource.COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.car_rental.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодическая проверка задержки реплики: при большой задержке или недоступности
+ * реплики чтение переключается на основной сервер и возвращается, когда реплика догонит его.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class ReplicaLagMonitor {
+
+    /**
+     * Маршрутизирующий источник данных
+     */
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    /**
+     * Конструктор монитора.
+     *
+     * @param routingDataSource маршрутизирующий источник данных
+     */
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    /**
+     * Измеряет задержку реплики.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        routingDataSource.checkReplica();
+    }
+}
@@ -0,0 +1,425 @@
+package com.example.car_rental.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Источник данных, направляющий транзакции только для чтения на реплику, а остальные
+ * запросы - на основной сервер.
+ * <p>
+ * Решение принимается при получении физического соединения, поэтому источник используется
+ * через {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: к этому
+ * моменту признак {@code @Transactional(readOnly = true)} уже известен. На реплику идут
+ * только транзакции только для чтения, объявленные в коде приложения (сервисах):
+ * неявные транзакции методов репозиториев Spring Data тоже помечены только для чтения,
+ * но по ним загружаются сущности для изменения и заполняются кэши в памяти, поэтому
+ * они, как и запросы вне транзакции и пишущие транзакции, идут на основной сервер.
+ * <p>
+ * Чтение своих записей: после фиксации транзакции, которая действительно изменила строки,
+ * в рамках HTTP-запроса оставшаяся часть запроса читает с основного сервера, а в ответ добавляется cookie
+ * {@value #COOKIE}, по которому следующие запросы того же клиента читают с основного
+ * сервера еще {@link #getReadYourWritesMillis()} мс. Окно не короче настроенного и не короче
+ * удвоенной текущей задержки реплики. Если задержка превышает допустимую или реплика
+ * недоступна, все чтения идут на основной сервер, пока {@link #checkReplica()} не покажет,
+ * что реплика догнала основной сервер.
+ * <p>
+ * Изменение строк определяется по результатам выполнения запросов на соединении основного
+ * сервера (число измененных строк {@code executeUpdate}/{@code executeBatch}), а не по
+ * признаку транзакции: транзакция без {@code readOnly}, которая только читала или ничего
+ * не изменила, не переключает клиента на основной сервер. Изменение вне транзакции
+ * (автофиксация) учитывается сразу.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Логгер маршрутизации
+     */
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * Имя cookie с моментом (мс от эпохи), до которого клиент читает с основного сервера
+     */
+    public static final String COOKIE = "read_primary_until";
+
+    /**
+     * Пакет приложения: на реплику направляются транзакции, начатые его методами
+     */
+    private static final String APPLICATION_PACKAGE = "com.example.car_rental.";
+
+    /**
+     * Ключ основного сервера
+     */
+    private static final String PRIMARY = "primary";
+
+    /**
+     * Ключ реплики
+     */
+    private static final String REPLICA = "replica";
+
+    /**
+     * Задержка реплики в секундах; 0, если реплика догнала основной сервер
+     * или не является резервным сервером (например, вторая независимая база при проверке)
+     */
+    private static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+
+    /**
+     * Состояние текущего HTTP-запроса.
+     */
+    private static final class RequestState {
+
+        /**
+         * Ответ, в который добавляется cookie после записи
+         */
+        private final HttpServletResponse response;
+
+        /**
+         * Читать с основного сервера до конца запроса
+         */
+        private boolean pinned;
+
+        private RequestState(HttpServletResponse response, boolean pinned) {
+            this.response = response;
+            this.pinned = pinned;
+        }
+    }
+
+    /**
+     * Состояние HTTP-запроса, обрабатываемого текущим потоком
+     */
+    private static final ThreadLocal<RequestState> REQUEST = new ThreadLocal<>();
+
+    /**
+     * Пул основного сервера
+     */
+    private final HikariDataSource primary;
+
+    /**
+     * Пул реплики или null, если реплика не настроена
+     */
+    private final HikariDataSource replica;
+
+    /**
+     * Наибольшая допустимая задержка реплики в миллисекундах
+     */
+    private final long maxLagMillis;
+
+    /**
+     * Наименьшее окно чтения своих записей в миллисекундах
+     */
+    private final long readYourWritesMillis;
+
+    /**
+     * Можно ли читать с реплики (реплика доступна и задержка допустима)
+     */
+    private volatile boolean replicaUsable;
+
+    /**
+     * Последняя измеренная задержка реплики в миллисекундах
+     */
+    private volatile long lagMillis;
+
+    /**
+     * Количество соединений для чтения, выданных репликой
+     */
+    private final LongAdder replicaReads = new LongAdder();
+
+    /**
+     * Количество соединений для чтения, выданных основным сервером
+     */
+    private final LongAdder primaryReads = new LongAdder();
+
+    /**
+     * Количество соединений для пишущих транзакций
+     */
+    private final LongAdder primaryWrites = new LongAdder();
+
+    /**
+     * Количество соединений для запросов вне транзакции
+     */
+    private final LongAdder primaryNonTransactional = new LongAdder();
+
+    /**
+     * Создает источник данных.
+     *
+     * @param primary              пул основного сервера
+     * @param replica              пул реплики или null
+     * @param maxLagMillis         наибольшая допустимая задержка реплики в мс
+     * @param readYourWritesMillis наименьшее окно чтения своих записей в мс
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica,
+                                    long maxLagMillis, long readYourWritesMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        this.readYourWritesMillis = readYourWritesMillis;
+        this.replicaUsable = replica != null;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        if (replica != null) {
+            targets.put(REPLICA, replica);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Начинает обработку HTTP-запроса в текущем потоке.
+     *
+     * @param response ответ, в который добавляется cookie после записи
+     * @param pinned   читать с основного сервера (клиент недавно записывал данные)
+     */
+    public static void bindRequest(HttpServletResponse response, boolean pinned) {
+        REQUEST.set(new RequestState(response, pinned));
+    }
+
+    /**
+     * Завершает обработку HTTP-запроса в текущем потоке.
+     */
+    public static void unbindRequest() {
+        REQUEST.remove();
+    }
+
+    /**
+     * Выбирает сервер для нового соединения.
+     *
+     * @return ключ основного сервера или реплики
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                primaryWrites.increment();
+            } else {
+                primaryNonTransactional.increment();
+            }
+            return PRIMARY;
+        }
+        String transaction = TransactionSynchronizationManager.getCurrentTransactionName();
+        RequestState request = REQUEST.get();
+        boolean declared = transaction != null && transaction.startsWith(APPLICATION_PACKAGE);
+        if (!declared || replica == null || !replicaUsable || (request != null && request.pinned)) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return REPLICA;
+    }
+
+    /**
+     * Выдает соединение выбранного сервера. Соединение основного сервера в HTTP-запросе
+     * отслеживает изменение строк, чтобы включить чтение своих записей.
+     *
+     * @return соединение
+     * @throws SQLException при ошибке получения соединения
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        if (replica == null || REQUEST.get() == null
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return connection;
+        }
+        WriteTracker tracker = new WriteTracker();
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(tracker);
+        } else {
+            tracker.autoCommit = true;
+        }
+        return tracker.wrap(connection);
+    }
+
+    /**
+     * Измеряет задержку реплики и включает или отключает чтение с нее.
+     */
+    public void checkReplica() {
+        if (replica == null) {
+            return;
+        }
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_SQL)) {
+            rs.next();
+            lagMillis = (long) (rs.getDouble(1) * 1000);
+            usable = lagMillis <= maxLagMillis;
+        } catch (SQLException e) {
+            log.warn("Реплика недоступна, чтение переключено на основной сервер: {}", e.getMessage());
+            usable = false;
+        }
+        if (usable != replicaUsable) {
+            log.info(usable ? "Чтение с реплики возобновлено (задержка {} мс)"
+                    : "Задержка реплики {} мс выше допустимой, чтение с основного сервера", lagMillis);
+        }
+        replicaUsable = usable;
+    }
+
+    /**
+     * Возвращает текущее окно чтения своих записей.
+     *
+     * @return окно в миллисекундах
+     */
+    public long getReadYourWritesMillis() {
+        return Math.max(readYourWritesMillis, 2 * lagMillis);
+    }
+
+    /**
+     * Возвращает статистику маршрутизации.
+     *
+     * @return статистика
+     */
+    public DataSourceRoutingStats getStats() {
+        return new DataSourceRoutingStats(replica != null, replicaUsable, lagMillis,
+                replicaReads.sum(), primaryReads.sum(), primaryWrites.sum(), primaryNonTransactional.sum());
+    }
+
+    /**
+     * Закрывает пулы соединений.
+     */
+    public void close() {
+        primary.close();
+        if (replica != null) {
+            replica.close();
+        }
+    }
+
+    /**
+     * Отмечает запись в текущем HTTP-запросе: до конца запроса и в течение окна
+     * чтения своих записей клиент читает с основного сервера.
+     */
+    private void wrote() {
+        RequestState request = REQUEST.get();
+        if (request == null || replica == null) {
+            return;
+        }
+        request.pinned = true;
+        if (!request.response.isCommitted()) {
+            long window = getReadYourWritesMillis();
+            Cookie cookie = new Cookie(COOKIE, String.valueOf(System.currentTimeMillis() + window));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (window + 999) / 1000));
+            request.response.addCookie(cookie);
+        }
+    }
+
+    /**
+     * Отслеживает изменение строк на соединении основного сервера.
+     * В транзакции запись отмечается после фиксации, вне транзакции - сразу.
+     */
+    private final class WriteTracker implements TransactionSynchronization {
+
+        /**
+         * Соединение работает в режиме автофиксации (вне транзакции)
+         */
+        private boolean autoCommit;
+
+        /**
+         * Изменены ли строки в текущей транзакции
+         */
+        private boolean written;
+
+        /**
+         * Отмечает запись, если зафиксированная транзакция изменила строки.
+         */
+        @Override
+        public void afterCommit() {
+            if (written) {
+                wrote();
+            }
+        }
+
+        /**
+         * Оборачивает соединение: создаваемые им запросы сообщают о числе измененных строк.
+         */
+        private Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("equals")) {
+                            return proxy == args[0];
+                        }
+                        if (method.getName().equals("hashCode")) {
+                            return System.identityHashCode(proxy);
+                        }
+                        Object result = invoke(connection, method, args);
+                        return result instanceof Statement statement ? wrap(statement, method.getReturnType()) : result;
+                    });
+        }
+
+        /**
+         * Оборачивает запрос (Statement, PreparedStatement или CallableStatement).
+         */
+        private Object wrap(Statement statement, Class<?> type) {
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        Object result = invoke(statement, method, args);
+                        if (method.getName().startsWith("execute") && changedRows(statement, result)) {
+                            written = true;
+                            if (autoCommit) {
+                                wrote();
+                            }
+                        }
+                        return result;
+                    });
+        }
+
+        /**
+         * Проверяет по результату выполнения запроса, изменил ли он строки.
+         * Для пакета с неизвестным числом строк ({@link Statement#SUCCESS_NO_INFO}) считается, что изменил.
+         */
+        private static boolean changedRows(Statement statement, Object result) throws SQLException {
+            if (result instanceof Integer rows) {
+                return rows > 0;
+            }
+            if (result instanceof Long rows) {
+                return rows > 0;
+            }
+            if (result instanceof int[] rows) {
+                return Arrays.stream(rows).anyMatch(r -> r != 0);
+            }
+            if (result instanceof long[] rows) {
+                return Arrays.stream(rows).anyMatch(r -> r != 0);
+            }
+            return Boolean.FALSE.equals(result) && statement.getUpdateCount() > 0;
+        }
+
+        /**
+         * Вызывает метод исходного объекта, пробрасывая его исключение.
+         */
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -6,9 +6,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
  * Конфигурация безопасности Spring Security для системы аренды автомобилей.
@@ -17,7 +16,9 @@ import org.springframework.security.web.SecurityFilterChain;
  * <ul>
  *     <li>Правила доступа к URL на основе ролей (ROLE_USER, ROLE_ADMIN)</li>
  *     <li>Форму входа и выхода из системы</li>
- *     <li>Кодирование паролей с использованием BCrypt</li>
+ *     <li>Ограничение частоты попыток входа по IP-адресу и email до проверки пароля</li>
+ *     <li>Кодирование паролей с использованием BCrypt в отдельном ограниченном пуле потоков
+ *     и перехеширование при входе после смены стоимости BCrypt</li>
  *     <li>Провайдер аутентификации на основе UserDetailsService</li>
  * </ul>
  * <p>
@@ -36,18 +37,41 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    /**
+     * Стоимость BCrypt для новых хешей; при изменении пароли перехешируются при следующем входе
+     */
+    static final int PASSWORD_STRENGTH = 10;
+
+    /**
+     * Количество потоков хеширования паролей: не больше половины ядер,
+     * чтобы всплеск входов не занимал процессор целиком
+     */
+    static final int PASSWORD_HASHING_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Наибольшая длина очереди хеширования; при переполнении вход сразу отклоняется
+     */
+    static final int PASSWORD_HASHING_QUEUE = 64;
+
     /**
      * Сервис для загрузки деталей пользователя при аутентификации
      */
     private final UserDetailsServiceImpl userDetailsService;
 
+    /**
+     * Ограничение частоты попыток входа
+     */
+    private final LoginThrottle loginThrottle;
+
     /**
      * Конструктор конфигурации безопасности.
      *
      * @param userDetailsService сервис для работы с пользовательскими данными
+     * @param loginThrottle      ограничение частоты попыток входа
      */
-    public SecurityConfig(UserDetailsServiceImpl userDetailsService) {
+    public SecurityConfig(UserDetailsServiceImpl userDetailsService, LoginThrottle loginThrottle) {
         this.userDetailsService = userDetailsService;
+        this.loginThrottle = loginThrottle;
     }
 
     /**
@@ -62,6 +86,8 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
+                // Попытки входа сверх лимита отклоняются до загрузки пользователя и BCrypt
+                .addFilterBefore(new LoginThrottleFilter(loginThrottle), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
                         // Публичные URL
                         .requestMatchers("/", "/register", "/login", "/css/**", "/js/**", "/images/**").permitAll()
@@ -90,19 +116,20 @@ public class SecurityConfig {
     }
 
     /**
-     * Создает кодировщик паролей BCrypt.
+     * Создает кодировщик паролей BCrypt с ограниченным пулом хеширования.
      * Используется для хеширования паролей при регистрации и проверки при входе.
      *
      * @return кодировщик паролей BCrypt
      */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(PASSWORD_STRENGTH, PASSWORD_HASHING_THREADS, PASSWORD_HASHING_QUEUE);
     }
 
     /**
      * Создает провайдер аутентификации на основе DAO.
      * Связывает UserDetailsService и PasswordEncoder для процесса аутентификации.
+     * После успешного входа хеш, созданный с другой стоимостью BCrypt, заменяется новым.
      *
      * @return настроенный провайдер аутентификации
      */
@@ -111,6 +138,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 }
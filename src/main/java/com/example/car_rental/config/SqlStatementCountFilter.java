@@ -0,0 +1,61 @@
+package com.example.car_rental.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Фильтр, подсчитывающий SQL-запросы на каждый HTTP-запрос.
+ * <p>
+ * Обнуляет {@link SqlStatementCounter} перед обработкой запроса и после ответа
+ * пишет в лог число выполненных запросов. Если запросов больше {@link #WARN_THRESHOLD},
+ * сообщение выводится с уровнем WARN: это обычно признак N+1 при загрузке связей.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    /**
+     * Логгер фильтра
+     */
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementCountFilter.class);
+
+    /**
+     * Число запросов, начиная с которого выводится предупреждение
+     */
+    static final long WARN_THRESHOLD = 20;
+
+    /**
+     * Обнуляет счетчик, выполняет запрос и записывает число SQL-запросов в лог.
+     *
+     * @param request     HTTP-запрос
+     * @param response    HTTP-ответ
+     * @param filterChain цепочка фильтров
+     * @throws ServletException при ошибке обработки запроса
+     * @throws IOException      при ошибке ввода-вывода
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long count = SqlStatementCounter.count();
+            if (count > WARN_THRESHOLD) {
+                log.warn("{} {}: {} SQL-запросов", request.getMethod(), request.getRequestURI(), count);
+            } else {
+                log.debug("{} {}: {} SQL-запросов", request.getMethod(), request.getRequestURI(), count);
+            }
+        }
+    }
+}
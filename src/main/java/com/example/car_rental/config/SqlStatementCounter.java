@@ -0,0 +1,122 @@
+package com.example.car_rental.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Счетчик SQL-запросов, выполняемых в текущем потоке.
+ * <p>
+ * Оборачивает источник данных приложения (см. {@link DataSourceConfig}) и увеличивает
+ * счетчик потока при каждом выполнении запроса ({@code execute*} у {@link Statement}
+ * и его наследников; пакет считается одним запросом). Поэтому учитываются все запросы
+ * на соединениях приложения: и Hibernate, и JdbcTemplate. {@link SqlStatementCountFilter}
+ * обнуляет счетчик в начале HTTP-запроса, поэтому значение равно числу запросов,
+ * выполненных при обработке запроса, включая отрисовку шаблона.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class SqlStatementCounter extends DelegatingDataSource {
+
+    /**
+     * Счетчик запросов текущего потока
+     */
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * Создает счетчик поверх источника данных.
+     *
+     * @param target исходный источник данных
+     */
+    public SqlStatementCounter(DataSource target) {
+        super(target);
+    }
+
+    /**
+     * Выдает соединение, запросы которого учитываются счетчиком.
+     *
+     * @return соединение
+     * @throws SQLException при ошибке получения соединения
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    /**
+     * Выдает соединение, запросы которого учитываются счетчиком.
+     *
+     * @param username пользователь
+     * @param password пароль
+     * @return соединение
+     * @throws SQLException при ошибке получения соединения
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    /**
+     * Обнуляет счетчик текущего потока.
+     */
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * Возвращает число запросов, выполненных в текущем потоке с момента обнуления.
+     *
+     * @return число SQL-запросов
+     */
+    public static long count() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * Оборачивает соединение: создаваемые им запросы учитываются при выполнении.
+     */
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    Object result = invoke(connection, method, args);
+                    return result instanceof Statement statement ? wrap(statement, method.getReturnType()) : result;
+                });
+    }
+
+    /**
+     * Оборачивает запрос (Statement, PreparedStatement или CallableStatement).
+     */
+    private static Object wrap(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        COUNT.get()[0]++;
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    /**
+     * Вызывает метод исходного объекта, пробрасывая его исключение.
+     */
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.car_rental.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничитель частоты попыток по ключу (IP-адрес, email) на основе корзины токенов.
+ * <p>
+ * У каждого ключа своя корзина емкостью {@link #capacity} токенов, которая равномерно
+ * наполняется за {@link #refillNanos}: можно сделать {@code capacity} попыток подряд,
+ * а затем не чаще, чем одну за {@code refillPeriod / capacity}. Состояние корзины
+ * меняется через compare-and-set без блокировок.
+ * <p>
+ * Корзины, наполнившиеся до конца, ничем не отличаются от новых и удаляются
+ * {@link #evictIdle()} по расписанию, а не в потоке запроса. Число ключей ограничено
+ * {@link #maxKeys}: пока места нет, попытка с новым ключом отклоняется. Иначе перебор
+ * новых ключей (например, email) заполнил бы таблицу и снял ограничение со всех
+ * неотслеживаемых ключей, в том числе с атакуемого.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class TokenBucketLimiter {
+
+    /**
+     * Состояние корзины: количество токенов на момент времени {@code updatedAt}.
+     */
+    private record State(double tokens, long updatedAt) {
+    }
+
+    /**
+     * Емкость корзины
+     */
+    private final int capacity;
+
+    /**
+     * Время полного наполнения корзины в наносекундах
+     */
+    private final long refillNanos;
+
+    /**
+     * Наибольшее количество отслеживаемых ключей
+     */
+    private final int maxKeys;
+
+    /**
+     * Источник времени в наносекундах
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Корзины по ключам
+     */
+    private final ConcurrentHashMap<String, AtomicReference<State>> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Количество отклоненных попыток
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Создает ограничитель с системными часами.
+     *
+     * @param capacity     емкость корзины (попыток подряд)
+     * @param refillPeriod время полного наполнения корзины
+     * @param unit         единица времени наполнения
+     * @param maxKeys      наибольшее количество отслеживаемых ключей
+     */
+    public TokenBucketLimiter(int capacity, long refillPeriod, TimeUnit unit, int maxKeys) {
+        this(capacity, refillPeriod, unit, maxKeys, System::nanoTime);
+    }
+
+    /**
+     * Создает ограничитель с заданным источником времени.
+     *
+     * @param capacity     емкость корзины (попыток подряд)
+     * @param refillPeriod время полного наполнения корзины
+     * @param unit         единица времени наполнения
+     * @param maxKeys      наибольшее количество отслеживаемых ключей
+     * @param clock        источник времени в наносекундах
+     */
+    TokenBucketLimiter(int capacity, long refillPeriod, TimeUnit unit, int maxKeys, LongSupplier clock) {
+        if (capacity < 1 || refillPeriod < 1) {
+            throw new IllegalArgumentException("Емкость и время наполнения корзины должны быть положительными");
+        }
+        this.capacity = capacity;
+        this.refillNanos = unit.toNanos(refillPeriod);
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * Забирает токен из корзины ключа.
+     *
+     * @param key ключ (null не ограничивается)
+     * @return true, если попытка разрешена; false, если лимит ключа исчерпан
+     * или ключ новый, а таблица ключей заполнена
+     */
+    public boolean tryAcquire(String key) {
+        if (key == null) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        AtomicReference<State> bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                rejected.increment();
+                return false;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicReference<>(new State(capacity, now)));
+        }
+        while (true) {
+            State current = bucket.get();
+            double tokens = refilled(current, now);
+            if (tokens < 1) {
+                rejected.increment();
+                return false;
+            }
+            if (bucket.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt())))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Удаляет корзины, наполнившиеся до конца (ключи без попыток не меньше времени наполнения).
+     *
+     * @return количество удаленных ключей
+     */
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (var entry : buckets.entrySet()) {
+            State state = entry.getValue().get();
+            if (refilled(state, now) >= capacity && buckets.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Возвращает количество отклоненных попыток.
+     *
+     * @return количество отклоненных попыток
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Возвращает количество отслеживаемых ключей.
+     *
+     * @return количество ключей
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Количество токенов в корзине на момент {@code now} с учетом наполнения.
+     */
+    private double refilled(State state, long now) {
+        long elapsed = Math.max(0, now - state.updatedAt());
+        return Math.min(capacity, state.tokens() + (double) elapsed * capacity / refillNanos);
+    }
+}
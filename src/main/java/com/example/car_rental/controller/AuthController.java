@@ -2,12 +2,16 @@ package com.example.car_rental.controller;
 
 import com.example.car_rental.model.User;
 import com.example.car_rental.service.UserService;
+import com.example.car_rental.service.UserUniqueField;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.Set;
 
 /**
  * Контроллер для аутентификации и регистрации пользователей.
@@ -134,16 +138,17 @@ public class AuthController {
 
         StringBuilder errorBuilder = new StringBuilder();
 
-        if (userService.getUserByEmail(user.getEmail()) != null) {
+        Set<UserUniqueField> conflicts = userService.findConflicts(user);
+        if (conflicts.contains(UserUniqueField.EMAIL)) {
             errorBuilder.append("Email уже используется. ");
         }
-        if (userService.existsByPhone(user.getPhone())) {
+        if (conflicts.contains(UserUniqueField.PHONE)) {
             errorBuilder.append("Телефон уже используется. ");
         }
-        if (userService.existsByDriverLicenseSeriesAndNumber(user.getDriverLicenseSeries(), user.getDriverLicenseNumber())) {
+        if (conflicts.contains(UserUniqueField.DRIVER_LICENSE)) {
             errorBuilder.append("Водительское удостоверение уже используется. ");
         }
-        if (userService.existsByPassportSeriesAndPassportNumber(user.getPassportSeries(), user.getPassportNumber())) {
+        if (conflicts.contains(UserUniqueField.PASSPORT)) {
             errorBuilder.append("Паспорт уже используется. ");
         }
 
@@ -153,7 +158,17 @@ public class AuthController {
         }
 
         user.setRole("ROLE_USER");
-        userService.saveUser(user);
+        try {
+            userService.saveUser(user);
+        } catch (AuthenticationServiceException e) {
+            // Пул хеширования паролей перегружен
+            model.addAttribute("error", e.getMessage());
+            return "auth/register";
+        } catch (DataIntegrityViolationException e) {
+            // Те же данные успели зарегистрировать одновременно: сработало ограничение уникальности
+            model.addAttribute("error", "Пользователь с такими данными уже зарегистрирован");
+            return "auth/register";
+        }
         return "redirect:/login?registered";
     }
 
@@ -166,6 +181,7 @@ public class AuthController {
      * @param error      параметр, указывающий на ошибку аутентификации
      * @param logout     параметр, указывающий на успешный выход из системы
      * @param registered параметр, указывающий на успешную регистрацию
+     * @param throttled  параметр, указывающий на превышение лимита попыток входа
      * @param model      модель для передачи сообщений в представление
      * @return имя шаблона auth/login.html
      */
@@ -173,10 +189,14 @@ public class AuthController {
     public String showLoginForm(@RequestParam(value = "error", required = false) String error,
                                 @RequestParam(value = "logout", required = false) String logout,
                                 @RequestParam(value = "registered", required = false) String registered,
+                                @RequestParam(value = "throttled", required = false) String throttled,
                                 Model model) {
         if (error != null) {
             model.addAttribute("error", "Неверное имя пользователя или пароль");
         }
+        if (throttled != null) {
+            model.addAttribute("throttled", "Слишком много попыток входа. Повторите попытку через несколько минут.");
+        }
         if (logout != null) {
             model.addAttribute("message", "Вы успешно вышли из системы");
         }
@@ -1,20 +1,24 @@
 package com.example.car_rental.controller;
 
-import com.example.car_rental.model.Car;
-import com.example.car_rental.model.Rental;
-import com.example.car_rental.model.User;
-import com.example.car_rental.repository.CarRepository;
-import com.example.car_rental.repository.RentalRepository;
+import com.example.car_rental.config.BoundedPasswordEncoder;
+import com.example.car_rental.config.LoginThrottle;
+import com.example.car_rental.config.ReplicaRoutingDataSource;
+import com.example.car_rental.live.DashboardHub;
 import com.example.car_rental.repository.UserRepository;
+import com.example.car_rental.service.CachedUser;
+import com.example.car_rental.service.DashboardStatsService;
+import com.example.car_rental.service.RentalService;
+import com.example.car_rental.service.RentalRollupService;
 import com.example.car_rental.service.UserService;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Главный контроллер приложения.
@@ -33,7 +37,11 @@ import java.util.stream.Collectors;
  *     <li>Общее количество пользователей</li>
  *     <li>Общий доход с оплаченных аренд</li>
  *     <li>Распределение автомобилей по статусам (для круговой диаграммы)</li>
+ *     <li>Выручка и загрузка автопарка по дням, неделям и месяцам</li>
  * </ul>
+ * Доход и количество автомобилей по статусам читаются из счетчиков
+ * {@link DashboardStatsService}, графики - из агрегатов {@link RentalRollupService},
+ * поэтому стоимость панели не зависит от объема данных.
  *
  * @author ИжДрайв
  * @version 1.0
@@ -47,34 +55,72 @@ public class MainController {
     private final UserService userService;
 
     /**
-     * Репозиторий для работы с автомобилями.
+     * Репозиторий для работы с пользователями.
      */
-    private final CarRepository carRepository;
+    private final UserRepository userRepository;
 
     /**
-     * Репозиторий для работы с пользователями.
+     * Счетчики панели администратора.
      */
-    private final UserRepository userRepository;
+    private final DashboardStatsService statsService;
+
+    /**
+     * Агрегаты выручки и загрузки автопарка.
+     */
+    private final RentalRollupService rollupService;
+
+    /**
+     * Кодировщик паролей (для статистики пула хеширования).
+     */
+    private final BoundedPasswordEncoder passwordEncoder;
+
+    /**
+     * Ограничение попыток входа (для статистики отклоненных попыток).
+     */
+    private final LoginThrottle loginThrottle;
 
     /**
-     * Репозиторий для работы с арендами.
+     * Маршрутизация запросов между основным сервером и репликой (для статистики).
      */
-    private final RentalRepository rentalRepository;
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    /**
+     * Сервис аренд (для количества действующих аренд).
+     */
+    private final RentalService rentalService;
+
+    /**
+     * Рассылка показателей панели администратора.
+     */
+    private final DashboardHub dashboardHub;
 
     /**
      * Конструктор главного контроллера.
      *
      * @param userService       сервис для работы с пользователями
-     * @param carRepository     репозиторий для работы с автомобилями
      * @param userRepository    репозиторий для работы с пользователями
-     * @param rentalRepository  репозиторий для работы с арендами
+     * @param statsService      счетчики панели администратора
+     * @param rollupService     агрегаты выручки и загрузки автопарка
+     * @param passwordEncoder   кодировщик паролей
+     * @param loginThrottle     ограничение попыток входа
+     * @param routingDataSource маршрутизация запросов между основным сервером и репликой
+     * @param rentalService     сервис аренд
+     * @param dashboardHub      рассылка показателей панели администратора
      */
-    public MainController(UserService userService, CarRepository carRepository,
-                          UserRepository userRepository, RentalRepository rentalRepository) {
+    public MainController(UserService userService, UserRepository userRepository,
+                          DashboardStatsService statsService, RentalRollupService rollupService,
+                          BoundedPasswordEncoder passwordEncoder, LoginThrottle loginThrottle,
+                          ReplicaRoutingDataSource routingDataSource, RentalService rentalService,
+                          DashboardHub dashboardHub) {
         this.userService = userService;
-        this.carRepository = carRepository;
         this.userRepository = userRepository;
-        this.rentalRepository = rentalRepository;
+        this.statsService = statsService;
+        this.rollupService = rollupService;
+        this.passwordEncoder = passwordEncoder;
+        this.loginThrottle = loginThrottle;
+        this.routingDataSource = routingDataSource;
+        this.rentalService = rentalService;
+        this.dashboardHub = dashboardHub;
     }
 
     /**
@@ -99,38 +145,52 @@ public class MainController {
                     .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
 
             if (isAdmin) {
-                // Статистика для админской панели
-                long totalCars = carRepository.count();
+                // Статистика для админской панели: один запрос к счетчикам
+                Map<String, Long> counters = statsService.getCounters();
+                Map<String, Long> statusCounts = DashboardStatsService.carStatusCounts(counters);
+                long totalCars = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+                long totalRevenue = DashboardStatsService.revenue(counters);
                 long totalUsers = userRepository.countByRole("ROLE_USER");
 
-                // Подсчёт доходов на основе оплаченных аренд
-                List<Rental> allRentals = rentalRepository.findAll();
-                long totalRevenue = allRentals.stream()
-                        .filter(r -> "PAID".equals(r.getStatus()))
-                        .mapToLong(r -> r.getTotalPrice() != null ? r.getTotalPrice() : 0)
-                        .sum();
-
-                // Подсчёт машин по статусам для круговой диаграммы
-                List<Car> allCars = carRepository.findAll();
-                Map<String, Long> statusCounts = allCars.stream()
-                        .collect(Collectors.groupingBy(
-                                car -> car.getStatus() != null ? car.getStatus() : "UNKNOWN",
-                                Collectors.counting()
-                        ));
-
                 model.addAttribute("totalCars", totalCars);
                 model.addAttribute("totalUsers", totalUsers);
                 model.addAttribute("totalRevenue", totalRevenue);
+                model.addAttribute("activeRentals", rentalService.countActiveRentals());
                 model.addAttribute("statusCounts", statusCounts);
+                model.addAttribute("userCacheStats", userService.getUserCacheStats());
+                model.addAttribute("hashingStats", passwordEncoder.getStats());
+                model.addAttribute("loginThrottleStats", loginThrottle.getStats());
+                model.addAttribute("routingStats", routingDataSource.getStats());
+
+                // Графики выручки и загрузки: последние 30 дней, 12 недель и 12 месяцев
+                LocalDate tomorrow = LocalDate.now().plusDays(1);
+                model.addAttribute("dailySeries", rollupService.getSeries(RentalRollupService.DAY,
+                        tomorrow.minusDays(30), tomorrow, null, null));
+                model.addAttribute("weeklySeries", rollupService.getSeries(RentalRollupService.WEEK,
+                        tomorrow.minusWeeks(12), tomorrow, null, null));
+                model.addAttribute("monthlySeries", rollupService.getSeries(RentalRollupService.MONTH,
+                        tomorrow.minusMonths(12), tomorrow, null, null));
 
                 return "admin/index";  // шаблон admin/index.html для админа
             } else {
                 // Получаем данные пользователя для отображения имени
-                User user = userService.getUserByEmail(authentication.getName());
+                CachedUser user = userService.getCachedUser(authentication.getName());
                 model.addAttribute("userName", user.getFirstName());
                 return "user/index";  // шаблон user/index.html для пользователя
             }
         }
         return "index"; // если не аутентифицирован, показываем лендинг
     }
+
+    /**
+     * Открывает поток показателей панели администратора (Server-Sent Events):
+     * количество автомобилей по статусам, выручка и действующие аренды.
+     * Кадры приходят не чаще раза в секунду и содержат только изменившиеся значения.
+     *
+     * @return поток событий
+     */
+    @GetMapping(path = "/admin/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboard() {
+        return dashboardHub.subscribe();
+    }
 }
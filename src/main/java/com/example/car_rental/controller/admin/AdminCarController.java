@@ -1,26 +1,48 @@
 package com.example.car_rental.controller.admin;
 
-import com.example.car_rental.model.Brand;
+import com.example.car_rental.index.CarOccupancyCalendar;
+import com.example.car_rental.index.CarOccupancyCalendar.Segment;
 import com.example.car_rental.model.Car;
+import com.example.car_rental.repository.KeysetPage;
 import com.example.car_rental.service.BrandService;
+import com.example.car_rental.service.CarBulkService;
+import com.example.car_rental.service.CarImportReport;
+import com.example.car_rental.service.CarImportRow;
+import com.example.car_rental.service.CarImportService;
 import com.example.car_rental.service.CarService;
 import com.example.car_rental.service.ModelService;
+import com.example.car_rental.service.RentalService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.Comparator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Контроллер администратора для управления автомобилями.
  * <p>
  * Предоставляет функционал для администраторов (ROLE_ADMIN):
  * <ul>
- *     <li>Просмотр списка всех автомобилей с многокритериальной фильтрацией и сортировкой</li>
+ *     <li>Просмотр списка всех автомобилей с многокритериальной фильтрацией, сортировкой
+ *     и курсорной пагинацией</li>
+ *     <li>Диаграмма занятости отобранных автомобилей на горизонт бронирования</li>
  *     <li>Добавление нового автомобиля</li>
+ *     <li>Массовый импорт автомобилей из CSV-файла или JSON</li>
+ *     <li>Массовые операции над отобранными фильтрами автомобилями: смена статуса,
+ *     изменение цены на процент, перенос в другой город</li>
  *     <li>Редактирование существующего автомобиля</li>
  *     <li>Удаление автомобиля (с проверкой на статус)</li>
  * </ul>
@@ -30,12 +52,12 @@ import java.util.stream.Collectors;
  *     <li>По марке</li>
  *     <li>По государственному номеру</li>
  *     <li>По городу</li>
- *     <li>По статусу (AVAILABLE, RENTED, RESERVED, MAINTENANCE)</li>
+ *     <li>По статусу (AVAILABLE, RENTED, MAINTENANCE)</li>
  * </ul>
  * <p>
  * Бизнес-правила при удалении:
  * <ul>
- *     <li>Автомобиль нельзя удалить, если он арендован (RENTED) или зарезервирован (RESERVED)</li>
+ *     <li>Автомобиль нельзя удалить, если он арендован (RENTED)</li>
  * </ul>
  *
  * @author ИжДрайв
@@ -46,6 +68,26 @@ import java.util.stream.Collectors;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminCarController {
 
+    /**
+     * Количество автомобилей на одной странице списка
+     */
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * Города расположения автомобилей для фильтра
+     */
+    private static final List<String> CITIES = List.of("Ижевск", "Воткинск", "Сарапул", "Глазов", "Можга");
+
+    /**
+     * Месяц на шкале диаграммы занятости.
+     *
+     * @param label  название месяца
+     * @param offset номер первого дня месяца на шкале
+     * @param length количество дней месяца на шкале
+     */
+    public record TimelineMonth(String label, int offset, int length) {
+    }
+
     /**
      * Сервис для работы с автомобилями.
      */
@@ -61,24 +103,48 @@ public class AdminCarController {
      */
     private final ModelService modelService;
 
+    /**
+     * Сервис массового импорта автомобилей.
+     */
+    private final CarImportService carImportService;
+
+    /**
+     * Сервис массовых операций над автомобилями.
+     */
+    private final CarBulkService carBulkService;
+
+    /**
+     * Календарь занятости автомобилей.
+     */
+    private final CarOccupancyCalendar occupancyCalendar;
+
     /**
      * Конструктор контроллера автомобилей администратора.
      *
-     * @param carService   сервис для работы с автомобилями
-     * @param brandService сервис для работы с марками
-     * @param modelService сервис для работы с моделями
+     * @param carService        сервис для работы с автомобилями
+     * @param brandService      сервис для работы с марками
+     * @param modelService      сервис для работы с моделями
+     * @param carImportService  сервис массового импорта
+     * @param carBulkService    сервис массовых операций
+     * @param occupancyCalendar календарь занятости автомобилей
      */
-    public AdminCarController(CarService carService, BrandService brandService, ModelService modelService) {
+    public AdminCarController(CarService carService, BrandService brandService, ModelService modelService,
+                              CarImportService carImportService, CarBulkService carBulkService,
+                              CarOccupancyCalendar occupancyCalendar) {
         this.carService = carService;
         this.brandService = brandService;
         this.modelService = modelService;
+        this.carImportService = carImportService;
+        this.carBulkService = carBulkService;
+        this.occupancyCalendar = occupancyCalendar;
     }
 
     /**
-     * Отображает список всех автомобилей с фильтрацией и сортировкой.
+     * Отображает страницу списка автомобилей с фильтрацией и сортировкой.
      * <p>
      * Поддерживает фильтрацию по марке, государственному номеру, городу и статусу.
-     * Сортировка доступна по модели и цене.
+     * Сортировка доступна по модели и цене. Фильтрация, сортировка и разбиение
+     * на страницы выполняются в базе данных; страницы переключаются курсорами.
      *
      * @param brandFilter  идентификатор марки для фильтрации (0 = все марки)
      * @param plate        государственный номер для фильтрации (поиск по подстроке)
@@ -86,6 +152,8 @@ public class AdminCarController {
      * @param statusFilter статус автомобиля для фильтрации
      * @param sortField    поле для сортировки (model или price)
      * @param sortDir      направление сортировки (asc/desc)
+     * @param after        курсор следующей страницы
+     * @param before       курсор предыдущей страницы
      * @param model        модель для передачи данных в представление
      * @return имя шаблона admin/cars/list
      */
@@ -97,25 +165,20 @@ public class AdminCarController {
             @RequestParam(required = false, defaultValue = "") String statusFilter,
             @RequestParam(required = false, defaultValue = "model") String sortField,
             @RequestParam(required = false, defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
             Model model) {
 
-        List<Car> cars = carService.getAllCars().stream()
-                .filter(car -> brandFilter == 0 || (car.getBrand() != null && car.getBrand().getId().equals(brandFilter)))
-                .filter(car -> plate == null || plate.isBlank() || (car.getLicensePlate() != null && car.getLicensePlate().toLowerCase().contains(plate.toLowerCase())))
-                .filter(car -> cityFilter == null || cityFilter.isBlank() || (car.getCity() != null && car.getCity().equals(cityFilter)))
-                .filter(car -> statusFilter == null || statusFilter.isBlank() || (car.getStatus() != null && car.getStatus().equals(statusFilter)))
-                .sorted(getComparator(sortField, sortDir))
-                .collect(Collectors.toList());
-
-        // Получаем список уникальных городов
-        List<String> cities = List.of("Ижевск", "Воткинск", "Сарапул", "Глазов", "Можга");
+        KeysetPage<Car> carPage = carService.getCarsForAdmin(brandFilter, plate, cityFilter, statusFilter,
+                sortField, sortDir, after, before, PAGE_SIZE);
 
         // Получаем список статусов
-        List<String> statuses = List.of("AVAILABLE", "RENTED", "RESERVED", "MAINTENANCE");
+        List<String> statuses = List.of("AVAILABLE", "RENTED", "MAINTENANCE");
 
-        model.addAttribute("cars", cars);
+        model.addAttribute("cars", carPage.getContent());
+        model.addAttribute("carPage", carPage);
         model.addAttribute("brands", brandService.getAllBrands());
-        model.addAttribute("cities", cities);
+        model.addAttribute("cities", CITIES);
         model.addAttribute("statuses", statuses);
         model.addAttribute("brandFilter", brandFilter);
         model.addAttribute("plate", plate);
@@ -127,19 +190,66 @@ public class AdminCarController {
     }
 
     /**
-     * Создает компаратор для сортировки автомобилей.
+     * Отображает диаграмму занятости автомобилей на горизонт бронирования.
+     * <p>
+     * Автомобили отбираются и переключаются по страницам так же, как в списке;
+     * отрезки аренд и первый свободный день берутся из календаря занятости в памяти,
+     * без запросов аренд к базе данных.
      *
-     * @param sortField поле для сортировки (model или price)
-     * @param sortDir   направление сортировки (asc/desc)
-     * @return компаратор для сортировки автомобилей
-     */
-    private Comparator<Car> getComparator(String sortField, String sortDir) {
-        Comparator<Car> comparator = switch (sortField) {
-            case "model" -> Comparator.comparing(car -> car.getModel().getName(), String.CASE_INSENSITIVE_ORDER);
-            case "price" -> Comparator.comparingInt(Car::getPricePerDay);
-            default -> Comparator.comparing(car -> car.getModel().getName(), String.CASE_INSENSITIVE_ORDER);
-        };
-        return "desc".equalsIgnoreCase(sortDir) ? comparator.reversed() : comparator;
+     * @param brandFilter  идентификатор марки для фильтрации (0 = все марки)
+     * @param plate        государственный номер для фильтрации (поиск по подстроке)
+     * @param cityFilter   город для фильтрации
+     * @param statusFilter статус автомобиля для фильтрации
+     * @param after        курсор следующей страницы
+     * @param before       курсор предыдущей страницы
+     * @param model        модель для передачи данных в представление
+     * @return имя шаблона admin/cars/timeline
+     */
+    @GetMapping("/timeline")
+    public String timeline(
+            @RequestParam(required = false, defaultValue = "0") Long brandFilter,
+            @RequestParam(required = false) String plate,
+            @RequestParam(required = false, defaultValue = "") String cityFilter,
+            @RequestParam(required = false, defaultValue = "") String statusFilter,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            Model model) {
+
+        KeysetPage<Car> carPage = carService.getCarsForAdmin(brandFilter, plate, cityFilter, statusFilter,
+                "model", "asc", after, before, PAGE_SIZE);
+        LocalDate today = LocalDate.now();
+        int days = RentalService.BOOKING_HORIZON_DAYS;
+
+        Map<Long, List<Segment>> segments = new LinkedHashMap<>();
+        List<Long> carIds = new ArrayList<>();
+        for (Car car : carPage.getContent()) {
+            segments.put(car.getId(), occupancyCalendar.timeline(car.getId(), today, days));
+            carIds.add(car.getId());
+        }
+
+        List<TimelineMonth> months = new ArrayList<>();
+        for (LocalDate month = today.withDayOfMonth(1); month.isBefore(today.plusDays(days)); month = month.plusMonths(1)) {
+            int offset = (int) Math.max(0, month.toEpochDay() - today.toEpochDay());
+            int end = (int) Math.min(days, month.plusMonths(1).toEpochDay() - today.toEpochDay());
+            months.add(new TimelineMonth(month.getMonth().getDisplayName(TextStyle.SHORT_STANDALONE,
+                    Locale.forLanguageTag("ru")), offset, end - offset));
+        }
+
+        model.addAttribute("cars", carPage.getContent());
+        model.addAttribute("carPage", carPage);
+        model.addAttribute("segments", segments);
+        model.addAttribute("firstFree", occupancyCalendar.firstFreeDays(carIds, today));
+        model.addAttribute("calendarReady", occupancyCalendar.isReady());
+        model.addAttribute("months", months);
+        model.addAttribute("today", today);
+        model.addAttribute("days", days);
+        model.addAttribute("brands", brandService.getAllBrands());
+        model.addAttribute("cities", CITIES);
+        model.addAttribute("brandFilter", brandFilter);
+        model.addAttribute("plate", plate);
+        model.addAttribute("cityFilter", cityFilter);
+        model.addAttribute("statusFilter", statusFilter);
+        return "admin/cars/timeline";
     }
 
     /**
@@ -180,7 +290,109 @@ public class AdminCarController {
         if (car.getModel() != null && car.getModel().getId() != null) {
             car.setModel(modelService.getModelById(car.getModel().getId()));
         }
-        carService.saveCar(car);
+        try {
+            carService.saveCar(car);
+        } catch (DataIntegrityViolationException e) {
+            // Госномер уже занят (уникальный индекс без учета регистра)
+            model.addAttribute("error", "Автомобиль с таким госномером уже есть");
+            model.addAttribute("brands", brandService.getAllBrands());
+            model.addAttribute("models", modelService.getAllModels());
+            return "admin/cars/add";
+        }
+        return "redirect:/admin/cars";
+    }
+
+    /**
+     * Отображает форму импорта автомобилей из CSV-файла.
+     *
+     * @return имя шаблона admin/cars/import
+     */
+    @GetMapping("/import")
+    public String showImportForm() {
+        return "admin/cars/import";
+    }
+
+    /**
+     * Импортирует автомобили из загруженного CSV-файла и показывает отчет.
+     * Строки с ошибками пропускаются и перечисляются в отчете.
+     *
+     * @param file  CSV-файл
+     * @param model модель для передачи отчета в представление
+     * @return имя шаблона admin/cars/import
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public String importCars(@RequestParam("file") MultipartFile file, Model model) {
+        if (file.isEmpty()) {
+            model.addAttribute("error", "Выберите файл для импорта");
+            return "admin/cars/import";
+        }
+        try (InputStream in = file.getInputStream()) {
+            model.addAttribute("report", carImportService.importCars(carImportService.parseCsv(in)));
+        } catch (IOException e) {
+            model.addAttribute("error", "Не удалось прочитать файл: " + e.getMessage());
+        }
+        return "admin/cars/import";
+    }
+
+    /**
+     * Импортирует автомобили из JSON-массива (для загрузки из внешних систем).
+     *
+     * @param rows строки импорта
+     * @return отчет об импорте
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public CarImportReport importCarsJson(@RequestBody List<CarImportRow> rows) {
+        return carImportService.importCars(rows);
+    }
+
+    /**
+     * Применяет массовую операцию ко всем автомобилям, отобранным фильтрами списка.
+     * <p>
+     * Операция выполняется одним запросом UPDATE; количество измененных автомобилей
+     * показывается в сообщении на странице списка.
+     *
+     * @param brandFilter        идентификатор марки для фильтрации (0 = все марки)
+     * @param plate              государственный номер для фильтрации (поиск по подстроке)
+     * @param cityFilter         город для фильтрации
+     * @param statusFilter       статус автомобиля для фильтрации
+     * @param action             операция: status, reprice или city
+     * @param newStatus          новый статус (для операции status)
+     * @param percent            изменение цены в процентах (для операции reprice)
+     * @param newCity            новый город (для операции city)
+     * @param redirectAttributes атрибуты для передачи фильтров и flash-сообщений
+     * @return перенаправление на список автомобилей с теми же фильтрами
+     */
+    @PostMapping("/bulk")
+    public String bulkUpdate(@RequestParam(required = false, defaultValue = "0") Long brandFilter,
+                             @RequestParam(required = false) String plate,
+                             @RequestParam(required = false, defaultValue = "") String cityFilter,
+                             @RequestParam(required = false, defaultValue = "") String statusFilter,
+                             @RequestParam String action,
+                             @RequestParam(required = false) String newStatus,
+                             @RequestParam(required = false) Integer percent,
+                             @RequestParam(required = false) String newCity,
+                             RedirectAttributes redirectAttributes) {
+        redirectAttributes.addAttribute("brandFilter", brandFilter);
+        redirectAttributes.addAttribute("plate", plate);
+        redirectAttributes.addAttribute("cityFilter", cityFilter);
+        redirectAttributes.addAttribute("statusFilter", statusFilter);
+        try {
+            int updated = switch (action) {
+                case "status" -> carBulkService.changeStatus(brandFilter, plate, cityFilter, statusFilter, newStatus);
+                case "reprice" -> {
+                    if (percent == null) {
+                        throw new IllegalArgumentException("Не указано изменение цены");
+                    }
+                    yield carBulkService.reprice(brandFilter, plate, cityFilter, statusFilter, percent);
+                }
+                case "city" -> carBulkService.moveToCity(brandFilter, plate, cityFilter, statusFilter, newCity);
+                default -> throw new IllegalArgumentException("Неизвестная операция: " + action);
+            };
+            redirectAttributes.addFlashAttribute("success", "Изменено автомобилей: " + updated);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
         return "redirect:/admin/cars";
     }
 
@@ -227,7 +439,15 @@ public class AdminCarController {
         if (car.getModel() != null && car.getModel().getId() != null) {
             car.setModel(modelService.getModelById(car.getModel().getId()));
         }
-        carService.saveCar(car);
+        try {
+            carService.saveCar(car);
+        } catch (DataIntegrityViolationException e) {
+            // Госномер уже занят (уникальный индекс без учета регистра)
+            model.addAttribute("error", "Автомобиль с таким госномером уже есть");
+            model.addAttribute("brands", brandService.getAllBrands());
+            model.addAttribute("models", modelService.getAllModels());
+            return "admin/cars/edit";
+        }
         return "redirect:/admin/cars";
     }
 
@@ -235,7 +455,7 @@ public class AdminCarController {
      * Удаляет автомобиль.
      * <p>
      * Проверяет статус автомобиля перед удалением.
-     * Автомобили со статусом RENTED или RESERVED не могут быть удалены.
+     * Автомобили со статусом RENTED не могут быть удалены.
      *
      * @param id    идентификатор удаляемого автомобиля
      * @param model модель для передачи данных в представление
@@ -244,8 +464,8 @@ public class AdminCarController {
     @PostMapping("/delete/{id}")
     public String deleteCar(@PathVariable Long id, Model model) {
         Car car = carService.getCarById(id);
-        if (car != null && ("RENTED".equals(car.getStatus()) || "RESERVED".equals(car.getStatus()))) {
-            // Нельзя удалить автомобиль, который занят или зарезервирован
+        if (car != null && "RENTED".equals(car.getStatus())) {
+            // Нельзя удалить автомобиль, который занят
             return "redirect:/admin/cars";
         }
         carService.deleteCar(id);
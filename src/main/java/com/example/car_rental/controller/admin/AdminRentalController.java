@@ -1,23 +1,31 @@
 package com.example.car_rental.controller.admin;
 
 import com.example.car_rental.model.Rental;
+import com.example.car_rental.repository.KeysetPage;
+import com.example.car_rental.service.RentalExportService;
 import com.example.car_rental.service.RentalService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 
 /**
  * Контроллер администратора для управления арендами.
  * <p>
  * Предоставляет функционал для администраторов (ROLE_ADMIN):
  * <ul>
- *     <li>Просмотр списка всех аренд с многокритериальной фильтрацией и сортировкой</li>
+ *     <li>Просмотр списка всех аренд с многокритериальной фильтрацией, сортировкой
+ *     и курсорной пагинацией</li>
  *     <li>Отмена аренды</li>
+ *     <li>Выгрузка истории аренд в CSV или JSON с теми же фильтрами</li>
  * </ul>
  * <p>
  * Поддерживаемые фильтры:
@@ -45,30 +53,46 @@ import java.util.stream.Collectors;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminRentalController {
 
+    /**
+     * Количество аренд на одной странице списка
+     */
+    private static final int PAGE_SIZE = 50;
+
     /**
      * Сервис для работы с арендами.
      */
     private final RentalService rentalService;
 
+    /**
+     * Сервис выгрузки аренд.
+     */
+    private final RentalExportService rentalExportService;
+
     /**
      * Конструктор контроллера аренд администратора.
      *
-     * @param rentalService сервис для работы с арендами
+     * @param rentalService       сервис для работы с арендами
+     * @param rentalExportService сервис выгрузки аренд
      */
-    public AdminRentalController(RentalService rentalService) {
+    public AdminRentalController(RentalService rentalService, RentalExportService rentalExportService) {
         this.rentalService = rentalService;
+        this.rentalExportService = rentalExportService;
     }
 
     /**
-     * Отображает список всех аренд с фильтрацией и сортировкой.
+     * Отображает страницу списка аренд с фильтрацией и сортировкой.
      * <p>
      * По умолчанию сортирует по дате создания в порядке убывания (новые первыми).
+     * Фильтрация, сортировка и разбиение на страницы выполняются в базе данных;
+     * страницы переключаются курсорами.
      *
      * @param plate        государственный номер автомобиля для фильтрации
      * @param email        email клиента для фильтрации
      * @param statusFilter статус аренды для фильтрации
      * @param sortField    поле для сортировки (brand, model, email, totalPrice, startDate, createdAt)
      * @param sortDir      направление сортировки (asc/desc)
+     * @param after        курсор следующей страницы
+     * @param before       курсор предыдущей страницы
      * @param model        модель для передачи данных в представление
      * @return имя шаблона admin/rentals/list
      */
@@ -79,21 +103,15 @@ public class AdminRentalController {
             @RequestParam(required = false, defaultValue = "") String statusFilter,
             @RequestParam(required = false, defaultValue = "createdAt") String sortField,
             @RequestParam(required = false, defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
             Model model) {
 
-        List<Rental> rentals = rentalService.getAllRentals().stream()
-                .filter(rental -> plate == null || plate.isBlank() ||
-                        (rental.getCar() != null && rental.getCar().getLicensePlate() != null &&
-                         rental.getCar().getLicensePlate().toLowerCase().contains(plate.toLowerCase())))
-                .filter(rental -> email == null || email.isBlank() ||
-                        (rental.getClient() != null && rental.getClient().getEmail() != null &&
-                         rental.getClient().getEmail().toLowerCase().contains(email.toLowerCase())))
-                .filter(rental -> statusFilter == null || statusFilter.isBlank() ||
-                        rental.getStatus().equals(statusFilter))
-                .sorted(getComparator(sortField, sortDir))
-                .collect(Collectors.toList());
+        KeysetPage<Rental> rentalPage = rentalService.getRentalsForAdmin(plate, email, statusFilter,
+                sortField, sortDir, after, before, PAGE_SIZE);
 
-        model.addAttribute("rentals", rentals);
+        model.addAttribute("rentals", rentalPage.getContent());
+        model.addAttribute("rentalPage", rentalPage);
         model.addAttribute("plate", plate);
         model.addAttribute("email", email);
         model.addAttribute("statusFilter", statusFilter);
@@ -104,23 +122,37 @@ public class AdminRentalController {
     }
 
     /**
-     * Создает компаратор для сортировки аренд.
+     * Выгружает аренды, удовлетворяющие фильтрам списка, в CSV или JSON.
+     * <p>
+     * Ответ формируется потоково в отдельном потоке обработки запроса: строки
+     * записываются клиенту по мере чтения из базы данных и не накапливаются в памяти.
      *
-     * @param sortField поле для сортировки
-     * @param sortDir   направление сортировки (asc/desc)
-     * @return компаратор для сортировки аренд
+     * @param format       формат выгрузки (csv или json)
+     * @param plate        государственный номер автомобиля для фильтрации
+     * @param email        email клиента для фильтрации
+     * @param statusFilter статус аренды для фильтрации
+     * @return потоковый ответ с файлом выгрузки
      */
-    private Comparator<Rental> getComparator(String sortField, String sortDir) {
-        Comparator<Rental> comparator = switch (sortField) {
-            case "brand" -> Comparator.comparing(r -> r.getCar().getBrand().getName(), String.CASE_INSENSITIVE_ORDER);
-            case "model" -> Comparator.comparing(r -> r.getCar().getModel().getName(), String.CASE_INSENSITIVE_ORDER);
-            case "email" -> Comparator.comparing(r -> r.getClient().getEmail(), String.CASE_INSENSITIVE_ORDER);
-            case "totalPrice" -> Comparator.comparingInt(Rental::getTotalPrice);
-            case "startDate" -> Comparator.comparing(Rental::getStartDate);
-            case "createdAt" -> Comparator.comparing(Rental::getCreatedAt);
-            default -> Comparator.comparing(Rental::getCreatedAt);
-        };
-        return "desc".equalsIgnoreCase(sortDir) ? comparator.reversed() : comparator;
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRentals(
+            @RequestParam(required = false, defaultValue = RentalExportService.CSV) String format,
+            @RequestParam(required = false, defaultValue = "") String plate,
+            @RequestParam(required = false, defaultValue = "") String email,
+            @RequestParam(required = false, defaultValue = "") String statusFilter) {
+        boolean json = RentalExportService.JSON.equals(format);
+        String fileName = "rentals-" + LocalDate.now() + (json ? ".json" : ".csv");
+        MediaType contentType = json
+                ? MediaType.APPLICATION_JSON
+                : new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+        StreamingResponseBody body = out ->
+                rentalExportService.export(json ? RentalExportService.JSON : RentalExportService.CSV,
+                        plate, email, statusFilter, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
     }
 
     /**
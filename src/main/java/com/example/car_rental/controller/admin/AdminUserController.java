@@ -2,13 +2,12 @@ package com.example.car_rental.controller.admin;
 
 import com.example.car_rental.model.User;
 import com.example.car_rental.service.UserService;
+import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * Контроллер администратора для управления пользователями.
  * <p>
@@ -23,7 +22,10 @@ import java.util.List;
  * <ul>
  *     <li>По email (частичное совпадение)</li>
  *     <li>По роли (ROLE_USER, ROLE_ADMIN)</li>
+ *     <li>По ФИО (частичное совпадение)</li>
+ *     <li>По телефону (частичное совпадение цифр)</li>
  * </ul>
+ * Список выводится постранично по {@link #PAGE_SIZE} пользователей.
  *
  * @author ИжДрайв
  * @version 1.0
@@ -38,6 +40,11 @@ public class AdminUserController {
      */
     private final UserService userService;
 
+    /**
+     * Количество пользователей на странице списка
+     */
+    private static final int PAGE_SIZE = 50;
+
     /**
      * Конструктор контроллера пользователей администратора.
      *
@@ -48,10 +55,13 @@ public class AdminUserController {
     }
 
     /**
-     * Отображает список всех пользователей с фильтрацией.
+     * Отображает страницу списка пользователей с фильтрацией.
      *
      * @param email email для фильтрации (опционально)
      * @param role  роль для фильтрации (опционально)
+     * @param name  ФИО для фильтрации (опционально)
+     * @param phone телефон для фильтрации (опционально)
+     * @param page  номер страницы (с 0)
      * @param model модель для передачи данных в представление
      * @return имя шаблона admin/users/list
      */
@@ -59,12 +69,18 @@ public class AdminUserController {
     public String listUsers(
             @RequestParam(required = false) String email,
             @RequestParam(required = false) String role,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String phone,
+            @RequestParam(defaultValue = "0") int page,
             Model model) {
 
-        List<User> users = userService.getUsersFiltered(email, role);
-        model.addAttribute("users", users);
+        Page<User> userPage = userService.getUsersFiltered(email, role, name, phone, page, PAGE_SIZE);
+        model.addAttribute("users", userPage.getContent());
+        model.addAttribute("userPage", userPage);
         model.addAttribute("email", email);
         model.addAttribute("role", role);
+        model.addAttribute("name", name);
+        model.addAttribute("phone", phone);
         return "admin/users/list";
     }
 
@@ -1,9 +1,16 @@
 package com.example.car_rental.controller.user;
 
-import com.example.car_rental.model.Brand;
+import com.example.car_rental.live.CarStatusFilter;
+import com.example.car_rental.live.CarStatusHub;
 import com.example.car_rental.model.Car;
 import com.example.car_rental.service.BrandService;
+import com.example.car_rental.service.CarFacetService;
 import com.example.car_rental.service.CarService;
+import com.example.car_rental.service.CatalogFacets;
+import com.example.car_rental.service.RentalService;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
@@ -11,10 +18,10 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Контроллер для просмотра автомобилей пользователем.
@@ -29,6 +36,7 @@ import java.util.stream.Collectors;
  *     <li>По цвету</li>
  *     <li>По городу расположения</li>
  *     <li>По диапазону цены (минимальная и максимальная цена за день)</li>
+ *     <li>По периоду аренды (автомобиль свободен с даты начала до даты окончания)</li>
  * </ul>
  * <p>
  * Поддерживаемая сортировка:
@@ -47,6 +55,11 @@ import java.util.stream.Collectors;
 @RequestMapping("/user/cars")
 public class UserCarController {
 
+    /**
+     * Количество автомобилей на одной странице каталога.
+     */
+    private static final int PAGE_SIZE = 12;
+
     /**
      * Сервис для работы с автомобилями.
      */
@@ -57,15 +70,30 @@ public class UserCarController {
      */
     private final BrandService brandService;
 
+    /**
+     * Сервис построения значений фильтров каталога.
+     */
+    private final CarFacetService carFacetService;
+
+    /**
+     * Рассылка смены статусов автомобилей.
+     */
+    private final CarStatusHub carStatusHub;
+
     /**
      * Конструктор контроллера автомобилей пользователя.
      *
-     * @param carService   сервис для работы с автомобилями
-     * @param brandService сервис для работы с марками
+     * @param carService      сервис для работы с автомобилями
+     * @param brandService    сервис для работы с марками
+     * @param carFacetService сервис построения значений фильтров каталога
+     * @param carStatusHub    рассылка смены статусов автомобилей
      */
-    public UserCarController(CarService carService, BrandService brandService) {
+    public UserCarController(CarService carService, BrandService brandService, CarFacetService carFacetService,
+                             CarStatusHub carStatusHub) {
         this.carService = carService;
         this.brandService = brandService;
+        this.carFacetService = carFacetService;
+        this.carStatusHub = carStatusHub;
     }
 
     /**
@@ -73,7 +101,10 @@ public class UserCarController {
      * <p>
      * Автомобили со статусом MAINTENANCE скрыты от пользователей.
      * Поддерживается фильтрация по марке, году, цвету, городу и диапазону цен.
+     * Если задан период аренды, показываются автомобили, свободные на все дни периода,
+     * в том числе сданные сейчас, но возвращаемые до его начала.
      * Доступна сортировка по цене (возрастание/убывание).
+     * Выборка выполняется постранично по {@value #PAGE_SIZE} автомобилей.
      *
      * @param sortOrder порядок сортировки (default, priceAsc, priceDesc)
      * @param brandId   идентификатор марки для фильтрации
@@ -82,6 +113,9 @@ public class UserCarController {
      * @param city      город расположения для фильтрации
      * @param minPrice  минимальная цена за день в рублях
      * @param maxPrice  максимальная цена за день в рублях
+     * @param from      дата начала периода аренды
+     * @param to        дата окончания периода аренды
+     * @param page      номер страницы каталога (с нуля)
      * @param model     модель для передачи данных в представление
      * @param user      аутентифицированный пользователь
      * @return имя шаблона user/cars/list
@@ -95,121 +129,42 @@ public class UserCarController {
             @RequestParam(name = "city", required = false) String city,
             @RequestParam(name = "minPrice", required = false) Integer minPrice,
             @RequestParam(name = "maxPrice", required = false) Integer maxPrice,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "page", required = false, defaultValue = "0") int page,
             Model model,
             @AuthenticationPrincipal UserDetails user) {
 
-        // Получаем все автомобили, кроме тех, что на обслуживании
-        List<Car> cars = carService.getAvailableCars().stream()
-                .filter(car -> !"MAINTENANCE".equals(car.getStatus()))
-                .collect(Collectors.toList());
-
-        // Фильтрация по бренду
-        if (brandId != null && brandId != 0) {
-            cars = cars.stream()
-                    .filter(car -> car.getBrand() != null && brandId.equals(car.getBrand().getId()))
-                    .collect(Collectors.toList());
+        // Период учитывается, только если обе даты заданы и допустимы для бронирования
+        if (from != null || to != null) {
+            String periodError = validatePeriod(from, to);
+            if (periodError != null) {
+                model.addAttribute("periodError", periodError);
+                from = null;
+                to = null;
+            }
         }
 
-        // Фильтрация по году
-        if (year != null && year != 0) {
-            cars = cars.stream()
-                    .filter(car -> year.equals(car.getYearOfManufacture()))
-                    .collect(Collectors.toList());
-        }
+        // Автомобили, занятые на период, - один запрос на страницу для поиска и фасетов
+        Set<Long> busy = carService.findBusyCarIds(from, to);
 
-        // Фильтрация по цвету
-        if (color != null && !color.isBlank()) {
-            cars = cars.stream()
-                    .filter(car -> color.equalsIgnoreCase(car.getColor()))
-                    .collect(Collectors.toList());
-        }
+        // Фильтрация, сортировка и постраничный вывод выполняются в базе данных
+        Page<Car> carPage = carService.searchAvailableCars(brandId, year, color, city,
+                minPrice, maxPrice, from, to, busy, sortOrder, page, PAGE_SIZE);
 
-        // Фильтрация по городу
-        if (city != null && !city.isBlank()) {
-            cars = cars.stream()
-                    .filter(car -> city.equalsIgnoreCase(car.getCity()))
-                    .collect(Collectors.toList());
-        }
-
-        // Фильтрация по цене (минимальная) - конвертируем рубли в копейки
-        if (minPrice != null && minPrice > 0) {
-            int minPriceInCents = minPrice * 100;
-            cars = cars.stream()
-                    .filter(car -> car.getPricePerDay() != null && car.getPricePerDay() >= minPriceInCents)
-                    .collect(Collectors.toList());
-        }
-
-        // Фильтрация по цене (максимальная) - конвертируем рубли в копейки
-        if (maxPrice != null && maxPrice > 0) {
-            int maxPriceInCents = maxPrice * 100;
-            cars = cars.stream()
-                    .filter(car -> car.getPricePerDay() != null && car.getPricePerDay() <= maxPriceInCents)
-                    .collect(Collectors.toList());
-        }
-
-        // Сортировка
-        if ("priceAsc".equals(sortOrder)) {
-            cars.sort((c1, c2) -> {
-                if (c1.getPricePerDay() == null) return 1;
-                if (c2.getPricePerDay() == null) return -1;
-                return c1.getPricePerDay().compareTo(c2.getPricePerDay());
-            });
-        } else if ("priceDesc".equals(sortOrder)) {
-            cars.sort((c1, c2) -> {
-                if (c1.getPricePerDay() == null) return 1;
-                if (c2.getPricePerDay() == null) return -1;
-                return c2.getPricePerDay().compareTo(c1.getPricePerDay());
-            });
-        }
+        // Значения фильтров с количеством автомобилей и диапазон цен - одним агрегирующим запросом
+        CatalogFacets facets = carFacetService.getAvailableFacets(brandId, year, color, city,
+                minPrice, maxPrice, busy);
+        Integer minPriceAvailable = facets.getMinPrice() != null ? facets.getMinPrice() / 100 : 0; // копейки в рубли
+        Integer maxPriceAvailable = facets.getMaxPrice() != null ? facets.getMaxPrice() / 100 : 10000;
 
-        // Получаем бренды только из отфильтрованных автомобилей
-        Set<Brand> brands = cars.stream()
-                .map(Car::getBrand)
-                .filter(b -> b != null)
-                .collect(Collectors.toSet());
-
-        // Уникальные годы из отфильтрованных авто
-        List<Integer> years = cars.stream()
-                .map(Car::getYearOfManufacture)
-                .filter(y -> y != null)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
-
-        // Уникальные цвета из отфильтрованных авто
-        Set<String> colors = cars.stream()
-                .map(Car::getColor)
-                .filter(c -> c != null && !c.isBlank())
-                .collect(Collectors.toSet());
-
-        // Уникальные города из отфильтрованных авто
-        Set<String> cities = cars.stream()
-                .map(Car::getCity)
-                .filter(c -> c != null && !c.isBlank())
-                .collect(Collectors.toSet());
-
-        // Вычисляем минимальную и максимальную цену из всех доступных авто (в рублях)
-        List<Car> allCars = carService.getAvailableCars();
-        Integer minPriceAvailable = allCars.stream()
-                .map(Car::getPricePerDay)
-                .filter(p -> p != null && p > 0)
-                .min(Integer::compareTo)
-                .map(p -> p / 100) // Конвертируем копейки в рубли
-                .orElse(0);
-
-        Integer maxPriceAvailable = allCars.stream()
-                .map(Car::getPricePerDay)
-                .filter(p -> p != null && p > 0)
-                .max(Integer::compareTo)
-                .map(p -> p / 100) // Конвертируем копейки в рубли
-                .orElse(10000);
-
-        model.addAttribute("cars", cars);
+        model.addAttribute("cars", carPage.getContent());
+        model.addAttribute("carPage", carPage);
         model.addAttribute("sortOrder", sortOrder);
-        model.addAttribute("brands", brands);
-        model.addAttribute("years", years);
-        model.addAttribute("colors", colors);
-        model.addAttribute("cities", cities);
+        model.addAttribute("brands", facets.getBrands());
+        model.addAttribute("years", facets.getYears());
+        model.addAttribute("colors", facets.getColors());
+        model.addAttribute("cities", facets.getCities());
         model.addAttribute("minPriceAvailable", minPriceAvailable);
         model.addAttribute("maxPriceAvailable", maxPriceAvailable);
 
@@ -219,7 +174,62 @@ public class UserCarController {
         model.addAttribute("selectedCity", city);
         model.addAttribute("selectedMinPrice", minPrice);
         model.addAttribute("selectedMaxPrice", maxPrice);
+        model.addAttribute("selectedFrom", from);
+        model.addAttribute("selectedTo", to);
+        model.addAttribute("minFrom", LocalDate.now().plusDays(1));
+        model.addAttribute("maxFrom", LocalDate.now().plusDays(RentalService.BOOKING_HORIZON_DAYS));
 
         return "user/cars/list";
     }
+
+    /**
+     * Открывает поток смены статусов автомобилей (Server-Sent Events) для фильтра каталога.
+     * Страница каталога обновляет по нему карточки автомобилей без перезагрузки.
+     * Если выбран период аренды, поток также сообщает, что автомобиль заняли или освободили
+     * на этот период.
+     *
+     * @param brandId  идентификатор марки для фильтрации
+     * @param year     год выпуска для фильтрации
+     * @param color    цвет автомобиля для фильтрации
+     * @param city     город расположения для фильтрации
+     * @param minPrice минимальная цена за день в рублях
+     * @param maxPrice максимальная цена за день в рублях
+     * @param from     дата начала выбранного периода аренды
+     * @param to       дата окончания выбранного периода аренды
+     * @return поток событий
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatuses(
+            @RequestParam(name = "brandId", required = false) Long brandId,
+            @RequestParam(name = "year", required = false) Integer year,
+            @RequestParam(name = "color", required = false) String color,
+            @RequestParam(name = "city", required = false) String city,
+            @RequestParam(name = "minPrice", required = false) Integer minPrice,
+            @RequestParam(name = "maxPrice", required = false) Integer maxPrice,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return carStatusHub.subscribe(new CarStatusFilter(brandId, year, color, city, minPrice, maxPrice, from, to));
+    }
+
+    /**
+     * Проверяет период аренды по тем же правилам, что и форма создания аренды.
+     *
+     * @param from дата начала периода
+     * @param to   дата окончания периода
+     * @return сообщение об ошибке или null, если период допустим
+     */
+    private String validatePeriod(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        if (from == null || to == null) {
+            return "Укажите обе даты периода аренды.";
+        }
+        if (from.isBefore(today.plusDays(1)) || from.isAfter(today.plusDays(RentalService.BOOKING_HORIZON_DAYS))) {
+            return "Дата начала аренды должна быть не раньше завтрашнего дня и не позже чем через "
+                    + RentalService.BOOKING_HORIZON_DAYS + " дней.";
+        }
+        if (!to.isAfter(from)) {
+            return "Дата окончания аренды должна быть позже даты начала.";
+        }
+        return null;
+    }
 }
@@ -1,7 +1,9 @@
 package com.example.car_rental.controller.user;
 
 import com.example.car_rental.model.Rental;
+import com.example.car_rental.service.CachedUser;
 import com.example.car_rental.service.RentalService;
+import com.example.car_rental.service.UserService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -42,13 +44,20 @@ public class UserPaymentController {
      */
     private final RentalService rentalService;
 
+    /**
+     * Сервис для работы с пользователями.
+     */
+    private final UserService userService;
+
     /**
      * Конструктор контроллера платежей пользователя.
      *
      * @param rentalService сервис для работы с арендами
+     * @param userService   сервис для работы с пользователями
      */
-    public UserPaymentController(RentalService rentalService) {
+    public UserPaymentController(RentalService rentalService, UserService userService) {
         this.rentalService = rentalService;
+        this.userService = userService;
     }
 
     /**
@@ -71,7 +80,7 @@ public class UserPaymentController {
         }
 
         // Проверяем что аренда принадлежит текущему пользователю
-        if (!rental.getClient().getEmail().equals(userDetails.getUsername())) {
+        if (!isOwner(rental, userDetails)) {
             return "redirect:/user/rentals/my";
         }
 
@@ -110,7 +119,7 @@ public class UserPaymentController {
 
         Rental rental = rentalService.getRentalById(rentalId);
 
-        if (rental == null || !rental.getClient().getEmail().equals(userDetails.getUsername())) {
+        if (rental == null || !isOwner(rental, userDetails)) {
             return "redirect:/user/rentals/my";
         }
 
@@ -122,8 +131,29 @@ public class UserPaymentController {
         }
 
         // Подтверждаем оплату
-        rentalService.confirmPayment(rentalId);
+        try {
+            rentalService.confirmPayment(rentalId);
+        } catch (IllegalStateException e) {
+            // Аренда успела истечь или была отменена
+            model.addAttribute("error", e.getMessage());
+            model.addAttribute("rental", rental);
+            return "user/payments/process";
+        }
 
         return "redirect:/user/rentals/my?paymentSuccess=true";
     }
+
+    /**
+     * Проверяет, что аренда принадлежит текущему пользователю.
+     * ID клиента берется из ссылки аренды без загрузки клиента,
+     * ID текущего пользователя - из кэша пользователей.
+     *
+     * @param rental      аренда
+     * @param userDetails данные аутентифицированного пользователя
+     * @return true, если аренда принадлежит текущему пользователю
+     */
+    private boolean isOwner(Rental rental, UserDetails userDetails) {
+        CachedUser user = userService.getCachedUser(userDetails.getUsername());
+        return user != null && rental.getClient() != null && user.getId().equals(rental.getClient().getId());
+    }
 }
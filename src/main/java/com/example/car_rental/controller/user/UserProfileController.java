@@ -1,7 +1,6 @@
 package com.example.car_rental.controller.user;
 
 import com.example.car_rental.model.User;
-import com.example.car_rental.repository.UserRepository;
 import com.example.car_rental.service.UserService;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -43,20 +42,13 @@ public class UserProfileController {
      */
     private final UserService userService;
 
-    /**
-     * Репозиторий для работы с пользователями.
-     */
-    private final UserRepository userRepository;
-
     /**
      * Конструктор контроллера профиля пользователя.
      *
-     * @param userService    сервис для работы с пользователями
-     * @param userRepository репозиторий для работы с пользователями
+     * @param userService сервис для работы с пользователями
      */
-    public UserProfileController(UserService userService, UserRepository userRepository) {
+    public UserProfileController(UserService userService) {
         this.userService = userService;
-        this.userRepository = userRepository;
     }
 
     /**
@@ -108,8 +100,8 @@ public class UserProfileController {
         // Email, дата рождения, пароль и роль не обновляются
 
         try {
-            // Сохраняем напрямую через репозиторий, чтобы не затрагивать пароль
-            userRepository.save(existingUser);
+            // Сохраняем без повторного хеширования пароля; запись кэша пользователя сбрасывается
+            userService.saveProfile(existingUser);
             redirectAttributes.addFlashAttribute("successMessage", "Профиль успешно обновлен");
             return "redirect:/user/profile/my";
         } catch (DataIntegrityViolationException e) {
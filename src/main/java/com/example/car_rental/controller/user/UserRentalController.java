@@ -4,12 +4,14 @@ import com.example.car_rental.model.Car;
 import com.example.car_rental.model.Rental;
 import com.example.car_rental.service.CarService;
 import com.example.car_rental.service.RentalService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDate;
 
@@ -26,10 +28,10 @@ import java.time.LocalDate;
  * <p>
  * Бизнес-правила при создании аренды:
  * <ul>
- *     <li>Дата начала аренды должна быть строго завтра (не сегодня)</li>
+ *     <li>Дата начала аренды - не раньше завтрашнего дня и не позже горизонта бронирования</li>
  *     <li>Дата окончания должна быть позже даты начала</li>
- *     <li>Автомобиль должен быть доступен (статус AVAILABLE)</li>
- *     <li>При создании аренды автомобиль переводится в статус RESERVED</li>
+ *     <li>Автомобиль не находится на обслуживании, период не пересекается с другими бронированиями</li>
+ *     <li>При создании аренды период удерживается за клиентом до оплаты; статус автомобиля не меняется</li>
  *     <li>После создания пользователь перенаправляется на страницу оплаты</li>
  * </ul>
  * <p>
@@ -80,20 +82,32 @@ public class UserRentalController {
     /**
      * Отображает форму создания новой аренды для выбранного автомобиля.
      * <p>
-     * Проверяет доступность автомобиля (статус должен быть AVAILABLE).
+     * Проверяет, что автомобиль не на обслуживании, и показывает уже занятые периоды.
      *
-     * @param carId идентификатор автомобиля для аренды
-     * @param model модель для передачи данных в представление
+     * @param carId     идентификатор автомобиля для аренды
+     * @param startDate дата начала, выбранная в каталоге (необязательно)
+     * @param endDate   дата окончания, выбранная в каталоге (необязательно)
+     * @param model     модель для передачи данных в представление
      * @return имя шаблона user/rentals/add или перенаправление на список автомобилей
      */
     @GetMapping("/add")
-    public String showAddRentalForm(@RequestParam("carId") Long carId, Model model) {
+    public String showAddRentalForm(@RequestParam("carId") Long carId,
+                                    @RequestParam(name = "startDate", required = false)
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                    @RequestParam(name = "endDate", required = false)
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                    Model model) {
         Car car = carService.getCarById(carId);
-        if (car == null || !"AVAILABLE".equals(car.getStatus())) {
+        if (car == null || "MAINTENANCE".equals(car.getStatus())) {
             return "redirect:/user/cars";
         }
+        Rental rental = new Rental();
+        rental.setStartDate(startDate);
+        rental.setEndDate(endDate);
         model.addAttribute("car", car);
-        model.addAttribute("rental", new Rental());
+        model.addAttribute("rental", rental);
+        model.addAttribute("bookedPeriods", rentalService.getBookedPeriods(carId));
+        model.addAttribute("maxStartDate", LocalDate.now().plusDays(RentalService.BOOKING_HORIZON_DAYS));
         return "user/rentals/add";
     }
 
@@ -102,12 +116,12 @@ public class UserRentalController {
      * <p>
      * Выполняет валидацию:
      * <ul>
-     *     <li>Дата начала должна быть строго завтра (не сегодня)</li>
-     *     <li>Автомобиль должен быть доступен</li>
+     *     <li>Дата начала - не раньше завтрашнего дня и не позже горизонта бронирования</li>
+     *     <li>Автомобиль не находится на обслуживании</li>
      *     <li>Дата окончания должна быть позже даты начала</li>
      * </ul>
-     * При успешном создании переводит автомобиль в статус RESERVED
-     * и перенаправляет на страницу оплаты.
+     * Пересечение с другими бронированиями этого автомобиля отклоняется базой данных;
+     * в этом случае показывается ошибка. При успехе выполняется перенаправление на страницу оплаты.
      *
      * @param rental      данные создаваемой аренды
      * @param userDetails данные аутентифицированного пользователя
@@ -119,26 +133,21 @@ public class UserRentalController {
         LocalDate today = LocalDate.now();
         LocalDate tomorrow = today.plusDays(1);
         LocalDate startDate = rental.getStartDate();
+        Car car = carService.getCarById(rental.getCar().getId());
 
-        // Проверяем что дата начала - это завтра
-        if (startDate == null || !startDate.isEqual(tomorrow)) {
-            model.addAttribute("error", "Дата начала аренды должна быть завтра.");
-            Car car = carService.getCarById(rental.getCar().getId());
-            model.addAttribute("car", car);
-            return "user/rentals/add";
+        if (car == null || "MAINTENANCE".equals(car.getStatus())) {
+            return "redirect:/user/cars";
         }
 
-        Car car = carService.getCarById(rental.getCar().getId());
-        if (car == null || !"AVAILABLE".equals(car.getStatus())) {
-            model.addAttribute("error", "Автомобиль недоступен для аренды.");
-            model.addAttribute("car", car);
-            return "user/rentals/add";
+        // Проверяем что дата начала - не раньше завтра и в пределах горизонта бронирования
+        if (startDate == null || startDate.isBefore(tomorrow)
+                || startDate.isAfter(today.plusDays(RentalService.BOOKING_HORIZON_DAYS))) {
+            return showFormError(model, car, "Дата начала аренды должна быть не раньше завтрашнего дня и не позже чем через "
+                    + RentalService.BOOKING_HORIZON_DAYS + " дней.");
         }
 
         if (rental.getEndDate() == null || rental.getEndDate().isBefore(startDate) || rental.getEndDate().isEqual(startDate)) {
-            model.addAttribute("error", "Дата окончания аренды должна быть позже даты начала.");
-            model.addAttribute("car", car);
-            return "user/rentals/add";
+            return showFormError(model, car, "Дата окончания аренды должна быть позже даты начала.");
         }
 
         long days = rental.getEndDate().toEpochDay() - startDate.toEpochDay();
@@ -150,15 +159,34 @@ public class UserRentalController {
         rental.setId(null);
         rental.setStatus("PENDING_PAYMENT");
 
-        Rental createdRental = rentalService.createRental(rental, userDetails.getUsername());
-
-        car.setStatus("RESERVED");
-        carService.saveCar(car);
+        Rental createdRental;
+        try {
+            createdRental = rentalService.createRental(rental, userDetails.getUsername());
+        } catch (IllegalStateException e) {
+            // Выбранные даты успели занять или автомобиль сняли с аренды
+            return showFormError(model, car, e.getMessage());
+        }
 
         // Перенаправляем на страницу оплаты
         return "redirect:/user/payments/process?rentalId=" + createdRental.getId();
     }
 
+    /**
+     * Возвращает форму создания аренды с сообщением об ошибке.
+     *
+     * @param model   модель для передачи данных в представление
+     * @param car     выбранный автомобиль
+     * @param message текст ошибки
+     * @return имя шаблона user/rentals/add
+     */
+    private String showFormError(Model model, Car car, String message) {
+        model.addAttribute("error", message);
+        model.addAttribute("car", car);
+        model.addAttribute("bookedPeriods", rentalService.getBookedPeriods(car.getId()));
+        model.addAttribute("maxStartDate", LocalDate.now().plusDays(RentalService.BOOKING_HORIZON_DAYS));
+        return "user/rentals/add";
+    }
+
     /**
      * Отменяет аренду пользователя.
      *
@@ -177,15 +205,24 @@ public class UserRentalController {
      * Подтверждает оплату аренды.
      * <p>
      * Переводит аренду в статус PAID и автомобиль в статус RENTED.
+     * Если аренда уже отменена или срок оплаты истек, оплата не выполняется,
+     * а причина показывается на странице аренд пользователя.
      *
-     * @param rentalId    идентификатор оплачиваемой аренды
-     * @param userDetails данные аутентифицированного пользователя
+     * @param rentalId           идентификатор оплачиваемой аренды
+     * @param userDetails        данные аутентифицированного пользователя
+     * @param redirectAttributes атрибуты для передачи сообщения после перенаправления
      * @return перенаправление на список аренд пользователя
      */
     @PreAuthorize("hasRole('USER')")
     @PostMapping("/pay/{rentalId}")
-    public String payRental(@PathVariable Long rentalId, @AuthenticationPrincipal UserDetails userDetails) {
-        rentalService.confirmPayment(rentalId);
+    public String payRental(@PathVariable Long rentalId, @AuthenticationPrincipal UserDetails userDetails,
+                            RedirectAttributes redirectAttributes) {
+        try {
+            rentalService.confirmPayment(rentalId);
+        } catch (IllegalStateException e) {
+            // Аренда уже отменена или срок оплаты истек - состояние не меняется
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
         return "redirect:/user/rentals/my";
     }
 }
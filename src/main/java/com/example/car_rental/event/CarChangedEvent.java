@@ -0,0 +1,59 @@
+package com.example.car_rental.event;
+
+import com.example.car_rental.model.Car;
+
+/**
+ * Событие изменения автомобиля.
+ * <p>
+ * Публикуется {@link com.example.car_rental.service.CarService} при сохранении
+ * и удалении автомобиля (в том числе при смене статуса в процессе аренды).
+ * Слушатели обрабатывают событие после фиксации транзакции и обновляют
+ * производные структуры данных, например индекс каталога.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class CarChangedEvent {
+
+    /**
+     * ID измененного автомобиля
+     */
+    private final Long carId;
+
+    /**
+     * Актуальное состояние автомобиля или null, если автомобиль удален
+     */
+    private final Car car;
+
+    /**
+     * Создает событие изменения автомобиля.
+     *
+     * @param carId ID автомобиля
+     * @param car   актуальное состояние автомобиля или null при удалении
+     */
+    public CarChangedEvent(Long carId, Car car) {
+        this.carId = carId;
+        this.car = car;
+    }
+
+    /**
+     * Возвращает ID измененного автомобиля.
+     *
+     * @return ID автомобиля
+     */
+    public Long getCarId() { return carId; }
+
+    /**
+     * Возвращает актуальное состояние автомобиля.
+     *
+     * @return автомобиль или null, если он удален
+     */
+    public Car getCar() { return car; }
+
+    /**
+     * Проверяет, был ли автомобиль удален.
+     *
+     * @return true, если автомобиль удален
+     */
+    public boolean isDeleted() { return car == null; }
+}
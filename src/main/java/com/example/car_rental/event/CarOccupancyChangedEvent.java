@@ -0,0 +1,39 @@
+package com.example.car_rental.event;
+
+import java.util.Collection;
+
+/**
+ * Событие изменения занятости автомобилей по датам.
+ * <p>
+ * Публикуется {@link com.example.car_rental.index.CarOccupancyCalendar} после того, как
+ * аренды автомобилей перечитаны в календарь: на узле, где аренда создана, оплачена,
+ * отменена или снята, и на остальных узлах кластера по сообщению об инвалидации.
+ * Слушатели проверяют занятость по календарю (например, каталог сообщает подписчикам,
+ * что автомобиль заняли или освободили на выбранные ими даты).
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class CarOccupancyChangedEvent {
+
+    /**
+     * ID автомобилей, аренды которых перечитаны
+     */
+    private final Collection<Long> carIds;
+
+    /**
+     * Создает событие изменения занятости.
+     *
+     * @param carIds ID автомобилей, аренды которых перечитаны
+     */
+    public CarOccupancyChangedEvent(Collection<Long> carIds) {
+        this.carIds = carIds;
+    }
+
+    /**
+     * Возвращает ID автомобилей, аренды которых перечитаны.
+     *
+     * @return ID автомобилей
+     */
+    public Collection<Long> getCarIds() { return carIds; }
+}
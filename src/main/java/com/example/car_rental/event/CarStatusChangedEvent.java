@@ -0,0 +1,55 @@
+package com.example.car_rental.event;
+
+import com.example.car_rental.index.CarAvailabilityIndex.Row;
+
+import java.util.List;
+
+/**
+ * Событие смены статуса автомобилей в индексе каталога.
+ * <p>
+ * Публикуется {@link com.example.car_rental.index.CarIndexMaintainer} после того, как изменение
+ * применено к индексу: и для изменений этого узла, и для изменений, пришедших с других узлов.
+ * Событие содержит только автомобили, у которых статус действительно изменился, а также
+ * добавленные и удаленные автомобили (у удаленного статус null). После полного перестроения
+ * индекса публикуется событие с признаком {@link #isFull()}: статус мог измениться у любого автомобиля.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class CarStatusChangedEvent {
+
+    /**
+     * Автомобили с новым статусом и текущими значениями атрибутов
+     */
+    private final List<Row> cars;
+
+    /**
+     * Признак полного перестроения индекса
+     */
+    private final boolean full;
+
+    /**
+     * Создает событие смены статуса.
+     *
+     * @param cars автомобили с новым статусом (null у удаленных)
+     * @param full признак полного перестроения индекса
+     */
+    public CarStatusChangedEvent(List<Row> cars, boolean full) {
+        this.cars = cars;
+        this.full = full;
+    }
+
+    /**
+     * Возвращает автомобили с новым статусом.
+     *
+     * @return строки индекса; у удаленных автомобилей статус null
+     */
+    public List<Row> getCars() { return cars; }
+
+    /**
+     * Проверяет, перестроен ли индекс целиком.
+     *
+     * @return true, если статус мог измениться у любого автомобиля
+     */
+    public boolean isFull() { return full; }
+}
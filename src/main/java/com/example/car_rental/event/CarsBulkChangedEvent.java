@@ -0,0 +1,38 @@
+package com.example.car_rental.event;
+
+import java.util.List;
+
+/**
+ * Событие массового изменения автомобилей одним запросом UPDATE или пакетной вставкой.
+ * <p>
+ * Публикуется {@link com.example.car_rental.service.CarBulkService} один раз на операцию
+ * и {@link com.example.car_rental.service.CarImportService} один раз на пакет импорта
+ * вместо {@link CarChangedEvent} на каждый автомобиль. Слушатели обрабатывают событие
+ * после фиксации транзакции и перечитывают измененные автомобили одним запросом.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class CarsBulkChangedEvent {
+
+    /**
+     * ID измененных автомобилей
+     */
+    private final List<Long> carIds;
+
+    /**
+     * Создает событие массового изменения автомобилей.
+     *
+     * @param carIds ID измененных автомобилей
+     */
+    public CarsBulkChangedEvent(List<Long> carIds) {
+        this.carIds = carIds;
+    }
+
+    /**
+     * Возвращает ID измененных автомобилей.
+     *
+     * @return ID автомобилей
+     */
+    public List<Long> getCarIds() { return carIds; }
+}
@@ -0,0 +1,64 @@
+package com.example.car_rental.event;
+
+/**
+ * Событие перехода аренды: создание, оплата, отмена или снятие удержания.
+ * <p>
+ * Публикуется {@link com.example.car_rental.service.RentalService} в транзакции перехода;
+ * слушатели обрабатывают его после фиксации (например, панель администратора
+ * обновляет выручку и количество действующих аренд, а календарь занятости
+ * перечитывает аренды автомобиля).
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class RentalChangedEvent {
+
+    /**
+     * ID аренды
+     */
+    private final Long rentalId;
+
+    /**
+     * ID арендованного автомобиля
+     */
+    private final Long carId;
+
+    /**
+     * Новый статус аренды; null, если аренда удалена
+     */
+    private final String status;
+
+    /**
+     * Создает событие перехода аренды.
+     *
+     * @param rentalId ID аренды
+     * @param carId    ID арендованного автомобиля
+     * @param status   новый статус (null, если аренда удалена)
+     */
+    public RentalChangedEvent(Long rentalId, Long carId, String status) {
+        this.rentalId = rentalId;
+        this.carId = carId;
+        this.status = status;
+    }
+
+    /**
+     * Возвращает ID аренды.
+     *
+     * @return ID аренды
+     */
+    public Long getRentalId() { return rentalId; }
+
+    /**
+     * Возвращает ID арендованного автомобиля.
+     *
+     * @return ID автомобиля
+     */
+    public Long getCarId() { return carId; }
+
+    /**
+     * Возвращает новый статус аренды.
+     *
+     * @return статус или null, если аренда удалена
+     */
+    public String getStatus() { return status; }
+}
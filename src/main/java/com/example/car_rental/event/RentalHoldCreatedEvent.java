@@ -0,0 +1,51 @@
+package com.example.car_rental.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие создания неоплаченной аренды (удержания автомобиля).
+ * <p>
+ * Публикуется {@link com.example.car_rental.service.RentalService#createRental}
+ * и обрабатывается после фиксации транзакции: планировщик истечения регистрирует
+ * срок, по наступлении которого удержание будет снято, если аренда не оплачена.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class RentalHoldCreatedEvent {
+
+    /**
+     * ID созданной аренды
+     */
+    private final Long rentalId;
+
+    /**
+     * Момент истечения срока оплаты
+     */
+    private final LocalDateTime expiresAt;
+
+    /**
+     * Создает событие создания удержания.
+     *
+     * @param rentalId  ID аренды
+     * @param expiresAt момент истечения срока оплаты
+     */
+    public RentalHoldCreatedEvent(Long rentalId, LocalDateTime expiresAt) {
+        this.rentalId = rentalId;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Возвращает ID созданной аренды.
+     *
+     * @return ID аренды
+     */
+    public Long getRentalId() { return rentalId; }
+
+    /**
+     * Возвращает момент истечения срока оплаты.
+     *
+     * @return момент истечения
+     */
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
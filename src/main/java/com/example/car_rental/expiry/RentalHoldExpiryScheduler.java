@@ -0,0 +1,173 @@
+package com.example.car_rental.expiry;
+
+import com.example.car_rental.event.RentalHoldCreatedEvent;
+import com.example.car_rental.repository.RentalRepository;
+import com.example.car_rental.repository.RentalRepository.HoldDeadline;
+import com.example.car_rental.service.RentalService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Планировщик истечения удержаний неоплаченных аренд.
+ * <p>
+ * Срок каждой аренды в статусе PENDING_PAYMENT регистрируется в {@link TimingWheel}
+ * с тиком {@value #TICK_MILLIS} мс: при создании аренды (событие
+ * {@link RentalHoldCreatedEvent}) и при запуске приложения для всех аренд,
+ * ожидающих оплаты. Отдельный поток продвигает колесо каждый тик и передает
+ * наступившие сроки в {@link RentalService#expireHolds} порциями
+ * по {@value #BATCH_SIZE}. База данных не опрашивается периодически:
+ * запрос выполняется, только когда срок хотя бы одной аренды наступил.
+ * <p>
+ * Оплаченные и отмененные аренды из колеса не удаляются - они отфильтровываются
+ * при снятии удержания.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class RentalHoldExpiryScheduler {
+
+    /**
+     * Логгер
+     */
+    private static final Logger log = LoggerFactory.getLogger(RentalHoldExpiryScheduler.class);
+
+    /**
+     * Длина тика колеса в миллисекундах
+     */
+    static final long TICK_MILLIS = 100;
+
+    /**
+     * Количество ячеек колеса (один оборот - около 51 секунды)
+     */
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * Максимальное количество аренд, снимаемых одной транзакцией
+     */
+    static final int BATCH_SIZE = 100;
+
+    /**
+     * Задержка повторной попытки после ошибки снятия удержаний (мс)
+     */
+    private static final long RETRY_DELAY_MILLIS = 5_000;
+
+    /**
+     * Колесо сроков удержания (элементы - ID аренд)
+     */
+    private final TimingWheel<Long> wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+
+    /**
+     * Поток продвижения колеса
+     */
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rental-hold-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Сервис аренды
+     */
+    private final RentalService rentalService;
+
+    /**
+     * Репозиторий аренд
+     */
+    private final RentalRepository rentalRepository;
+
+    /**
+     * Конструктор планировщика.
+     *
+     * @param rentalService    сервис аренды
+     * @param rentalRepository репозиторий аренд
+     */
+    public RentalHoldExpiryScheduler(RentalService rentalService, RentalRepository rentalRepository) {
+        this.rentalService = rentalService;
+        this.rentalRepository = rentalRepository;
+    }
+
+    /**
+     * Восстанавливает сроки всех аренд, ожидающих оплаты, и запускает поток колеса.
+     * Уже просроченные удержания снимаются на первом тике.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<HoldDeadline> holds = rentalRepository.findHoldsByStatus("PENDING_PAYMENT");
+        for (HoldDeadline hold : holds) {
+            schedule(hold.getId(), hold.getCreatedAt().plus(RentalService.HOLD_DURATION));
+        }
+        log.info("Восстановлено сроков удержания: {}", holds.size());
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Регистрирует срок новой аренды после фиксации транзакции.
+     *
+     * @param event событие создания аренды
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHoldCreated(RentalHoldCreatedEvent event) {
+        schedule(event.getRentalId(), event.getExpiresAt());
+    }
+
+    /**
+     * Возвращает количество зарегистрированных сроков.
+     *
+     * @return количество сроков в колесе
+     */
+    public int pendingCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Останавливает поток колеса при завершении приложения.
+     */
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Регистрирует срок аренды в колесе.
+     */
+    private void schedule(Long rentalId, LocalDateTime expiresAt) {
+        if (rentalId == null || expiresAt == null) {
+            return;
+        }
+        wheel.schedule(rentalId, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    /**
+     * Продвигает колесо и снимает наступившие удержания порциями.
+     * При ошибке порция регистрируется повторно через {@value #RETRY_DELAY_MILLIS} мс.
+     */
+    private void tick() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+            List<Long> batch = due.subList(from, Math.min(from + BATCH_SIZE, due.size()));
+            try {
+                int released = rentalService.expireHolds(batch);
+                if (released > 0) {
+                    log.info("Снято просроченных удержаний: {}", released);
+                }
+            } catch (RuntimeException e) {
+                log.error("Не удалось снять удержания {}, повтор через {} мс", batch, RETRY_DELAY_MILLIS, e);
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                batch.forEach(id -> wheel.schedule(id, retryAt));
+            }
+        }
+    }
+}
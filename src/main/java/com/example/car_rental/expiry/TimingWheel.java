@@ -0,0 +1,136 @@
+package com.example.car_rental.expiry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Хешированное колесо таймеров (hashed timing wheel).
+ * <p>
+ * Время делится на тики длиной {@code tickMillis}; колесо состоит из
+ * {@code wheelSize} ячеек, и элемент со сроком на тике {@code t} попадает
+ * в ячейку {@code t mod wheelSize}. Регистрация срока выполняется за O(1),
+ * а продвижение на один тик просматривает только одну ячейку, поэтому
+ * стоимость не зависит от общего числа зарегистрированных сроков.
+ * Сроки дальше одного оборота колеса остаются в ячейке до нужного оборота.
+ * <p>
+ * Класс потокобезопасен: методы синхронизированы.
+ *
+ * @param <T> тип элементов
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class TimingWheel<T> {
+
+    /**
+     * Элемент колеса с номером тика, на котором наступает его срок.
+     *
+     * @param item         элемент
+     * @param deadlineTick номер тика срока
+     * @param <T>          тип элемента
+     */
+    private record Entry<T>(T item, long deadlineTick) {
+    }
+
+    /**
+     * Длина тика в миллисекундах
+     */
+    private final long tickMillis;
+
+    /**
+     * Маска номера ячейки (размер колеса - степень двойки)
+     */
+    private final int mask;
+
+    /**
+     * Ячейки колеса
+     */
+    private final ArrayDeque<Entry<T>>[] buckets;
+
+    /**
+     * Момент начала отсчета тиков (мс)
+     */
+    private final long originMillis;
+
+    /**
+     * Номер следующего необработанного тика
+     */
+    private long currentTick;
+
+    /**
+     * Количество зарегистрированных элементов
+     */
+    private int size;
+
+    /**
+     * Создает колесо таймеров.
+     *
+     * @param tickMillis   длина тика в миллисекундах
+     * @param wheelSize    количество ячеек (округляется вверх до степени двойки)
+     * @param originMillis момент начала отсчета (обычно текущее время)
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long originMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Длина тика и размер колеса должны быть положительными");
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = capacity - 1;
+        this.buckets = new ArrayDeque[capacity];
+        for (int i = 0; i < capacity; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.originMillis = originMillis;
+    }
+
+    /**
+     * Регистрирует срок элемента. Уже наступивший срок сработает на ближайшем тике.
+     *
+     * @param item           элемент
+     * @param deadlineMillis момент срока (мс с начала эпохи)
+     */
+    public synchronized void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis - originMillis + tickMillis - 1, tickMillis), currentTick);
+        buckets[(int) (tick & mask)].add(new Entry<>(item, tick));
+        size++;
+    }
+
+    /**
+     * Продвигает колесо до указанного момента и возвращает элементы с наступившим сроком.
+     *
+     * @param nowMillis текущий момент (мс с начала эпохи)
+     * @return элементы, срок которых наступил (в порядке тиков)
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        List<T> expired = new ArrayList<>();
+        if (size == 0) {
+            currentTick = Math.max(currentTick, targetTick + 1);
+            return expired;
+        }
+        for (; currentTick <= targetTick && size > 0; currentTick++) {
+            Iterator<Entry<T>> it = buckets[(int) (currentTick & mask)].iterator();
+            while (it.hasNext()) {
+                Entry<T> entry = it.next();
+                if (entry.deadlineTick() <= currentTick) {
+                    it.remove();
+                    size--;
+                    expired.add(entry.item());
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick + 1);
+        return expired;
+    }
+
+    /**
+     * Возвращает количество зарегистрированных элементов.
+     *
+     * @return количество элементов
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
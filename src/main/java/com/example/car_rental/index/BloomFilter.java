@@ -0,0 +1,138 @@
+package com.example.car_rental.index;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Фильтр Блума для строк: компактное множество без ложноотрицательных ответов.
+ * <p>
+ * {@link #mightContain(String)} возвращает false только для значений, которые точно
+ * не добавлялись; true означает «возможно, добавлялось» и требует проверки по базе данных.
+ * Размер битового массива и число хеш-функций подбираются по ожидаемому количеству
+ * значений и допустимой доле ложноположительных ответов. Удаление не поддерживается.
+ * <p>
+ * Биты устанавливаются атомарно, поэтому добавление и проверка безопасны
+ * из нескольких потоков без блокировок.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class BloomFilter {
+
+    /**
+     * Битовый массив
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * Количество бит
+     */
+    private final long bitCount;
+
+    /**
+     * Количество хеш-функций
+     */
+    private final int hashCount;
+
+    /**
+     * Ожидаемое количество значений, на которое рассчитан фильтр
+     */
+    private final long expectedInsertions;
+
+    /**
+     * Количество добавлений
+     */
+    private final LongAdder insertions = new LongAdder();
+
+    /**
+     * Создает фильтр.
+     *
+     * @param expectedInsertions ожидаемое количество значений
+     * @param falsePositiveRate  допустимая доля ложноположительных ответов (например, 0.01)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Некорректные параметры фильтра Блума");
+        }
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Добавляет значение (null игнорируется).
+     *
+     * @param value значение
+     */
+    public void put(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+        insertions.increment();
+    }
+
+    /**
+     * Проверяет, могло ли значение быть добавлено.
+     *
+     * @param value значение
+     * @return false, если значение точно не добавлялось; true, если возможно добавлялось
+     */
+    public boolean mightContain(String value) {
+        if (value == null) {
+            return false;
+        }
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Проверяет, превышено ли ожидаемое количество значений
+     * (доля ложноположительных ответов выше расчетной).
+     *
+     * @return true, если фильтр переполнен и его стоит перестроить с большим размером
+     */
+    public boolean isSaturated() {
+        return insertions.sum() > expectedInsertions;
+    }
+
+    /**
+     * 64-битный хеш FNV-1a байтов UTF-8 с перемешиванием (финализатор MurmurHash3).
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
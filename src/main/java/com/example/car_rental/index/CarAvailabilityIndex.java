@@ -0,0 +1,786 @@
+package com.example.car_rental.index;
+
+import com.example.car_rental.service.CatalogFacets;
+import com.example.car_rental.service.CatalogFacets.FacetValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Колоночный индекс автопарка в памяти для каталога автомобилей.
+ * <p>
+ * Каждый автомобиль занимает слот (номер строки). Атрибуты хранятся в примитивных
+ * массивах по колонкам: статус, город, марка, год и цвет кодируются словарями
+ * (значение → целочисленный код), цена хранится как {@code int[]} в копейках.
+ * Для каждого значения словаря поддерживается битовая карта слотов, поэтому
+ * фильтры каталога сводятся к операциям AND над {@link BitSet}, а фасеты
+ * и диапазон цен считаются одним проходом по найденным слотам.
+ * <p>
+ * Индекс обновляется инкрементально ({@link #upsert}, {@link #remove}) и
+ * полностью перестраивается через {@link #rebuild}. Слоты удаленных автомобилей
+ * не переиспользуются, чтобы порядок слотов совпадал с порядком ID;
+ * при накоплении удаленных слотов индекс уплотняется.
+ * <p>
+ * Сортировка по цене упаковывает цену и ID в один {@code long}, поэтому
+ * ID автомобилей должны помещаться в 32 бита.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class CarAvailabilityIndex {
+
+    /**
+     * Код отсутствующего (null) значения в колонке
+     */
+    private static final int NULL_CODE = -1;
+
+    /**
+     * Маркер отсутствующей цены в колонке цен
+     */
+    private static final int NULL_PRICE = Integer.MIN_VALUE;
+
+    /**
+     * Начальная емкость колонок
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Строка для загрузки в индекс: значения атрибутов одного автомобиля.
+     *
+     * @param id          ID автомобиля
+     * @param status      статус автомобиля
+     * @param city        город расположения
+     * @param brandId     ID марки
+     * @param brandName   название марки
+     * @param year        год выпуска
+     * @param color       цвет
+     * @param pricePerDay цена за день в копейках
+     */
+    public record Row(long id, String status, String city, Long brandId, String brandName,
+                      Integer year, String color, Integer pricePerDay) {
+    }
+
+    /**
+     * Словарь значений одного атрибута с битовой картой слотов на каждое значение.
+     */
+    private static final class Dictionary {
+
+        /**
+         * Код значения по ключу
+         */
+        private final Map<Object, Integer> codes = new HashMap<>();
+
+        /**
+         * Ключи значений по коду
+         */
+        private final List<Object> keys = new ArrayList<>();
+
+        /**
+         * Отображаемые подписи значений по коду
+         */
+        private final List<String> labels = new ArrayList<>();
+
+        /**
+         * Битовые карты слотов по коду значения
+         */
+        private final List<BitSet> bitmaps = new ArrayList<>();
+
+        /**
+         * Возвращает код значения, добавляя его в словарь при необходимости.
+         *
+         * @param key   ключ значения
+         * @param label отображаемая подпись
+         * @return код значения или NULL_CODE для null
+         */
+        int encode(Object key, String label) {
+            if (key == null) {
+                return NULL_CODE;
+            }
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = keys.size();
+                codes.put(key, code);
+                keys.add(key);
+                labels.add(label);
+                bitmaps.add(new BitSet());
+            } else if (label != null) {
+                labels.set(code, label);
+            }
+            return code;
+        }
+
+        /**
+         * Возвращает код существующего значения без добавления.
+         *
+         * @param key ключ значения
+         * @return код или null, если значения нет в словаре
+         */
+        Integer lookup(Object key) {
+            return codes.get(key);
+        }
+
+        /**
+         * Возвращает битовую карту значения.
+         *
+         * @param code код значения
+         * @return битовая карта слотов
+         */
+        BitSet bitmap(int code) {
+            return bitmaps.get(code);
+        }
+
+        /**
+         * Возвращает количество значений в словаре.
+         *
+         * @return размер словаря
+         */
+        int size() {
+            return keys.size();
+        }
+
+        /**
+         * Очищает словарь.
+         */
+        void clear() {
+            codes.clear();
+            keys.clear();
+            labels.clear();
+            bitmaps.clear();
+        }
+    }
+
+    /**
+     * Блокировка: чтение каталога параллельно, изменения индекса - эксклюзивно
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * ID автомобиля по слоту
+     */
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    /**
+     * Код статуса по слоту
+     */
+    private int[] statusCodes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Код города по слоту
+     */
+    private int[] cityCodes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Код марки по слоту
+     */
+    private int[] brandCodes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Код года выпуска по слоту
+     */
+    private int[] yearCodes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Код цвета по слоту
+     */
+    private int[] colorCodes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Цена за день в копейках по слоту
+     */
+    private int[] prices = new int[INITIAL_CAPACITY];
+
+    /**
+     * Количество занятых слотов (включая удаленные)
+     */
+    private int size;
+
+    /**
+     * Слоты существующих автомобилей
+     */
+    private final BitSet live = new BitSet();
+
+    /**
+     * Слот по ID автомобиля
+     */
+    private final Map<Long, Integer> slotById = new HashMap<>();
+
+    /**
+     * Признак того, что порядок слотов совпадает с порядком ID
+     */
+    private boolean idOrdered = true;
+
+    /**
+     * Максимальный ID среди добавленных автомобилей
+     */
+    private long maxId = Long.MIN_VALUE;
+
+    /**
+     * Словарь статусов
+     */
+    private final Dictionary statuses = new Dictionary();
+
+    /**
+     * Словарь городов (ключ - название в нижнем регистре)
+     */
+    private final Dictionary cities = new Dictionary();
+
+    /**
+     * Словарь марок (ключ - ID марки)
+     */
+    private final Dictionary brands = new Dictionary();
+
+    /**
+     * Словарь годов выпуска
+     */
+    private final Dictionary years = new Dictionary();
+
+    /**
+     * Словарь цветов (ключ - цвет в нижнем регистре)
+     */
+    private final Dictionary colors = new Dictionary();
+
+    /**
+     * Признак того, что индекс загружен и может обслуживать запросы
+     */
+    private volatile boolean ready;
+
+    /**
+     * Проверяет, загружен ли индекс.
+     *
+     * @return true, если индекс готов обслуживать запросы каталога
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Возвращает количество автомобилей в индексе.
+     *
+     * @return количество автомобилей
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает текущие значения атрибутов автомобиля.
+     *
+     * @param id ID автомобиля
+     * @return строка индекса или null, если автомобиля нет в индексе
+     */
+    public Row get(long id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            return slot != null ? rowAt(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Полностью перестраивает индекс по переданным строкам.
+     * Строки желательно передавать в порядке возрастания ID.
+     *
+     * @param rows строки автопарка
+     */
+    public void rebuild(Iterable<Row> rows) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Row row : rows) {
+                put(row);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет или обновляет автомобиль в индексе.
+     *
+     * @param row актуальные значения атрибутов автомобиля
+     */
+    public void upsert(Row row) {
+        lock.writeLock().lock();
+        try {
+            put(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет или обновляет несколько автомобилей под одной блокировкой записи
+     * (после массовой операции).
+     *
+     * @param rows актуальные значения атрибутов автомобилей
+     */
+    public void upsertAll(Iterable<Row> rows) {
+        lock.writeLock().lock();
+        try {
+            for (Row row : rows) {
+                put(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет автомобиль из индекса.
+     *
+     * @param id ID автомобиля
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            unindex(slot);
+            live.clear(slot);
+            if (size > INITIAL_CAPACITY && slotById.size() < size / 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Выполняет поиск свободных автомобилей по фильтрам каталога.
+     *
+     * @param brandId   ID марки (null или 0 - все марки)
+     * @param year      год выпуска (null или 0 - все года)
+     * @param color     цвет (без учета регистра)
+     * @param city      город (без учета регистра)
+     * @param minPrice  минимальная цена за день в рублях
+     * @param maxPrice  максимальная цена за день в рублях
+     * @param sortOrder порядок сортировки (default, priceAsc, priceDesc)
+     * @param page      номер страницы (с нуля)
+     * @param pageSize  размер страницы
+     * @return страница ID найденных автомобилей в порядке сортировки
+     */
+    public Page<Long> search(Long brandId, Integer year, String color, String city,
+                             Integer minPrice, Integer maxPrice,
+                             String sortOrder, int page, int pageSize) {
+        return search(brandId, year, color, city, minPrice, maxPrice, null, sortOrder, page, pageSize);
+    }
+
+    /**
+     * Выполняет поиск автомобилей, свободных на выбранный период.
+     * <p>
+     * Если занятые автомобили не переданы (null), ищутся автомобили со статусом AVAILABLE.
+     * Иначе в выборку попадают все автомобили не на обслуживании, кроме занятых на период:
+     * текущий статус RENTED не мешает бронированию после возврата автомобиля.
+     *
+     * @param brandId    ID марки (null или 0 - все марки)
+     * @param year       год выпуска (null или 0 - все года)
+     * @param color      цвет (без учета регистра)
+     * @param city       город (без учета регистра)
+     * @param minPrice   минимальная цена за день в рублях
+     * @param maxPrice   максимальная цена за день в рублях
+     * @param busyCarIds ID автомобилей, занятых на период (null - период не задан)
+     * @param sortOrder  порядок сортировки (default, priceAsc, priceDesc)
+     * @param page       номер страницы (с нуля)
+     * @param pageSize   размер страницы
+     * @return страница ID найденных автомобилей в порядке сортировки
+     */
+    public Page<Long> search(Long brandId, Integer year, String color, String city,
+                             Integer minPrice, Integer maxPrice, Collection<Long> busyCarIds,
+                             String sortOrder, int page, int pageSize) {
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), pageSize);
+        lock.readLock().lock();
+        try {
+            BitSet matches = filter(brandId, year, color, city, minPrice, maxPrice, busyCarIds);
+            int total = matches.cardinality();
+            int from = (int) Math.min(pageable.getOffset(), total);
+            int to = Math.min(from + pageSize, total);
+
+            List<Long> content = new ArrayList<>(to - from);
+            if ("priceAsc".equals(sortOrder) || "priceDesc".equals(sortOrder)) {
+                long[] keys = priceSortKeys(matches, total, "priceDesc".equals(sortOrder));
+                for (int i = from; i < to; i++) {
+                    content.add(keys[i] & 0xFFFFFFFFL);
+                }
+            } else if (idOrdered) {
+                int slot = matches.nextSetBit(0);
+                for (int i = 0; i < from; i++) {
+                    slot = matches.nextSetBit(slot + 1);
+                }
+                for (int i = from; i < to; i++) {
+                    content.add(ids[slot]);
+                    slot = matches.nextSetBit(slot + 1);
+                }
+            } else {
+                long[] sortedIds = new long[total];
+                int i = 0;
+                for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                    sortedIds[i++] = ids[slot];
+                }
+                Arrays.sort(sortedIds);
+                for (i = from; i < to; i++) {
+                    content.add(sortedIds[i]);
+                }
+            }
+            return new PageImpl<>(content, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Вычисляет фасеты каталога по свободным автомобилям с учетом фильтров.
+     * Количество автомобилей по каждому значению и диапазон цен считаются
+     * одним проходом по найденным слотам.
+     *
+     * @param brandId  ID марки
+     * @param year     год выпуска
+     * @param color    цвет
+     * @param city     город
+     * @param minPrice минимальная цена за день в рублях
+     * @param maxPrice максимальная цена за день в рублях
+     * @return фасеты каталога
+     */
+    public CatalogFacets facets(Long brandId, Integer year, String color, String city,
+                                Integer minPrice, Integer maxPrice) {
+        return facets(brandId, year, color, city, minPrice, maxPrice, null);
+    }
+
+    /**
+     * Вычисляет фасеты каталога по автомобилям, свободным на выбранный период.
+     * Выборка строится так же, как в
+     * {@link #search(Long, Integer, String, String, Integer, Integer, Collection, String, int, int)}.
+     *
+     * @param brandId    ID марки
+     * @param year       год выпуска
+     * @param color      цвет
+     * @param city       город
+     * @param minPrice   минимальная цена за день в рублях
+     * @param maxPrice   максимальная цена за день в рублях
+     * @param busyCarIds ID автомобилей, занятых на период (null - период не задан)
+     * @return фасеты каталога
+     */
+    public CatalogFacets facets(Long brandId, Integer year, String color, String city,
+                                Integer minPrice, Integer maxPrice, Collection<Long> busyCarIds) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = filter(brandId, year, color, city, minPrice, maxPrice, busyCarIds);
+            long[] brandCounts = new long[brands.size()];
+            long[] yearCounts = new long[years.size()];
+            long[] colorCounts = new long[colors.size()];
+            long[] cityCounts = new long[cities.size()];
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                count(brandCounts, brandCodes[slot]);
+                count(yearCounts, yearCodes[slot]);
+                count(colorCounts, colorCodes[slot]);
+                count(cityCounts, cityCodes[slot]);
+                int price = prices[slot];
+                if (price != NULL_PRICE && price > 0) {
+                    min = Math.min(min, price);
+                    max = Math.max(max, price);
+                }
+            }
+
+            List<FacetValue> yearFacets = toFacets(years, yearCounts);
+            yearFacets.sort(Comparator.comparing(f -> Integer.valueOf(f.getValue())));
+            return new CatalogFacets(
+                    toFacets(brands, brandCounts),
+                    yearFacets,
+                    toFacets(colors, colorCounts),
+                    toFacets(cities, cityCounts),
+                    min == Integer.MAX_VALUE ? null : min,
+                    max == Integer.MIN_VALUE ? null : max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Строит битовую карту слотов, удовлетворяющих фильтрам каталога.
+     * Вызывается под блокировкой чтения.
+     */
+    private BitSet filter(Long brandId, Integer year, String color, String city,
+                          Integer minPrice, Integer maxPrice, Collection<Long> busyCarIds) {
+        BitSet result = new BitSet();
+        if (busyCarIds == null) {
+            Integer available = statuses.lookup("AVAILABLE");
+            if (available == null) {
+                return result;
+            }
+            result.or(statuses.bitmap(available));
+        } else {
+            result.or(live);
+            Integer maintenance = statuses.lookup("MAINTENANCE");
+            if (maintenance != null) {
+                result.andNot(statuses.bitmap(maintenance));
+            }
+            for (Long id : busyCarIds) {
+                Integer slot = slotById.get(id);
+                if (slot != null) {
+                    result.clear(slot);
+                }
+            }
+        }
+
+        if (brandId != null && brandId != 0 && !and(result, brands, brandId)) {
+            return new BitSet();
+        }
+        if (year != null && year != 0 && !and(result, years, year)) {
+            return new BitSet();
+        }
+        if (color != null && !color.isBlank() && !and(result, colors, color.toLowerCase())) {
+            return new BitSet();
+        }
+        if (city != null && !city.isBlank() && !and(result, cities, city.toLowerCase())) {
+            return new BitSet();
+        }
+
+        int min = minPrice != null && minPrice > 0 ? minPrice * 100 : NULL_PRICE;
+        int max = maxPrice != null && maxPrice > 0 ? maxPrice * 100 : NULL_PRICE;
+        if (min != NULL_PRICE || max != NULL_PRICE) {
+            for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+                int price = prices[slot];
+                if (price == NULL_PRICE || (min != NULL_PRICE && price < min) || (max != NULL_PRICE && price > max)) {
+                    result.clear(slot);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Пересекает результат с битовой картой значения словаря.
+     *
+     * @return false, если значения нет в словаре (результат заведомо пуст)
+     */
+    private static boolean and(BitSet result, Dictionary dictionary, Object key) {
+        Integer code = dictionary.lookup(key);
+        if (code == null) {
+            return false;
+        }
+        result.and(dictionary.bitmap(code));
+        return true;
+    }
+
+    /**
+     * Формирует ключи сортировки по цене: цена в старших 32 битах, ID - в младших.
+     * Автомобили без цены всегда оказываются в конце.
+     */
+    private long[] priceSortKeys(BitSet matches, int total, boolean descending) {
+        long[] keys = new long[total];
+        int i = 0;
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            int price = prices[slot];
+            long high;
+            if (price == NULL_PRICE) {
+                high = 1L << 31;
+            } else {
+                high = descending ? (long) Integer.MAX_VALUE - price : price;
+            }
+            keys[i++] = (high << 32) | (ids[slot] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Увеличивает счетчик значения, если код не пустой.
+     */
+    private static void count(long[] counts, int code) {
+        if (code != NULL_CODE) {
+            counts[code]++;
+        }
+    }
+
+    /**
+     * Преобразует счетчики словаря в отсортированный по подписи список значений фасета.
+     */
+    private static List<FacetValue> toFacets(Dictionary dictionary, long[] counts) {
+        List<FacetValue> result = new ArrayList<>();
+        for (int code = 0; code < counts.length; code++) {
+            String label = dictionary.labels.get(code);
+            if (counts[code] > 0 && label != null && !label.isBlank()) {
+                result.add(new FacetValue(valueOf(dictionary.keys.get(code), label), label, counts[code]));
+            }
+        }
+        result.sort(Comparator.comparing(FacetValue::getLabel, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    /**
+     * Возвращает значение параметра фильтра: для строковых атрибутов - исходная подпись,
+     * для числовых (марка, год) - строковое представление ключа.
+     */
+    private static String valueOf(Object key, String label) {
+        return key instanceof String ? label : String.valueOf(key);
+    }
+
+    /**
+     * Записывает строку в индекс. Вызывается под блокировкой записи.
+     */
+    private void put(Row row) {
+        Integer slot = slotById.get(row.id());
+        if (slot != null) {
+            unindex(slot);
+        } else {
+            slot = size++;
+            ensureCapacity(size);
+            if (row.id() < maxId) {
+                idOrdered = false;
+            }
+            maxId = Math.max(maxId, row.id());
+            ids[slot] = row.id();
+            slotById.put(row.id(), slot);
+            live.set(slot);
+        }
+
+        statusCodes[slot] = statuses.encode(row.status(), row.status());
+        cityCodes[slot] = cities.encode(lower(row.city()), row.city());
+        brandCodes[slot] = brands.encode(row.brandId(), row.brandName());
+        yearCodes[slot] = years.encode(row.year(), row.year() != null ? String.valueOf(row.year()) : null);
+        colorCodes[slot] = colors.encode(lower(row.color()), row.color());
+        prices[slot] = row.pricePerDay() != null ? row.pricePerDay() : NULL_PRICE;
+
+        setBit(statuses, statusCodes[slot], slot);
+        setBit(cities, cityCodes[slot], slot);
+        setBit(brands, brandCodes[slot], slot);
+        setBit(years, yearCodes[slot], slot);
+        setBit(colors, colorCodes[slot], slot);
+    }
+
+    /**
+     * Снимает слот со всех битовых карт значений. Вызывается под блокировкой записи.
+     */
+    private void unindex(int slot) {
+        clearBit(statuses, statusCodes[slot], slot);
+        clearBit(cities, cityCodes[slot], slot);
+        clearBit(brands, brandCodes[slot], slot);
+        clearBit(years, yearCodes[slot], slot);
+        clearBit(colors, colorCodes[slot], slot);
+    }
+
+    /**
+     * Уплотняет индекс, переписывая существующие автомобили в порядке ID.
+     */
+    private void compact() {
+        List<Row> rows = new ArrayList<>(slotById.size());
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            rows.add(rowAt(slot));
+        }
+        rows.sort(Comparator.comparingLong(Row::id));
+        clear();
+        for (Row row : rows) {
+            put(row);
+        }
+    }
+
+    /**
+     * Восстанавливает строку по слоту (для уплотнения).
+     */
+    private Row rowAt(int slot) {
+        return new Row(ids[slot],
+                (String) key(statuses, statusCodes[slot]),
+                label(cities, cityCodes[slot]),
+                (Long) key(brands, brandCodes[slot]),
+                label(brands, brandCodes[slot]),
+                (Integer) key(years, yearCodes[slot]),
+                label(colors, colorCodes[slot]),
+                prices[slot] != NULL_PRICE ? prices[slot] : null);
+    }
+
+    /**
+     * Возвращает ключ значения словаря по коду.
+     */
+    private static Object key(Dictionary dictionary, int code) {
+        return code == NULL_CODE ? null : dictionary.keys.get(code);
+    }
+
+    /**
+     * Возвращает подпись значения словаря по коду.
+     */
+    private static String label(Dictionary dictionary, int code) {
+        return code == NULL_CODE ? null : dictionary.labels.get(code);
+    }
+
+    /**
+     * Очищает все колонки и словари. Вызывается под блокировкой записи.
+     */
+    private void clear() {
+        size = 0;
+        live.clear();
+        slotById.clear();
+        idOrdered = true;
+        maxId = Long.MIN_VALUE;
+        statuses.clear();
+        cities.clear();
+        brands.clear();
+        years.clear();
+        colors.clear();
+    }
+
+    /**
+     * Увеличивает емкость колонок при необходимости.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        statusCodes = Arrays.copyOf(statusCodes, newCapacity);
+        cityCodes = Arrays.copyOf(cityCodes, newCapacity);
+        brandCodes = Arrays.copyOf(brandCodes, newCapacity);
+        yearCodes = Arrays.copyOf(yearCodes, newCapacity);
+        colorCodes = Arrays.copyOf(colorCodes, newCapacity);
+        prices = Arrays.copyOf(prices, newCapacity);
+    }
+
+    /**
+     * Устанавливает бит слота в битовой карте значения.
+     */
+    private static void setBit(Dictionary dictionary, int code, int slot) {
+        if (code != NULL_CODE) {
+            dictionary.bitmap(code).set(slot);
+        }
+    }
+
+    /**
+     * Снимает бит слота в битовой карте значения.
+     */
+    private static void clearBit(Dictionary dictionary, int code, int slot) {
+        if (code != NULL_CODE) {
+            dictionary.bitmap(code).clear(slot);
+        }
+    }
+
+    /**
+     * Приводит строку к нижнему регистру с сохранением null.
+     */
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase() : null;
+    }
+}
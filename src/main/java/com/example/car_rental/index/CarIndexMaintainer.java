@@ -0,0 +1,317 @@
+package com.example.car_rental.index;
+
+import com.example.car_rental.event.CarChangedEvent;
+import com.example.car_rental.event.CarStatusChangedEvent;
+import com.example.car_rental.event.CarsBulkChangedEvent;
+import com.example.car_rental.index.CarAvailabilityIndex.Row;
+import com.example.car_rental.model.Car;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Компонент, поддерживающий {@link CarAvailabilityIndex} в актуальном состоянии.
+ * <p>
+ * При старте приложения загружает весь автопарк одним JDBC-запросом (без создания
+ * JPA-сущностей), а затем применяет события {@link CarChangedEvent} после фиксации
+ * транзакции, в которой автомобиль был сохранен или удален. Смена статуса
+ * автомобиля при создании, оплате и отмене аренды проходит через
+ * {@code CarService.changeStatus}, который также публикует это событие. После массовых
+ * операций и импорта ({@link CarsBulkChangedEvent}) измененные автомобили перечитываются одним запросом.
+ * <p>
+ * Изменения, примененные во время полного перестроения, были бы потеряны при замене индекса,
+ * поэтому ID таких автомобилей запоминаются и перечитываются после замены.
+ * <p>
+ * Если после изменения у автомобиля сменился статус (или автомобиль добавлен или удален),
+ * публикуется {@link CarStatusChangedEvent} для подписчиков каталога.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class CarIndexMaintainer {
+
+    /**
+     * Логгер
+     */
+    private static final Logger log = LoggerFactory.getLogger(CarIndexMaintainer.class);
+
+    /**
+     * Запрос загрузки автопарка в индекс
+     */
+    private static final String LOAD_SQL = """
+            SELECT c.id, c.status, c.city, c.brand_id, b.name AS brand_name,
+                   c.year_of_manufacture, c.color, c.price_per_day
+            FROM cars c
+            LEFT JOIN brands b ON b.id = c.brand_id
+            ORDER BY c.id
+            """;
+
+    /**
+     * Запрос перечитывания автомобилей по списку ID после массовой операции
+     */
+    private static final String RELOAD_SQL = """
+            SELECT c.id, c.status, c.city, c.brand_id, b.name AS brand_name,
+                   c.year_of_manufacture, c.color, c.price_per_day
+            FROM cars c
+            LEFT JOIN brands b ON b.id = c.brand_id
+            WHERE c.id = ANY (?)
+            """;
+
+    /**
+     * Размер порции строк, получаемой из базы данных за один раз
+     */
+    private static final int FETCH_SIZE = 1000;
+
+    /**
+     * Индекс автопарка
+     */
+    private final CarAvailabilityIndex index;
+
+    /**
+     * JDBC-шаблон для загрузки автопарка
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Публикатор событий смены статуса
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Автомобили, измененные во время перестроения; null, если перестроения нет
+     */
+    private Set<Long> pending;
+
+    /**
+     * Конструктор компонента обслуживания индекса.
+     *
+     * @param index          индекс автопарка
+     * @param jdbcTemplate   JDBC-шаблон
+     * @param eventPublisher публикатор событий смены статуса
+     */
+    public CarIndexMaintainer(CarAvailabilityIndex index, JdbcTemplate jdbcTemplate,
+                              ApplicationEventPublisher eventPublisher) {
+        this.index = index;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Полностью перестраивает индекс по данным из базы данных.
+     * Выполняется после запуска приложения; чтение идет в транзакции,
+     * чтобы драйвер PostgreSQL получал строки порциями по {@value #FETCH_SIZE}.
+     * Транзакция не помечена только для чтения, чтобы индекс строился по основному
+     * серверу, а не по реплике, которая может отставать. Если перестроение уже идет,
+     * ничего не делает.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        synchronized (this) {
+            if (pending != null) {
+                return;
+            }
+            pending = new HashSet<>();
+        }
+        Set<Long> changed;
+        try {
+            long started = System.currentTimeMillis();
+            List<Row> rows = new ArrayList<>();
+            jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement(LOAD_SQL);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, rs -> {
+                rows.add(mapRow(rs));
+            });
+            index.rebuild(rows);
+            log.info("Индекс каталога загружен: {} автомобилей за {} мс", rows.size(), System.currentTimeMillis() - started);
+        } finally {
+            synchronized (this) {
+                changed = pending;
+                pending = null;
+            }
+        }
+        eventPublisher.publishEvent(new CarStatusChangedEvent(List.of(), true));
+        reload(changed);
+    }
+
+    /**
+     * Применяет изменение автомобиля к индексу после фиксации транзакции.
+     * Если транзакции нет, событие применяется сразу.
+     *
+     * @param event событие изменения автомобиля
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.getCarId() == null) {
+            return;
+        }
+        journal(List.of(event.getCarId()));
+        Row previous = index.get(event.getCarId());
+        if (event.isDeleted()) {
+            index.remove(event.getCarId());
+            if (previous != null) {
+                publishChanged(List.of(withoutStatus(previous)));
+            }
+        } else {
+            Row row = toRow(event.getCar());
+            index.upsert(row);
+            if (previous == null || !Objects.equals(previous.status(), row.status())) {
+                publishChanged(List.of(row));
+            }
+        }
+    }
+
+    /**
+     * Перечитывает автомобили, измененные массовой операцией, после фиксации транзакции.
+     * Одно событие на операцию - один запрос к базе данных независимо от числа автомобилей.
+     *
+     * @param event событие массового изменения автомобилей
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarsBulkChanged(CarsBulkChangedEvent event) {
+        reload(event.getCarIds());
+    }
+
+    /**
+     * Перечитывает автомобили одним запросом и обновляет их в индексе.
+     * Автомобили, которых больше нет в базе данных, удаляются из индекса.
+     *
+     * @param carIds ID автомобилей
+     */
+    public void reload(Collection<Long> carIds) {
+        if (carIds.isEmpty()) {
+            return;
+        }
+        journal(carIds);
+        Map<Long, Row> previous = new HashMap<>();
+        for (Long id : carIds) {
+            Row row = index.get(id);
+            if (row != null) {
+                previous.put(id, row);
+            }
+        }
+        List<Row> rows = new ArrayList<>(carIds.size());
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(RELOAD_SQL);
+            statement.setArray(1, con.createArrayOf("bigint", carIds.toArray()));
+            return statement;
+        }, rs -> {
+            rows.add(mapRow(rs));
+        });
+        index.upsertAll(rows);
+        List<Row> changed = new ArrayList<>();
+        for (Row row : rows) {
+            Row before = previous.get(row.id());
+            if (before == null || !Objects.equals(before.status(), row.status())) {
+                changed.add(row);
+            }
+        }
+        if (rows.size() < carIds.size()) {
+            Set<Long> found = new HashSet<>();
+            rows.forEach(row -> found.add(row.id()));
+            for (Long id : carIds) {
+                if (!found.contains(id)) {
+                    index.remove(id);
+                    Row before = previous.get(id);
+                    if (before != null) {
+                        changed.add(withoutStatus(before));
+                    }
+                }
+            }
+        }
+        publishChanged(changed);
+    }
+
+    /**
+     * Запоминает автомобили, измененные во время перестроения.
+     *
+     * @param carIds ID автомобилей
+     */
+    private synchronized void journal(Collection<Long> carIds) {
+        if (pending != null) {
+            pending.addAll(carIds);
+        }
+    }
+
+    /**
+     * Публикует смену статуса автомобилей, если она есть.
+     *
+     * @param changed автомобили с новым статусом
+     */
+    private void publishChanged(List<Row> changed) {
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new CarStatusChangedEvent(changed, false));
+        }
+    }
+
+    /**
+     * Строка удаленного автомобиля: прежние атрибуты без статуса.
+     *
+     * @param row последняя строка автомобиля в индексе
+     * @return строка со статусом null
+     */
+    private static Row withoutStatus(Row row) {
+        return new Row(row.id(), null, row.city(), row.brandId(), row.brandName(),
+                row.year(), row.color(), row.pricePerDay());
+    }
+
+    /**
+     * Преобразует строку результата запроса в строку индекса.
+     *
+     * @param rs результат запроса, установленный на текущую строку
+     * @return строка индекса
+     * @throws SQLException при ошибке чтения
+     */
+    private static Row mapRow(ResultSet rs) throws SQLException {
+        return new Row(
+                rs.getLong("id"),
+                rs.getString("status"),
+                rs.getString("city"),
+                rs.getObject("brand_id", Long.class),
+                rs.getString("brand_name"),
+                rs.getObject("year_of_manufacture", Integer.class),
+                rs.getString("color"),
+                rs.getObject("price_per_day", Integer.class));
+    }
+
+    /**
+     * Преобразует сущность автомобиля в строку индекса.
+     * Название марки берется только у уже загруженной марки, чтобы не вызывать
+     * ленивую загрузку вне транзакции; для известной индексу марки сохраняется прежнее название.
+     *
+     * @param car автомобиль
+     * @return строка индекса
+     */
+    static Row toRow(Car car) {
+        return new Row(
+                car.getId(),
+                car.getStatus(),
+                car.getCity(),
+                car.getBrand() != null ? car.getBrand().getId() : null,
+                car.getBrand() != null && Hibernate.isInitialized(car.getBrand()) ? car.getBrand().getName() : null,
+                car.getYearOfManufacture(),
+                car.getColor(),
+                car.getPricePerDay());
+    }
+}
@@ -0,0 +1,478 @@
+package com.example.car_rental.index;
+
+import com.example.car_rental.event.CarOccupancyChangedEvent;
+import com.example.car_rental.event.RentalChangedEvent;
+import com.example.car_rental.index.CarAvailabilityIndex.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Календарь занятости автомобилей в памяти: по две битовые карты дней на автомобиль.
+ * <p>
+ * Окно календаря - {@value #WINDOW_DAYS} дней начиная с дня построения (горизонт
+ * бронирования плюс запас на аренды, начинающиеся в его конце). Каждый день окна - один бит
+ * в массиве из {@value #WORDS} {@code long}: отдельно оплаченные аренды и неоплаченные удержания.
+ * Поиск первого свободного дня и разбиение на отрезки для диаграммы выполняются по словам
+ * ({@link Long#numberOfTrailingZeros}), без обращения к базе данных. Автомобили без аренд
+ * в окне в календаре не хранятся.
+ * <p>
+ * Календарь строится при запуске приложения одним запросом по GiST-индексу периодов аренды
+ * и перестраивается в полночь, сдвигая окно на новый день. После создания, оплаты, отмены
+ * или снятия удержания ({@link RentalChangedEvent}) аренды автомобиля перечитываются одним
+ * запросом. Изменения во время перестроения запоминаются и перечитываются после замены.
+ * Перечитывания выполняются по одному: чтение из базы данных и запись в календарь идут
+ * под одной блокировкой, поэтому последним записывается результат, прочитанный после
+ * последней фиксации. После перечитывания публикуется {@link CarOccupancyChangedEvent}.
+ * <p>
+ * Обслуживание не имеет дат: автомобиль в статусе MAINTENANCE (по индексу каталога)
+ * считается занятым на все окно.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class CarOccupancyCalendar {
+
+    /**
+     * Логгер календаря занятости
+     */
+    private static final Logger log = LoggerFactory.getLogger(CarOccupancyCalendar.class);
+
+    /**
+     * Количество слов битовой карты одного автомобиля
+     */
+    public static final int WORDS = 6;
+
+    /**
+     * Длина окна календаря в днях
+     */
+    public static final int WINDOW_DAYS = WORDS * Long.SIZE;
+
+    /**
+     * Аренды, пересекающие окно календаря
+     */
+    private static final String LOAD_SQL = """
+            SELECT car_id, start_date, end_date, status
+            FROM rentals
+            WHERE status <> 'CANCELLED' AND period && daterange(?, ?)
+            """;
+
+    /**
+     * Аренды заданных автомобилей, пересекающие окно календаря
+     */
+    private static final String RELOAD_SQL = """
+            SELECT car_id, start_date, end_date, status
+            FROM rentals
+            WHERE status <> 'CANCELLED' AND period && daterange(?, ?) AND car_id = ANY (?)
+            """;
+
+    /**
+     * Вид занятости дня.
+     */
+    public enum Kind {
+
+        /**
+         * Неоплаченное удержание (PENDING_PAYMENT)
+         */
+        HELD,
+
+        /**
+         * Оплаченная аренда (PAID)
+         */
+        PAID
+    }
+
+    /**
+     * Отрезок занятых подряд дней.
+     *
+     * @param offset номер первого дня от начала запрошенного периода
+     * @param length количество дней
+     * @param kind   вид занятости
+     */
+    public record Segment(int offset, int length, Kind kind) {
+    }
+
+    /**
+     * Битовые карты дней одного автомобиля; бит i - день {@code origin + i}.
+     *
+     * @param paid дни оплаченных аренд
+     * @param held дни неоплаченных удержаний
+     */
+    private record Days(long[] paid, long[] held) {
+    }
+
+    /**
+     * Календарь автопарка: первый день окна и битовые карты по ID автомобиля.
+     */
+    private record Snapshot(LocalDate origin, Map<Long, Days> cars) {
+    }
+
+    /**
+     * Текущий календарь; null, пока календарь не построен
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Автомобили, аренды которых изменились во время перестроения; null, если перестроения нет
+     */
+    private Set<Long> pending;
+
+    /**
+     * Блокировка перечитывания: запрос и запись результата выполняются под ней вместе
+     */
+    private final Object reloadLock = new Object();
+
+    /**
+     * Индекс каталога (статус обслуживания)
+     */
+    private final CarAvailabilityIndex index;
+
+    /**
+     * JDBC-шаблон для загрузки аренд
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Публикатор событий изменения занятости
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Конструктор календаря занятости.
+     *
+     * @param index          индекс каталога
+     * @param jdbcTemplate   JDBC-шаблон
+     * @param eventPublisher публикатор событий
+     */
+    public CarOccupancyCalendar(CarAvailabilityIndex index, JdbcTemplate jdbcTemplate,
+                                ApplicationEventPublisher eventPublisher) {
+        this.index = index;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Строит календарь с окном от текущего дня. Выполняется после запуска приложения
+     * и ежедневно в полночь. Если построение уже идет, ничего не делает.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rebuild() {
+        synchronized (this) {
+            if (pending != null) {
+                return;
+            }
+            pending = new HashSet<>();
+        }
+        Set<Long> changed;
+        try {
+            long started = System.currentTimeMillis();
+            LocalDate origin = LocalDate.now();
+            Map<Long, Days> cars = new ConcurrentHashMap<>(load(origin, null));
+            snapshot = new Snapshot(origin, cars);
+            log.info("Календарь занятости построен с {}: {} автомобилей с арендами за {} мс",
+                    origin, cars.size(), System.currentTimeMillis() - started);
+        } finally {
+            synchronized (this) {
+                changed = pending;
+                pending = null;
+            }
+        }
+        reload(changed);
+    }
+
+    /**
+     * Перечитывает аренды автомобиля после фиксации транзакции перехода аренды.
+     * Если транзакции нет, аренды перечитываются сразу.
+     *
+     * @param event событие перехода аренды
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        if (event.getCarId() != null) {
+            reload(List.of(event.getCarId()));
+        }
+    }
+
+    /**
+     * Перечитывает аренды автомобилей одним запросом.
+     *
+     * @param carIds ID автомобилей
+     */
+    public void reload(Collection<Long> carIds) {
+        if (carIds.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (pending != null) {
+                pending.addAll(carIds);
+            }
+        }
+        // Иначе перечитывание, начатое до фиксации, могло бы записать результат после более нового
+        synchronized (reloadLock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Map<Long, Days> loaded = load(current.origin(), carIds);
+            for (Long carId : carIds) {
+                Days days = loaded.get(carId);
+                if (days != null) {
+                    current.cars().put(carId, days);
+                } else {
+                    current.cars().remove(carId);
+                }
+            }
+        }
+        eventPublisher.publishEvent(new CarOccupancyChangedEvent(carIds));
+    }
+
+    /**
+     * Проверяет, построен ли календарь.
+     *
+     * @return true, если календарь построен
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Проверяет, что автомобиль не занят ни арендой, ни удержанием ни в один день периода.
+     * Дни за пределами окна календаря считаются свободными; обслуживание не учитывается.
+     *
+     * @param carId ID автомобиля
+     * @param from  первый день периода
+     * @param to    день окончания периода (не включается)
+     * @return true, если период свободен
+     */
+    public boolean isFree(long carId, LocalDate from, LocalDate to) {
+        Snapshot current = snapshot;
+        Days days = current == null ? null : current.cars().get(carId);
+        if (days == null) {
+            return true;
+        }
+        int start = offset(current.origin(), from);
+        int end = offset(current.origin(), to);
+        return scan(days.paid(), days.held(), false, start, end) < 0;
+    }
+
+    /**
+     * Возвращает занятые отрезки автомобиля в периоде для диаграммы.
+     * Дни за пределами окна календаря считаются свободными.
+     *
+     * @param carId ID автомобиля
+     * @param from  первый день периода
+     * @param days  количество дней периода
+     * @return отрезки в порядке вида занятости и дат; смещения от {@code from}
+     */
+    public List<Segment> timeline(long carId, LocalDate from, int days) {
+        Snapshot current = snapshot;
+        Days carDays = current == null ? null : current.cars().get(carId);
+        if (carDays == null) {
+            return List.of();
+        }
+        int start = offset(current.origin(), from);
+        int end = offset(current.origin(), from.plusDays(days));
+        int shift = (int) ChronoUnit.DAYS.between(current.origin(), from);
+        List<Segment> segments = new ArrayList<>();
+        addSegments(segments, carDays.paid(), Kind.PAID, start, end, shift);
+        addSegments(segments, carDays.held(), Kind.HELD, start, end, shift);
+        return segments;
+    }
+
+    /**
+     * Находит для каждого автомобиля первый день не раньше {@code from}, не занятый
+     * ни арендой, ни удержанием.
+     *
+     * @param carIds ID автомобилей
+     * @param from   день начала поиска
+     * @return первый свободный день по ID; null, если автомобиль на обслуживании,
+     * занят до конца окна или календарь не построен
+     */
+    public Map<Long, LocalDate> firstFreeDays(Collection<Long> carIds, LocalDate from) {
+        Map<Long, LocalDate> result = new LinkedHashMap<>();
+        Snapshot current = snapshot;
+        for (Long carId : carIds) {
+            result.put(carId, current == null ? null : firstFreeDay(current, carId, from));
+        }
+        return result;
+    }
+
+    /**
+     * Находит первый свободный день автомобиля в календаре.
+     */
+    private LocalDate firstFreeDay(Snapshot current, long carId, LocalDate from) {
+        Row row = index.get(carId);
+        if (row != null && "MAINTENANCE".equals(row.status())) {
+            return null;
+        }
+        int start = offset(current.origin(), from);
+        if (start >= WINDOW_DAYS) {
+            return null;
+        }
+        Days days = current.cars().get(carId);
+        int free = days == null ? start : nextFree(days.paid(), days.held(), start, WINDOW_DAYS);
+        return free < 0 ? null : current.origin().plusDays(free);
+    }
+
+    /**
+     * Загружает аренды, пересекающие окно, и строит битовые карты.
+     *
+     * @param origin первый день окна
+     * @param carIds ID автомобилей или null для всего автопарка
+     * @return битовые карты по ID автомобиля
+     */
+    private Map<Long, Days> load(LocalDate origin, Collection<Long> carIds) {
+        Map<Long, Days> cars = new HashMap<>();
+        Date windowStart = Date.valueOf(origin);
+        Date windowEnd = Date.valueOf(origin.plusDays(WINDOW_DAYS));
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(carIds == null ? LOAD_SQL : RELOAD_SQL);
+            statement.setDate(1, windowStart);
+            statement.setDate(2, windowEnd);
+            if (carIds != null) {
+                statement.setArray(3, con.createArrayOf("bigint", carIds.toArray()));
+            }
+            return statement;
+        }, rs -> {
+            Days days = cars.computeIfAbsent(rs.getLong("car_id"), id -> new Days(new long[WORDS], new long[WORDS]));
+            int from = offset(origin, rs.getDate("start_date").toLocalDate());
+            int to = offset(origin, rs.getDate("end_date").toLocalDate());
+            set("PAID".equals(rs.getString("status")) ? days.paid() : days.held(), from, to);
+        });
+        return cars;
+    }
+
+    /**
+     * Добавляет отрезки занятых подряд дней битовой карты в диапазоне [start, end).
+     */
+    private static void addSegments(List<Segment> segments, long[] words, Kind kind, int start, int end, int shift) {
+        int position = start;
+        int from;
+        while ((from = nextSet(words, position, end)) >= 0) {
+            int to = nextClear(words, from, end);
+            if (to < 0) {
+                to = end;
+            }
+            segments.add(new Segment(from - shift, to - from, kind));
+            position = to;
+        }
+    }
+
+    /**
+     * Номер дня в окне, ограниченный границами окна.
+     *
+     * @param origin первый день окна
+     * @param date   день
+     * @return номер дня от 0 до {@value #WINDOW_DAYS}
+     */
+    static int offset(LocalDate origin, LocalDate date) {
+        long days = ChronoUnit.DAYS.between(origin, date);
+        return (int) Math.max(0, Math.min(WINDOW_DAYS, days));
+    }
+
+    /**
+     * Устанавливает биты [from, to).
+     *
+     * @param words битовая карта
+     * @param from  первый бит
+     * @param to    бит за последним
+     */
+    static void set(long[] words, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        // Сдвиги long используют младшие 6 бит: маски начала и конца внутри слова
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+            return;
+        }
+        words[first] |= firstMask;
+        for (int i = first + 1; i < last; i++) {
+            words[i] = -1L;
+        }
+        words[last] |= lastMask;
+    }
+
+    /**
+     * Находит первый установленный бит в [from, to).
+     *
+     * @return номер бита или -1
+     */
+    static int nextSet(long[] words, int from, int to) {
+        return scan(words, null, false, from, to);
+    }
+
+    /**
+     * Находит первый сброшенный бит в [from, to).
+     *
+     * @return номер бита или -1
+     */
+    static int nextClear(long[] words, int from, int to) {
+        return scan(words, null, true, from, to);
+    }
+
+    /**
+     * Находит первый бит в [from, to), сброшенный в обеих битовых картах.
+     *
+     * @return номер бита или -1
+     */
+    static int nextFree(long[] first, long[] second, int from, int to) {
+        return scan(first, second, true, from, to);
+    }
+
+    /**
+     * Просмотр по словам: объединение карт (второй может не быть), при необходимости
+     * инвертированное, и первый установленный бит в [from, to).
+     */
+    private static int scan(long[] first, long[] second, boolean clear, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int last = (to - 1) >>> 6;
+        int i = from >>> 6;
+        long word = word(first, second, clear, i) & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int bit = (i << 6) + Long.numberOfTrailingZeros(word);
+                return bit < to ? bit : -1;
+            }
+            if (++i > last) {
+                return -1;
+            }
+            word = word(first, second, clear, i);
+        }
+    }
+
+    /**
+     * Слово объединения карт, инвертированное для поиска сброшенных битов.
+     */
+    private static long word(long[] first, long[] second, boolean clear, int i) {
+        long word = first[i] | (second != null ? second[i] : 0L);
+        return clear ? ~word : word;
+    }
+}
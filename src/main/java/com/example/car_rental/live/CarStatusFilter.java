@@ -0,0 +1,81 @@
+package com.example.car_rental.live;
+
+import com.example.car_rental.index.CarAvailabilityIndex.Row;
+
+import java.time.LocalDate;
+
+/**
+ * Фильтр каталога, для которого подписчик получает смену статусов автомобилей.
+ * Значения трактуются так же, как в поиске по индексу каталога: 0 и пустые
+ * строки означают «без фильтра», цвет и город сравниваются без учета регистра,
+ * цены задаются в рублях. Если на странице выбран период аренды, подписчик также
+ * получает занятость автомобилей на этот период.
+ *
+ * @param brandId  ID марки
+ * @param year     год выпуска
+ * @param color    цвет
+ * @param city     город
+ * @param minPrice минимальная цена за день в рублях
+ * @param maxPrice максимальная цена за день в рублях
+ * @param from     первый день выбранного периода аренды (null, если период не выбран)
+ * @param to       день окончания выбранного периода, не включается (null, если период не выбран)
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public record CarStatusFilter(Long brandId, Integer year, String color, String city,
+                              Integer minPrice, Integer maxPrice, LocalDate from, LocalDate to) {
+
+    /**
+     * Создает фильтр без периода аренды.
+     *
+     * @param brandId  ID марки
+     * @param year     год выпуска
+     * @param color    цвет
+     * @param city     город
+     * @param minPrice минимальная цена за день в рублях
+     * @param maxPrice максимальная цена за день в рублях
+     */
+    public CarStatusFilter(Long brandId, Integer year, String color, String city,
+                           Integer minPrice, Integer maxPrice) {
+        this(brandId, year, color, city, minPrice, maxPrice, null, null);
+    }
+
+    /**
+     * Проверяет, выбран ли период аренды.
+     *
+     * @return true, если обе даты заданы и период не пуст
+     */
+    public boolean hasPeriod() {
+        return from != null && to != null && to.isAfter(from);
+    }
+
+    /**
+     * Проверяет, подходит ли автомобиль под фильтр (статус не учитывается).
+     *
+     * @param row атрибуты автомобиля
+     * @return true, если автомобиль подходит под фильтр
+     */
+    public boolean matches(Row row) {
+        if (brandId != null && brandId != 0 && !brandId.equals(row.brandId())) {
+            return false;
+        }
+        if (year != null && year != 0 && !year.equals(row.year())) {
+            return false;
+        }
+        if (color != null && !color.isBlank() && !color.equalsIgnoreCase(row.color())) {
+            return false;
+        }
+        if (city != null && !city.isBlank() && !city.equalsIgnoreCase(row.city())) {
+            return false;
+        }
+        boolean byMin = minPrice != null && minPrice > 0;
+        boolean byMax = maxPrice != null && maxPrice > 0;
+        if (byMin || byMax) {
+            Integer price = row.pricePerDay();
+            if (price == null || (byMin && price < minPrice * 100) || (byMax && price > maxPrice * 100)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.car_rental.live;
+
+import com.example.car_rental.event.CarOccupancyChangedEvent;
+import com.example.car_rental.event.CarStatusChangedEvent;
+import com.example.car_rental.index.CarAvailabilityIndex;
+import com.example.car_rental.index.CarAvailabilityIndex.Row;
+import com.example.car_rental.index.CarOccupancyCalendar;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+/**
+ * Рассылка смены статусов автомобилей подписчикам каталога (Server-Sent Events).
+ * <p>
+ * Подписчик получает только автомобили, подходящие под фильтр его страницы каталога.
+ * Событие смены статуса сериализуется один раз, при первом подходящем подписчике.
+ * <p>
+ * Бронирование будущих дат статус автомобиля не меняет. Поэтому подписчикам, выбравшим
+ * период аренды, после изменения аренд автомобиля ({@link CarOccupancyChangedEvent})
+ * отправляется событие {@value #PERIOD_EVENT}: свободен ли автомобиль на их период
+ * по календарю занятости.
+ * Если очередь подписчика переполнилась или индекс каталога перестроен целиком,
+ * отправляется событие {@value #RESET_EVENT}: страница предлагает обновить каталог.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class CarStatusHub extends SseHub<CarStatusFilter> {
+
+    /**
+     * Имя события смены статуса; данные - {@code {"id":7,"status":"RENTED"}}, у удаленного автомобиля status null
+     */
+    public static final String STATUS_EVENT = "status";
+
+    /**
+     * Имя события занятости на выбранный период; данные - {@code {"id":7,"free":false}}
+     */
+    public static final String PERIOD_EVENT = "period";
+
+    /**
+     * Имя события «статусы могли измениться у любого автомобиля»
+     */
+    public static final String RESET_EVENT = "reset";
+
+    /**
+     * Готовое событие «статусы могли измениться у любого автомобиля»
+     */
+    private static final Set<DataWithMediaType> RESET = SseEmitter.event().name(RESET_EVENT).data("{}").build();
+
+    /**
+     * Индекс каталога (атрибуты автомобиля для фильтра)
+     */
+    private final CarAvailabilityIndex index;
+
+    /**
+     * Календарь занятости автомобилей
+     */
+    private final CarOccupancyCalendar calendar;
+
+    /**
+     * Конструктор рассылки статусов.
+     *
+     * @param index    индекс каталога
+     * @param calendar календарь занятости
+     */
+    public CarStatusHub(CarAvailabilityIndex index, CarOccupancyCalendar calendar) {
+        this.index = index;
+        this.calendar = calendar;
+    }
+
+    /**
+     * Подписывает клиента на смену статусов автомобилей, подходящих под фильтр.
+     *
+     * @param filter фильтр каталога
+     * @return асинхронный ответ с потоком событий
+     */
+    public SseEmitter subscribe(CarStatusFilter filter) {
+        return register(filter, null);
+    }
+
+    /**
+     * Рассылает смену статусов подписчикам, у которых автомобиль подходит под фильтр.
+     *
+     * @param event событие смены статуса
+     */
+    @EventListener
+    public void onStatusChanged(CarStatusChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (event.isFull()) {
+            broadcast(RESET);
+            return;
+        }
+        for (Row row : event.getCars()) {
+            Set<DataWithMediaType> message = null;
+            for (Subscriber<CarStatusFilter> subscriber : subscribers) {
+                if (subscriber.getAttachment().matches(row)) {
+                    if (message == null) {
+                        message = SseEmitter.event().name(STATUS_EVENT).data(json(row)).build();
+                    }
+                    offer(subscriber, message);
+                }
+            }
+        }
+    }
+
+    /**
+     * Рассылает занятость автомобилей подписчикам, выбравшим период аренды,
+     * у которых автомобиль подходит под фильтр.
+     *
+     * @param event событие изменения занятости
+     */
+    @EventListener
+    public void onOccupancyChanged(CarOccupancyChangedEvent event) {
+        if (subscribers.isEmpty() || !calendar.isReady()) {
+            return;
+        }
+        for (Long carId : event.getCarIds()) {
+            Row row = index.get(carId);
+            if (row == null) {
+                continue;
+            }
+            Set<DataWithMediaType> free = null;
+            Set<DataWithMediaType> busy = null;
+            for (Subscriber<CarStatusFilter> subscriber : subscribers) {
+                CarStatusFilter filter = subscriber.getAttachment();
+                if (!filter.hasPeriod() || !filter.matches(row)) {
+                    continue;
+                }
+                if (calendar.isFree(carId, filter.from(), filter.to())) {
+                    if (free == null) {
+                        free = SseEmitter.event().name(PERIOD_EVENT).data(periodJson(carId, true)).build();
+                    }
+                    offer(subscriber, free);
+                } else {
+                    if (busy == null) {
+                        busy = SseEmitter.event().name(PERIOD_EVENT).data(periodJson(carId, false)).build();
+                    }
+                    offer(subscriber, busy);
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает событие для переполненной очереди.
+     *
+     * @return событие «статусы могли измениться у любого автомобиля»
+     */
+    @Override
+    protected Set<DataWithMediaType> overflowMessage() {
+        return RESET;
+    }
+
+    /**
+     * Данные события смены статуса.
+     *
+     * @param row атрибуты автомобиля (статус null - автомобиль удален)
+     * @return JSON-объект
+     */
+    static String json(Row row) {
+        String status = row.status() == null ? "null"
+                : "\"" + row.status().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        return "{\"id\":" + row.id() + ",\"status\":" + status + "}";
+    }
+
+    /**
+     * Данные события занятости на выбранный период.
+     *
+     * @param carId ID автомобиля
+     * @param free  свободен ли автомобиль на период
+     * @return JSON-объект
+     */
+    static String periodJson(long carId, boolean free) {
+        return "{\"id\":" + carId + ",\"free\":" + free + "}";
+    }
+}
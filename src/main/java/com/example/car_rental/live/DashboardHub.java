@@ -0,0 +1,250 @@
+package com.example.car_rental.live;
+
+import com.example.car_rental.event.CarStatusChangedEvent;
+import com.example.car_rental.event.RentalChangedEvent;
+import com.example.car_rental.service.DashboardStatsService;
+import com.example.car_rental.service.RentalService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Рассылка показателей панели администратора (Server-Sent Events): количество
+ * автомобилей по статусам, выручка и количество действующих аренд.
+ * <p>
+ * Переходы аренд и смена статусов автомобилей только отмечают показатели устаревшими.
+ * Раз в {@value #FRAME_INTERVAL_MS} мс, если показатели устарели, они читаются одним
+ * запросом к счетчикам и одним подсчетом аренд, и всем подписчикам отправляется один
+ * кадр {@value #FRAME_EVENT} только с изменившимися значениями. Поэтому сколько бы
+ * переходов ни случилось за секунду, клиент получает не больше одного кадра, а база
+ * данных - не больше одного чтения на узел. Раз в {@value #REFRESH_INTERVAL_MS} мс
+ * показатели перечитываются и без событий: так видны переходы на других узлах и сверка счетчиков.
+ * <p>
+ * Новый подписчик сразу получает полный кадр с последними прочитанными значениями.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class DashboardHub extends SseHub<Void> {
+
+    /**
+     * Логгер рассылки показателей
+     */
+    private static final Logger log = LoggerFactory.getLogger(DashboardHub.class);
+
+    /**
+     * Имя события с показателями; данные - {@code {"revenue":150000,"activeRentals":4,"cars":{"RENTED":3}}},
+     * в кадре только изменившиеся значения (полный кадр - все значения)
+     */
+    public static final String FRAME_EVENT = "frame";
+
+    /**
+     * Наименьший интервал между кадрами
+     */
+    static final long FRAME_INTERVAL_MS = 1000;
+
+    /**
+     * Интервал перечитывания показателей без событий
+     */
+    static final long REFRESH_INTERVAL_MS = 10_000;
+
+    /**
+     * Показатель выручки в кадре
+     */
+    static final String REVENUE = "revenue";
+
+    /**
+     * Показатель количества действующих аренд в кадре
+     */
+    static final String ACTIVE_RENTALS = "activeRentals";
+
+    /**
+     * Префикс показателей количества автомобилей по статусам в кадре
+     */
+    static final String CARS_PREFIX = "cars:";
+
+    /**
+     * Сервис счетчиков панели администратора
+     */
+    private final DashboardStatsService statsService;
+
+    /**
+     * Сервис аренд
+     */
+    private final RentalService rentalService;
+
+    /**
+     * Показатели изменились после последнего чтения
+     */
+    private volatile boolean dirty = true;
+
+    /**
+     * Момент последнего чтения показателей
+     */
+    private volatile long lastReadAt;
+
+    /**
+     * Последние отправленные показатели или null; изменяется под блокировкой хаба
+     */
+    private Map<String, Long> last;
+
+    /**
+     * Конструктор хаба панели администратора.
+     *
+     * @param statsService  сервис счетчиков панели администратора
+     * @param rentalService сервис аренд
+     */
+    public DashboardHub(DashboardStatsService statsService, RentalService rentalService) {
+        this.statsService = statsService;
+        this.rentalService = rentalService;
+    }
+
+    /**
+     * Подписывает клиента на показатели панели администратора.
+     *
+     * @return асинхронный ответ с потоком событий
+     */
+    public synchronized SseEmitter subscribe() {
+        // Значения могли измениться между отрисовкой страницы и подпиской
+        dirty = true;
+        return register(null, last != null ? frame(last) : null);
+    }
+
+    /**
+     * Отмечает показатели устаревшими после перехода аренды.
+     *
+     * @param event событие перехода аренды
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        dirty = true;
+    }
+
+    /**
+     * Отмечает показатели устаревшими после смены статуса автомобилей.
+     *
+     * @param event событие смены статуса
+     */
+    @EventListener
+    public void onCarStatusChanged(CarStatusChangedEvent event) {
+        dirty = true;
+    }
+
+    /**
+     * Читает показатели, если они устарели, и рассылает изменившиеся значения.
+     */
+    @Scheduled(fixedDelay = FRAME_INTERVAL_MS)
+    public void tick() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!dirty && now - lastReadAt < REFRESH_INTERVAL_MS) {
+            return;
+        }
+        dirty = false;
+        lastReadAt = now;
+        Map<String, Long> current;
+        try {
+            current = read();
+        } catch (DataAccessException e) {
+            log.warn("Не удалось прочитать показатели панели администратора: {}", e.getMessage());
+            dirty = true;
+            return;
+        }
+        synchronized (this) {
+            Map<String, Long> changed = changes(last, current);
+            last = current;
+            if (!changed.isEmpty()) {
+                broadcast(frame(changed));
+            }
+        }
+    }
+
+    /**
+     * Возвращает полный кадр для переполненной очереди.
+     *
+     * @return кадр со всеми последними значениями
+     */
+    @Override
+    protected synchronized Set<DataWithMediaType> overflowMessage() {
+        return frame(last != null ? last : Map.of());
+    }
+
+    /**
+     * Читает показатели: счетчики одним запросом и количество действующих аренд.
+     */
+    private Map<String, Long> read() {
+        Map<String, Long> counters = statsService.getCounters();
+        Map<String, Long> current = new TreeMap<>();
+        current.put(REVENUE, DashboardStatsService.revenue(counters));
+        current.put(ACTIVE_RENTALS, rentalService.countActiveRentals());
+        DashboardStatsService.carStatusCounts(counters)
+                .forEach((status, count) -> current.put(CARS_PREFIX + status, count));
+        return current;
+    }
+
+    /**
+     * Находит изменившиеся показатели. Исчезнувший статус автомобиля передается со значением 0.
+     *
+     * @param previous прежние показатели или null
+     * @param current  новые показатели
+     * @return изменившиеся показатели (все, если прежних нет)
+     */
+    static Map<String, Long> changes(Map<String, Long> previous, Map<String, Long> current) {
+        if (previous == null) {
+            return current;
+        }
+        Map<String, Long> changed = new TreeMap<>();
+        current.forEach((name, value) -> {
+            if (!value.equals(previous.get(name))) {
+                changed.put(name, value);
+            }
+        });
+        previous.keySet().stream()
+                .filter(name -> !current.containsKey(name))
+                .forEach(name -> changed.put(name, 0L));
+        return changed;
+    }
+
+    /**
+     * Готовое событие с показателями.
+     */
+    private static Set<DataWithMediaType> frame(Map<String, Long> values) {
+        return SseEmitter.event().name(FRAME_EVENT).data(json(values)).build();
+    }
+
+    /**
+     * Данные кадра: выручка и аренды - числа, статусы автомобилей - вложенный объект.
+     *
+     * @param values показатели кадра
+     * @return JSON-объект
+     */
+    static String json(Map<String, Long> values) {
+        StringBuilder json = new StringBuilder("{");
+        StringBuilder cars = new StringBuilder();
+        values.forEach((name, value) -> {
+            if (name.startsWith(CARS_PREFIX)) {
+                String status = name.substring(CARS_PREFIX.length()).replace("\\", "\\\\").replace("\"", "\\\"");
+                cars.append(cars.isEmpty() ? "" : ",").append('"').append(status).append("\":").append(value);
+            } else {
+                json.append(json.length() > 1 ? "," : "").append('"').append(name).append("\":").append(value);
+            }
+        });
+        if (!cars.isEmpty()) {
+            json.append(json.length() > 1 ? "," : "").append("\"cars\":{").append(cars).append('}');
+        }
+        return json.append('}').toString();
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.car_rental.live;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Основа рассылки событий подписчикам (Server-Sent Events).
+ * <p>
+ * Подписка - асинхронный HTTP-ответ {@link SseEmitter}: пока событий нет, подписчик
+ * не занимает ни потока, ни соединения с базой данных, только открытое сокет-соединение
+ * и несколько объектов в памяти. Событие сериализуется один раз и раскладывается
+ * в очереди подписчиков. Очередь подписчика разбирает виртуальный поток, который
+ * запускается, только когда в очереди что-то есть; медленный клиент задерживает лишь
+ * свой поток. Если очередь переполнилась, ее содержимое заменяется событием
+ * {@link #overflowMessage()}.
+ * <p>
+ * Оборванные соединения обнаруживаются отправкой комментария раз в
+ * {@value #HEARTBEAT_INTERVAL_MS} мс; он же не дает прокси закрыть простаивающее соединение.
+ *
+ * @param <A> данные подписчика (например, фильтр)
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public abstract class SseHub<A> {
+
+    /**
+     * Логгер подписок
+     */
+    private static final Logger log = LoggerFactory.getLogger(SseHub.class);
+
+    /**
+     * Интервал отправки комментария-пульса
+     */
+    static final long HEARTBEAT_INTERVAL_MS = 25_000;
+
+    /**
+     * Наибольшее количество неотправленных событий подписчика
+     */
+    static final int MAX_QUEUED = 256;
+
+    /**
+     * Пауза перед переподключением клиента после обрыва, мс
+     */
+    private static final long RETRY_MS = 3000;
+
+    /**
+     * Готовый комментарий-пульс
+     */
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("ping").build();
+
+    /**
+     * Подписчик: ответ, данные подписчика и очередь неотправленных событий.
+     *
+     * @param <A> данные подписчика
+     */
+    protected static final class Subscriber<A> {
+
+        /**
+         * Асинхронный ответ
+         */
+        private final SseEmitter emitter;
+
+        /**
+         * Данные подписчика
+         */
+        private final A attachment;
+
+        /**
+         * Неотправленные события
+         */
+        private final Queue<Set<DataWithMediaType>> queue = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Количество событий в очереди
+         */
+        private final AtomicInteger queued = new AtomicInteger();
+
+        /**
+         * Очередь переполнилась: вместо ее содержимого отправляется {@link #overflowMessage()}
+         */
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+
+        /**
+         * Очередь разбирается потоком
+         */
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, A attachment) {
+            this.emitter = emitter;
+            this.attachment = attachment;
+        }
+
+        /**
+         * Возвращает данные подписчика.
+         *
+         * @return данные подписчика
+         */
+        public A getAttachment() { return attachment; }
+    }
+
+    /**
+     * Текущие подписчики
+     */
+    protected final Set<Subscriber<A>> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Виртуальные потоки, разбирающие очереди подписчиков
+     */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Количество отправленных событий
+     */
+    private final LongAdder sent = new LongAdder();
+
+    /**
+     * Количество переполнений очередей подписчиков
+     */
+    private final LongAdder overflows = new LongAdder();
+
+    /**
+     * Событие, которое отправляется вместо содержимого переполненной очереди.
+     *
+     * @return готовое событие
+     */
+    protected abstract Set<DataWithMediaType> overflowMessage();
+
+    /**
+     * Регистрирует подписчика.
+     *
+     * @param attachment данные подписчика
+     * @param first      первое событие подписчика или null
+     * @return асинхронный ответ с потоком событий
+     */
+    protected SseEmitter register(A attachment, Set<DataWithMediaType> first) {
+        // Без тайм-аута: простаивающий подписчик ничего не стоит, оборванный обнаружит пульс
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber<A> subscriber = new Subscriber<>(emitter, attachment);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        offer(subscriber, SseEmitter.event().reconnectTime(RETRY_MS).comment("subscribed").build());
+        if (first != null) {
+            offer(subscriber, first);
+        }
+        return emitter;
+    }
+
+    /**
+     * Отправляет событие всем подписчикам.
+     *
+     * @param message готовое событие
+     */
+    protected void broadcast(Set<DataWithMediaType> message) {
+        subscribers.forEach(subscriber -> offer(subscriber, message));
+    }
+
+    /**
+     * Ставит событие в очередь подписчика и при необходимости запускает ее разбор.
+     *
+     * @param subscriber подписчик
+     * @param message    готовое событие
+     */
+    protected void offer(Subscriber<A> subscriber, Set<DataWithMediaType> message) {
+        if (subscriber.queued.incrementAndGet() > MAX_QUEUED) {
+            subscriber.queued.decrementAndGet();
+            if (subscriber.overflowed.compareAndSet(false, true)) {
+                overflows.increment();
+            }
+        } else {
+            subscriber.queue.add(message);
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Отправляет комментарий-пульс всем подписчикам.
+     */
+    @Scheduled(fixedDelay = HEARTBEAT_INTERVAL_MS)
+    public void heartbeat() {
+        broadcast(HEARTBEAT);
+    }
+
+    /**
+     * Закрывает подписки при остановке приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Возвращает количество подписчиков.
+     *
+     * @return количество подписчиков
+     */
+    public int getSubscriberCount() { return subscribers.size(); }
+
+    /**
+     * Возвращает количество отправленных событий.
+     *
+     * @return количество событий
+     */
+    public long getSent() { return sent.sum(); }
+
+    /**
+     * Возвращает количество переполнений очередей подписчиков.
+     *
+     * @return количество переполнений
+     */
+    public long getOverflows() { return overflows.sum(); }
+
+    /**
+     * Отправляет события из очереди подписчика, пока она не опустеет.
+     */
+    private void drain(Subscriber<A> subscriber) {
+        try {
+            do {
+                if (subscriber.overflowed.getAndSet(false)) {
+                    while (subscriber.queue.poll() != null) {
+                        subscriber.queued.decrementAndGet();
+                    }
+                    send(subscriber, overflowMessage());
+                }
+                Set<DataWithMediaType> message;
+                while ((message = subscriber.queue.poll()) != null) {
+                    subscriber.queued.decrementAndGet();
+                    send(subscriber, message);
+                }
+                subscriber.draining.set(false);
+                // Событие могло прийти между последней выборкой и сбросом флага
+            } while ((!subscriber.queue.isEmpty() || subscriber.overflowed.get())
+                    && subscriber.draining.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            // Клиент отключился: очередь больше не разбирается, подписчик удаляется
+            log.debug("Подписчик {} отключился: {}", getClass().getSimpleName(), e.getMessage());
+            subscribers.remove(subscriber);
+        }
+    }
+
+    /**
+     * Отправляет событие подписчику.
+     */
+    private void send(Subscriber<A> subscriber, Set<DataWithMediaType> message) throws IOException {
+        subscriber.emitter.send(message);
+        sent.increment();
+    }
+}
@@ -13,7 +13,6 @@ import jakarta.persistence.*;
  * <ul>
  *     <li>AVAILABLE - свободен для аренды</li>
  *     <li>RENTED - сдан в аренду</li>
- *     <li>RESERVED - зарезервирован клиентом</li>
  *     <li>MAINTENANCE - на обслуживании</li>
  * </ul>
  * <p>
@@ -23,7 +22,9 @@ import jakarta.persistence.*;
  * @version 1.0
  */
 @Entity
-@Table(name = "cars")
+@Table(name = "cars", indexes = {
+        @Index(name = "idx_cars_price_id", columnList = "price_per_day, id")
+})
 public class Car {
 
     /**
@@ -58,7 +59,7 @@ public class Car {
     private Integer pricePerDay;
 
     /**
-     * Текущий статус автомобиля (AVAILABLE, RENTED, RESERVED, MAINTENANCE)
+     * Текущий статус автомобиля (AVAILABLE, RENTED, MAINTENANCE)
      */
     @Column(length = 255)
     private String status;
@@ -72,14 +73,14 @@ public class Car {
     /**
      * Марка автомобиля
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "brand_id")
     private Brand brand;
 
     /**
      * Модель автомобиля
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "model_id")
     private Model model;
 
@@ -163,7 +164,7 @@ public class Car {
     /**
      * Устанавливает текущий статус автомобиля.
      *
-     * @param status статус автомобиля (AVAILABLE, RENTED, RESERVED, MAINTENANCE)
+     * @param status статус автомобиля (AVAILABLE, RENTED, MAINTENANCE)
      */
     public void setStatus(String status) { this.status = status; }
 
@@ -32,7 +32,7 @@ public class Model {
     /**
      * Марка, к которой принадлежит данная модель
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "brand_id")
     private Brand brand;
 
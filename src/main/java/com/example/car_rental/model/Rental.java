@@ -24,7 +24,11 @@ import java.time.LocalDateTime;
  * @version 1.0
  */
 @Entity
-@Table(name = "rentals")
+@Table(name = "rentals", indexes = {
+        @Index(name = "idx_rentals_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_rentals_start_date_id", columnList = "start_date, id"),
+        @Index(name = "idx_rentals_total_price_id", columnList = "total_price, id")
+})
 public class Rental {
 
     /**
@@ -37,14 +41,14 @@ public class Rental {
     /**
      * Клиент, арендующий автомобиль
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id")
     private User client;
 
     /**
      * Арендуемый автомобиль
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car_id")
     private Car car;
 
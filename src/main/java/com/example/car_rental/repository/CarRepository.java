@@ -3,7 +3,17 @@ package com.example.car_rental.repository;
 import com.example.car_rental.model.Brand;
 import com.example.car_rental.model.Car;
 import com.example.car_rental.model.Model;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 /**
  * Репозиторий для работы с автомобилями.
@@ -12,11 +22,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * включая подсчет автомобилей по модели и марке. Используется для
  * проверки возможности удаления марок и моделей (нельзя удалить,
  * если есть привязанные автомобили).
+ * Поддерживает спецификации для фильтрации, сортировки и постраничного
+ * вывода каталога на стороне базы данных через JpaSpecificationExecutor.
  *
  * @author ИжДрайв
  * @version 1.0
  */
-public interface CarRepository extends JpaRepository<Car, Long> {
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
     /**
      * Подсчитывает количество автомобилей указанной модели.
      *
@@ -32,4 +44,41 @@ public interface CarRepository extends JpaRepository<Car, Long> {
      * @return количество автомобилей данной марки
      */
     long countByBrand(Brand brand);
+
+    /**
+     * Находит автомобили по списку ID вместе с маркой и моделью одним запросом.
+     * Используется для загрузки страницы каталога, найденной по индексу.
+     *
+     * @param ids список ID автомобилей
+     * @return найденные автомобили (порядок не гарантируется)
+     */
+    @Override
+    @EntityGraph(attributePaths = {"brand", "model"})
+    List<Car> findAllById(Iterable<Long> ids);
+
+    /**
+     * Возвращает страницу автомобилей по спецификации вместе с маркой и моделью.
+     * Используется каталогом до загрузки индекса.
+     *
+     * @param spec     спецификация фильтров
+     * @param pageable параметры страницы и сортировки
+     * @return страница автомобилей
+     */
+    @Override
+    @EntityGraph(attributePaths = {"brand", "model"})
+    Page<Car> findAll(Specification<Car> spec, Pageable pageable);
+
+    /**
+     * Атомарно меняет статус автомобиля, только если текущий статус равен ожидаемому
+     * (compare-and-set). Проверка и запись выполняются одним UPDATE, поэтому из
+     * нескольких одновременных запросов на один автомобиль успешен ровно один.
+     *
+     * @param id       ID автомобиля
+     * @param expected ожидаемый текущий статус
+     * @param next     новый статус
+     * @return 1, если статус изменен, иначе 0
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Car c set c.status = :next where c.id = :id and c.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id, @Param("expected") String expected, @Param("next") String next);
 }
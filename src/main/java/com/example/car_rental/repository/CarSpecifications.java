@@ -0,0 +1,218 @@
+package com.example.car_rental.repository;
+
+import com.example.car_rental.model.Car;
+import com.example.car_rental.model.Rental;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Набор спецификаций (JPA Criteria) для динамического поиска автомобилей.
+ * <p>
+ * Каждая спецификация соответствует одному фильтру каталога и возвращает
+ * {@code null}, если фильтр не задан, что позволяет свободно комбинировать
+ * их через {@link Specification#and(Specification)}. Вся фильтрация
+ * выполняется на стороне базы данных.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public final class CarSpecifications {
+
+    /**
+     * Закрытый конструктор: класс содержит только статические методы.
+     */
+    private CarSpecifications() {
+    }
+
+    /**
+     * Фильтр по статусу автомобиля (точное совпадение).
+     *
+     * @param status статус автомобиля (AVAILABLE, RENTED, MAINTENANCE)
+     * @return спецификация или null, если статус не задан
+     */
+    public static Specification<Car> hasStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Фильтр по марке автомобиля.
+     *
+     * @param brandId ID марки (null или 0 - без фильтрации)
+     * @return спецификация или null, если марка не задана
+     */
+    public static Specification<Car> hasBrand(Long brandId) {
+        if (brandId == null || brandId == 0) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("brand").get("id"), brandId);
+    }
+
+    /**
+     * Фильтр по году выпуска.
+     *
+     * @param year год выпуска (null или 0 - без фильтрации)
+     * @return спецификация или null, если год не задан
+     */
+    public static Specification<Car> hasYear(Integer year) {
+        if (year == null || year == 0) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("yearOfManufacture"), year);
+    }
+
+    /**
+     * Фильтр по цвету (без учета регистра).
+     *
+     * @param color цвет автомобиля
+     * @return спецификация или null, если цвет не задан
+     */
+    public static Specification<Car> hasColor(String color) {
+        if (color == null || color.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("color")), color.toLowerCase());
+    }
+
+    /**
+     * Фильтр по городу расположения (без учета регистра).
+     *
+     * @param city город расположения
+     * @return спецификация или null, если город не задан
+     */
+    public static Specification<Car> hasCity(String city) {
+        if (city == null || city.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("city")), city.toLowerCase());
+    }
+
+    /**
+     * Фильтр по минимальной цене за день.
+     *
+     * @param minPriceInCents минимальная цена в копейках (null или 0 - без фильтрации)
+     * @return спецификация или null, если цена не задана
+     */
+    public static Specification<Car> priceFrom(Integer minPriceInCents) {
+        if (minPriceInCents == null || minPriceInCents <= 0) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("pricePerDay"), minPriceInCents);
+    }
+
+    /**
+     * Фильтр по максимальной цене за день.
+     *
+     * @param maxPriceInCents максимальная цена в копейках (null или 0 - без фильтрации)
+     * @return спецификация или null, если цена не задана
+     */
+    public static Specification<Car> priceTo(Integer maxPriceInCents) {
+        if (maxPriceInCents == null || maxPriceInCents <= 0) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("pricePerDay"), maxPriceInCents);
+    }
+
+    /**
+     * Собирает спецификацию каталога для пользователя: только свободные автомобили
+     * с учетом всех выбранных фильтров.
+     *
+     * @param brandId  ID марки
+     * @param year     год выпуска
+     * @param color    цвет
+     * @param city     город
+     * @param minPrice минимальная цена за день в рублях
+     * @param maxPrice максимальная цена за день в рублях
+     * @return итоговая спецификация
+     */
+    public static Specification<Car> availableCatalog(Long brandId, Integer year, String color, String city,
+                                                      Integer minPrice, Integer maxPrice) {
+        return availableCatalog(brandId, year, color, city, minPrice, maxPrice, null, null);
+    }
+
+    /**
+     * Фильтр автомобилей, свободных на период [from, to): не на обслуживании
+     * и без неотмененных аренд, пересекающих период.
+     *
+     * @param from первый день периода
+     * @param to   день окончания периода (не включается)
+     * @return спецификация или null, если период не задан
+     */
+    public static Specification<Car> freeDuring(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Subquery<Long> busy = query.subquery(Long.class);
+            Root<Rental> rental = busy.from(Rental.class);
+            busy.select(rental.get("id")).where(
+                    cb.equal(rental.get("car"), root),
+                    cb.notEqual(rental.get("status"), "CANCELLED"),
+                    cb.lessThan(rental.get("startDate"), to),
+                    cb.greaterThan(rental.get("endDate"), from));
+            return cb.and(cb.notEqual(root.get("status"), "MAINTENANCE"), cb.not(cb.exists(busy)));
+        };
+    }
+
+    /**
+     * Собирает спецификацию каталога для пользователя с учетом периода аренды.
+     * Если период задан, вместо текущего статуса AVAILABLE проверяется
+     * отсутствие пересекающихся аренд (см. {@link #freeDuring(LocalDate, LocalDate)}).
+     *
+     * @param brandId  ID марки
+     * @param year     год выпуска
+     * @param color    цвет
+     * @param city     город
+     * @param minPrice минимальная цена за день в рублях
+     * @param maxPrice максимальная цена за день в рублях
+     * @param from     первый день периода (null - период не задан)
+     * @param to       день окончания периода (не включается)
+     * @return итоговая спецификация
+     */
+    public static Specification<Car> availableCatalog(Long brandId, Integer year, String color, String city,
+                                                      Integer minPrice, Integer maxPrice,
+                                                      LocalDate from, LocalDate to) {
+        Specification<Car> free = from != null && to != null ? freeDuring(from, to) : hasStatus("AVAILABLE");
+        return Specification.where(free)
+                .and(hasBrand(brandId))
+                .and(hasYear(year))
+                .and(hasColor(color))
+                .and(hasCity(city))
+                .and(priceFrom(minPrice != null ? minPrice * 100 : null))
+                .and(priceTo(maxPrice != null ? maxPrice * 100 : null));
+    }
+
+    /**
+     * Фильтр по подстроке государственного номера (без учета регистра).
+     *
+     * @param plate часть государственного номера
+     * @return спецификация или null, если номер не задан
+     */
+    public static Specification<Car> plateContains(String plate) {
+        if (plate == null || plate.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(cb.lower(root.get("licensePlate")), "%" + plate.toLowerCase() + "%");
+    }
+
+    /**
+     * Собирает спецификацию списка автомобилей администратора.
+     *
+     * @param brandId ID марки (0 - все марки)
+     * @param plate   часть государственного номера
+     * @param city    город (точное совпадение)
+     * @param status  статус автомобиля
+     * @return итоговая спецификация
+     */
+    public static Specification<Car> adminFilter(Long brandId, String plate, String city, String status) {
+        return Specification.where(hasBrand(brandId))
+                .and(plateContains(plate))
+                .and(city == null || city.isBlank() ? null : (root, query, cb) -> cb.equal(root.get("city"), city))
+                .and(hasStatus(status));
+    }
+}
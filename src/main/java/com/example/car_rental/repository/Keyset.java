@@ -0,0 +1,266 @@
+package com.example.car_rental.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Курсорная (keyset, seek) пагинация поверх спецификаций Spring Data JPA.
+ * <p>
+ * Страница выбирается условием {@code (ключ, id) > (значение, id курсора)} с сортировкой
+ * по ключу и ID и ограничением {@code LIMIT}, поэтому при наличии составного индекса
+ * {@code (ключ, id)} стоимость любой страницы равна стоимости первой.
+ * Курсор имеет вид {@code значение|id}. Курсор приходит из адреса страницы, поэтому
+ * некорректный курсор (нет разделителя, ID или значение не разбираются) не считается ошибкой:
+ * загружается первая страница.
+ * <p>
+ * Ключ может быть null (необязательная колонка или связь): в сортировке, условии курсора
+ * и самом курсоре null заменяется значением {@link Field#nullValue()} через {@code coalesce},
+ * поэтому такие записи не выпадают со следующих страниц. Связи в выражениях ключей
+ * присоединяются внешним соединением ({@link #leftJoin(From, String)}). Связи, перечисленные
+ * в {@link #fetching(String...)}, загружаются тем же запросом через граф сущности.
+ *
+ * @param <T> тип сущности
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public final class Keyset<T> {
+
+    /**
+     * Поле сортировки, по которому возможна курсорная пагинация.
+     *
+     * @param expression выражение ключа в Criteria-запросе
+     * @param extractor  значение ключа у загруженной сущности (null, если значения или связи нет)
+     * @param parser     разбор значения ключа из курсора
+     * @param nullValue  значение, которым заменяется null; должно разбираться parser
+     * @param <T>        тип сущности
+     * @param <C>        тип ключа
+     */
+    public record Field<T, C extends Comparable<? super C>>(
+            BiFunction<Root<T>, CriteriaBuilder, Expression<C>> expression,
+            Function<T, C> extractor,
+            Function<String, C> parser,
+            C nullValue) {
+    }
+
+    /**
+     * Разделитель значения ключа и ID в курсоре
+     */
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Разобранный курсор.
+     *
+     * @param value значение ключа сортировки
+     * @param id    ID записи
+     * @param <C>   тип ключа
+     */
+    record Cursor<C>(C value, long id) {
+    }
+
+    /**
+     * Поля сортировки по имени
+     */
+    private final Map<String, Field<T, ?>> fields = new HashMap<>();
+
+    /**
+     * Поле сортировки по умолчанию
+     */
+    private final String defaultField;
+
+    /**
+     * Функция получения ID сущности
+     */
+    private final Function<T, Long> idExtractor;
+
+    /**
+     * Пути связей, загружаемых вместе со страницей
+     */
+    private List<String> fetchPaths = List.of();
+
+    /**
+     * Создает описание курсорной пагинации.
+     *
+     * @param defaultField имя поля сортировки по умолчанию
+     * @param idExtractor  функция получения ID сущности
+     */
+    public Keyset(String defaultField, Function<T, Long> idExtractor) {
+        this.defaultField = defaultField;
+        this.idExtractor = idExtractor;
+    }
+
+    /**
+     * Регистрирует поле сортировки.
+     *
+     * @param name  имя поля в параметре sortField
+     * @param field описание поля
+     * @param <C>   тип ключа
+     * @return это же описание для цепочки вызовов
+     */
+    public <C extends Comparable<? super C>> Keyset<T> field(String name, Field<T, C> field) {
+        fields.put(name, field);
+        return this;
+    }
+
+    /**
+     * Задает связи, загружаемые вместе со страницей (например, car.brand).
+     *
+     * @param paths пути связей
+     * @return это же описание для цепочки вызовов
+     */
+    public Keyset<T> fetching(String... paths) {
+        this.fetchPaths = List.of(paths);
+        return this;
+    }
+
+    /**
+     * Загружает страницу записей.
+     *
+     * @param repository репозиторий со спецификациями
+     * @param filter     спецификация фильтров (может быть null)
+     * @param sortField  имя поля сортировки
+     * @param sortDir    направление сортировки (asc/desc)
+     * @param after      курсор: загрузить записи после него (следующая страница)
+     * @param before     курсор: загрузить записи перед ним (предыдущая страница)
+     * @param size       размер страницы
+     * @return страница записей с курсорами соседних страниц
+     */
+    public KeysetPage<T> fetch(JpaSpecificationExecutor<T> repository, Specification<T> filter,
+                               String sortField, String sortDir, String after, String before, int size) {
+        Field<T, ?> field = fields.getOrDefault(sortField, fields.get(defaultField));
+        boolean ascending = !"desc".equalsIgnoreCase(sortDir);
+        boolean backward = (after == null || after.isBlank()) && before != null && !before.isBlank();
+        String cursor = backward ? before : after;
+        return fetch(repository, filter, field, ascending, backward, cursor, size);
+    }
+
+    /**
+     * Загружает страницу записей по типизированному полю сортировки.
+     */
+    private <C extends Comparable<? super C>> KeysetPage<T> fetch(
+            JpaSpecificationExecutor<T> repository, Specification<T> filter, Field<T, C> field,
+            boolean ascending, boolean backward, String cursor, int size) {
+        Cursor<C> parsed = parse(cursor, field.parser());
+        boolean hasCursor = parsed != null;
+        if (!hasCursor) {
+            backward = false;
+        }
+        // При движении назад порядок выборки обращается, а результат затем разворачивается
+        boolean scanAscending = ascending != backward;
+
+        // Порядок задается в спецификации: ключ сортировки - то же выражение с coalesce, что и в условии курсора
+        Specification<T> spec = Specification.where(filter).and(seek(field, parsed, scanAscending));
+
+        List<T> rows = new ArrayList<>(repository.findBy(spec, q -> fetchPaths.isEmpty()
+                ? q.limit(size + 1).all()
+                : q.limit(size + 1).project(fetchPaths).all()));
+        boolean more = rows.size() > size;
+        if (more) {
+            rows = rows.subList(0, size);
+        }
+        if (backward) {
+            Collections.reverse(rows);
+        }
+
+        String first = rows.isEmpty() ? null : cursorOf(field, rows.get(0));
+        String last = rows.isEmpty() ? null : cursorOf(field, rows.get(rows.size() - 1));
+        String next = backward ? (hasCursor ? last : null) : (more ? last : null);
+        String previous = backward ? (more ? first : null) : (hasCursor ? first : null);
+        return new KeysetPage<>(rows, next, previous);
+    }
+
+    /**
+     * Разбирает курсор вида {@code значение|id}.
+     *
+     * @param cursor курсор из адреса страницы (может быть null)
+     * @param parser разбор значения ключа
+     * @param <C>    тип ключа
+     * @return курсор или null, если курсор не задан или некорректен
+     */
+    static <C> Cursor<C> parse(String cursor, Function<String, C> parser) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        int split = cursor.lastIndexOf(SEPARATOR);
+        if (split < 0) {
+            return null;
+        }
+        try {
+            C value = parser.apply(cursor.substring(0, split));
+            long id = Long.parseLong(cursor.substring(split + 1));
+            return value == null ? null : new Cursor<>(value, id);
+        } catch (RuntimeException e) {
+            // NumberFormatException, DateTimeParseException и т.п. - курсор подделан или устарел
+            return null;
+        }
+    }
+
+    /**
+     * Присоединяет связь внешним соединением или возвращает уже присоединенную.
+     * Выражения ключей строятся через этот метод, чтобы записи без связи не отбрасывались,
+     * а сортировка и условие курсора использовали одно соединение.
+     *
+     * @param from      источник (корень запроса или соединение)
+     * @param attribute имя связи
+     * @return внешнее соединение
+     */
+    public static Join<?, ?> leftJoin(From<?, ?> from, String attribute) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getJoinType() == JoinType.LEFT && join.getAttribute().getName().equals(attribute)) {
+                return join;
+            }
+        }
+        return from.join(attribute, JoinType.LEFT);
+    }
+
+    /**
+     * Сортировка по ключу и ID и, если задан курсор, условие "строго после курсора" в порядке сортировки.
+     * Избыточное условие {@code ключ >= значение} позволяет планировщику
+     * начать сканирование составного индекса сразу с позиции курсора.
+     */
+    private static <T, C extends Comparable<? super C>> Specification<T> seek(
+            Field<T, C> field, Cursor<C> cursor, boolean ascending) {
+        return (root, query, cb) -> {
+            Expression<C> key = cb.coalesce(field.expression().apply(root, cb), field.nullValue());
+            Path<Long> idPath = root.get("id");
+            query.orderBy(ascending
+                    ? List.of(cb.asc(key), cb.asc(idPath))
+                    : List.of(cb.desc(key), cb.desc(idPath)));
+            if (cursor == null) {
+                return null;
+            }
+            C value = cursor.value();
+            long id = cursor.id();
+            if (ascending) {
+                return cb.and(
+                        cb.greaterThanOrEqualTo(key, value),
+                        cb.or(cb.greaterThan(key, value), cb.greaterThan(idPath, id)));
+            }
+            return cb.and(
+                    cb.lessThanOrEqualTo(key, value),
+                    cb.or(cb.lessThan(key, value), cb.lessThan(idPath, id)));
+        };
+    }
+
+    /**
+     * Формирует курсор записи; отсутствующий ключ записывается значением {@link Field#nullValue()}.
+     */
+    <C extends Comparable<? super C>> String cursorOf(Field<T, C> field, T row) {
+        C value = field.extractor().apply(row);
+        return (value != null ? value : field.nullValue()) + String.valueOf(SEPARATOR) + idExtractor.apply(row);
+    }
+}
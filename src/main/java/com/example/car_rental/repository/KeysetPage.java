@@ -0,0 +1,80 @@
+package com.example.car_rental.repository;
+
+import java.util.List;
+
+/**
+ * Страница результатов курсорной (keyset) пагинации.
+ * <p>
+ * Вместо номера страницы содержит курсоры соседних страниц: значение ключа
+ * сортировки и ID первой и последней записи. Следующая страница выбирается
+ * условием "после курсора", поэтому ее стоимость не зависит от глубины.
+ *
+ * @param <T> тип записей
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class KeysetPage<T> {
+
+    /**
+     * Записи текущей страницы
+     */
+    private final List<T> content;
+
+    /**
+     * Курсор для перехода на следующую страницу или null, если она последняя
+     */
+    private final String nextCursor;
+
+    /**
+     * Курсор для перехода на предыдущую страницу или null, если она первая
+     */
+    private final String previousCursor;
+
+    /**
+     * Создает страницу результатов.
+     *
+     * @param content        записи страницы
+     * @param nextCursor     курсор следующей страницы
+     * @param previousCursor курсор предыдущей страницы
+     */
+    public KeysetPage(List<T> content, String nextCursor, String previousCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+
+    /**
+     * Возвращает записи текущей страницы.
+     *
+     * @return список записей
+     */
+    public List<T> getContent() { return content; }
+
+    /**
+     * Возвращает курсор следующей страницы.
+     *
+     * @return курсор или null
+     */
+    public String getNextCursor() { return nextCursor; }
+
+    /**
+     * Возвращает курсор предыдущей страницы.
+     *
+     * @return курсор или null
+     */
+    public String getPreviousCursor() { return previousCursor; }
+
+    /**
+     * Проверяет, есть ли следующая страница.
+     *
+     * @return true, если следующая страница существует
+     */
+    public boolean hasNext() { return nextCursor != null; }
+
+    /**
+     * Проверяет, есть ли предыдущая страница.
+     *
+     * @return true, если предыдущая страница существует
+     */
+    public boolean hasPrevious() { return previousCursor != null; }
+}
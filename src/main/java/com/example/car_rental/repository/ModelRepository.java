@@ -2,6 +2,7 @@ package com.example.car_rental.repository;
 
 import com.example.car_rental.model.Brand;
 import com.example.car_rental.model.Model;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -33,4 +34,13 @@ public interface ModelRepository extends JpaRepository<Model, Long> {
      * @return количество моделей данной марки
      */
     long countByBrand(Brand brand);
+
+    /**
+     * Возвращает все модели вместе с марками одним запросом.
+     *
+     * @return список всех моделей
+     */
+    @Override
+    @EntityGraph(attributePaths = "brand")
+    List<Model> findAll();
 }
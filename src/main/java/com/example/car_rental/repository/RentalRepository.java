@@ -1,8 +1,16 @@
 package com.example.car_rental.repository;
 
 import com.example.car_rental.model.Rental;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -12,17 +20,20 @@ import java.util.List;
  * конкретного клиента (по email) с сортировкой по дате создания
  * и поиск аренд по статусу. Используется для отображения списка аренд
  * пользователя и автоматической отмены неоплаченных заказов.
+ * Поддерживает спецификации для фильтрации и курсорной пагинации списка аренд.
  *
  * @author ИжДрайв
  * @version 1.0
  */
-public interface RentalRepository extends JpaRepository<Rental, Long> {
+public interface RentalRepository extends JpaRepository<Rental, Long>, JpaSpecificationExecutor<Rental> {
     /**
      * Находит все аренды клиента по его email с сортировкой по дате создания (от новых к старым).
+     * Автомобиль с маркой и моделью загружаются тем же запросом.
      *
      * @param email email клиента
      * @return список аренд клиента, отсортированный по дате создания (DESC)
      */
+    @EntityGraph(attributePaths = {"car", "car.brand", "car.model"})
     List<Rental> findByClient_EmailOrderByCreatedAtDesc(String email);
 
     /**
@@ -32,4 +43,160 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
      * @return список аренд с данным статусом
      */
     List<Rental> findByStatus(String status);
+
+    /**
+     * Удаляет одним запросом неоплаченные аренды из списка, срок оплаты которых истек.
+     * Аренда удаляется, только если она все еще в статусе PENDING_PAYMENT, поэтому
+     * оплата, подтвержденная одновременно со снятием удержания, не теряется.
+     *
+     * @param ids       ID аренд-кандидатов
+     * @param createdAt граница: аренды, созданные раньше нее, считаются просроченными
+     * @return ID удаленных аренд и их автомобилей
+     */
+    @Query(value = """
+            delete from rentals r
+            where r.id in (:ids) and r.status = 'PENDING_PAYMENT' and r.created_at < :createdAt
+            returning r.id as "id", r.car_id as "carId"
+            """, nativeQuery = true)
+    List<ReleasedHold> deleteExpiredHolds(@Param("ids") Collection<Long> ids,
+                                          @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Возвращает ID и время создания аренд с указанным статусом без загрузки сущностей.
+     * Используется для восстановления сроков удержания при запуске приложения.
+     *
+     * @param status статус аренды
+     * @return ID и время создания аренд
+     */
+    List<HoldDeadline> findHoldsByStatus(String status);
+
+    /**
+     * Находит действующие (не отмененные) бронирования автомобиля, которые еще не закончились,
+     * в порядке даты начала.
+     *
+     * @param carId   ID автомобиля
+     * @param status  исключаемый статус (CANCELLED)
+     * @param endDate дата, после которой должно заканчиваться бронирование
+     * @return бронирования автомобиля
+     */
+    List<Rental> findByCar_IdAndStatusNotAndEndDateAfterOrderByStartDate(Long carId, String status, LocalDate endDate);
+
+    /**
+     * Находит автомобили, у которых на указанный день приходится оплаченная аренда,
+     * а автомобиль еще в статусе AVAILABLE (не RENTED и не на обслуживании).
+     *
+     * @param day день
+     * @return ID автомобилей
+     */
+    @Query("""
+            select distinct r.car.id from Rental r
+            where r.status = 'PAID' and r.startDate <= :day and r.endDate > :day
+              and r.car.status = 'AVAILABLE'
+            """)
+    List<Long> findCarIdsToMarkRented(@Param("day") LocalDate day);
+
+    /**
+     * Находит автомобили в статусе RENTED, на которые в указанный день
+     * не приходится ни одна оплаченная аренда.
+     *
+     * @param day день
+     * @return ID автомобилей
+     */
+    @Query("""
+            select c.id from Car c
+            where c.status = 'RENTED'
+              and not exists (select r.id from Rental r
+                              where r.car = c and r.status = 'PAID' and r.startDate <= :day and r.endDate > :day)
+            """)
+    List<Long> findCarIdsToRelease(@Param("day") LocalDate day);
+
+    /**
+     * Находит автомобили, занятые хотя бы в один день периода [from, to).
+     * Пересечение периодов проверяется по GiST-индексу {@code idx_rentals_period},
+     * поэтому читаются только пересекающиеся аренды, а не вся история.
+     *
+     * @param from первый день периода
+     * @param to   день окончания периода (не включается)
+     * @return ID занятых автомобилей
+     */
+    @Query(value = """
+            select distinct r.car_id from rentals r
+            where r.status <> 'CANCELLED' and r.period && daterange(:from, :to, '[)')
+            """, nativeQuery = true)
+    List<Long> findBusyCarIds(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Подсчитывает не отмененные аренды, которые еще не закончились.
+     * Условие на период использует тот же частичный GiST-индекс, что и поиск занятых автомобилей.
+     *
+     * @return количество аренд
+     */
+    @Query(value = """
+            select count(*) from rentals r
+            where r.status <> 'CANCELLED' and r.period && daterange(current_date, null)
+            """, nativeQuery = true)
+    long countActive();
+
+    /**
+     * Атомарно меняет статус аренды, только если текущий статус равен ожидаемому.
+     *
+     * @param id       ID аренды
+     * @param expected ожидаемый текущий статус
+     * @param next     новый статус
+     * @return 1, если статус изменен, иначе 0
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Rental r set r.status = :next where r.id = :id and r.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id, @Param("expected") String expected, @Param("next") String next);
+
+    /**
+     * Удаляет аренду, только если ее текущий статус равен ожидаемому.
+     *
+     * @param id       ID аренды
+     * @param expected ожидаемый статус
+     * @return 1, если аренда удалена, иначе 0
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Rental r where r.id = :id and r.status = :expected")
+    int deleteIfStatus(@Param("id") Long id, @Param("expected") String expected);
+
+    /**
+     * Удаленная просроченная аренда.
+     */
+    interface ReleasedHold {
+
+        /**
+         * Возвращает ID аренды.
+         *
+         * @return ID аренды
+         */
+        Long getId();
+
+        /**
+         * Возвращает ID автомобиля.
+         *
+         * @return ID автомобиля
+         */
+        Long getCarId();
+    }
+
+    /**
+     * Проекция аренды для планировщика истечения удержаний.
+     */
+    interface HoldDeadline {
+
+        /**
+         * Возвращает ID аренды.
+         *
+         * @return ID аренды
+         */
+        Long getId();
+
+        /**
+         * Возвращает время создания аренды.
+         *
+         * @return время создания
+         */
+        LocalDateTime getCreatedAt();
+    }
 }
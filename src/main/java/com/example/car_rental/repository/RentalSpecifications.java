@@ -0,0 +1,75 @@
+package com.example.car_rental.repository;
+
+import com.example.car_rental.model.Rental;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Набор спецификаций (JPA Criteria) для динамического поиска аренд.
+ * <p>
+ * Каждая спецификация возвращает {@code null}, если фильтр не задан,
+ * что позволяет свободно комбинировать их через {@link Specification#and(Specification)}.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public final class RentalSpecifications {
+
+    /**
+     * Закрытый конструктор: класс содержит только статические методы.
+     */
+    private RentalSpecifications() {
+    }
+
+    /**
+     * Фильтр по подстроке государственного номера автомобиля (без учета регистра).
+     *
+     * @param plate часть государственного номера
+     * @return спецификация или null, если номер не задан
+     */
+    public static Specification<Rental> plateContains(String plate) {
+        if (plate == null || plate.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(cb.lower(root.get("car").get("licensePlate")), "%" + plate.toLowerCase() + "%");
+    }
+
+    /**
+     * Фильтр по подстроке email клиента (без учета регистра).
+     *
+     * @param email часть email
+     * @return спецификация или null, если email не задан
+     */
+    public static Specification<Rental> emailContains(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(cb.lower(root.get("client").get("email")), "%" + email.toLowerCase() + "%");
+    }
+
+    /**
+     * Фильтр по статусу аренды.
+     *
+     * @param status статус аренды (PENDING_PAYMENT, PAID, CANCELLED)
+     * @return спецификация или null, если статус не задан
+     */
+    public static Specification<Rental> hasStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Собирает спецификацию списка аренд администратора.
+     *
+     * @param plate  часть государственного номера
+     * @param email  часть email клиента
+     * @param status статус аренды
+     * @return итоговая спецификация
+     */
+    public static Specification<Rental> adminFilter(String plate, String email, String status) {
+        return Specification.where(plateContains(plate))
+                .and(emailContains(email))
+                .and(hasStatus(status));
+    }
+}
@@ -3,6 +3,10 @@ package com.example.car_rental.repository;
 import com.example.car_rental.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Репозиторий для работы с пользователями системы.
@@ -10,12 +14,14 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
  * Предоставляет методы для управления пользователями, включая поиск по email,
  * проверку уникальности контактных данных и документов (email, телефон, паспорт,
  * водительское удостоверение), а также подсчет пользователей по ролям.
- * Поддерживает спецификации для динамических запросов через JpaSpecificationExecutor.
+ * Поддерживает спецификации для динамических запросов через JpaSpecificationExecutor
+ * и постраничный поиск с общим количеством в одном запросе ({@link UserSearchRepository}).
  *
  * @author ИжДрайв
  * @version 1.0
  */
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserSearchRepository {
     /**
      * Находит пользователя по email.
      *
@@ -65,4 +71,16 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      * @return количество пользователей с данной ролью
      */
     long countByRole(String role);
+
+    /**
+     * Заменяет хеш пароля пользователя.
+     *
+     * @param email    email пользователя
+     * @param password новый хеш пароля
+     * @return количество измененных строк
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
 }
@@ -0,0 +1,28 @@
+package com.example.car_rental.repository;
+
+import com.example.car_rental.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Дополнительные методы репозитория пользователей для постраничного поиска.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public interface UserSearchRepository {
+
+    /**
+     * Возвращает страницу пользователей по спецификации вместе с общим количеством найденных.
+     * <p>
+     * В отличие от {@code findAll(Specification, Pageable)}, общее количество вычисляется
+     * оконной функцией {@code count(*) over ()} в том же запросе, что и страница,
+     * без отдельного запроса {@code SELECT count(*)}.
+     *
+     * @param spec     спецификация фильтров (может быть null)
+     * @param pageable номер, размер и сортировка страницы
+     * @return страница пользователей
+     */
+    Page<User> findPage(Specification<User> spec, Pageable pageable);
+}
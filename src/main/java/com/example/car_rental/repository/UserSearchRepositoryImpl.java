@@ -0,0 +1,91 @@
+package com.example.car_rental.repository;
+
+import com.example.car_rental.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+/**
+ * Реализация постраничного поиска пользователей с общим количеством из того же запроса.
+ * <p>
+ * Запрос выбирает сущность и {@code count(id) over ()}: PostgreSQL вычисляет оконную
+ * функцию по всем строкам, прошедшим фильтр, до применения {@code LIMIT/OFFSET}, поэтому
+ * количество приходит в каждой строке страницы. Если страница оказалась пустой
+ * (номер за пределами результатов), количество запрашивается отдельно.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    /**
+     * Менеджер сущностей
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Конструктор реализации поиска.
+     *
+     * @param entityManager менеджер сущностей
+     */
+    public UserSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Возвращает страницу пользователей по спецификации вместе с общим количеством найденных.
+     *
+     * @param spec     спецификация фильтров (может быть null)
+     * @param pageable номер, размер и сортировка страницы
+     * @return страница пользователей
+     */
+    @Override
+    public Page<User> findPage(Specification<User> spec, Pageable pageable) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+        Expression<Long> total = cb.count(root.get("id"), cb.createWindow());
+        query.multiselect(root, total);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        if (rows.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, pageable.getOffset() == 0 ? 0 : count(spec, cb));
+        }
+        List<User> users = rows.stream().map(row -> row.get(0, User.class)).toList();
+        return new PageImpl<>(users, pageable, rows.get(0).get(1, Long.class));
+    }
+
+    /**
+     * Отдельный подсчет найденных пользователей для страницы за пределами результатов.
+     */
+    private long count(Specification<User> spec, HibernateCriteriaBuilder cb) {
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<User> root = query.from(User.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
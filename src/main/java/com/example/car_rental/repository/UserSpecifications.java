@@ -0,0 +1,123 @@
+package com.example.car_rental.repository;
+
+import com.example.car_rental.model.User;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Набор спецификаций (JPA Criteria) для поиска пользователей в панели администратора.
+ * <p>
+ * Поиск по подстроке формирует условия вида {@code lower(column) LIKE '%...%'},
+ * которые обслуживаются триграммными GIN-индексами (pg_trgm, см. schema.sql),
+ * поэтому не требуют полного просмотра таблицы при запросе от трех символов.
+ * Каждая спецификация возвращает {@code null}, если фильтр не задан.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public final class UserSpecifications {
+
+    /**
+     * Символ экранирования спецсимволов LIKE в введенной строке
+     */
+    private static final char ESCAPE = '\\';
+
+    /**
+     * Закрытый конструктор: класс содержит только статические методы.
+     */
+    private UserSpecifications() {
+    }
+
+    /**
+     * Фильтр по подстроке email (без учета регистра).
+     *
+     * @param email часть email
+     * @return спецификация или null, если email не задан
+     */
+    public static Specification<User> emailContains(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> contains(cb, root.get("email"), email.strip());
+    }
+
+    /**
+     * Фильтр по роли.
+     *
+     * @param role роль (ROLE_USER, ROLE_ADMIN)
+     * @return спецификация или null, если роль не задана
+     */
+    public static Specification<User> hasRole(String role) {
+        if (role == null || role.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("role"), role);
+    }
+
+    /**
+     * Фильтр по ФИО (без учета регистра): каждое слово запроса должно встречаться
+     * в фамилии, имени или отчестве, например «Иванов Иван».
+     *
+     * @param name часть ФИО
+     * @return спецификация или null, если ФИО не задано
+     */
+    public static Specification<User> nameContains(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String[] words = name.strip().split("\\s+");
+        return (root, query, cb) -> {
+            Predicate[] perWord = new Predicate[words.length];
+            for (int i = 0; i < words.length; i++) {
+                perWord[i] = cb.or(
+                        contains(cb, root.get("lastName"), words[i]),
+                        contains(cb, root.get("firstName"), words[i]),
+                        contains(cb, root.get("middleName"), words[i]));
+            }
+            return cb.and(perWord);
+        };
+    }
+
+    /**
+     * Фильтр по цифрам телефона: пробелы, скобки и дефисы в запросе игнорируются.
+     *
+     * @param phone часть телефона
+     * @return спецификация или null, если в запросе нет цифр
+     */
+    public static Specification<User> phoneContains(String phone) {
+        String digits = phone == null ? "" : phone.replaceAll("\\D", "");
+        if (digits.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(root.get("phone"), "%" + digits + "%");
+    }
+
+    /**
+     * Собирает спецификацию списка пользователей администратора.
+     *
+     * @param email часть email
+     * @param role  роль
+     * @param name  часть ФИО
+     * @param phone часть телефона
+     * @return итоговая спецификация
+     */
+    public static Specification<User> adminFilter(String email, String role, String name, String phone) {
+        return Specification.where(emailContains(email))
+                .and(hasRole(role))
+                .and(nameContains(name))
+                .and(phoneContains(phone));
+    }
+
+    /**
+     * Условие {@code lower(column) LIKE '%value%'} с экранированием % и _ во введенной строке.
+     */
+    private static Predicate contains(CriteriaBuilder cb, Expression<String> column, String value) {
+        String escaped = value.toLowerCase()
+                .replace(String.valueOf(ESCAPE), "" + ESCAPE + ESCAPE)
+                .replace("%", ESCAPE + "%")
+                .replace("_", ESCAPE + "_");
+        return cb.like(cb.lower(column), "%" + escaped + "%", ESCAPE);
+    }
+}
@@ -2,6 +2,8 @@ package com.example.car_rental.service;
 
 import com.example.car_rental.model.Brand;
 import com.example.car_rental.repository.BrandRepository;
+import com.example.car_rental.cluster.ClusterInvalidationPublisher;
+import com.example.car_rental.cluster.InvalidationType;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,6 +14,8 @@ import java.util.List;
  * Предоставляет бизнес-логику для работы с марками автомобилей,
  * включая операции получения, создания, обновления и удаления.
  * Используется контроллерами для взаимодействия с репозиторием марок.
+ * Чтение выполняется из кэша справочника {@link ReferenceDataCache},
+ * который сбрасывается после каждого изменения.
  *
  * @author ИжДрайв
  * @version 1.0
@@ -24,13 +28,28 @@ public class BrandService {
      */
     private final BrandRepository brandRepository;
 
+    /**
+     * Кэш справочника марок и моделей
+     */
+    private final ReferenceDataCache referenceDataCache;
+
+    /**
+     * Рассылка изменений другим узлам приложения
+     */
+    private final ClusterInvalidationPublisher invalidationPublisher;
+
     /**
      * Конструктор сервиса марок автомобилей.
      *
-     * @param brandRepository репозиторий марок
+     * @param brandRepository       репозиторий марок
+     * @param referenceDataCache    кэш справочника марок и моделей
+     * @param invalidationPublisher рассылка изменений другим узлам
      */
-    public BrandService(BrandRepository brandRepository) {
+    public BrandService(BrandRepository brandRepository, ReferenceDataCache referenceDataCache,
+                        ClusterInvalidationPublisher invalidationPublisher) {
         this.brandRepository = brandRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.invalidationPublisher = invalidationPublisher;
     }
 
     /**
@@ -39,7 +58,7 @@ public class BrandService {
      * @return список всех марок
      */
     public List<Brand> getAllBrands() {
-        return brandRepository.findAll();
+        return referenceDataCache.getBrands();
     }
 
     /**
@@ -49,7 +68,7 @@ public class BrandService {
      * @return объект марки или null, если не найдена
      */
     public Brand getBrandById(Long id) {
-        return brandRepository.findById(id).orElse(null);
+        return referenceDataCache.getBrand(id);
     }
 
     /**
@@ -59,7 +78,10 @@ public class BrandService {
      * @return сохраненная марка
      */
     public Brand saveBrand(Brand brand) {
-        return brandRepository.save(brand);
+        Brand saved = brandRepository.save(brand);
+        referenceDataCache.invalidate();
+        invalidationPublisher.publish(InvalidationType.BRAND, saved.getId());
+        return saved;
     }
 
     /**
@@ -69,5 +91,7 @@ public class BrandService {
      */
     public void deleteBrand(Long id) {
         brandRepository.deleteById(id);
+        referenceDataCache.invalidate();
+        invalidationPublisher.publish(InvalidationType.BRAND, id);
     }
 }
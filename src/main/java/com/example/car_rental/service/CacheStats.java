@@ -0,0 +1,83 @@
+package com.example.car_rental.service;
+
+/**
+ * Статистика обращений к кэшу: попадания, промахи, вытеснения и текущий размер.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class CacheStats {
+
+    /**
+     * Количество обращений, обслуженных кэшем
+     */
+    private final long hits;
+
+    /**
+     * Количество обращений, потребовавших загрузки из базы данных
+     */
+    private final long misses;
+
+    /**
+     * Количество записей, вытесненных из-за ограничения размера
+     */
+    private final long evictions;
+
+    /**
+     * Текущее количество записей
+     */
+    private final int size;
+
+    /**
+     * Создает снимок статистики кэша.
+     *
+     * @param hits      количество попаданий
+     * @param misses    количество промахов
+     * @param evictions количество вытеснений
+     * @param size      текущее количество записей
+     */
+    public CacheStats(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    /**
+     * Возвращает количество попаданий.
+     *
+     * @return количество попаданий
+     */
+    public long getHits() { return hits; }
+
+    /**
+     * Возвращает количество промахов.
+     *
+     * @return количество промахов
+     */
+    public long getMisses() { return misses; }
+
+    /**
+     * Возвращает количество вытеснений.
+     *
+     * @return количество вытеснений
+     */
+    public long getEvictions() { return evictions; }
+
+    /**
+     * Возвращает текущее количество записей.
+     *
+     * @return количество записей
+     */
+    public int getSize() { return size; }
+
+    /**
+     * Возвращает долю попаданий среди всех обращений.
+     *
+     * @return доля попаданий от 0 до 1 (0, если обращений не было)
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.car_rental.service;
+
+import com.example.car_rental.model.User;
+
+/**
+ * Неизменяемый снимок пользователя, хранящийся в {@link UserCache}.
+ * <p>
+ * Содержит только поля, нужные для аутентификации и отображения текущего пользователя,
+ * поэтому может безопасно использоваться из разных потоков и вне транзакции.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class CachedUser {
+
+    /**
+     * ID пользователя
+     */
+    private final Long id;
+
+    /**
+     * Email пользователя (используется как username)
+     */
+    private final String email;
+
+    /**
+     * Хеш пароля
+     */
+    private final String password;
+
+    /**
+     * Роль пользователя (ROLE_USER или ROLE_ADMIN)
+     */
+    private final String role;
+
+    /**
+     * Имя пользователя
+     */
+    private final String firstName;
+
+    /**
+     * Фамилия пользователя
+     */
+    private final String lastName;
+
+    /**
+     * Создает снимок пользователя.
+     *
+     * @param user пользователь
+     */
+    public CachedUser(User user) {
+        this.id = user.getId();
+        this.email = user.getEmail();
+        this.password = user.getPassword();
+        this.role = user.getRole();
+        this.firstName = user.getFirstName();
+        this.lastName = user.getLastName();
+    }
+
+    /**
+     * Возвращает ID пользователя.
+     *
+     * @return ID пользователя
+     */
+    public Long getId() { return id; }
+
+    /**
+     * Возвращает email пользователя.
+     *
+     * @return email пользователя
+     */
+    public String getEmail() { return email; }
+
+    /**
+     * Возвращает хеш пароля.
+     *
+     * @return хеш пароля
+     */
+    public String getPassword() { return password; }
+
+    /**
+     * Возвращает роль пользователя.
+     *
+     * @return роль пользователя
+     */
+    public String getRole() { return role; }
+
+    /**
+     * Возвращает имя пользователя.
+     *
+     * @return имя пользователя
+     */
+    public String getFirstName() { return firstName; }
+
+    /**
+     * Возвращает фамилию пользователя.
+     *
+     * @return фамилия пользователя
+     */
+    public String getLastName() { return lastName; }
+}
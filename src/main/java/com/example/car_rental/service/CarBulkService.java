@@ -0,0 +1,189 @@
+package com.example.car_rental.service;
+
+import com.example.car_rental.event.CarsBulkChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Сервис массовых операций администратора над автомобилями.
+ * <p>
+ * Операция применяется ко всем автомобилям, отобранным фильтрами списка автомобилей
+ * администратора ({@link com.example.car_rental.repository.CarSpecifications#adminFilter}),
+ * и выполняется одним запросом UPDATE без загрузки сущностей. Запрос возвращает ID
+ * измененных строк: по ним публикуется одно событие {@link CarsBulkChangedEvent}
+ * для индекса каталога, а их количество возвращается администратору.
+ * <p>
+ * Автомобили, занятые арендой (RENTED), не переводятся в другой статус
+ * и не переносятся в другой город: их статус и город меняет процесс аренды.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Service
+public class CarBulkService {
+
+    /**
+     * Смена статуса; затрагивает только свободные автомобили и автомобили на обслуживании
+     */
+    private static final String STATUS_SQL = """
+            UPDATE cars SET status = :next
+            WHERE %s AND status IN ('AVAILABLE', 'MAINTENANCE') AND status <> :next
+            RETURNING id
+            """;
+
+    /**
+     * Изменение цены за день на процент с округлением до копейки
+     */
+    private static final String REPRICE_SQL = """
+            UPDATE cars SET price_per_day = CAST(ROUND(price_per_day * (100 + CAST(:percent AS numeric)) / 100) AS integer)
+            WHERE %s AND price_per_day IS NOT NULL
+            RETURNING id
+            """;
+
+    /**
+     * Перенос в другой город; занятые арендой автомобили не переносятся
+     */
+    private static final String CITY_SQL = """
+            UPDATE cars SET city = :newCity
+            WHERE %s AND status IN ('AVAILABLE', 'MAINTENANCE') AND city IS DISTINCT FROM :newCity
+            RETURNING id
+            """;
+
+    /**
+     * Наименьшее допустимое изменение цены в процентах
+     */
+    private static final int MIN_PERCENT = -90;
+
+    /**
+     * Наибольшее допустимое изменение цены в процентах
+     */
+    private static final int MAX_PERCENT = 500;
+
+    /**
+     * JDBC-шаблон с именованными параметрами
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Счетчики панели администратора
+     */
+    private final DashboardStatsService statsService;
+
+    /**
+     * Публикатор событий изменения автомобилей
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Конструктор сервиса массовых операций.
+     *
+     * @param jdbcTemplate   JDBC-шаблон с именованными параметрами
+     * @param statsService   счетчики панели администратора
+     * @param eventPublisher публикатор событий
+     */
+    public CarBulkService(NamedParameterJdbcTemplate jdbcTemplate, DashboardStatsService statsService,
+                          ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statsService = statsService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Переводит отобранные автомобили в статус AVAILABLE или MAINTENANCE.
+     *
+     * @param brandId ID марки (0 - все марки)
+     * @param plate   часть государственного номера
+     * @param city    город
+     * @param status  статус автомобиля
+     * @param next    новый статус (AVAILABLE или MAINTENANCE)
+     * @return количество измененных автомобилей
+     */
+    @Transactional
+    public int changeStatus(Long brandId, String plate, String city, String status, String next) {
+        if (!"AVAILABLE".equals(next) && !"MAINTENANCE".equals(next)) {
+            throw new IllegalArgumentException("Массово можно установить только статус AVAILABLE или MAINTENANCE");
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("next", next);
+        List<Long> ids = update(STATUS_SQL, brandId, plate, city, status, params);
+        // Изменяются только строки AVAILABLE и MAINTENANCE, отличные от нового статуса
+        statsService.carStatusChanged("AVAILABLE".equals(next) ? "MAINTENANCE" : "AVAILABLE", next, ids.size());
+        return ids.size();
+    }
+
+    /**
+     * Изменяет цену за день отобранных автомобилей на процент.
+     * Стоимость уже созданных аренд не меняется.
+     *
+     * @param brandId ID марки (0 - все марки)
+     * @param plate   часть государственного номера
+     * @param city    город
+     * @param status  статус автомобиля
+     * @param percent изменение цены в процентах (отрицательное - снижение)
+     * @return количество измененных автомобилей
+     */
+    @Transactional
+    public int reprice(Long brandId, String plate, String city, String status, int percent) {
+        if (percent < MIN_PERCENT || percent > MAX_PERCENT) {
+            throw new IllegalArgumentException(
+                    "Изменение цены должно быть от " + MIN_PERCENT + "% до +" + MAX_PERCENT + "%");
+        }
+        return update(REPRICE_SQL, brandId, plate, city, status,
+                new MapSqlParameterSource("percent", percent)).size();
+    }
+
+    /**
+     * Переносит отобранные автомобили в другой город.
+     *
+     * @param brandId ID марки (0 - все марки)
+     * @param plate   часть государственного номера
+     * @param city    город
+     * @param status  статус автомобиля
+     * @param newCity новый город
+     * @return количество измененных автомобилей
+     */
+    @Transactional
+    public int moveToCity(Long brandId, String plate, String city, String status, String newCity) {
+        if (newCity == null || newCity.isBlank()) {
+            throw new IllegalArgumentException("Не указан новый город");
+        }
+        return update(CITY_SQL, brandId, plate, city, status,
+                new MapSqlParameterSource("newCity", newCity.trim())).size();
+    }
+
+    /**
+     * Выполняет UPDATE с условиями фильтров списка администратора и публикует
+     * одно событие по всем измененным автомобилям.
+     *
+     * @return ID измененных автомобилей
+     */
+    private List<Long> update(String sql, Long brandId, String plate, String city, String status,
+                              MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder("TRUE");
+        if (brandId != null && brandId != 0) {
+            where.append(" AND brand_id = :brandId");
+            params.addValue("brandId", brandId);
+        }
+        if (plate != null && !plate.isBlank()) {
+            where.append(" AND LOWER(license_plate) LIKE :plate");
+            params.addValue("plate", "%" + plate.toLowerCase() + "%");
+        }
+        if (city != null && !city.isBlank()) {
+            where.append(" AND city = :city");
+            params.addValue("city", city);
+        }
+        if (status != null && !status.isBlank()) {
+            where.append(" AND status = :status");
+            params.addValue("status", status);
+        }
+        List<Long> ids = jdbcTemplate.queryForList(sql.formatted(where), params, Long.class);
+        if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(new CarsBulkChangedEvent(ids));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.car_rental.service;
+
+import com.example.car_rental.index.CarAvailabilityIndex;
+import com.example.car_rental.service.CatalogFacets.FacetValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Сервис построения фасетов (значений фильтров) каталога автомобилей.
+ * <p>
+ * Все фасеты - марки, года, цвета, города с количеством автомобилей,
+ * а также диапазон цен - вычисляются одним запросом к PostgreSQL
+ * с {@code GROUP BY GROUPING SETS} по отфильтрованному набору
+ * свободных автомобилей. Сами автомобили при этом в память не загружаются.
+ * <p>
+ * Когда загружен {@link CarAvailabilityIndex}, фасеты считаются по нему
+ * без обращения к базе данных; SQL-запрос используется до загрузки индекса.
+ * Если задан период аренды, из выборки исключаются занятые на период автомобили: их набор
+ * вычисляется один раз на запрос каталога и передается и в поиск, и в расчет фасетов.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Service
+public class CarFacetService {
+
+    /**
+     * Агрегирующий запрос: по одному набору группировки на каждый фасет
+     * и пустой набор для общего диапазона цен. Условия фильтрации подставляются вместо %s.
+     * Цвета и города группируются без учета регистра, как в индексе; подпись - одно из написаний.
+     */
+    private static final String FACETS_SQL = """
+            SELECT c.brand_id, b.name AS brand_name, c.year_of_manufacture,
+                   MIN(c.color) AS color, MIN(c.city) AS city,
+                   GROUPING(c.brand_id) AS g_brand,
+                   GROUPING(c.year_of_manufacture) AS g_year,
+                   GROUPING(LOWER(c.color)) AS g_color,
+                   GROUPING(LOWER(c.city)) AS g_city,
+                   COUNT(*) AS cnt,
+                   MIN(c.price_per_day) FILTER (WHERE c.price_per_day > 0) AS min_price,
+                   MAX(c.price_per_day) FILTER (WHERE c.price_per_day > 0) AS max_price
+            FROM cars c
+            LEFT JOIN brands b ON b.id = c.brand_id
+            WHERE %s
+            GROUP BY GROUPING SETS ((c.brand_id, b.name), (c.year_of_manufacture), (LOWER(c.color)), (LOWER(c.city)), ())
+            """;
+
+    /**
+     * JDBC-шаблон с именованными параметрами
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Колоночный индекс автопарка в памяти
+     */
+    private final CarAvailabilityIndex carIndex;
+
+    /**
+     * Конструктор сервиса фасетов.
+     *
+     * @param jdbcTemplate JDBC-шаблон с именованными параметрами
+     * @param carIndex     индекс автопарка
+     */
+    public CarFacetService(NamedParameterJdbcTemplate jdbcTemplate, CarAvailabilityIndex carIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.carIndex = carIndex;
+    }
+
+    /**
+     * Вычисляет фасеты каталога по свободным автомобилям с учетом выбранных фильтров.
+     * Условия совпадают с {@link com.example.car_rental.repository.CarSpecifications#availableCatalog}.
+     *
+     * @param brandId  ID марки (null или 0 - все марки)
+     * @param year     год выпуска (null или 0 - все года)
+     * @param color    цвет (без учета регистра)
+     * @param city     город (без учета регистра)
+     * @param minPrice минимальная цена за день в рублях
+     * @param maxPrice максимальная цена за день в рублях
+     * @param busy     ID автомобилей, занятых на период ({@link CarService#findBusyCarIds});
+     *                 null, если период не задан (свободные сейчас)
+     * @return фасеты каталога
+     */
+    public CatalogFacets getAvailableFacets(Long brandId, Integer year, String color, String city,
+                                            Integer minPrice, Integer maxPrice, Set<Long> busy) {
+        if (carIndex.isReady()) {
+            return carIndex.facets(brandId, year, color, city, minPrice, maxPrice, busy);
+        }
+        StringBuilder where = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (busy != null) {
+            where.append("c.status <> 'MAINTENANCE'");
+            if (!busy.isEmpty()) {
+                // Массив, а не список IN: размер набора не меняет текст запроса
+                where.append(" AND c.id <> ALL(:busy)");
+                params.addValue("busy", busy.toArray(Long[]::new));
+            }
+        } else {
+            where.append("c.status = 'AVAILABLE'");
+        }
+
+        if (brandId != null && brandId != 0) {
+            where.append(" AND c.brand_id = :brandId");
+            params.addValue("brandId", brandId);
+        }
+        if (year != null && year != 0) {
+            where.append(" AND c.year_of_manufacture = :year");
+            params.addValue("year", year);
+        }
+        if (color != null && !color.isBlank()) {
+            where.append(" AND LOWER(c.color) = :color");
+            params.addValue("color", color.toLowerCase());
+        }
+        if (city != null && !city.isBlank()) {
+            where.append(" AND LOWER(c.city) = :city");
+            params.addValue("city", city.toLowerCase());
+        }
+        if (minPrice != null && minPrice > 0) {
+            where.append(" AND c.price_per_day >= :minPrice");
+            params.addValue("minPrice", minPrice * 100);
+        }
+        if (maxPrice != null && maxPrice > 0) {
+            where.append(" AND c.price_per_day <= :maxPrice");
+            params.addValue("maxPrice", maxPrice * 100);
+        }
+
+        List<FacetValue> brands = new ArrayList<>();
+        List<FacetValue> years = new ArrayList<>();
+        List<FacetValue> colors = new ArrayList<>();
+        List<FacetValue> cities = new ArrayList<>();
+        Integer[] priceRange = new Integer[2];
+
+        jdbcTemplate.query(FACETS_SQL.formatted(where), params, rs -> {
+            long count = rs.getLong("cnt");
+            if (rs.getInt("g_brand") == 0) {
+                long id = rs.getLong("brand_id");
+                if (!rs.wasNull()) {
+                    brands.add(new FacetValue(String.valueOf(id), rs.getString("brand_name"), count));
+                }
+            } else if (rs.getInt("g_year") == 0) {
+                int y = rs.getInt("year_of_manufacture");
+                if (!rs.wasNull()) {
+                    years.add(new FacetValue(String.valueOf(y), String.valueOf(y), count));
+                }
+            } else if (rs.getInt("g_color") == 0) {
+                String c = rs.getString("color");
+                if (c != null && !c.isBlank()) {
+                    colors.add(new FacetValue(c, c, count));
+                }
+            } else if (rs.getInt("g_city") == 0) {
+                String c = rs.getString("city");
+                if (c != null && !c.isBlank()) {
+                    cities.add(new FacetValue(c, c, count));
+                }
+            } else {
+                priceRange[0] = rs.getObject("min_price", Integer.class);
+                priceRange[1] = rs.getObject("max_price", Integer.class);
+            }
+        });
+
+        brands.sort(Comparator.comparing(FacetValue::getLabel, String.CASE_INSENSITIVE_ORDER));
+        years.sort(Comparator.comparing(f -> Integer.valueOf(f.getValue())));
+        colors.sort(Comparator.comparing(FacetValue::getLabel, String.CASE_INSENSITIVE_ORDER));
+        cities.sort(Comparator.comparing(FacetValue::getLabel, String.CASE_INSENSITIVE_ORDER));
+
+        return new CatalogFacets(brands, years, colors, cities, priceRange[0], priceRange[1]);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.car_rental.service;
+
+import java.util.List;
+
+/**
+ * Отчет о массовом импорте автомобилей: количество строк, добавленных
+ * автомобилей и ошибки по отдельным строкам.
+ * <p>
+ * Формируется {@link CarImportService}; строка с ошибкой пропускается,
+ * остальные строки импортируются.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class CarImportReport {
+
+    /**
+     * Ошибка в строке входных данных.
+     */
+    public static class RowError {
+
+        /**
+         * Номер строки во входных данных
+         */
+        private final int line;
+
+        /**
+         * Государственный номер из строки (может отсутствовать)
+         */
+        private final String licensePlate;
+
+        /**
+         * Описание ошибки
+         */
+        private final String message;
+
+        /**
+         * Создает описание ошибки строки.
+         *
+         * @param line         номер строки
+         * @param licensePlate государственный номер
+         * @param message      описание ошибки
+         */
+        public RowError(int line, String licensePlate, String message) {
+            this.line = line;
+            this.licensePlate = licensePlate;
+            this.message = message;
+        }
+
+        /**
+         * Возвращает номер строки во входных данных.
+         *
+         * @return номер строки
+         */
+        public int getLine() { return line; }
+
+        /**
+         * Возвращает государственный номер из строки.
+         *
+         * @return государственный номер или null
+         */
+        public String getLicensePlate() { return licensePlate; }
+
+        /**
+         * Возвращает описание ошибки.
+         *
+         * @return описание ошибки
+         */
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * Количество строк во входных данных
+     */
+    private final int total;
+
+    /**
+     * Количество добавленных автомобилей
+     */
+    private final int imported;
+
+    /**
+     * Ошибки по строкам в порядке номеров строк
+     */
+    private final List<RowError> errors;
+
+    /**
+     * Время импорта в миллисекундах
+     */
+    private final long elapsedMillis;
+
+    /**
+     * Создает отчет об импорте.
+     *
+     * @param total         количество строк
+     * @param imported      количество добавленных автомобилей
+     * @param errors        ошибки по строкам
+     * @param elapsedMillis время импорта в миллисекундах
+     */
+    public CarImportReport(int total, int imported, List<RowError> errors, long elapsedMillis) {
+        this.total = total;
+        this.imported = imported;
+        this.errors = errors;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Возвращает количество строк во входных данных.
+     *
+     * @return количество строк
+     */
+    public int getTotal() { return total; }
+
+    /**
+     * Возвращает количество добавленных автомобилей.
+     *
+     * @return количество добавленных автомобилей
+     */
+    public int getImported() { return imported; }
+
+    /**
+     * Возвращает ошибки по строкам.
+     *
+     * @return ошибки в порядке номеров строк
+     */
+    public List<RowError> getErrors() { return errors; }
+
+    /**
+     * Возвращает время импорта.
+     *
+     * @return время в миллисекундах
+     */
+    public long getElapsedMillis() { return elapsedMillis; }
+}
@@ -0,0 +1,184 @@
+package com.example.car_rental.service;
+
+/**
+ * Строка массового импорта автомобилей (из CSV-файла или JSON-запроса).
+ * <p>
+ * Марка и модель задаются названиями и сопоставляются со справочником
+ * без учета регистра. Цена указывается в копейках, как в форме добавления автомобиля.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class CarImportRow {
+
+    /**
+     * Номер строки во входных данных (для отчета об ошибках)
+     */
+    private int line;
+
+    /**
+     * Название марки
+     */
+    private String brand;
+
+    /**
+     * Название модели
+     */
+    private String model;
+
+    /**
+     * Государственный номер
+     */
+    private String licensePlate;
+
+    /**
+     * Год выпуска
+     */
+    private Integer yearOfManufacture;
+
+    /**
+     * Цвет
+     */
+    private String color;
+
+    /**
+     * Город расположения
+     */
+    private String city;
+
+    /**
+     * Цена за день в копейках
+     */
+    private Integer pricePerDay;
+
+    /**
+     * Статус (AVAILABLE или MAINTENANCE, по умолчанию AVAILABLE)
+     */
+    private String status;
+
+    /**
+     * Возвращает номер строки во входных данных.
+     *
+     * @return номер строки
+     */
+    public int getLine() { return line; }
+
+    /**
+     * Устанавливает номер строки во входных данных.
+     *
+     * @param line номер строки
+     */
+    public void setLine(int line) { this.line = line; }
+
+    /**
+     * Возвращает название марки.
+     *
+     * @return название марки
+     */
+    public String getBrand() { return brand; }
+
+    /**
+     * Устанавливает название марки.
+     *
+     * @param brand название марки
+     */
+    public void setBrand(String brand) { this.brand = brand; }
+
+    /**
+     * Возвращает название модели.
+     *
+     * @return название модели
+     */
+    public String getModel() { return model; }
+
+    /**
+     * Устанавливает название модели.
+     *
+     * @param model название модели
+     */
+    public void setModel(String model) { this.model = model; }
+
+    /**
+     * Возвращает государственный номер.
+     *
+     * @return государственный номер
+     */
+    public String getLicensePlate() { return licensePlate; }
+
+    /**
+     * Устанавливает государственный номер.
+     *
+     * @param licensePlate государственный номер
+     */
+    public void setLicensePlate(String licensePlate) { this.licensePlate = licensePlate; }
+
+    /**
+     * Возвращает год выпуска.
+     *
+     * @return год выпуска
+     */
+    public Integer getYearOfManufacture() { return yearOfManufacture; }
+
+    /**
+     * Устанавливает год выпуска.
+     *
+     * @param yearOfManufacture год выпуска
+     */
+    public void setYearOfManufacture(Integer yearOfManufacture) { this.yearOfManufacture = yearOfManufacture; }
+
+    /**
+     * Возвращает цвет.
+     *
+     * @return цвет
+     */
+    public String getColor() { return color; }
+
+    /**
+     * Устанавливает цвет.
+     *
+     * @param color цвет
+     */
+    public void setColor(String color) { this.color = color; }
+
+    /**
+     * Возвращает город расположения.
+     *
+     * @return город
+     */
+    public String getCity() { return city; }
+
+    /**
+     * Устанавливает город расположения.
+     *
+     * @param city город
+     */
+    public void setCity(String city) { this.city = city; }
+
+    /**
+     * Возвращает цену за день в копейках.
+     *
+     * @return цена за день в копейках
+     */
+    public Integer getPricePerDay() { return pricePerDay; }
+
+    /**
+     * Устанавливает цену за день в копейках.
+     *
+     * @param pricePerDay цена за день в копейках
+     */
+    public void setPricePerDay(Integer pricePerDay) { this.pricePerDay = pricePerDay; }
+
+    /**
+     * Возвращает статус автомобиля.
+     *
+     * @return статус
+     */
+    public String getStatus() { return status; }
+
+    /**
+     * Устанавливает статус автомобиля.
+     *
+     * @param status статус
+     */
+    public void setStatus(String status) { this.status = status; }
+}
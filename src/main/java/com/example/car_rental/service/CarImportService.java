@@ -0,0 +1,431 @@
+package com.example.car_rental.service;
+
+import com.example.car_rental.event.CarsBulkChangedEvent;
+import com.example.car_rental.model.Brand;
+import com.example.car_rental.model.Model;
+import com.example.car_rental.service.CarImportReport.RowError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Сервис массового импорта автомобилей (загрузка автопарка целого филиала).
+ * <p>
+ * Импорт выполняется в три шага:
+ * <ol>
+ *     <li>Марки и модели загружаются в словарь двумя запросами, названия из строк
+ *     сопоставляются с ним без обращения к базе данных.</li>
+ *     <li>Строки проверяются параллельно; строка с ошибкой попадает в отчет и пропускается.</li>
+ *     <li>Корректные строки записываются порциями по {@value #CHUNK_SIZE} пакетными
+ *     JDBC-вставками, каждая порция - в своей транзакции.</li>
+ * </ol>
+ * Сущности используют {@code GenerationType.IDENTITY}, из-за чего Hibernate не может
+ * объединять вставки в пакеты. Поэтому ID для порции резервируются заранее одним
+ * запросом к последовательности столбца {@code cars.id}, а вставка идет в обход
+ * Hibernate. Если пакет порции отклонен базой данных, порция повторяется построчно,
+ * чтобы ошибка попала в отчет только для своей строки.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Service
+public class CarImportService {
+
+    /**
+     * Логгер импорта автопарка
+     */
+    private static final Logger log = LoggerFactory.getLogger(CarImportService.class);
+
+    /**
+     * Количество строк в одной порции (одна транзакция и один пакет вставок)
+     */
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Максимальная длина текстовых полей (как в столбцах таблицы cars)
+     */
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    /**
+     * Минимальный допустимый год выпуска
+     */
+    private static final int MIN_YEAR = 1900;
+
+    /**
+     * Резервирование ID из последовательности столбца cars.id
+     */
+    private static final String ALLOCATE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('cars', 'id')) FROM generate_series(1, ?)";
+
+    /**
+     * Вставка автомобиля с заранее зарезервированным ID
+     */
+    private static final String INSERT_SQL = """
+            INSERT INTO cars (id, license_plate, year_of_manufacture, color, price_per_day, status, city, brand_id, model_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    /**
+     * Проверенная строка, готовая к вставке.
+     */
+    private record ValidCar(int line, String licensePlate, Integer year, String color, int pricePerDay,
+                            String status, String city, Brand brand, Model model) {
+    }
+
+    /**
+     * Результат проверки строки: автомобиль или ошибка.
+     */
+    private record Checked(ValidCar car, RowError error) {
+    }
+
+    /**
+     * Словарь марок и моделей по названиям в нижнем регистре.
+     */
+    private record Dictionary(Map<String, Brand> brands, Map<String, Model> models) {
+    }
+
+    /**
+     * Кэш справочника марок и моделей
+     */
+    private final ReferenceDataCache referenceDataCache;
+
+    /**
+     * JDBC-шаблон для пакетных вставок
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * JDBC-шаблон с именованными параметрами
+     */
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Шаблон транзакций порций
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Счетчики панели администратора
+     */
+    private final DashboardStatsService statsService;
+
+    /**
+     * Публикатор событий изменения автомобилей
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Конструктор сервиса импорта.
+     *
+     * @param referenceDataCache  кэш справочника марок и моделей
+     * @param namedJdbcTemplate   JDBC-шаблон с именованными параметрами
+     * @param transactionTemplate шаблон транзакций
+     * @param statsService        счетчики панели администратора
+     * @param eventPublisher      публикатор событий
+     */
+    public CarImportService(ReferenceDataCache referenceDataCache,
+                            NamedParameterJdbcTemplate namedJdbcTemplate, TransactionTemplate transactionTemplate,
+                            DashboardStatsService statsService, ApplicationEventPublisher eventPublisher) {
+        this.referenceDataCache = referenceDataCache;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.jdbcTemplate = namedJdbcTemplate.getJdbcTemplate();
+        this.transactionTemplate = transactionTemplate;
+        this.statsService = statsService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Читает строки импорта из CSV-файла в кодировке UTF-8.
+     * <p>
+     * Столбцы: марка, модель, госномер, год выпуска, цвет, город, цена за день в копейках,
+     * статус (необязательно). Разделитель - ";" или ",", определяется по первой строке.
+     * Первая строка пропускается, если это заголовок. Кавычки в значениях не поддерживаются.
+     *
+     * @param in содержимое файла
+     * @return строки импорта с номерами строк файла
+     * @throws IOException при ошибке чтения
+     */
+    public List<CarImportRow> parseCsv(InputStream in) throws IOException {
+        List<CarImportRow> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String delimiter = null;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (delimiter == null) {
+                delimiter = line.contains(";") ? ";" : ",";
+                String first = line.toLowerCase(Locale.ROOT);
+                if (first.startsWith("brand") || first.startsWith("марка")) {
+                    continue;
+                }
+            }
+            String[] fields = line.split(delimiter, -1);
+            CarImportRow row = new CarImportRow();
+            row.setLine(lineNumber);
+            row.setBrand(field(fields, 0));
+            row.setModel(field(fields, 1));
+            row.setLicensePlate(field(fields, 2));
+            row.setYearOfManufacture(parseInt(field(fields, 3)));
+            row.setColor(field(fields, 4));
+            row.setCity(field(fields, 5));
+            row.setPricePerDay(parseInt(field(fields, 6)));
+            row.setStatus(field(fields, 7));
+            // Нечисловые значения года и цены отмечаются отрицательным значением и отклоняются при проверке
+            if (row.getYearOfManufacture() == null && field(fields, 3) != null) {
+                row.setYearOfManufacture(-1);
+            }
+            if (row.getPricePerDay() == null && field(fields, 6) != null) {
+                row.setPricePerDay(-1);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Импортирует автомобили.
+     * Строки с ошибками пропускаются и перечисляются в отчете, остальные добавляются.
+     *
+     * @param rows строки импорта (для строк без номера номером считается позиция в списке)
+     * @return отчет об импорте
+     */
+    public CarImportReport importCars(List<CarImportRow> rows) {
+        long started = System.currentTimeMillis();
+        Dictionary dictionary = loadDictionary();
+        int currentYear = Year.now().getValue();
+
+        // Проверка не обращается к базе данных и выполняется параллельно
+        List<Checked> checked = IntStream.range(0, rows.size()).parallel()
+                .mapToObj(i -> validate(rows.get(i), rows.get(i).getLine() > 0 ? rows.get(i).getLine() : i + 1,
+                        dictionary, currentYear))
+                .toList();
+
+        List<RowError> errors = new ArrayList<>();
+        List<ValidCar> valid = new ArrayList<>();
+        Set<String> platesInFile = new HashSet<>();
+        for (Checked result : checked) {
+            if (result.error() != null) {
+                errors.add(result.error());
+            } else if (!platesInFile.add(result.car().licensePlate())) {
+                errors.add(new RowError(result.car().line(), result.car().licensePlate(),
+                        "Госномер повторяется в файле"));
+            } else {
+                valid.add(result.car());
+            }
+        }
+
+        int imported = 0;
+        for (int from = 0; from < valid.size(); from += CHUNK_SIZE) {
+            List<ValidCar> chunk = valid.subList(from, Math.min(from + CHUNK_SIZE, valid.size()));
+            imported += importChunk(chunk, errors);
+        }
+
+        errors.sort(Comparator.comparingInt(RowError::getLine));
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Импорт автомобилей: {} строк, добавлено {}, ошибок {}, {} мс",
+                rows.size(), imported, errors.size(), elapsed);
+        return new CarImportReport(rows.size(), imported, errors, elapsed);
+    }
+
+    /**
+     * Загружает словарь марок и моделей.
+     */
+    private Dictionary loadDictionary() {
+        Map<String, Brand> brands = new HashMap<>();
+        for (Brand brand : referenceDataCache.getBrands()) {
+            brands.put(brand.getName().trim().toLowerCase(Locale.ROOT), brand);
+        }
+        Map<String, Model> models = new HashMap<>();
+        for (Model model : referenceDataCache.getModels()) {
+            if (model.getBrand() != null) {
+                models.put(modelKey(model.getBrand().getId(), model.getName()), model);
+            }
+        }
+        return new Dictionary(brands, models);
+    }
+
+    /**
+     * Проверяет строку и сопоставляет марку и модель со словарем.
+     */
+    private static Checked validate(CarImportRow row, int line, Dictionary dictionary, int currentYear) {
+        String plate = row.getLicensePlate() != null ? row.getLicensePlate().trim().toUpperCase(Locale.ROOT) : null;
+        String error = null;
+        Brand brand = null;
+        Model model = null;
+
+        if (plate == null || plate.isEmpty()) {
+            error = "Гос. номер не может быть пустым";
+        } else if (isBlank(row.getBrand()) || isBlank(row.getModel())) {
+            error = "Не указаны марка или модель";
+        } else if ((brand = dictionary.brands().get(row.getBrand().trim().toLowerCase(Locale.ROOT))) == null) {
+            error = "Неизвестная марка: " + row.getBrand().trim();
+        } else if ((model = dictionary.models().get(modelKey(brand.getId(), row.getModel()))) == null) {
+            error = "Неизвестная модель марки " + brand.getName() + ": " + row.getModel().trim();
+        } else if (row.getYearOfManufacture() == null
+                || row.getYearOfManufacture() < MIN_YEAR || row.getYearOfManufacture() > currentYear + 1) {
+            error = "Некорректный год выпуска";
+        } else if (row.getPricePerDay() == null || row.getPricePerDay() <= 0) {
+            error = "Цена за день должна быть положительным числом копеек";
+        } else if (isBlank(row.getCity())) {
+            error = "Не указан город";
+        } else if (plate.length() > MAX_TEXT_LENGTH || length(row.getColor()) > MAX_TEXT_LENGTH
+                || length(row.getCity()) > MAX_TEXT_LENGTH) {
+            error = "Слишком длинное значение (более " + MAX_TEXT_LENGTH + " символов)";
+        }
+
+        String status = isBlank(row.getStatus()) ? "AVAILABLE" : row.getStatus().trim().toUpperCase(Locale.ROOT);
+        if (error == null && !"AVAILABLE".equals(status) && !"MAINTENANCE".equals(status)) {
+            error = "Статус нового автомобиля может быть только AVAILABLE или MAINTENANCE";
+        }
+        if (error != null) {
+            return new Checked(null, new RowError(line, plate, error));
+        }
+        return new Checked(new ValidCar(line, plate, row.getYearOfManufacture(),
+                isBlank(row.getColor()) ? null : row.getColor().trim(), row.getPricePerDay(),
+                status, row.getCity().trim(), brand, model), null);
+    }
+
+    /**
+     * Импортирует порцию: отсеивает госномера, уже существующие в базе, и вставляет остальные.
+     * Проверка читает уникальный индекс {@code uq_cars_license_plate}; номер, добавленный
+     * одновременно другим импортом, отклоняется тем же индексом при вставке.
+     *
+     * @return количество добавленных автомобилей
+     */
+    private int importChunk(List<ValidCar> chunk, List<RowError> errors) {
+        List<String> plates = chunk.stream().map(ValidCar::licensePlate).toList();
+        Set<String> existing = new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT UPPER(license_plate) FROM cars WHERE UPPER(license_plate) IN (:plates)",
+                new MapSqlParameterSource("plates", plates), String.class));
+
+        List<ValidCar> fresh = new ArrayList<>(chunk.size());
+        for (ValidCar car : chunk) {
+            if (existing.contains(car.licensePlate())) {
+                errors.add(new RowError(car.line(), car.licensePlate(), "Автомобиль с таким госномером уже есть"));
+            } else {
+                fresh.add(car);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(fresh));
+            return fresh.size();
+        } catch (DataAccessException e) {
+            // Пакет отклонен целиком - повторяем построчно, чтобы найти строки с ошибкой
+            int inserted = 0;
+            for (ValidCar car : fresh) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(car)));
+                    inserted++;
+                } catch (DuplicateKeyException rowError) {
+                    errors.add(new RowError(car.line(), car.licensePlate(), "Автомобиль с таким госномером уже есть"));
+                } catch (DataAccessException rowError) {
+                    errors.add(new RowError(car.line(), car.licensePlate(),
+                            "Ошибка базы данных: " + rowError.getMostSpecificCause().getMessage()));
+                }
+            }
+            return inserted;
+        }
+    }
+
+    /**
+     * Вставляет автомобили одним пакетом в текущей транзакции, обновляет счетчики
+     * панели администратора и публикует одно событие на пакет для индекса каталога.
+     */
+    private void insert(List<ValidCar> cars) {
+        List<Long> ids = jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, cars.size());
+        List<Object[]> batch = new ArrayList<>(cars.size());
+        Map<String, Long> addedByStatus = new TreeMap<>();
+        for (int i = 0; i < cars.size(); i++) {
+            ValidCar car = cars.get(i);
+            batch.add(new Object[]{ids.get(i), car.licensePlate(), car.year(), car.color(), car.pricePerDay(),
+                    car.status(), car.city(), car.brand().getId(), car.model().getId()});
+            addedByStatus.merge(car.status(), 1L, Long::sum);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        addedByStatus.forEach(statsService::carsAdded);
+
+        // Индекс каталога перечитывает пакет одним запросом после фиксации транзакции
+        eventPublisher.publishEvent(new CarsBulkChangedEvent(ids));
+    }
+
+    /**
+     * Ключ модели в словаре: ID марки и название модели в нижнем регистре.
+     */
+    private static String modelKey(Long brandId, String modelName) {
+        return brandId + ":" + modelName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Значение поля CSV по индексу (пустое значение - null).
+     */
+    private static String field(String[] fields, int index) {
+        if (index >= fields.length) {
+            return null;
+        }
+        String value = fields[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Разбирает целое число (null, если значение не задано или не является числом).
+     */
+    private static Integer parseInt(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.replace(" ", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Проверяет, что значение не задано или состоит из пробелов.
+     */
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Длина значения без крайних пробелов (0, если значение не задано).
+     */
+    private static int length(String value) {
+        return value != null ? value.trim().length() : 0;
+    }
+}
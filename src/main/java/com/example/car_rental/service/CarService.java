@@ -1,10 +1,25 @@
 package com.example.car_rental.service;
 
+import com.example.car_rental.event.CarChangedEvent;
+import com.example.car_rental.index.CarAvailabilityIndex;
 import com.example.car_rental.model.Brand;
 import com.example.car_rental.model.Car;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import com.example.car_rental.repository.CarRepository;
+import com.example.car_rental.repository.CarSpecifications;
+import com.example.car_rental.repository.Keyset;
+import com.example.car_rental.repository.KeysetPage;
+import com.example.car_rental.repository.RentalRepository;
 
+import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -14,13 +29,14 @@ import java.util.stream.Collectors;
  * Предоставляет бизнес-логику для работы с автомобилями, включая:
  * <ul>
  *     <li>Получение списка доступных для аренды автомобилей (статус AVAILABLE)</li>
+ *     <li>Постраничный поиск по каталогу с фильтрацией и сортировкой в базе данных</li>
  *     <li>CRUD операции над автомобилями</li>
  *     <li>Извлечение уникальных значений (марки, года, цвета) для фильтрации</li>
  *     <li>Подсчет автомобилей по марке и модели</li>
  * </ul>
  * <p>
  * Статусы автомобилей: AVAILABLE (свободен), RENTED (сдан в аренду),
- * RESERVED (зарезервирован), MAINTENANCE (на обслуживании).
+ * MAINTENANCE (на обслуживании).
  *
  * @author ИжДрайв
  * @version 1.0
@@ -28,18 +44,64 @@ import java.util.stream.Collectors;
 @Service
 public class CarService {
 
+    /**
+     * Поля курсорной пагинации списка автомобилей администратора
+     */
+    private static final Keyset<Car> ADMIN_KEYSET = new Keyset<Car>("model", Car::getId)
+            .field("model", new Keyset.Field<Car, String>(
+                    (root, cb) -> cb.lower(Keyset.leftJoin(root, "model").get("name")),
+                    car -> car.getModel() != null ? car.getModel().getName().toLowerCase() : null,
+                    value -> value,
+                    ""))
+            .field("price", new Keyset.Field<Car, Integer>(
+                    (root, cb) -> root.get("pricePerDay"),
+                    Car::getPricePerDay,
+                    Integer::valueOf,
+                    Integer.MIN_VALUE))
+            .fetching("brand", "model");
+
     /**
      * Репозиторий для работы с автомобилями
      */
     private final CarRepository carRepository;
 
+    /**
+     * Колоночный индекс автопарка в памяти для каталога
+     */
+    private final CarAvailabilityIndex carIndex;
+
+    /**
+     * Репозиторий аренд для поиска автомобилей, занятых на период
+     */
+    private final RentalRepository rentalRepository;
+
+    /**
+     * Счетчики панели администратора
+     */
+    private final DashboardStatsService statsService;
+
+    /**
+     * Публикатор событий изменения автомобилей
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * Конструктор сервиса автомобилей.
      *
-     * @param carRepository репозиторий автомобилей
+     * @param carRepository    репозиторий автомобилей
+     * @param carIndex         индекс автопарка для каталога
+     * @param rentalRepository репозиторий аренд
+     * @param statsService     счетчики панели администратора
+     * @param eventPublisher   публикатор событий
      */
-    public CarService(CarRepository carRepository) {
+    public CarService(CarRepository carRepository, CarAvailabilityIndex carIndex,
+                      RentalRepository rentalRepository, DashboardStatsService statsService,
+                      ApplicationEventPublisher eventPublisher) {
         this.carRepository = carRepository;
+        this.carIndex = carIndex;
+        this.rentalRepository = rentalRepository;
+        this.statsService = statsService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -48,17 +110,130 @@ public class CarService {
      *
      * @return список доступных автомобилей
      */
+    @Transactional(readOnly = true)
     public List<Car> getAvailableCars() {
         return carRepository.findAll().stream()
                 .filter(car -> "AVAILABLE".equals(car.getStatus()))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Выполняет постраничный поиск свободных автомобилей по фильтрам каталога.
+     * Фильтрация, сортировка и разбиение на страницы выполняются по индексу автопарка
+     * в памяти, из базы данных загружаются только автомобили текущей страницы.
+     * Пока индекс не загружен, поиск выполняется запросом к базе данных.
+     *
+     * @param brandId   ID марки (null или 0 - все марки)
+     * @param year      год выпуска (null или 0 - все года)
+     * @param color     цвет (без учета регистра)
+     * @param city      город (без учета регистра)
+     * @param minPrice  минимальная цена за день в рублях
+     * @param maxPrice  максимальная цена за день в рублях
+     * @param from      первый день периода аренды (null - свободные сейчас)
+     * @param to        день окончания периода аренды (не включается)
+     * @param busy      ID автомобилей, занятых на период ({@link #findBusyCarIds}); null, если период не задан
+     * @param sortOrder порядок сортировки (default, priceAsc, priceDesc)
+     * @param page      номер страницы (с нуля)
+     * @param size      размер страницы
+     * @return страница найденных автомобилей
+     */
+    @Transactional(readOnly = true)
+    public Page<Car> searchAvailableCars(Long brandId, Integer year, String color, String city,
+                                         Integer minPrice, Integer maxPrice, LocalDate from, LocalDate to,
+                                         Set<Long> busy, String sortOrder, int page, int size) {
+        if (carIndex.isReady()) {
+            Page<Long> ids = carIndex.search(brandId, year, color, city, minPrice, maxPrice,
+                    busy, sortOrder, page, size);
+            return new PageImpl<>(loadCarsInOrder(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+        }
+        Specification<Car> spec = CarSpecifications.availableCatalog(brandId, year, color, city,
+                minPrice, maxPrice, from, to);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), size, getCatalogSort(sortOrder));
+        return carRepository.findAll(spec, pageable);
+    }
+
+    /**
+     * Находит автомобили, занятые на период [from, to).
+     * Запрос читает только аренды, пересекающие период, поэтому его стоимость
+     * не растет вместе с историей аренд. Каталог вычисляет набор один раз на запрос
+     * и передает его и в поиск, и в расчет фасетов.
+     *
+     * @param from первый день периода
+     * @param to   день окончания периода (не включается)
+     * @return ID занятых автомобилей или null, если период не задан
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> findBusyCarIds(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            return null;
+        }
+        return new HashSet<>(rentalRepository.findBusyCarIds(from, to));
+    }
+
+    /**
+     * Загружает автомобили по списку ID одним запросом, сохраняя порядок списка.
+     * Автомобили, удаленные после поиска по индексу, пропускаются.
+     *
+     * @param ids список ID
+     * @return автомобили в порядке ID из списка
+     */
+    private List<Car> loadCarsInOrder(List<Long> ids) {
+        Map<Long, Car> byId = new HashMap<>();
+        for (Car car : carRepository.findAllById(ids)) {
+            byId.put(car.getId(), car);
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Преобразует порядок сортировки каталога в сортировку Spring Data.
+     * ID добавляется последним ключом, чтобы порядок страниц был стабильным.
+     *
+     * @param sortOrder порядок сортировки (default, priceAsc, priceDesc)
+     * @return объект сортировки
+     */
+    private Sort getCatalogSort(String sortOrder) {
+        Sort byId = Sort.by(Sort.Direction.ASC, "id");
+        if ("priceAsc".equals(sortOrder)) {
+            return Sort.by(Sort.Order.asc("pricePerDay").nullsLast()).and(byId);
+        } else if ("priceDesc".equals(sortOrder)) {
+            return Sort.by(Sort.Order.desc("pricePerDay").nullsLast()).and(byId);
+        }
+        return byId;
+    }
+
+    /**
+     * Возвращает страницу списка автомобилей администратора с фильтрацией
+     * и сортировкой на стороне базы данных и курсорной пагинацией.
+     *
+     * @param brandId   ID марки (0 - все марки)
+     * @param plate     часть государственного номера
+     * @param city      город
+     * @param status    статус автомобиля
+     * @param sortField поле сортировки (model или price)
+     * @param sortDir   направление сортировки (asc/desc)
+     * @param after     курсор следующей страницы
+     * @param before    курсор предыдущей страницы
+     * @param size      размер страницы
+     * @return страница автомобилей с курсорами соседних страниц
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Car> getCarsForAdmin(Long brandId, String plate, String city, String status,
+                                           String sortField, String sortDir,
+                                           String after, String before, int size) {
+        return ADMIN_KEYSET.fetch(carRepository, CarSpecifications.adminFilter(brandId, plate, city, status),
+                sortField, sortDir, after, before, size);
+    }
+
     /**
      * Возвращает список всех автомобилей независимо от статуса.
      *
      * @return список всех автомобилей
      */
+    @Transactional(readOnly = true)
     public List<Car> getAllCars() {
         return carRepository.findAll();
     }
@@ -75,12 +250,50 @@ public class CarService {
 
     /**
      * Сохраняет автомобиль (создание или обновление).
+     * Счетчики статусов панели администратора обновляются в той же транзакции.
      *
      * @param car объект автомобиля для сохранения
      * @return сохраненный автомобиль
      */
+    @Transactional
     public Car saveCar(Car car) {
-        return carRepository.save(car);
+        // Текущая версия загружается до слияния: save() все равно выполнил бы этот запрос
+        Car existing = car.getId() != null ? carRepository.findById(car.getId()).orElse(null) : null;
+        String previousStatus = existing != null ? existing.getStatus() : null;
+        Car saved = carRepository.save(car);
+        if (existing != null) {
+            statsService.carStatusChanged(previousStatus, saved.getStatus());
+        } else {
+            statsService.carAdded(saved.getStatus());
+        }
+        eventPublisher.publishEvent(new CarChangedEvent(saved.getId(), saved));
+        return saved;
+    }
+
+    /**
+     * Атомарно переводит автомобиль из ожидаемого статуса в новый.
+     * <p>
+     * Используется для переходов аренды AVAILABLE → RENTED и обратно:
+     * если статус уже изменен другим запросом, переход не выполняется.
+     * При успехе загруженная в контекст сущность приводится к новому статусу
+     * и публикуется {@link CarChangedEvent}.
+     *
+     * @param carId    ID автомобиля
+     * @param expected ожидаемый текущий статус
+     * @param next     новый статус
+     * @return true, если статус изменен
+     */
+    @Transactional
+    public boolean changeStatus(Long carId, String expected, String next) {
+        if (carRepository.compareAndSetStatus(carId, expected, next) == 0) {
+            return false;
+        }
+        statsService.carStatusChanged(expected, next);
+        carRepository.findById(carId).ifPresent(car -> {
+            car.setStatus(next);
+            eventPublisher.publishEvent(new CarChangedEvent(carId, car));
+        });
+        return true;
     }
 
     /**
@@ -88,8 +301,13 @@ public class CarService {
      *
      * @param id ID автомобиля для удаления
      */
+    @Transactional
     public void deleteCar(Long id) {
-        carRepository.deleteById(id);
+        carRepository.findById(id).ifPresent(car -> {
+            carRepository.delete(car);
+            statsService.carRemoved(car.getStatus());
+        });
+        eventPublisher.publishEvent(new CarChangedEvent(id, null));
     }
 
     /**
@@ -143,6 +361,7 @@ public class CarService {
      * @param model объект модели автомобиля
      * @return количество автомобилей данной модели
      */
+    @Transactional(readOnly = true)
     public long countCarsByModel(com.example.car_rental.model.Model model) {
         return carRepository.countByModel(model);
     }
@@ -154,6 +373,7 @@ public class CarService {
      * @param brand объект марки автомобиля
      * @return количество автомобилей данной марки
      */
+    @Transactional(readOnly = true)
     public long countCarsByBrand(Brand brand) {
         return carRepository.countByBrand(brand);
     }
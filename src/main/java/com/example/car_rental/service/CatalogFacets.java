@@ -0,0 +1,163 @@
+package com.example.car_rental.service;
+
+import java.util.List;
+
+/**
+ * Значения фильтров (фасеты) каталога автомобилей вместе с количеством
+ * автомобилей для каждого значения и диапазоном цен.
+ * <p>
+ * Формируется {@link CarFacetService} одним агрегирующим запросом
+ * по отфильтрованному набору свободных автомобилей.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class CatalogFacets {
+
+    /**
+     * Значение фасета: значение параметра фильтра, подпись и количество автомобилей.
+     */
+    public static class FacetValue {
+
+        /**
+         * Значение, передаваемое в параметре фильтра
+         */
+        private final String value;
+
+        /**
+         * Отображаемая подпись значения
+         */
+        private final String label;
+
+        /**
+         * Количество автомобилей с данным значением
+         */
+        private final long count;
+
+        /**
+         * Создает значение фасета.
+         *
+         * @param value значение параметра фильтра
+         * @param label отображаемая подпись
+         * @param count количество автомобилей
+         */
+        public FacetValue(String value, String label, long count) {
+            this.value = value;
+            this.label = label;
+            this.count = count;
+        }
+
+        /**
+         * Возвращает значение параметра фильтра.
+         *
+         * @return значение фильтра
+         */
+        public String getValue() { return value; }
+
+        /**
+         * Возвращает отображаемую подпись значения.
+         *
+         * @return подпись
+         */
+        public String getLabel() { return label; }
+
+        /**
+         * Возвращает количество автомобилей с данным значением.
+         *
+         * @return количество автомобилей
+         */
+        public long getCount() { return count; }
+    }
+
+    /**
+     * Марки автомобилей (значение - ID марки)
+     */
+    private final List<FacetValue> brands;
+
+    /**
+     * Года выпуска
+     */
+    private final List<FacetValue> years;
+
+    /**
+     * Цвета
+     */
+    private final List<FacetValue> colors;
+
+    /**
+     * Города расположения
+     */
+    private final List<FacetValue> cities;
+
+    /**
+     * Минимальная цена за день в копейках или null, если автомобилей нет
+     */
+    private final Integer minPrice;
+
+    /**
+     * Максимальная цена за день в копейках или null, если автомобилей нет
+     */
+    private final Integer maxPrice;
+
+    /**
+     * Создает набор фасетов каталога.
+     *
+     * @param brands   значения фасета марок
+     * @param years    значения фасета годов выпуска
+     * @param colors   значения фасета цветов
+     * @param cities   значения фасета городов
+     * @param minPrice минимальная цена за день в копейках
+     * @param maxPrice максимальная цена за день в копейках
+     */
+    public CatalogFacets(List<FacetValue> brands, List<FacetValue> years, List<FacetValue> colors,
+                         List<FacetValue> cities, Integer minPrice, Integer maxPrice) {
+        this.brands = brands;
+        this.years = years;
+        this.colors = colors;
+        this.cities = cities;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    /**
+     * Возвращает значения фасета марок.
+     *
+     * @return список марок с количеством автомобилей
+     */
+    public List<FacetValue> getBrands() { return brands; }
+
+    /**
+     * Возвращает значения фасета годов выпуска.
+     *
+     * @return список годов с количеством автомобилей
+     */
+    public List<FacetValue> getYears() { return years; }
+
+    /**
+     * Возвращает значения фасета цветов.
+     *
+     * @return список цветов с количеством автомобилей
+     */
+    public List<FacetValue> getColors() { return colors; }
+
+    /**
+     * Возвращает значения фасета городов.
+     *
+     * @return список городов с количеством автомобилей
+     */
+    public List<FacetValue> getCities() { return cities; }
+
+    /**
+     * Возвращает минимальную цену за день в копейках.
+     *
+     * @return минимальная цена или null
+     */
+    public Integer getMinPrice() { return minPrice; }
+
+    /**
+     * Возвращает максимальную цену за день в копейках.
+     *
+     * @return максимальная цена или null
+     */
+    public Integer getMaxPrice() { return maxPrice; }
+}
@@ -0,0 +1,311 @@
+package com.example.car_rental.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Сервис счетчиков панели администратора.
+ * <p>
+ * Выручка по оплаченным арендам и количество автомобилей в каждом статусе хранятся
+ * в таблице {@code dashboard_counters} и изменяются на величину перехода в той же
+ * транзакции, что и сам переход (оплата, отмена, смена статуса автомобиля).
+ * Поэтому панель читает одну маленькую таблицу, а не всю историю аренд и весь автопарк.
+ * Каждый счетчик разбит на {@value #STRIPES} строк-полос: переход изменяет случайную полосу,
+ * а значение счетчика - сумма полос. Одновременные оплаты поэтому не ждут друг друга
+ * на единственной строке выручки.
+ * <p>
+ * Счетчики периодически сверяются с агрегатами по исходным таблицам: это исправляет
+ * расхождения после изменений в обход сервисов (ручные правки в базе, импорт).
+ * Сверка не блокирует переходы: счетчики и агрегаты читаются из одного снимка
+ * (REPEATABLE READ), где каждый переход виден целиком или не виден вовсе, а расхождение
+ * добавляется к счетчику как обычное изменение. Сверку выполняет один узел кластера
+ * (рекомендательная блокировка), иначе расхождение было бы исправлено дважды.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Service
+public class DashboardStatsService {
+
+    /**
+     * Логгер сервиса счетчиков
+     */
+    private static final Logger log = LoggerFactory.getLogger(DashboardStatsService.class);
+
+    /**
+     * Счетчик выручки по оплаченным арендам (в копейках)
+     */
+    public static final String REVENUE = "revenue";
+
+    /**
+     * Префикс счетчиков количества автомобилей по статусам
+     */
+    private static final String CAR_STATUS_PREFIX = "cars:";
+
+    /**
+     * Статус автомобиля без заданного статуса
+     */
+    private static final String UNKNOWN_STATUS = "UNKNOWN";
+
+    /**
+     * Количество строк-полос одного счетчика
+     */
+    private static final int STRIPES = 8;
+
+    /**
+     * Ключ рекомендательной блокировки сверки счетчиков
+     */
+    private static final long RECONCILE_LOCK = 10_001L;
+
+    /**
+     * Изменение полосы счетчика; отсутствующая полоса создается
+     */
+    private static final String ADD_SQL = """
+            INSERT INTO dashboard_counters (name, stripe, value) VALUES (:name, :stripe, :delta)
+            ON CONFLICT (name, stripe) DO UPDATE SET value = dashboard_counters.value + EXCLUDED.value
+            """;
+
+    /**
+     * Значения счетчиков (суммы полос)
+     */
+    private static final String COUNTERS_SQL = "SELECT name, SUM(value) AS value FROM dashboard_counters GROUP BY name";
+
+    /**
+     * JDBC-шаблон с именованными параметрами
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор сервиса счетчиков.
+     *
+     * @param jdbcTemplate JDBC-шаблон с именованными параметрами
+     */
+    public DashboardStatsService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Учитывает изменение выручки по оплаченным арендам.
+     * Вызывается в транзакции перехода аренды.
+     *
+     * @param delta изменение выручки в копейках (отрицательное при отмене оплаченной аренды)
+     */
+    @Transactional
+    public void revenueChanged(long delta) {
+        if (delta != 0) {
+            add(REVENUE, delta);
+        }
+    }
+
+    /**
+     * Учитывает смену статуса автомобиля.
+     * Вызывается в транзакции перехода.
+     *
+     * @param from прежний статус
+     * @param to   новый статус
+     */
+    @Transactional
+    public void carStatusChanged(String from, String to) {
+        carStatusChanged(from, to, 1);
+    }
+
+    /**
+     * Учитывает смену статуса нескольких автомобилей (массовая операция).
+     *
+     * @param from  прежний статус
+     * @param to    новый статус
+     * @param count количество автомобилей
+     */
+    @Transactional
+    public void carStatusChanged(String from, String to, long count) {
+        String fromKey = carKey(from);
+        String toKey = carKey(to);
+        if (fromKey.equals(toKey) || count == 0) {
+            return;
+        }
+        // Строки счетчиков блокируются в одном порядке во всех транзакциях
+        if (fromKey.compareTo(toKey) < 0) {
+            add(fromKey, -count);
+            add(toKey, count);
+        } else {
+            add(toKey, count);
+            add(fromKey, -count);
+        }
+    }
+
+    /**
+     * Учитывает добавление автомобиля.
+     *
+     * @param status статус нового автомобиля
+     */
+    @Transactional
+    public void carAdded(String status) {
+        add(carKey(status), 1);
+    }
+
+    /**
+     * Учитывает добавление нескольких автомобилей с одним статусом (массовый импорт).
+     *
+     * @param status статус новых автомобилей
+     * @param count  количество автомобилей
+     */
+    @Transactional
+    public void carsAdded(String status, long count) {
+        add(carKey(status), count);
+    }
+
+    /**
+     * Учитывает удаление автомобиля.
+     *
+     * @param status статус удаленного автомобиля
+     */
+    @Transactional
+    public void carRemoved(String status) {
+        add(carKey(status), -1);
+    }
+
+    /**
+     * Возвращает выручку по оплаченным арендам (в копейках).
+     *
+     * @param counters счетчики из {@link #getCounters()}
+     * @return выручка
+     */
+    public static long revenue(Map<String, Long> counters) {
+        return counters.getOrDefault(REVENUE, 0L);
+    }
+
+    /**
+     * Возвращает количество автомобилей по статусам (только ненулевые).
+     *
+     * @param counters счетчики из {@link #getCounters()}
+     * @return статус → количество автомобилей
+     */
+    public static Map<String, Long> carStatusCounts(Map<String, Long> counters) {
+        Map<String, Long> result = new HashMap<>();
+        counters.forEach((name, value) -> {
+            if (name.startsWith(CAR_STATUS_PREFIX) && value > 0) {
+                result.put(name.substring(CAR_STATUS_PREFIX.length()), value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Читает все счетчики одним запросом.
+     *
+     * @return имя счетчика → значение
+     */
+    public Map<String, Long> getCounters() {
+        return readCounters(jdbcTemplate.getJdbcTemplate());
+    }
+
+    /**
+     * Сверяет счетчики с агрегатами по таблицам аренд и автомобилей.
+     * Выполняется при запуске приложения и затем ежечасно. Если сверку уже выполняет
+     * другой узел, ничего не делает.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 * * * *")
+    public void reconcile() {
+        // Блокировка уровня сеанса: снимок, исправление и снятие блокировки - на одном соединении
+        jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Void>) connection -> {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Boolean.TRUE.equals(session.queryForObject(
+                    "SELECT pg_try_advisory_lock(?)", Boolean.class, RECONCILE_LOCK))) {
+                return null;
+            }
+            try {
+                Map<String, Long> drift;
+                connection.setAutoCommit(false);
+                connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                try {
+                    drift = drift(session);
+                } finally {
+                    connection.rollback();
+                    connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                    connection.setAutoCommit(true);
+                }
+                NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(session);
+                drift.forEach((name, delta) -> named.update(ADD_SQL, new MapSqlParameterSource("name", name)
+                        .addValue("stripe", 0)
+                        .addValue("delta", delta)));
+            } finally {
+                session.queryForObject("SELECT pg_advisory_unlock(?)", Boolean.class, RECONCILE_LOCK);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Вычисляет расхождения счетчиков с агрегатами. Вызывается в транзакции REPEATABLE READ:
+     * счетчики и агрегаты читаются из одного снимка.
+     *
+     * @param session JDBC-шаблон соединения сверки
+     * @return имя счетчика → величина, которую нужно добавить к счетчику (только ненулевые)
+     */
+    private Map<String, Long> drift(JdbcTemplate session) {
+        Map<String, Long> stored = readCounters(session);
+        Map<String, Long> actual = new TreeMap<>();
+        stored.keySet().forEach(name -> actual.put(name, 0L));
+        actual.put(REVENUE, session.queryForObject(
+                "SELECT COALESCE(SUM(total_price), 0) FROM rentals WHERE status = 'PAID'", Long.class));
+        session.query("SELECT status, COUNT(*) AS cnt FROM cars GROUP BY status", rs -> {
+            actual.put(carKey(rs.getString("status")), rs.getLong("cnt"));
+        });
+
+        Map<String, Long> drift = new TreeMap<>();
+        actual.forEach((name, value) -> {
+            long current = stored.getOrDefault(name, 0L);
+            if (current != value) {
+                if (stored.containsKey(name)) {
+                    log.warn("Счетчик {} расходился с данными: {} вместо {}", name, current, value);
+                }
+                drift.put(name, value - current);
+            }
+        });
+        return drift;
+    }
+
+    /**
+     * Читает значения счетчиков (суммы полос).
+     */
+    private static Map<String, Long> readCounters(JdbcTemplate template) {
+        Map<String, Long> counters = new HashMap<>();
+        template.query(COUNTERS_SQL, rs -> {
+            counters.put(rs.getString("name"), rs.getLong("value"));
+        });
+        return counters;
+    }
+
+    /**
+     * Увеличивает случайную полосу счетчика на величину изменения.
+     */
+    private void add(String name, long delta) {
+        jdbcTemplate.update(ADD_SQL, new MapSqlParameterSource("name", name)
+                .addValue("stripe", ThreadLocalRandom.current().nextInt(STRIPES))
+                .addValue("delta", delta));
+    }
+
+    /**
+     * Имя счетчика количества автомобилей в статусе.
+     */
+    private static String carKey(String status) {
+        return CAR_STATUS_PREFIX + (status != null ? status : UNKNOWN_STATUS);
+    }
+}
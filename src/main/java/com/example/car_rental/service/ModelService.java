@@ -3,6 +3,8 @@ package com.example.car_rental.service;
 import com.example.car_rental.model.Brand;
 import com.example.car_rental.model.Model;
 import com.example.car_rental.repository.ModelRepository;
+import com.example.car_rental.cluster.ClusterInvalidationPublisher;
+import com.example.car_rental.cluster.InvalidationType;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,6 +16,8 @@ import java.util.List;
  * включая операции получения, создания, обновления и удаления.
  * Поддерживает каскадную загрузку моделей по марке (например,
  * при выборе марки в форме отображаются только соответствующие модели).
+ * Чтение выполняется из кэша справочника {@link ReferenceDataCache},
+ * который сбрасывается после каждого изменения.
  *
  * @author ИжДрайв
  * @version 1.0
@@ -26,13 +30,28 @@ public class ModelService {
      */
     private final ModelRepository modelRepository;
 
+    /**
+     * Кэш справочника марок и моделей
+     */
+    private final ReferenceDataCache referenceDataCache;
+
+    /**
+     * Рассылка изменений другим узлам приложения
+     */
+    private final ClusterInvalidationPublisher invalidationPublisher;
+
     /**
      * Конструктор сервиса моделей автомобилей.
      *
-     * @param modelRepository репозиторий моделей
+     * @param modelRepository       репозиторий моделей
+     * @param referenceDataCache    кэш справочника марок и моделей
+     * @param invalidationPublisher рассылка изменений другим узлам
      */
-    public ModelService(ModelRepository modelRepository) {
+    public ModelService(ModelRepository modelRepository, ReferenceDataCache referenceDataCache,
+                        ClusterInvalidationPublisher invalidationPublisher) {
         this.modelRepository = modelRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.invalidationPublisher = invalidationPublisher;
     }
 
     /**
@@ -41,7 +60,7 @@ public class ModelService {
      * @return список всех моделей
      */
     public List<Model> getAllModels() {
-        return modelRepository.findAll();
+        return referenceDataCache.getModels();
     }
 
     /**
@@ -51,7 +70,7 @@ public class ModelService {
      * @return объект модели или null, если не найдена
      */
     public Model getModelById(Long id) {
-        return modelRepository.findById(id).orElse(null);
+        return referenceDataCache.getModel(id);
     }
 
     /**
@@ -65,7 +84,7 @@ public class ModelService {
         if (brandId == null) {
             return List.of();
         }
-        return modelRepository.findByBrandId(brandId);
+        return referenceDataCache.getModelsByBrand(brandId);
     }
 
     /**
@@ -75,7 +94,10 @@ public class ModelService {
      * @return сохраненная модель
      */
     public Model saveModel(Model model) {
-        return modelRepository.save(model);
+        Model saved = modelRepository.save(model);
+        referenceDataCache.invalidate();
+        invalidationPublisher.publish(InvalidationType.MODEL, saved.getId());
+        return saved;
     }
 
     /**
@@ -85,6 +107,8 @@ public class ModelService {
      */
     public void deleteModel(Long id) {
         modelRepository.deleteById(id);
+        referenceDataCache.invalidate();
+        invalidationPublisher.publish(InvalidationType.MODEL, id);
     }
 
     /**
@@ -94,6 +118,6 @@ public class ModelService {
      * @return количество моделей данной марки
      */
     public long countModelsByBrand(Brand brand) {
-        return modelRepository.countByBrand(brand);
+        return referenceDataCache.getModelsByBrand(brand.getId()).size();
     }
 }
@@ -0,0 +1,242 @@
+package com.example.car_rental.service;
+
+import com.example.car_rental.model.Brand;
+import com.example.car_rental.model.Model;
+import com.example.car_rental.repository.BrandRepository;
+import com.example.car_rental.repository.ModelRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш справочника марок и моделей автомобилей (дерево марка → модели).
+ * <p>
+ * Марки и модели меняются несколько раз в месяц, а читаются на каждой форме и в каждом
+ * списке панели администратора. Справочник целиком загружается при первом обращении
+ * и хранится в виде неизменяемого снимка с номером версии. {@link BrandService}
+ * и {@link ModelService} увеличивают версию после каждого сохранения и удаления;
+ * следующее обращение видит устаревший снимок и перечитывает справочник. Снимок,
+ * загрузка которого началась до изменения, не считается актуальным.
+ * <p>
+ * Наружу выдаются новые отсоединенные экземпляры {@link Brand} и {@link Model},
+ * поэтому вызывающий код может изменять их, не затрагивая кэш. Модели содержат
+ * свою марку; модели марки возвращает {@link #getModelsByBrand(Long)}. Список
+ * {@link Brand#getModels()} не заполняется, чтобы сохранение измененной марки
+ * не затрагивало ее модели.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class ReferenceDataCache {
+
+    /**
+     * Логгер кэша справочников
+     */
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    /**
+     * Марка в снимке справочника.
+     */
+    private record BrandEntry(Long id, String name) {
+    }
+
+    /**
+     * Модель в снимке справочника.
+     */
+    private record ModelEntry(Long id, String name, Long brandId) {
+    }
+
+    /**
+     * Снимок справочника: марки и модели по ID в порядке ID, модели по марке.
+     */
+    private record Snapshot(long version,
+                            Map<Long, BrandEntry> brands,
+                            Map<Long, ModelEntry> models,
+                            Map<Long, List<ModelEntry>> modelsByBrand) {
+    }
+
+    /**
+     * Репозиторий марок
+     */
+    private final BrandRepository brandRepository;
+
+    /**
+     * Репозиторий моделей
+     */
+    private final ModelRepository modelRepository;
+
+    /**
+     * Текущая версия справочника: увеличивается при каждом изменении
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Последний загруженный снимок или null
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Конструктор кэша справочника.
+     *
+     * @param brandRepository репозиторий марок
+     * @param modelRepository репозиторий моделей
+     */
+    public ReferenceDataCache(BrandRepository brandRepository, ModelRepository modelRepository) {
+        this.brandRepository = brandRepository;
+        this.modelRepository = modelRepository;
+    }
+
+    /**
+     * Возвращает все марки в порядке ID.
+     *
+     * @return список марок
+     */
+    public List<Brand> getBrands() {
+        return current().brands().values().stream().map(ReferenceDataCache::brand).toList();
+    }
+
+    /**
+     * Возвращает марку по ID.
+     *
+     * @param id ID марки
+     * @return марка или null, если не найдена
+     */
+    public Brand getBrand(Long id) {
+        BrandEntry entry = id == null ? null : current().brands().get(id);
+        return entry == null ? null : brand(entry);
+    }
+
+    /**
+     * Возвращает все модели в порядке ID.
+     *
+     * @return список моделей
+     */
+    public List<Model> getModels() {
+        Snapshot current = current();
+        return current.models().values().stream().map(entry -> model(current, entry)).toList();
+    }
+
+    /**
+     * Возвращает модель по ID.
+     *
+     * @param id ID модели
+     * @return модель или null, если не найдена
+     */
+    public Model getModel(Long id) {
+        Snapshot current = current();
+        ModelEntry entry = id == null ? null : current.models().get(id);
+        return entry == null ? null : model(current, entry);
+    }
+
+    /**
+     * Возвращает модели марки в порядке ID.
+     *
+     * @param brandId ID марки
+     * @return список моделей (пустой, если у марки нет моделей)
+     */
+    public List<Model> getModelsByBrand(Long brandId) {
+        Snapshot current = current();
+        return current.modelsByBrand().getOrDefault(brandId, List.of()).stream()
+                .map(entry -> model(current, entry))
+                .toList();
+    }
+
+    /**
+     * Возвращает текущую версию справочника.
+     *
+     * @return номер версии
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Отмечает справочник устаревшим. Вызывается после сохранения или удаления марки или модели.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Возвращает актуальный снимок, при необходимости перечитывая справочник.
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long expected = version.get();
+            if (current != null && current.version() == expected) {
+                return current;
+            }
+            // Версия фиксируется до чтения: изменение во время загрузки сделает снимок устаревшим
+            current = load(expected);
+            snapshot = current;
+            return current;
+        }
+    }
+
+    /**
+     * Загружает справочник из базы данных.
+     */
+    private Snapshot load(long loadedVersion) {
+        Map<Long, BrandEntry> brands = new LinkedHashMap<>();
+        for (Brand brand : brandRepository.findAll(Sort.by("id"))) {
+            brands.put(brand.getId(), new BrandEntry(brand.getId(), brand.getName()));
+        }
+        Map<Long, ModelEntry> models = new LinkedHashMap<>();
+        Map<Long, List<ModelEntry>> modelsByBrand = new LinkedHashMap<>();
+        List<Model> loaded = new ArrayList<>(modelRepository.findAll());
+        loaded.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        for (Model model : loaded) {
+            Long brandId = model.getBrand() != null ? model.getBrand().getId() : null;
+            ModelEntry entry = new ModelEntry(model.getId(), model.getName(), brandId);
+            models.put(model.getId(), entry);
+            if (brandId != null) {
+                modelsByBrand.computeIfAbsent(brandId, id -> new ArrayList<>()).add(entry);
+            }
+        }
+        log.info("Справочник марок и моделей загружен: {} марок, {} моделей (версия {})",
+                brands.size(), models.size(), loadedVersion);
+        return new Snapshot(loadedVersion, brands, models, modelsByBrand);
+    }
+
+    /**
+     * Создает отсоединенную модель вместе с маркой.
+     */
+    private static Model model(Snapshot snapshot, ModelEntry entry) {
+        BrandEntry brand = entry.brandId() == null ? null : snapshot.brands().get(entry.brandId());
+        return newModel(entry, brand == null ? null : brand(brand));
+    }
+
+    /**
+     * Создает отсоединенную марку.
+     */
+    private static Brand brand(BrandEntry entry) {
+        Brand brand = new Brand();
+        brand.setId(entry.id());
+        brand.setName(entry.name());
+        return brand;
+    }
+
+    /**
+     * Создает отсоединенную модель с заданной маркой.
+     */
+    private static Model newModel(ModelEntry entry, Brand brand) {
+        Model model = new Model();
+        model.setId(entry.id());
+        model.setName(entry.name());
+        model.setBrand(brand);
+        return model;
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.car_rental.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Сервис выгрузки истории аренд в CSV и JSON.
+ * <p>
+ * Строки читаются курсором PostgreSQL порциями по {@value #FETCH_SIZE}
+ * и сразу записываются в выходной поток. В памяти одновременно находится
+ * только одна порция строк, поэтому расход памяти не зависит от объема выгрузки.
+ * Сущности JPA не создаются и не накапливаются в контексте персистентности.
+ * <p>
+ * Фильтры совпадают со списком аренд администратора
+ * ({@link com.example.car_rental.repository.RentalSpecifications#adminFilter}).
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Service
+public class RentalExportService {
+
+    /**
+     * Формат CSV (разделитель ";", UTF-8 с BOM - открывается в Excel без настройки)
+     */
+    public static final String CSV = "csv";
+
+    /**
+     * Формат JSON (массив объектов)
+     */
+    public static final String JSON = "json";
+
+    /**
+     * Количество строк, читаемых из курсора за одно обращение к базе данных
+     */
+    private static final int FETCH_SIZE = 1000;
+
+    /**
+     * Запрос выгрузки; условия фильтрации подставляются вместо %s
+     */
+    private static final String EXPORT_SQL = """
+            SELECT r.id, r.created_at, r.start_date, r.end_date, r.status, r.total_price,
+                   c.license_plate, b.name AS brand_name, m.name AS model_name,
+                   u.email, u.last_name, u.first_name
+            FROM rentals r
+            LEFT JOIN cars c ON c.id = r.car_id
+            LEFT JOIN brands b ON b.id = c.brand_id
+            LEFT JOIN models m ON m.id = c.model_id
+            LEFT JOIN users u ON u.id = r.client_id
+            WHERE %s
+            ORDER BY r.id
+            """;
+
+    /**
+     * Заголовки столбцов CSV
+     */
+    private static final String[] CSV_HEADER = {
+            "ID", "Создана", "Начало", "Окончание", "Статус", "Стоимость, руб.",
+            "Госномер", "Марка", "Модель", "Email клиента", "Фамилия", "Имя"
+    };
+
+    /**
+     * JDBC-шаблон с размером порции курсора
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Фабрика потоковых JSON-генераторов
+     */
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Конструктор сервиса выгрузки.
+     *
+     * @param dataSource источник данных
+     */
+    public RentalExportService(DataSource dataSource) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    /**
+     * Записывает аренды, удовлетворяющие фильтрам, в выходной поток.
+     * <p>
+     * Выполняется в транзакции только для чтения: PostgreSQL читает результат
+     * курсором порциями только при выключенном автокоммите.
+     *
+     * @param format формат выгрузки ({@link #CSV} или {@link #JSON})
+     * @param plate  часть государственного номера автомобиля
+     * @param email  часть email клиента
+     * @param status статус аренды
+     * @param out    выходной поток ответа
+     * @throws IOException при ошибке записи (например, клиент прервал загрузку)
+     */
+    @Transactional(readOnly = true)
+    public void export(String format, String plate, String email, String status, OutputStream out) throws IOException {
+        StringBuilder where = new StringBuilder("TRUE");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (plate != null && !plate.isBlank()) {
+            where.append(" AND LOWER(c.license_plate) LIKE :plate");
+            params.addValue("plate", "%" + plate.toLowerCase() + "%");
+        }
+        if (email != null && !email.isBlank()) {
+            where.append(" AND LOWER(u.email) LIKE :email");
+            params.addValue("email", "%" + email.toLowerCase() + "%");
+        }
+        if (status != null && !status.isBlank()) {
+            where.append(" AND r.status = :status");
+            params.addValue("status", status);
+        }
+        String sql = EXPORT_SQL.formatted(where);
+
+        try {
+            if (JSON.equals(format)) {
+                writeJson(sql, params, out);
+            } else {
+                writeCsv(sql, params, out);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Записывает выгрузку в CSV.
+     */
+    private void writeCsv(String sql, MapSqlParameterSource params, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+        writeCsvLine(writer, CSV_HEADER);
+        jdbcTemplate.query(sql, params, (RowCallbackHandler) rs -> {
+            try {
+                writeCsvLine(writer, new String[]{
+                        rs.getString("id"),
+                        text(toDateTime(rs.getTimestamp("created_at"))),
+                        text(rs.getObject("start_date", LocalDate.class)),
+                        text(rs.getObject("end_date", LocalDate.class)),
+                        rs.getString("status"),
+                        text(rubles(rs)),
+                        rs.getString("license_plate"),
+                        rs.getString("brand_name"),
+                        rs.getString("model_name"),
+                        rs.getString("email"),
+                        rs.getString("last_name"),
+                        rs.getString("first_name")
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    /**
+     * Записывает выгрузку в JSON потоковым генератором.
+     */
+    private void writeJson(String sql, MapSqlParameterSource params, OutputStream out) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(out);
+        json.writeStartArray();
+        jdbcTemplate.query(sql, params, (RowCallbackHandler) rs -> {
+            try {
+                json.writeStartObject();
+                json.writeNumberField("id", rs.getLong("id"));
+                writeString(json, "createdAt", toDateTime(rs.getTimestamp("created_at")));
+                writeString(json, "startDate", rs.getObject("start_date", LocalDate.class));
+                writeString(json, "endDate", rs.getObject("end_date", LocalDate.class));
+                writeString(json, "status", rs.getString("status"));
+                BigDecimal price = rubles(rs);
+                if (price != null) {
+                    json.writeNumberField("totalPrice", price);
+                } else {
+                    json.writeNullField("totalPrice");
+                }
+                writeString(json, "licensePlate", rs.getString("license_plate"));
+                writeString(json, "brand", rs.getString("brand_name"));
+                writeString(json, "model", rs.getString("model_name"));
+                writeString(json, "clientEmail", rs.getString("email"));
+                writeString(json, "clientLastName", rs.getString("last_name"));
+                writeString(json, "clientFirstName", rs.getString("first_name"));
+                json.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        json.writeEndArray();
+        json.flush();
+    }
+
+    /**
+     * Записывает строку CSV, экранируя поля с разделителем, кавычками или переводом строки.
+     */
+    private static void writeCsvLine(Writer writer, String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(';');
+            }
+            String field = fields[i] != null ? fields[i] : "";
+            if (field.indexOf(';') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(field.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(field);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Строковое представление значения (null остается null).
+     */
+    private static String text(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Записывает строковое поле JSON (null - как null).
+     */
+    private static void writeString(JsonGenerator json, String name, Object value) throws IOException {
+        if (value == null) {
+            json.writeNullField(name);
+        } else {
+            json.writeStringField(name, value.toString());
+        }
+    }
+
+    /**
+     * Стоимость аренды в рублях (хранится в копейках).
+     */
+    private static BigDecimal rubles(ResultSet rs) throws SQLException {
+        long kopecks = rs.getLong("total_price");
+        return rs.wasNull() ? null : BigDecimal.valueOf(kopecks, 2);
+    }
+
+    /**
+     * Преобразует отметку времени в дату и время без часового пояса.
+     */
+    private static LocalDateTime toDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
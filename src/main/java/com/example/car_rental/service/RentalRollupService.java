@@ -0,0 +1,308 @@
+package com.example.car_rental.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сервис агрегатов выручки и загрузки автопарка для графиков панели администратора.
+ * <p>
+ * Таблица {@code rental_rollups} хранит по строке на день × город × марку:
+ * <ul>
+ *     <li>revenue - выручка оплаченных аренд, созданных в этот день (в копейках)</li>
+ *     <li>rented_days - число автомобилей, занятых оплаченными арендами в этот день</li>
+ *     <li>fleet_size - число автомобилей в парке (не на обслуживании) в этот день</li>
+ * </ul>
+ * Строки изменяются на вклад аренды в той же транзакции, что оплата или отмена.
+ * Город и марка автомобиля запоминаются в аренде при оплате, поэтому отмена вычитает
+ * вклад из тех же строк, даже если автомобиль за это время перенесен в другой город.
+ * Завершение аренды агрегаты не меняет: занятые дни учитываются заранее, при оплате.
+ * Графики по дням, неделям и месяцам читают только агрегаты, поэтому их стоимость
+ * зависит от длины периода, а не от объема истории аренд.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Service
+public class RentalRollupService {
+
+    /**
+     * Группировка по дням
+     */
+    public static final String DAY = "day";
+
+    /**
+     * Группировка по неделям (с понедельника)
+     */
+    public static final String WEEK = "week";
+
+    /**
+     * Группировка по месяцам
+     */
+    public static final String MONTH = "month";
+
+    /**
+     * Вклад оплаченных аренд в агрегаты: выручка в день создания аренды
+     * и по одному занятому автомобиле-дню на каждый день периода [start_date, end_date).
+     * Город и марка берутся запомненные при оплате, для аренд без них - текущие у автомобиля.
+     * Условие отбора аренд подставляется вместо %s.
+     */
+    private static final String CONTRIBUTIONS_SQL = """
+            SELECT r.created_at::date AS day, COALESCE(r.rollup_city, c.city, '') AS city,
+                   COALESCE(r.rollup_brand_id, c.brand_id, 0) AS brand_id,
+                   COALESCE(r.total_price, 0) AS revenue, 0 AS rented_days
+            FROM rentals r LEFT JOIN cars c ON c.id = r.car_id
+            WHERE %1$s
+            UNION ALL
+            SELECT d::date, COALESCE(r.rollup_city, c.city, ''), COALESCE(r.rollup_brand_id, c.brand_id, 0), 0, 1
+            FROM rentals r LEFT JOIN cars c ON c.id = r.car_id
+                 CROSS JOIN generate_series(r.start_date, r.end_date - 1, interval '1 day') d
+            WHERE %1$s
+            """;
+
+    /**
+     * Запоминание в арендах текущих города и марки автомобиля, если они еще не запомнены.
+     * Условие отбора аренд подставляется вместо %s.
+     */
+    private static final String PIN_SQL = """
+            UPDATE rentals r
+            SET rollup_city = COALESCE(c.city, ''), rollup_brand_id = COALESCE(c.brand_id, 0)
+            FROM cars c
+            WHERE c.id = r.car_id AND r.rollup_city IS NULL AND %s
+            """;
+
+    /**
+     * Изменение агрегатов на вклад одной аренды со знаком :sign.
+     * Строки обновляются в порядке дней, чтобы одновременные транзакции блокировали их в одном порядке.
+     */
+    private static final String APPLY_SQL = """
+            INSERT INTO rental_rollups AS ro (day, city, brand_id, revenue, rented_days, fleet_size)
+            SELECT day, city, brand_id, :sign * SUM(revenue), :sign * SUM(rented_days), 0
+            FROM (%s) x
+            GROUP BY day, city, brand_id
+            ORDER BY day, city, brand_id
+            ON CONFLICT (day, city, brand_id) DO UPDATE
+            SET revenue = ro.revenue + EXCLUDED.revenue, rented_days = ro.rented_days + EXCLUDED.rented_days
+            """.formatted(CONTRIBUTIONS_SQL.formatted("r.id = :rentalId"));
+
+    /**
+     * Полное построение агрегатов по всем оплаченным арендам
+     */
+    private static final String REBUILD_SQL = """
+            INSERT INTO rental_rollups (day, city, brand_id, revenue, rented_days, fleet_size)
+            SELECT day, city, brand_id, SUM(revenue), SUM(rented_days), 0
+            FROM (%s) x
+            GROUP BY day, city, brand_id
+            """.formatted(CONTRIBUTIONS_SQL.formatted("r.status = 'PAID'"));
+
+    /**
+     * Запись размера парка по городам и маркам для дней [:from, :to]
+     */
+    private static final String FLEET_SQL = """
+            INSERT INTO rental_rollups AS ro (day, city, brand_id, revenue, rented_days, fleet_size)
+            SELECT d::date, f.city, f.brand_id, 0, 0, f.cnt
+            FROM generate_series(CAST(:from AS date), CAST(:to AS date), interval '1 day') d
+                 CROSS JOIN (SELECT COALESCE(city, '') AS city, COALESCE(brand_id, 0) AS brand_id, COUNT(*) AS cnt
+                             FROM cars WHERE status <> 'MAINTENANCE'
+                             GROUP BY 1, 2) f
+            ON CONFLICT (day, city, brand_id) DO UPDATE SET fleet_size = EXCLUDED.fleet_size
+            """;
+
+    /**
+     * Ряд графика: агрегаты, сгруппированные по началу периода.
+     * Фильтры по городу и марке подставляются вместо %s.
+     */
+    private static final String SERIES_SQL = """
+            SELECT date_trunc(:unit, day)::date AS period,
+                   SUM(revenue) AS revenue, SUM(rented_days) AS rented_days, SUM(fleet_size) AS fleet_size
+            FROM rental_rollups
+            WHERE day >= :from AND day < :to%s
+            GROUP BY 1
+            """;
+
+    /**
+     * JDBC-шаблон с именованными параметрами
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор сервиса агрегатов.
+     *
+     * @param jdbcTemplate JDBC-шаблон с именованными параметрами
+     */
+    public RentalRollupService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Запоминает город и марку автомобиля в аренде и добавляет вклад оплаченной аренды.
+     * Вызывается в транзакции оплаты.
+     *
+     * @param rentalId ID аренды
+     */
+    @Transactional
+    public void rentalPaid(Long rentalId) {
+        jdbcTemplate.update(PIN_SQL.formatted("r.id = :rentalId"), new MapSqlParameterSource("rentalId", rentalId));
+        apply(rentalId, 1);
+    }
+
+    /**
+     * Вычитает вклад отмененной оплаченной аренды из строк, в которые он был добавлен
+     * при оплате. Вызывается в транзакции отмены.
+     *
+     * @param rentalId ID аренды
+     */
+    @Transactional
+    public void rentalCancelled(Long rentalId) {
+        apply(rentalId, -1);
+    }
+
+    /**
+     * Строит агрегаты по истории аренд, если таблица пуста (первый запуск),
+     * и записывает размер парка за дни, пропущенные с последней записи.
+     * <p>
+     * Только при первом построении таблица блокируется от записи (чтобы узлы кластера
+     * не построили агрегаты дважды), а оплаченным арендам запоминаются текущие город
+     * и марка автомобиля. Размер парка за прошлые дни при первом построении берется
+     * текущим, так как история состава парка не хранится.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        LocalDate today = LocalDate.now();
+        if (isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().execute("LOCK TABLE rental_rollups IN EXCLUSIVE MODE");
+            // Другой узел мог построить агрегаты, пока блокировка ожидалась
+            if (isEmpty()) {
+                jdbcTemplate.getJdbcTemplate().update(PIN_SQL.formatted("r.status = 'PAID'"));
+                jdbcTemplate.getJdbcTemplate().update(REBUILD_SQL);
+                LocalDate first = jdbcTemplate.getJdbcTemplate().queryForObject(
+                        "SELECT MIN(day) FROM rental_rollups", LocalDate.class);
+                recordFleet(first != null && first.isBefore(today) ? first : today, today);
+                return;
+            }
+        }
+        recordMissingFleet(today);
+    }
+
+    /**
+     * Записывает размер парка на наступивший день и на дни, пропущенные с последней записи
+     * (приложение не работало в момент запуска по расписанию). Выполняется ежедневно после полуночи.
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    @Transactional
+    public void recordTodayFleet() {
+        recordMissingFleet(LocalDate.now());
+    }
+
+    /**
+     * Возвращает ряд графика выручки и загрузки за период [from, to).
+     * Периоды без данных заполняются нулевой выручкой.
+     *
+     * @param unit    группировка: {@link #DAY}, {@link #WEEK} или {@link #MONTH}
+     * @param from    первый день (включительно)
+     * @param to      последний день (не включается)
+     * @param city    город (null - все города)
+     * @param brandId ID марки (null или 0 - все марки)
+     * @return точки графика в порядке периодов
+     */
+    public List<RollupPoint> getSeries(String unit, LocalDate from, LocalDate to, String city, Long brandId) {
+        if (!DAY.equals(unit) && !WEEK.equals(unit) && !MONTH.equals(unit)) {
+            throw new IllegalArgumentException("Неизвестная группировка: " + unit);
+        }
+        StringBuilder where = new StringBuilder();
+        // Первая точка - полный период: агрегаты читаются с его начала, а не с дня from
+        LocalDate start = truncate(unit, from);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("unit", unit)
+                .addValue("from", start)
+                .addValue("to", to);
+        if (city != null && !city.isBlank()) {
+            where.append(" AND city = :city");
+            params.addValue("city", city);
+        }
+        if (brandId != null && brandId != 0) {
+            where.append(" AND brand_id = :brandId");
+            params.addValue("brandId", brandId);
+        }
+
+        Map<LocalDate, RollupPoint> byPeriod = new HashMap<>();
+        jdbcTemplate.query(SERIES_SQL.formatted(where), params, rs -> {
+            LocalDate period = rs.getObject("period", LocalDate.class);
+            long fleet = rs.getLong("fleet_size");
+            Double utilization = fleet > 0 ? Math.min(1.0, (double) rs.getLong("rented_days") / fleet) : null;
+            byPeriod.put(period, new RollupPoint(period.toString(), rs.getLong("revenue"), utilization));
+        });
+
+        List<RollupPoint> series = new ArrayList<>();
+        for (LocalDate period = start; period.isBefore(to); period = next(unit, period)) {
+            series.add(byPeriod.getOrDefault(period, new RollupPoint(period.toString(), 0, null)));
+        }
+        return series;
+    }
+
+    /**
+     * Применяет вклад аренды со знаком.
+     */
+    private void apply(Long rentalId, int sign) {
+        jdbcTemplate.update(APPLY_SQL, new MapSqlParameterSource("rentalId", rentalId).addValue("sign", sign));
+    }
+
+    /**
+     * Проверяет, пуста ли таблица агрегатов.
+     */
+    private boolean isEmpty() {
+        return Boolean.TRUE.equals(jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM rental_rollups)", Boolean.class));
+    }
+
+    /**
+     * Записывает текущий размер парка с дня после последней записи по сегодняшний день.
+     * Размер парка за пропущенные дни берется текущим.
+     */
+    private void recordMissingFleet(LocalDate today) {
+        LocalDate last = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT MAX(day) FROM rental_rollups WHERE fleet_size > 0 AND day <= ?", LocalDate.class, today);
+        recordFleet(last != null && last.isBefore(today) ? last.plusDays(1) : today, today);
+    }
+
+    /**
+     * Записывает текущий размер парка для дней [from, to].
+     */
+    private void recordFleet(LocalDate from, LocalDate to) {
+        jdbcTemplate.update(FLEET_SQL, new MapSqlParameterSource("from", from).addValue("to", to));
+    }
+
+    /**
+     * Начало периода, содержащего день (как date_trunc в PostgreSQL).
+     */
+    private static LocalDate truncate(String unit, LocalDate day) {
+        return switch (unit) {
+            case WEEK -> day.with(DayOfWeek.MONDAY);
+            case MONTH -> day.withDayOfMonth(1);
+            default -> day;
+        };
+    }
+
+    /**
+     * Начало следующего периода.
+     */
+    private static LocalDate next(String unit, LocalDate period) {
+        return switch (unit) {
+            case WEEK -> period.plusWeeks(1);
+            case MONTH -> period.plusMonths(1);
+            default -> period.plusDays(1);
+        };
+    }
+}
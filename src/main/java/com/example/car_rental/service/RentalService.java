@@ -1,15 +1,29 @@
 package com.example.car_rental.service;
 
+import com.example.car_rental.event.RentalChangedEvent;
+import com.example.car_rental.event.RentalHoldCreatedEvent;
 import com.example.car_rental.model.Car;
 import com.example.car_rental.model.Rental;
 import com.example.car_rental.model.User;
+import com.example.car_rental.repository.Keyset;
+import com.example.car_rental.repository.KeysetPage;
 import com.example.car_rental.repository.RentalRepository;
+import com.example.car_rental.repository.RentalRepository.ReleasedHold;
+import com.example.car_rental.repository.RentalSpecifications;
 import com.example.car_rental.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,17 +31,26 @@ import java.util.List;
  * <p>
  * Предоставляет бизнес-логику для работы с арендами, включая:
  * <ul>
- *     <li>Создание новой аренды с резервированием автомобиля (статус PENDING_PAYMENT)</li>
- *     <li>Подтверждение оплаты (перевод аренды в статус PAID, автомобиля - в RENTED)</li>
- *     <li>Отмену аренды (возврат автомобиля в статус AVAILABLE)</li>
+ *     <li>Бронирование автомобиля на любой будущий период (статус PENDING_PAYMENT)</li>
+ *     <li>Подтверждение оплаты (перевод аренды в статус PAID)</li>
+ *     <li>Отмену аренды (возврат автомобиля в статус AVAILABLE, если аренда уже идет)</li>
  *     <li>Автоматическую отмену неоплаченных аренд через 5 минут</li>
- *     <li>Получение списка аренд клиента и всех аренд для администратора</li>
+ *     <li>Получение списка аренд клиента и постраничного списка аренд для администратора</li>
  * </ul>
  * <p>
  * Статусы аренды: PENDING_PAYMENT (ожидает оплаты), PAID (оплачена), CANCELLED (отменена).
  * <p>
- * Фоновая задача (@Scheduled) каждую минуту проверяет неоплаченные аренды
- * и автоматически отменяет те, что старше 5 минут, освобождая зарезервированные автомобили.
+ * Автомобиль может иметь несколько бронирований на разные периоды. Пересечение
+ * периодов [start_date, end_date) одного автомобиля среди не отмененных аренд
+ * запрещено ограничением исключения {@code rentals_no_overlap} в базе данных
+ * (см. schema.sql). Статус автомобиля отражает текущий день: RENTED, если на
+ * сегодня приходится оплаченная аренда, иначе AVAILABLE (MAINTENANCE задается
+ * администратором). Статусы пересчитываются ежедневно в полночь и при запуске.
+ * <p>
+ * При создании аренды публикуется {@link RentalHoldCreatedEvent}; планировщик
+ * {@link com.example.car_rental.expiry.RentalHoldExpiryScheduler} по истечении
+ * {@link #HOLD_DURATION} вызывает {@link #expireHolds(Collection)} и пакетно
+ * освобождает периоды неоплаченных аренд.
  *
  * @author ИжДрайв
  * @version 1.0
@@ -35,6 +58,59 @@ import java.util.List;
 @Service
 public class RentalService {
 
+    /**
+     * Срок оплаты аренды, в течение которого автомобиль удерживается за клиентом
+     */
+    public static final Duration HOLD_DURATION = Duration.ofMinutes(5);
+
+    /**
+     * На сколько дней вперед можно начать аренду
+     */
+    public static final int BOOKING_HORIZON_DAYS = 365;
+
+    /**
+     * SQLSTATE нарушения ограничения исключения в PostgreSQL
+     */
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    /**
+     * Поля курсорной пагинации списка аренд администратора
+     */
+    private static final Keyset<Rental> ADMIN_KEYSET = new Keyset<Rental>("createdAt", Rental::getId)
+            .field("brand", new Keyset.Field<Rental, String>(
+                    (root, cb) -> cb.lower(Keyset.leftJoin(Keyset.leftJoin(root, "car"), "brand").get("name")),
+                    r -> r.getCar() != null && r.getCar().getBrand() != null
+                            ? r.getCar().getBrand().getName().toLowerCase() : null,
+                    value -> value,
+                    ""))
+            .field("model", new Keyset.Field<Rental, String>(
+                    (root, cb) -> cb.lower(Keyset.leftJoin(Keyset.leftJoin(root, "car"), "model").get("name")),
+                    r -> r.getCar() != null && r.getCar().getModel() != null
+                            ? r.getCar().getModel().getName().toLowerCase() : null,
+                    value -> value,
+                    ""))
+            .field("email", new Keyset.Field<Rental, String>(
+                    (root, cb) -> cb.lower(Keyset.leftJoin(root, "client").get("email")),
+                    r -> r.getClient() != null ? r.getClient().getEmail().toLowerCase() : null,
+                    value -> value,
+                    ""))
+            .field("totalPrice", new Keyset.Field<Rental, Integer>(
+                    (root, cb) -> root.get("totalPrice"),
+                    Rental::getTotalPrice,
+                    Integer::valueOf,
+                    Integer.MIN_VALUE))
+            .field("startDate", new Keyset.Field<Rental, LocalDate>(
+                    (root, cb) -> root.get("startDate"),
+                    Rental::getStartDate,
+                    LocalDate::parse,
+                    LocalDate.EPOCH))
+            .field("createdAt", new Keyset.Field<Rental, LocalDateTime>(
+                    (root, cb) -> root.get("createdAt"),
+                    Rental::getCreatedAt,
+                    LocalDateTime::parse,
+                    LocalDate.EPOCH.atStartOfDay()))
+            .fetching("car", "car.brand", "car.model", "client");
+
     /**
      * Репозиторий для работы с арендами
      */
@@ -50,17 +126,40 @@ public class RentalService {
      */
     private final CarService carService;
 
+    /**
+     * Счетчики панели администратора
+     */
+    private final DashboardStatsService statsService;
+
+    /**
+     * Агрегаты выручки и загрузки автопарка
+     */
+    private final RentalRollupService rollupService;
+
+    /**
+     * Публикатор событий аренды
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * Конструктор сервиса аренды.
      *
      * @param rentalRepository репозиторий аренд
      * @param userRepository репозиторий пользователей
      * @param carService сервис автомобилей
+     * @param statsService счетчики панели администратора
+     * @param rollupService агрегаты выручки и загрузки автопарка
+     * @param eventPublisher публикатор событий
      */
-    public RentalService(RentalRepository rentalRepository, UserRepository userRepository, CarService carService) {
+    public RentalService(RentalRepository rentalRepository, UserRepository userRepository, CarService carService,
+                         DashboardStatsService statsService, RentalRollupService rollupService,
+                         ApplicationEventPublisher eventPublisher) {
         this.rentalRepository = rentalRepository;
         this.userRepository = userRepository;
         this.carService = carService;
+        this.statsService = statsService;
+        this.rollupService = rollupService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -68,16 +167,40 @@ public class RentalService {
      *
      * @return список всех аренд
      */
+    @Transactional(readOnly = true)
     public List<Rental> getAllRentals() {
         return rentalRepository.findAll();
     }
 
+    /**
+     * Возвращает страницу списка аренд администратора с фильтрацией
+     * и сортировкой на стороне базы данных и курсорной пагинацией.
+     *
+     * @param plate     часть государственного номера автомобиля
+     * @param email     часть email клиента
+     * @param status    статус аренды
+     * @param sortField поле сортировки (brand, model, email, totalPrice, startDate, createdAt)
+     * @param sortDir   направление сортировки (asc/desc)
+     * @param after     курсор следующей страницы
+     * @param before    курсор предыдущей страницы
+     * @param size      размер страницы
+     * @return страница аренд с курсорами соседних страниц
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Rental> getRentalsForAdmin(String plate, String email, String status,
+                                                 String sortField, String sortDir,
+                                                 String after, String before, int size) {
+        return ADMIN_KEYSET.fetch(rentalRepository, RentalSpecifications.adminFilter(plate, email, status),
+                sortField, sortDir, after, before, size);
+    }
+
     /**
      * Возвращает список аренд клиента по email с сортировкой по дате создания (от новых к старым).
      *
      * @param email email клиента
      * @return список аренд клиента
      */
+    @Transactional(readOnly = true)
     public List<Rental> getRentalsByClientEmail(String email) {
         return rentalRepository.findByClient_EmailOrderByCreatedAtDesc(email);
     }
@@ -93,13 +216,42 @@ public class RentalService {
     }
 
     /**
-     * Создает новую аренду для указанного пользователя.
-     * Устанавливает статус аренды PENDING_PAYMENT и резервирует автомобиль (статус RESERVED).
+     * Подсчитывает действующие аренды: не отмененные и еще не закончившиеся
+     * (ожидающие оплаты, оплаченные будущие и идущие сейчас).
+     *
+     * @return количество аренд
+     */
+    @Transactional(readOnly = true)
+    public long countActiveRentals() {
+        return rentalRepository.countActive();
+    }
+
+    /**
+     * Возвращает действующие бронирования автомобиля, которые еще не закончились.
+     *
+     * @param carId ID автомобиля
+     * @return бронирования в порядке даты начала
+     */
+    @Transactional(readOnly = true)
+    public List<Rental> getBookedPeriods(Long carId) {
+        return rentalRepository.findByCar_IdAndStatusNotAndEndDateAfterOrderByStartDate(carId, "CANCELLED", LocalDate.now());
+    }
+
+    /**
+     * Создает новую аренду (бронирование) для указанного пользователя.
+     * Устанавливает статус аренды PENDING_PAYMENT; статус автомобиля не меняется,
+     * так как период аренды начинается не раньше завтрашнего дня.
+     * <p>
+     * Пересечение с другими бронированиями автомобиля проверяет ограничение исключения
+     * в базе данных при вставке: из одновременных запросов на пересекающиеся периоды
+     * успешен только один, остальные получают {@link IllegalStateException}.
+     * Регистрирует срок удержания: через {@link #HOLD_DURATION} неоплаченная аренда будет отменена.
      *
      * @param rental объект аренды для создания
      * @param username email пользователя (используется как username)
      * @return созданная аренда
-     * @throws IllegalArgumentException если пользователь не найден
+     * @throws IllegalArgumentException если пользователь не найден или период задан неверно
+     * @throws IllegalStateException если автомобиль на обслуживании или период уже занят
      */
     @Transactional
     public Rental createRental(Rental rental, String username) {
@@ -107,42 +259,65 @@ public class RentalService {
         if (client == null) {
             throw new IllegalArgumentException("Пользователь не найден: " + username);
         }
+        if (rental.getStartDate() == null || rental.getEndDate() == null
+                || !rental.getEndDate().isAfter(rental.getStartDate())) {
+            throw new IllegalArgumentException("Дата окончания аренды должна быть позже даты начала.");
+        }
+        Car car = carService.getCarById(rental.getCar().getId());
+        if (car == null || "MAINTENANCE".equals(car.getStatus())) {
+            throw new IllegalStateException("Автомобиль недоступен для аренды.");
+        }
+
         rental.setClient(client);
         rental.setStatus("PENDING_PAYMENT");
         rental.setCreatedAt(LocalDateTime.now());
 
-        // Установить статус машины в RESERVED
-        Car car = rental.getCar();
-        car.setStatus("RESERVED");
-        carService.saveCar(car);
-
-        // Сохраняем аренду
-        return rentalRepository.save(rental);
+        // Сохраняем аренду: пересечение периодов отклоняется базой данных
+        Rental saved;
+        try {
+            saved = rentalRepository.saveAndFlush(rental);
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new IllegalStateException("Автомобиль уже забронирован на выбранные даты.");
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(new RentalHoldCreatedEvent(saved.getId(), saved.getCreatedAt().plus(HOLD_DURATION)));
+        eventPublisher.publishEvent(new RentalChangedEvent(saved.getId(), saved.getCar().getId(), saved.getStatus()));
+        return saved;
     }
 
     /**
      * Подтверждает оплату аренды.
-     * Переводит статус аренды в PAID и статус автомобиля в RENTED.
+     * Атомарно переводит статус аренды PENDING_PAYMENT → PAID: оплата аренды,
+     * которая уже отменена или истекла, отклоняется. Если период аренды уже
+     * начался (оплата после полуночи), автомобиль сразу переводится в RENTED.
+     * Выручка и агрегаты панели администратора обновляются в той же транзакции.
      *
      * @param rentalId ID аренды для подтверждения оплаты
+     * @throws IllegalStateException если аренда не ожидает оплаты
      */
     @Transactional
     public void confirmPayment(Long rentalId) {
         Rental rental = rentalRepository.findById(rentalId).orElseThrow();
+        if (rentalRepository.compareAndSetStatus(rentalId, "PENDING_PAYMENT", "PAID") == 0) {
+            throw new IllegalStateException("Аренда уже оплачена, отменена или срок оплаты истек.");
+        }
         rental.setStatus("PAID");
-
-        Car car = rental.getCar();
-        car.setStatus("RENTED");
-        carService.saveCar(car);
-
-        rentalRepository.save(rental);
+        statsService.revenueChanged(rental.getTotalPrice() != null ? rental.getTotalPrice() : 0);
+        rollupService.rentalPaid(rentalId);
+        eventPublisher.publishEvent(new RentalChangedEvent(rentalId, rental.getCar().getId(), "PAID"));
+        if (coversToday(rental)) {
+            carService.changeStatus(rental.getCar().getId(), "AVAILABLE", "RENTED");
+        }
     }
 
     /**
-     * Отменяет аренду и освобождает автомобиль.
+     * Отменяет аренду.
      * Для неоплаченных аренд (PENDING_PAYMENT) - полностью удаляет запись из БД.
-     * Для оплаченных аренд (PAID) - устанавливает статус CANCELLED.
-     * В обоих случаях возвращает автомобиль в статус AVAILABLE.
+     * Для оплаченных аренд (PAID) - устанавливает статус CANCELLED и, если аренда
+     * уже идет, переводит автомобиль RENTED → AVAILABLE.
+     * Если статус аренды уже изменен другим запросом, ничего не делает.
      *
      * @param rentalId ID аренды для отмены
      */
@@ -150,36 +325,81 @@ public class RentalService {
     public void cancelRental(Long rentalId) {
         Rental rental = rentalRepository.findById(rentalId).orElseThrow();
 
-        // Возвращаем статус машины в AVAILABLE
-        Car car = rental.getCar();
-        car.setStatus("AVAILABLE");
-        carService.saveCar(car);
-
         // Обрабатываем аренду в зависимости от статуса
         if ("PENDING_PAYMENT".equals(rental.getStatus())) {
             // Для неоплаченных аренд - полностью удаляем из БД
-            rentalRepository.delete(rental);
+            if (rentalRepository.deleteIfStatus(rentalId, "PENDING_PAYMENT") == 1) {
+                eventPublisher.publishEvent(new RentalChangedEvent(rentalId, rental.getCar().getId(), null));
+            }
         } else if ("PAID".equals(rental.getStatus())) {
             // Для оплаченных аренд - помечаем как отмененные
-            rental.setStatus("CANCELLED");
-            rentalRepository.save(rental);
+            if (rentalRepository.compareAndSetStatus(rentalId, "PAID", "CANCELLED") == 1) {
+                rental.setStatus("CANCELLED");
+                statsService.revenueChanged(rental.getTotalPrice() != null ? -rental.getTotalPrice() : 0);
+                rollupService.rentalCancelled(rentalId);
+                eventPublisher.publishEvent(new RentalChangedEvent(rentalId, rental.getCar().getId(), "CANCELLED"));
+                if (coversToday(rental)) {
+                    carService.changeStatus(rental.getCar().getId(), "RENTED", "AVAILABLE");
+                }
+            }
         }
     }
 
     /**
-     * Автоматически проверяет и отменяет неоплаченные аренды старше 5 минут.
-     * Запускается каждую минуту как фоновая задача (@Scheduled).
-     * Для каждой просроченной аренды освобождает зарезервированный автомобиль.
+     * Снимает просроченные удержания: удаляет неоплаченные аренды из списка,
+     * созданные раньше чем {@link #HOLD_DURATION} назад, освобождая их периоды.
+     * <p>
+     * Вся порция удаляется одним запросом DELETE ... RETURNING. Аренда удаляется условно
+     * (только в статусе PENDING_PAYMENT), поэтому оплата, подтвержденная одновременно
+     * со снятием удержания, не теряется.
+     *
+     * @param rentalIds ID аренд, срок удержания которых наступил
+     * @return количество отмененных аренд
      */
-    @Scheduled(fixedDelay = 60000)
     @Transactional
-    public void checkExpiredPendingRentals() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Rental> pendingRentals = rentalRepository.findByStatus("PENDING_PAYMENT");
-        for (Rental rental : pendingRentals) {
-            if (rental.getCreatedAt().plusMinutes(5).isBefore(now)) {
-                cancelRental(rental.getId());
-            }
+    public int expireHolds(Collection<Long> rentalIds) {
+        if (rentalIds.isEmpty()) {
+            return 0;
+        }
+        // Запас в секунду: строгое сравнение не должно отбросить аренду, срок которой наступил только что
+        LocalDateTime cutoff = LocalDateTime.now().minus(HOLD_DURATION).plusSeconds(1);
+        List<ReleasedHold> released = rentalRepository.deleteExpiredHolds(rentalIds, cutoff);
+        for (ReleasedHold hold : released) {
+            eventPublisher.publishEvent(new RentalChangedEvent(hold.getId(), hold.getCarId(), null));
+        }
+        return released.size();
+    }
+
+    /**
+     * Пересчитывает статусы автомобилей на текущий день: автомобили с оплаченной
+     * арендой на сегодня переводятся в RENTED, остальные RENTED - в AVAILABLE.
+     * Автомобили на обслуживании не затрагиваются. Выполняется при запуске
+     * приложения и ежедневно в полночь.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 0 * * *")
+    public void refreshCarStatuses() {
+        LocalDate today = LocalDate.now();
+        for (Long carId : rentalRepository.findCarIdsToMarkRented(today)) {
+            carService.changeStatus(carId, "AVAILABLE", "RENTED");
+        }
+        for (Long carId : rentalRepository.findCarIdsToRelease(today)) {
+            carService.changeStatus(carId, "RENTED", "AVAILABLE");
         }
     }
+
+    /**
+     * Проверяет, приходится ли сегодняшний день на период аренды [start, end).
+     */
+    private static boolean coversToday(Rental rental) {
+        LocalDate today = LocalDate.now();
+        return !rental.getStartDate().isAfter(today) && rental.getEndDate().isAfter(today);
+    }
+
+    /**
+     * Проверяет, вызвано ли исключение нарушением ограничения исключения (пересечением периодов).
+     */
+    private static boolean isExclusionViolation(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause() instanceof SQLException sql && EXCLUSION_VIOLATION.equals(sql.getSQLState());
+    }
 }
@@ -0,0 +1,61 @@
+package com.example.car_rental.service;
+
+/**
+ * Точка графика выручки и загрузки автопарка за период (день, неделю или месяц).
+ * <p>
+ * Формируется {@link RentalRollupService} по таблице агрегатов {@code rental_rollups}.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class RollupPoint {
+
+    /**
+     * Начало периода в формате ISO (yyyy-MM-dd)
+     */
+    private final String period;
+
+    /**
+     * Выручка по оплаченным арендам за период в копейках
+     */
+    private final long revenue;
+
+    /**
+     * Загрузка автопарка: доля занятых автомобиле-дней (от 0 до 1) или null, если парк пуст
+     */
+    private final Double utilization;
+
+    /**
+     * Создает точку графика.
+     *
+     * @param period      начало периода
+     * @param revenue     выручка в копейках
+     * @param utilization загрузка автопарка
+     */
+    public RollupPoint(String period, long revenue, Double utilization) {
+        this.period = period;
+        this.revenue = revenue;
+        this.utilization = utilization;
+    }
+
+    /**
+     * Возвращает начало периода.
+     *
+     * @return дата начала периода (yyyy-MM-dd)
+     */
+    public String getPeriod() { return period; }
+
+    /**
+     * Возвращает выручку за период.
+     *
+     * @return выручка в копейках
+     */
+    public long getRevenue() { return revenue; }
+
+    /**
+     * Возвращает загрузку автопарка за период.
+     *
+     * @return доля занятых автомобиле-дней или null
+     */
+    public Double getUtilization() { return utilization; }
+}
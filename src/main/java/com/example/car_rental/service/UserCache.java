@@ -0,0 +1,169 @@
+package com.example.car_rental.service;
+
+import com.example.car_rental.model.User;
+import com.example.car_rental.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш пользователей по email с ограниченным размером и временем жизни записей.
+ * <p>
+ * Обслуживает загрузку {@code UserDetails} при входе и получение текущего пользователя
+ * контроллерами, которые иначе читали бы одного и того же пользователя из базы данных
+ * почти на каждой странице. Хранит неизменяемые снимки {@link CachedUser}.
+ * <p>
+ * При переполнении вытесняется запись, к которой дольше всего не обращались.
+ * Изменения пользователя через {@link UserService} удаляют запись явно; время жизни
+ * ограничивает устаревание после изменений в обход сервиса. Загрузка, начатая до удаления
+ * записи, не кладет в кэш прочитанное до изменения значение.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Component
+public class UserCache {
+
+    /**
+     * Время жизни записи
+     */
+    static final Duration TTL = Duration.ofMinutes(5);
+
+    /**
+     * Наибольшее количество записей
+     */
+    static final int MAX_SIZE = 10_000;
+
+    /**
+     * Запись кэша со сроком действия в единицах {@link System#nanoTime()}.
+     */
+    private record Entry(CachedUser user, long expiresAt) {
+    }
+
+    /**
+     * Репозиторий пользователей
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Записи в порядке доступа (от давних к недавним); доступ под блокировкой на самой карте
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > MAX_SIZE) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Номер поколения: увеличивается при каждом явном удалении записи
+     */
+    private long generation;
+
+    /**
+     * Количество попаданий
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Количество промахов
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Количество вытеснений
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Конструктор кэша пользователей.
+     *
+     * @param userRepository репозиторий пользователей
+     */
+    public UserCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Возвращает пользователя по email из кэша или загружает его из базы данных.
+     * Отсутствие пользователя не кэшируется.
+     *
+     * @param email email пользователя
+     * @return снимок пользователя или null, если пользователь не найден
+     */
+    public CachedUser get(String email) {
+        if (email == null) {
+            return null;
+        }
+        long loadedGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry != null) {
+                if (entry.expiresAt() - System.nanoTime() > 0) {
+                    hits.increment();
+                    return entry.user();
+                }
+                entries.remove(email);
+            }
+            loadedGeneration = generation;
+        }
+        misses.increment();
+
+        User user = userRepository.findByEmail(email);
+        if (user == null) {
+            return null;
+        }
+        CachedUser cached = new CachedUser(user);
+        synchronized (entries) {
+            // Пока шла загрузка, запись могла быть удалена после изменения пользователя
+            if (generation == loadedGeneration) {
+                entries.put(email, new Entry(cached, System.nanoTime() + TTL.toNanos()));
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Удаляет пользователя из кэша. Вызывается после фиксации изменения или удаления пользователя.
+     *
+     * @param email email пользователя (null игнорируется)
+     */
+    public void evict(String email) {
+        synchronized (entries) {
+            generation++;
+            if (email != null) {
+                entries.remove(email);
+            }
+        }
+    }
+
+    /**
+     * Удаляет все записи. Вызывается, когда изменения пользователей могли быть пропущены.
+     */
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    /**
+     * Возвращает статистику обращений к кэшу.
+     *
+     * @return статистика кэша
+     */
+    public CacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+}
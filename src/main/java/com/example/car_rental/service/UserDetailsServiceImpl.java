@@ -1,8 +1,10 @@
 package com.example.car_rental.service;
 
-import com.example.car_rental.model.User;
+import com.example.car_rental.cluster.ClusterInvalidationPublisher;
+import com.example.car_rental.cluster.InvalidationType;
 import com.example.car_rental.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,25 +15,43 @@ import org.springframework.stereotype.Service;
  * Загружает детали пользователя по email (используется как username) из базы данных
  * для процесса аутентификации Spring Security. Преобразует пользователя системы
  * в формат Spring Security UserDetails с установленными ролями.
+ * Пользователь читается через {@link UserCache}.
+ * Как {@link UserDetailsPasswordService} сохраняет новый хеш пароля, если при входе
+ * выяснилось, что сохраненный хеш создан с другой стоимостью BCrypt.
  *
  * @author ИжДрайв
  * @version 1.0
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    /**
+     * Кэш пользователей по email
+     */
+    private final UserCache userCache;
 
     /**
      * Репозиторий для работы с пользователями
      */
     private final UserRepository userRepository;
 
+    /**
+     * Рассылка изменений другим узлам приложения
+     */
+    private final ClusterInvalidationPublisher invalidationPublisher;
+
     /**
      * Конструктор сервиса деталей пользователя.
      *
-     * @param userRepository репозиторий пользователей
+     * @param userCache             кэш пользователей
+     * @param userRepository        репозиторий пользователей
+     * @param invalidationPublisher рассылка изменений другим узлам
      */
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserCache userCache, UserRepository userRepository,
+                                  ClusterInvalidationPublisher invalidationPublisher) {
+        this.userCache = userCache;
         this.userRepository = userRepository;
+        this.invalidationPublisher = invalidationPublisher;
     }
 
     /**
@@ -44,7 +64,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email);
+        CachedUser user = userCache.get(email);
         if (user == null) {
             throw new UsernameNotFoundException("Пользователь не найден");
         }
@@ -54,4 +74,22 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .roles(user.getRole().replace("ROLE_", ""))
                 .build();
     }
+
+    /**
+     * Сохраняет новый хеш пароля после успешного входа.
+     * Вызывается Spring Security, если стоимость сохраненного хеша отличается от настроенной.
+     *
+     * @param user        данные пользователя
+     * @param newPassword новый хеш пароля
+     * @return данные пользователя с новым хешем
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        userCache.evict(user.getUsername());
+        invalidationPublisher.publish(InvalidationType.USER, user.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
 }
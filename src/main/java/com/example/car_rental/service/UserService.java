@@ -1,11 +1,19 @@
 package com.example.car_rental.service;
 
+import com.example.car_rental.cluster.ClusterInvalidationPublisher;
+import com.example.car_rental.cluster.InvalidationType;
 import com.example.car_rental.model.User;
 import com.example.car_rental.repository.UserRepository;
+import com.example.car_rental.repository.UserSpecifications;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Сервис для управления пользователями системы.
@@ -38,16 +46,40 @@ public class UserService {
      */
     private final PasswordEncoder passwordEncoder;
 
+    /**
+     * Кэш пользователей по email
+     */
+    private final UserCache userCache;
+
+    /**
+     * Проверка уникальности данных пользователя
+     */
+    private final UserUniquenessChecker uniquenessChecker;
+
+    /**
+     * Рассылка изменений другим узлам приложения
+     */
+    private final ClusterInvalidationPublisher invalidationPublisher;
+
     /**
      * Конструктор сервиса пользователей.
      *
      * @param userRepository репозиторий пользователей
      * @param passwordEncoder кодировщик паролей
+     * @param userCache кэш пользователей
+     * @param uniquenessChecker проверка уникальности данных пользователя
+     * @param invalidationPublisher рассылка изменений другим узлам
      */
     public UserService(UserRepository userRepository,
-                       PasswordEncoder passwordEncoder) {
+                       PasswordEncoder passwordEncoder,
+                       UserCache userCache,
+                       UserUniquenessChecker uniquenessChecker,
+                       ClusterInvalidationPublisher invalidationPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
+        this.uniquenessChecker = uniquenessChecker;
+        this.invalidationPublisher = invalidationPublisher;
     }
 
     /**
@@ -55,23 +87,29 @@ public class UserService {
      *
      * @return список всех пользователей
      */
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
     /**
-     * Возвращает отфильтрованный список пользователей по email и роли.
-     * Поиск по email регистронезависим и использует частичное совпадение.
+     * Возвращает страницу пользователей для панели администратора, отсортированную по email.
+     * Фильтрация выполняется в базе данных; поиск по подстроке регистронезависим
+     * и использует триграммные индексы. Общее количество найденных пользователей
+     * вычисляется тем же запросом, что и страница.
      *
      * @param email фильтр по email (частичное совпадение), null или пустая строка - без фильтрации
      * @param role фильтр по роли (точное совпадение), null или пустая строка - без фильтрации
-     * @return отфильтрованный список пользователей
+     * @param name фильтр по ФИО (частичное совпадение каждого слова), null или пустая строка - без фильтрации
+     * @param phone фильтр по цифрам телефона (частичное совпадение), null или пустая строка - без фильтрации
+     * @param page номер страницы (с 0)
+     * @param size размер страницы
+     * @return страница пользователей
      */
-    public List<User> getUsersFiltered(String email, String role) {
-        return userRepository.findAll().stream()
-                .filter(u -> (email == null || email.isBlank() || (u.getEmail() != null && u.getEmail().toLowerCase().contains(email.toLowerCase()))))
-                .filter(u -> (role == null || role.isBlank() || role.equals(u.getRole())))
-                .toList();
+    @Transactional(readOnly = true)
+    public Page<User> getUsersFiltered(String email, String role, String name, String phone, int page, int size) {
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), size, Sort.by("email", "id"));
+        return userRepository.findPage(UserSpecifications.adminFilter(email, role, name, phone), pageable);
     }
 
     /**
@@ -94,13 +132,37 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
 
+    /**
+     * Возвращает снимок пользователя по email из кэша.
+     * Используется для получения текущего пользователя, когда не нужна сущность целиком.
+     *
+     * @param email email пользователя
+     * @return снимок пользователя или null, если не найден
+     */
+    public CachedUser getCachedUser(String email) {
+        return userCache.get(email);
+    }
+
+    /**
+     * Возвращает статистику кэша пользователей.
+     *
+     * @return статистика кэша
+     */
+    public CacheStats getUserCacheStats() {
+        return userCache.getStats();
+    }
+
     /**
      * Удаляет пользователя по ID.
      *
      * @param id ID пользователя для удаления
      */
     public void deleteUser(Long id) {
+        User user = getUserById(id);
         userRepository.deleteById(id);
+        if (user != null) {
+            evict(user.getEmail());
+        }
     }
 
     /**
@@ -109,6 +171,7 @@ public class UserService {
      * @param phone номер телефона для проверки
      * @return true, если пользователь с таким телефоном существует
      */
+    @Transactional(readOnly = true)
     public boolean existsByPhone(String phone) {
         return userRepository.existsByPhone(phone);
     }
@@ -120,6 +183,7 @@ public class UserService {
      * @param number номер водительского удостоверения
      * @return true, если пользователь с такими данными ВУ существует
      */
+    @Transactional(readOnly = true)
     public boolean existsByDriverLicenseSeriesAndNumber(String series, String number) {
         return userRepository.existsByDriverLicenseSeriesAndDriverLicenseNumber(series, number);
     }
@@ -131,6 +195,7 @@ public class UserService {
      * @param number номер паспорта
      * @return true, если пользователь с такими паспортными данными существует
      */
+    @Transactional(readOnly = true)
     public boolean existsByPassportSeriesAndPassportNumber(String series, String number) {
         return userRepository.existsByPassportSeriesAndPassportNumber(series, number);
     }
@@ -142,12 +207,22 @@ public class UserService {
      * @param user пользователь для проверки
      * @return true, если все данные уникальны, false - если хотя бы одно значение уже существует
      */
+    @Transactional(readOnly = true)
     public boolean isUserDataUnique(User user) {
-        if (userRepository.existsByEmail(user.getEmail())) return false;
-        if (existsByPhone(user.getPhone())) return false;
-        if (existsByDriverLicenseSeriesAndNumber(user.getDriverLicenseSeries(), user.getDriverLicenseNumber())) return false;
-        if (existsByPassportSeriesAndPassportNumber(user.getPassportSeries(), user.getPassportNumber())) return false;
-        return true;
+        return findConflicts(user).isEmpty();
+    }
+
+    /**
+     * Находит данные нового пользователя, которые уже заняты (email, телефон, ВУ, паспорт).
+     * Значения, которых заведомо нет в базе данных, отсеиваются в памяти,
+     * остальные проверяются одним запросом.
+     *
+     * @param user пользователь для проверки
+     * @return занятые поля (пустое множество, если все данные уникальны)
+     */
+    @Transactional(readOnly = true)
+    public Set<UserUniqueField> findConflicts(User user) {
+        return uniquenessChecker.findConflicts(user, null);
     }
 
     /**
@@ -229,7 +304,23 @@ public class UserService {
         if (user.getPassword() != null && !user.getPassword().startsWith("{bcrypt}")) {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        evict(saved.getEmail());
+        uniquenessChecker.added(saved);
+        return saved;
+    }
+
+    /**
+     * Сохраняет изменения профиля, сделанные самим пользователем, без изменения пароля.
+     *
+     * @param user пользователь, загруженный из базы данных, с измененными полями профиля
+     * @return сохраненный пользователь
+     */
+    public User saveProfile(User user) {
+        User saved = userRepository.save(user);
+        evict(saved.getEmail());
+        uniquenessChecker.added(saved);
+        return saved;
     }
 
     /**
@@ -244,6 +335,7 @@ public class UserService {
         if (userFromDb == null) {
             return null;
         }
+        String previousEmail = userFromDb.getEmail();
         userFromDb.setEmail(userFromForm.getEmail());
         userFromDb.setPhone(userFromForm.getPhone());
         userFromDb.setLastName(userFromForm.getLastName());
@@ -254,7 +346,11 @@ public class UserService {
         userFromDb.setPassportSeries(userFromForm.getPassportSeries());
         userFromDb.setPassportNumber(userFromForm.getPassportNumber());
         userFromDb.setRole(userFromForm.getRole());
-        return userRepository.save(userFromDb);
+        User saved = userRepository.save(userFromDb);
+        evict(previousEmail);
+        evict(saved.getEmail());
+        uniquenessChecker.added(saved);
+        return saved;
     }
 
     /**
@@ -271,6 +367,16 @@ public class UserService {
             return null;
         }
         userFromDb.setRole(newRole);
-        return userRepository.save(userFromDb);
+        User saved = userRepository.save(userFromDb);
+        evict(saved.getEmail());
+        return saved;
+    }
+
+    /**
+     * Удаляет пользователя из кэша этого узла и сообщает об изменении другим узлам.
+     */
+    private void evict(String email) {
+        userCache.evict(email);
+        invalidationPublisher.publish(InvalidationType.USER, email);
     }
 }
@@ -0,0 +1,31 @@
+package com.example.car_rental.service;
+
+/**
+ * Поля пользователя, значения которых должны быть уникальны
+ * (ограничения уникальности таблицы {@code users}).
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public enum UserUniqueField {
+
+    /**
+     * Email
+     */
+    EMAIL,
+
+    /**
+     * Телефон
+     */
+    PHONE,
+
+    /**
+     * Серия и номер водительского удостоверения
+     */
+    DRIVER_LICENSE,
+
+    /**
+     * Серия и номер паспорта
+     */
+    PASSPORT
+}
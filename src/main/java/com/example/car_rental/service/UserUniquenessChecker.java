@@ -0,0 +1,257 @@
+package com.example.car_rental.service;
+
+import com.example.car_rental.index.BloomFilter;
+import com.example.car_rental.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Проверка уникальности данных пользователя при регистрации и изменении профиля.
+ * <p>
+ * Для каждого уникального поля в памяти хранится фильтр Блума по значениям из таблицы
+ * {@code users}: он строится при запуске приложения и пополняется при сохранении
+ * пользователя. Значения, которых точно нет в фильтре, не проверяются по базе данных;
+ * остальные проверяются одним запросом, который сообщает, какие именно поля совпали.
+ * Если все значения новые, запросов к базе данных нет совсем.
+ * <p>
+ * Окончательное решение остается за ограничениями уникальности таблицы: при гонке
+ * двух регистраций одна из вставок будет отклонена базой данных. Удаленные пользователи
+ * остаются в фильтрах до перестроения и дают лишь ложноположительный ответ, то есть
+ * обычную проверку по базе данных.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@Service
+public class UserUniquenessChecker {
+
+    /**
+     * Логгер проверки уникальности
+     */
+    private static final Logger log = LoggerFactory.getLogger(UserUniquenessChecker.class);
+
+    /**
+     * Допустимая доля ложноположительных ответов фильтра
+     */
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * Запас емкости фильтров на регистрации после построения
+     */
+    private static final long MIN_CAPACITY = 10_000;
+
+    /**
+     * Значения уникальных полей всех пользователей
+     */
+    private static final String LOAD_SQL = """
+            SELECT email, phone, driver_license_series, driver_license_number, passport_series, passport_number
+            FROM users
+            """;
+
+    /**
+     * Проверка совпадений одним запросом; условия по подозрительным полям подставляются вместо %s
+     */
+    private static final String CONFLICTS_SQL = """
+            SELECT COALESCE(bool_or(email = :email), FALSE) AS email,
+                   COALESCE(bool_or(phone = :phone), FALSE) AS phone,
+                   COALESCE(bool_or(driver_license_series = :dls AND driver_license_number = :dln), FALSE) AS driver_license,
+                   COALESCE(bool_or(passport_series = :ps AND passport_number = :pn), FALSE) AS passport
+            FROM users
+            WHERE (%s)%s
+            """;
+
+    /**
+     * Фильтры Блума по полям; null, пока фильтры не построены
+     */
+    private volatile Map<UserUniqueField, BloomFilter> filters;
+
+    /**
+     * Пользователи, сохраненные во время перестроения фильтров (добавляются в новые фильтры после замены)
+     */
+    private List<Map<UserUniqueField, String>> pending;
+
+    /**
+     * JDBC-шаблон с именованными параметрами
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор проверки уникальности.
+     *
+     * @param jdbcTemplate JDBC-шаблон с именованными параметрами
+     */
+    public UserUniquenessChecker(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Строит фильтры по таблице пользователей. Выполняется после запуска приложения
+     * и повторно, если фильтры переполнились. Если построение уже идет, ничего не делает.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            if (pending != null) {
+                return;
+            }
+            pending = new ArrayList<>();
+        }
+        Map<UserUniqueField, BloomFilter> built = new EnumMap<>(UserUniqueField.class);
+        boolean loaded = false;
+        try {
+            long started = System.currentTimeMillis();
+            Long count = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM users", Long.class);
+            long capacity = Math.max(MIN_CAPACITY, 2 * (count != null ? count : 0));
+            for (UserUniqueField field : UserUniqueField.values()) {
+                built.put(field, new BloomFilter(capacity, FALSE_POSITIVE_RATE));
+            }
+            jdbcTemplate.getJdbcTemplate().query(LOAD_SQL, rs -> {
+                put(built, keys(rs.getString("email"), rs.getString("phone"),
+                        rs.getString("driver_license_series"), rs.getString("driver_license_number"),
+                        rs.getString("passport_series"), rs.getString("passport_number")));
+            });
+            log.info("Фильтры уникальности пользователей построены: {} пользователей за {} мс",
+                    count, System.currentTimeMillis() - started);
+            loaded = true;
+        } finally {
+            synchronized (this) {
+                // При ошибке остаются прежние фильтры (или проверка всех полей по базе данных)
+                if (loaded) {
+                    pending.forEach(values -> put(built, values));
+                    filters = built;
+                }
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * Учитывает значения сохраненного пользователя. Вызывается после сохранения.
+     *
+     * @param user сохраненный пользователь
+     */
+    public void added(User user) {
+        Map<UserUniqueField, String> values = keys(user);
+        boolean saturated = false;
+        synchronized (this) {
+            if (pending != null) {
+                pending.add(values);
+            }
+            Map<UserUniqueField, BloomFilter> current = filters;
+            if (current != null) {
+                put(current, values);
+                saturated = current.values().stream().anyMatch(BloomFilter::isSaturated);
+            }
+        }
+        if (saturated) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Находит уникальные поля пользователя, значения которых уже заняты другими пользователями.
+     *
+     * @param user      проверяемый пользователь
+     * @param excludeId ID самого пользователя при изменении профиля (null при регистрации)
+     * @return занятые поля (пустое множество, если все значения свободны)
+     */
+    public Set<UserUniqueField> findConflicts(User user, Long excludeId) {
+        Map<UserUniqueField, String> values = keys(user);
+        Map<UserUniqueField, BloomFilter> current = filters;
+
+        List<String> conditions = new ArrayList<>();
+        for (Map.Entry<UserUniqueField, String> entry : values.entrySet()) {
+            // Пока фильтры не построены, проверяются все поля
+            if (current == null || current.get(entry.getKey()).mightContain(entry.getValue())) {
+                conditions.add(switch (entry.getKey()) {
+                    case EMAIL -> "email = :email";
+                    case PHONE -> "phone = :phone";
+                    case DRIVER_LICENSE -> "driver_license_series = :dls AND driver_license_number = :dln";
+                    case PASSPORT -> "passport_series = :ps AND passport_number = :pn";
+                });
+            }
+        }
+        Set<UserUniqueField> conflicts = EnumSet.noneOf(UserUniqueField.class);
+        if (conditions.isEmpty()) {
+            return conflicts;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("email", user.getEmail())
+                .addValue("phone", user.getPhone())
+                .addValue("dls", user.getDriverLicenseSeries())
+                .addValue("dln", user.getDriverLicenseNumber())
+                .addValue("ps", user.getPassportSeries())
+                .addValue("pn", user.getPassportNumber());
+        String excluded = "";
+        if (excludeId != null) {
+            excluded = " AND id <> :id";
+            params.addValue("id", excludeId);
+        }
+        jdbcTemplate.query(CONFLICTS_SQL.formatted(String.join(") OR (", conditions), excluded), params, rs -> {
+            if (rs.getBoolean("email") && values.containsKey(UserUniqueField.EMAIL)) {
+                conflicts.add(UserUniqueField.EMAIL);
+            }
+            if (rs.getBoolean("phone") && values.containsKey(UserUniqueField.PHONE)) {
+                conflicts.add(UserUniqueField.PHONE);
+            }
+            if (rs.getBoolean("driver_license") && values.containsKey(UserUniqueField.DRIVER_LICENSE)) {
+                conflicts.add(UserUniqueField.DRIVER_LICENSE);
+            }
+            if (rs.getBoolean("passport") && values.containsKey(UserUniqueField.PASSPORT)) {
+                conflicts.add(UserUniqueField.PASSPORT);
+            }
+        });
+        return conflicts;
+    }
+
+    /**
+     * Добавляет значения в фильтры.
+     */
+    private static void put(Map<UserUniqueField, BloomFilter> target, Map<UserUniqueField, String> values) {
+        values.forEach((field, value) -> target.get(field).put(value));
+    }
+
+    /**
+     * Ключи фильтров для заданных полей пользователя.
+     */
+    private static Map<UserUniqueField, String> keys(User user) {
+        return keys(user.getEmail(), user.getPhone(), user.getDriverLicenseSeries(), user.getDriverLicenseNumber(),
+                user.getPassportSeries(), user.getPassportNumber());
+    }
+
+    /**
+     * Ключи фильтров: значение поля или пары полей документа. Незаданные поля пропускаются,
+     * так как NULL не нарушает ограничение уникальности.
+     */
+    private static Map<UserUniqueField, String> keys(String email, String phone, String licenseSeries,
+                                                     String licenseNumber, String passportSeries,
+                                                     String passportNumber) {
+        Map<UserUniqueField, String> keys = new EnumMap<>(UserUniqueField.class);
+        if (email != null) {
+            keys.put(UserUniqueField.EMAIL, email);
+        }
+        if (phone != null) {
+            keys.put(UserUniqueField.PHONE, phone);
+        }
+        if (licenseSeries != null && licenseNumber != null) {
+            keys.put(UserUniqueField.DRIVER_LICENSE, licenseSeries + " " + licenseNumber);
+        }
+        if (passportSeries != null && passportNumber != null) {
+            keys.put(UserUniqueField.PASSPORT, passportSeries + " " + passportNumber);
+        }
+        return keys;
+    }
+}
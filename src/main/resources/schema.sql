@@ -0,0 +1,104 @@
+-- Выполняется после обновления схемы Hibernate (spring.jpa.defer-datasource-initialization).
+-- Операторы разделяются строкой @@, так как блок DO содержит точки с запятой.
+
+-- Период аренды [start_date, end_date) и запрет пересечения периодов одного автомобиля.
+-- Конфликт определяется проверкой GiST-индекса ограничения, без блокировок и сканирования.
+CREATE EXTENSION IF NOT EXISTS btree_gist
+@@
+
+ALTER TABLE rentals ADD COLUMN IF NOT EXISTS period daterange
+    GENERATED ALWAYS AS (daterange(start_date, end_date, '[)')) STORED
+@@
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'rentals_no_overlap') THEN
+        ALTER TABLE rentals ADD CONSTRAINT rentals_no_overlap
+            EXCLUDE USING gist (car_id WITH =, period WITH &&) WHERE (status <> 'CANCELLED');
+    END IF;
+END
+$$
+@@
+
+-- Статус автомобиля RESERVED больше не используется: период занятости определяется
+-- арендами, а статус на текущий день - RentalService.refreshCarStatuses. Оставшиеся от прежних
+-- версий строки переводятся в AVAILABLE; при запуске автомобили с оплаченной арендой
+-- на сегодня переводятся в RENTED, счетчики панели сверяются с таблицей.
+UPDATE cars SET status = 'AVAILABLE' WHERE status = 'RESERVED'
+@@
+
+-- Поиск автомобилей, свободных на период: пересечение периодов по GiST-индексу
+-- читает только аренды, пересекающие запрошенные даты, независимо от объема истории.
+CREATE INDEX IF NOT EXISTS idx_rentals_period ON rentals USING gist (period) WHERE status <> 'CANCELLED'
+@@
+
+-- Счетчики панели администратора (выручка, автомобили по статусам), см. DashboardStatsService.
+-- Счетчик хранится несколькими строками-полосами (stripe), значение - их сумма.
+CREATE TABLE IF NOT EXISTS dashboard_counters (
+    name   VARCHAR(64) NOT NULL,
+    stripe SMALLINT    NOT NULL DEFAULT 0,
+    value  BIGINT      NOT NULL,
+    PRIMARY KEY (name, stripe)
+)
+@@
+
+-- Таблица, созданная до разбиения на полосы: одна строка счетчика становится полосой 0.
+ALTER TABLE dashboard_counters ADD COLUMN IF NOT EXISTS stripe SMALLINT NOT NULL DEFAULT 0
+@@
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_index i
+               WHERE i.indrelid = 'dashboard_counters'::regclass AND i.indisprimary AND i.indnatts = 1) THEN
+        ALTER TABLE dashboard_counters DROP CONSTRAINT dashboard_counters_pkey, ADD PRIMARY KEY (name, stripe);
+    END IF;
+END
+$$
+@@
+
+-- Агрегаты выручки и загрузки автопарка по дням, городам и маркам, см. RentalRollupService.
+CREATE TABLE IF NOT EXISTS rental_rollups (
+    day         DATE         NOT NULL,
+    city        VARCHAR(255) NOT NULL,
+    brand_id    BIGINT       NOT NULL,
+    revenue     BIGINT       NOT NULL DEFAULT 0,
+    rented_days BIGINT       NOT NULL DEFAULT 0,
+    fleet_size  BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, city, brand_id)
+)
+@@
+
+-- Город и марка, в строки которых записан вклад оплаченной аренды: отмена вычитает вклад
+-- из тех же строк, даже если автомобиль с тех пор перенесен в другой город или сменил марку.
+ALTER TABLE rentals ADD COLUMN IF NOT EXISTS rollup_city VARCHAR(255)
+@@
+
+ALTER TABLE rentals ADD COLUMN IF NOT EXISTS rollup_brand_id BIGINT
+@@
+
+-- Госномер автомобиля уникален без учета регистра. Индекс обслуживает проверку порции импорта
+-- (UPPER(license_plate) IN (...), см. CarImportService) и не дает одновременным импортам или
+-- форме администратора добавить один номер дважды. Если в таблице уже есть повторы,
+-- их нужно устранить до запуска.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_cars_license_plate ON cars (upper(license_plate))
+@@
+
+-- Поиск пользователей по подстроке в панели администратора, см. UserSpecifications.
+-- Триграммные GIN-индексы обслуживают условия lower(column) LIKE '%...%' без полного просмотра таблицы.
+CREATE EXTENSION IF NOT EXISTS pg_trgm
+@@
+
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (lower(email) gin_trgm_ops)
+@@
+
+CREATE INDEX IF NOT EXISTS idx_users_last_name_trgm ON users USING gin (lower(last_name) gin_trgm_ops)
+@@
+
+CREATE INDEX IF NOT EXISTS idx_users_first_name_trgm ON users USING gin (lower(first_name) gin_trgm_ops)
+@@
+
+CREATE INDEX IF NOT EXISTS idx_users_middle_name_trgm ON users USING gin (lower(middle_name) gin_trgm_ops)
+@@
+
+CREATE INDEX IF NOT EXISTS idx_users_phone_trgm ON users USING gin (phone gin_trgm_ops)
+@@
@@ -0,0 +1,170 @@
+package com.example.car_rental;
+
+import com.example.car_rental.model.Brand;
+import com.example.car_rental.model.Car;
+import com.example.car_rental.model.Model;
+import com.example.car_rental.model.Rental;
+import com.example.car_rental.model.User;
+import com.example.car_rental.repository.BrandRepository;
+import com.example.car_rental.repository.CarRepository;
+import com.example.car_rental.repository.ModelRepository;
+import com.example.car_rental.repository.RentalRepository;
+import com.example.car_rental.repository.UserRepository;
+import com.example.car_rental.service.CarService;
+import com.example.car_rental.service.RentalService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочная проверка бронирования одного автомобиля из сотен виртуальных потоков.
+ * <p>
+ * В каждом раунде {@link #THREADS} потоков одновременно пытаются создать аренду
+ * одного и того же автомобиля на один и тот же период. Пересечение периодов
+ * отклоняет ограничение исключения в базе данных, поэтому ровно одна попытка
+ * должна завершиться успехом, а в базе должна остаться ровно одна неоплаченная
+ * аренда. Затем аренда отменяется, и раунд повторяется.
+ * В конце выводится пропускная способность (попыток в секунду).
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@SpringBootTest
+class CarBookingConcurrencyTests {
+
+	private static final int THREADS = 300;
+	private static final int ROUNDS = 10;
+
+	@Autowired
+	private RentalService rentalService;
+
+	@Autowired
+	private CarService carService;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	@Autowired
+	private BrandRepository brandRepository;
+
+	@Autowired
+	private ModelRepository modelRepository;
+
+	@Autowired
+	private RentalRepository rentalRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Brand brand;
+	private Model model;
+	private Car car;
+	private User client;
+
+	@BeforeEach
+	void createCar() {
+		String tag = UUID.randomUUID().toString().substring(0, 8);
+		brand = new Brand();
+		brand.setName("cc-" + tag);
+		brand = brandRepository.save(brand);
+		model = new Model();
+		model.setName("cc-" + tag);
+		model.setBrand(brand);
+		model = modelRepository.save(model);
+
+		car = new Car();
+		car.setLicensePlate("cc-" + tag);
+		car.setCity("Ижевск");
+		car.setPricePerDay(300000);
+		car.setStatus("AVAILABLE");
+		car.setBrand(brand);
+		car.setModel(model);
+		car = carService.saveCar(car);
+
+		client = new User();
+		client.setEmail("cc-" + tag + "@test.local");
+		client.setPassword("x");
+		client.setRole("ROLE_USER");
+		client = userRepository.save(client);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		rentalRepository.deleteAll(rentalRepository.findByClient_EmailOrderByCreatedAtDesc(client.getEmail()));
+		carService.deleteCar(car.getId());
+		modelRepository.delete(model);
+		brandRepository.delete(brand);
+		userRepository.delete(client);
+	}
+
+	@Test
+	void exactlyOneBookingWinsUnderContention() throws Exception {
+		long attempts = 0;
+		long started = System.nanoTime();
+		for (int round = 0; round < ROUNDS; round++) {
+			List<Long> winners = hammer();
+			attempts += THREADS;
+
+			assertThat(winners).hasSize(1);
+			assertThat(rentalRepository.findByClient_EmailOrderByCreatedAtDesc(client.getEmail()))
+					.filteredOn(r -> "PENDING_PAYMENT".equals(r.getStatus()))
+					.hasSize(1);
+
+			rentalService.cancelRental(winners.get(0));
+			// Будущее бронирование не меняет текущий статус автомобиля
+			assertThat(carRepository.findById(car.getId()).orElseThrow().getStatus()).isEqualTo("AVAILABLE");
+		}
+		double seconds = (System.nanoTime() - started) / 1e9;
+		System.out.printf("Бронирование: %d попыток за %.2f с, %.0f попыток/с, двойных бронирований: 0%n",
+				attempts, seconds, attempts / seconds);
+	}
+
+	/**
+	 * Запускает {@link #THREADS} одновременных попыток и возвращает ID созданных аренд.
+	 */
+	private List<Long> hammer() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Long>> results = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					Car ref = new Car();
+					ref.setId(car.getId());
+					Rental rental = new Rental();
+					rental.setCar(ref);
+					rental.setStartDate(LocalDate.now().plusDays(1));
+					rental.setEndDate(LocalDate.now().plusDays(2));
+					rental.setTotalPrice(300000);
+					try {
+						return rentalService.createRental(rental, client.getEmail()).getId();
+					} catch (IllegalStateException e) {
+						return null;
+					}
+				}));
+			}
+			start.countDown();
+		}
+		List<Long> winners = new ArrayList<>();
+		for (Future<Long> result : results) {
+			Long id = result.get();
+			if (id != null) {
+				winners.add(id);
+			}
+		}
+		return winners;
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.car_rental;
+
+import com.example.car_rental.model.Car;
+import com.example.car_rental.repository.CarRepository;
+import com.example.car_rental.repository.KeysetPage;
+import com.example.car_rental.service.CarService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что курсорная пагинация списка автомобилей администратора не теряет записи
+ * с null-ключом сортировки (без цены, без модели) на границе страниц.
+ * <p>
+ * Автомобили создаются с уникальным номером и удаляются после теста.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@SpringBootTest
+class KeysetNullKeyPagingTests {
+
+	private static final int PAGE = 2;
+
+	@Autowired
+	private CarService carService;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	private final List<Car> cars = new ArrayList<>();
+
+	private String tag;
+
+	@BeforeEach
+	void seed() {
+		tag = "ks-" + UUID.randomUUID().toString().substring(0, 8);
+		Integer[] prices = {null, 150000, null, null, 90000};
+		for (int i = 0; i < prices.length; i++) {
+			Car car = new Car();
+			car.setLicensePlate(tag + "-" + i);
+			car.setStatus("AVAILABLE");
+			car.setPricePerDay(prices[i]);
+			cars.add(carRepository.save(car));
+		}
+	}
+
+	@AfterEach
+	void cleanUp() {
+		carRepository.deleteAll(cars);
+	}
+
+	@Test
+	void walksNullPricesAcrossPageBoundaries() {
+		assertWalksAllCars("price", "asc");
+		assertWalksAllCars("price", "desc");
+	}
+
+	@Test
+	void walksCarsWithoutModelAcrossPageBoundaries() {
+		assertWalksAllCars("model", "asc");
+		assertWalksAllCars("model", "desc");
+	}
+
+	/**
+	 * Проходит все страницы вперед и обратно и сравнивает ID с созданными автомобилями.
+	 */
+	private void assertWalksAllCars(String sortField, String sortDir) {
+		List<Long> forward = new ArrayList<>();
+		KeysetPage<Car> page = carService.getCarsForAdmin(null, tag, null, null, sortField, sortDir, null, null, PAGE);
+		page.getContent().forEach(car -> forward.add(car.getId()));
+		while (page.hasNext()) {
+			page = carService.getCarsForAdmin(null, tag, null, null, sortField, sortDir, page.getNextCursor(), null, PAGE);
+			page.getContent().forEach(car -> forward.add(car.getId()));
+		}
+		assertThat(forward).containsExactlyInAnyOrderElementsOf(cars.stream().map(Car::getId).toList());
+
+		List<Long> backward = new ArrayList<>();
+		while (page.hasPrevious()) {
+			page = carService.getCarsForAdmin(null, tag, null, null, sortField, sortDir, null, page.getPreviousCursor(), PAGE);
+			backward.addAll(0, page.getContent().stream().map(Car::getId).toList());
+		}
+		int lastPage = forward.size() % PAGE == 0 ? PAGE : forward.size() % PAGE;
+		assertThat(backward).isEqualTo(forward.subList(0, forward.size() - lastPage));
+	}
+}
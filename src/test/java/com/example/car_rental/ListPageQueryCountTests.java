@@ -0,0 +1,182 @@
+package com.example.car_rental;
+
+import com.example.car_rental.config.SqlStatementCounter;
+import com.example.car_rental.model.Brand;
+import com.example.car_rental.model.Car;
+import com.example.car_rental.model.Model;
+import com.example.car_rental.model.Rental;
+import com.example.car_rental.model.User;
+import com.example.car_rental.repository.BrandRepository;
+import com.example.car_rental.repository.ModelRepository;
+import com.example.car_rental.repository.RentalRepository;
+import com.example.car_rental.repository.UserRepository;
+import com.example.car_rental.service.CarService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что страницы списков выполняют постоянное число SQL-запросов
+ * независимо от количества строк (нет N+1 при загрузке связей).
+ * <p>
+ * Каждая страница открывается при 3 и при 30 строках; число запросов,
+ * подсчитанное {@link SqlStatementCounter}, должно совпадать.
+ * Данные создаются с уникальными номерами, городом и email и удаляются после теста.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ListPageQueryCountTests {
+
+	private static final int SMALL = 3;
+	private static final int LARGE = 30;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CarService carService;
+
+	@Autowired
+	private BrandRepository brandRepository;
+
+	@Autowired
+	private ModelRepository modelRepository;
+
+	@Autowired
+	private RentalRepository rentalRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final List<Brand> brands = new ArrayList<>();
+	private final List<Model> models = new ArrayList<>();
+	private final List<Car> cars = new ArrayList<>();
+	private final List<Rental> rentals = new ArrayList<>();
+
+	private String tag;
+	private String city;
+	private User client;
+
+	@BeforeEach
+	void createClient() {
+		tag = UUID.randomUUID().toString().substring(0, 8);
+		city = "qc-" + tag;
+		client = new User();
+		client.setEmail("qc-" + tag + "@test.local");
+		client.setPassword("x");
+		client.setFirstName("Тест");
+		client.setLastName("Тестов");
+		client.setRole("ROLE_USER");
+		client = userRepository.save(client);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		rentalRepository.deleteAll(rentals);
+		cars.forEach(car -> carService.deleteCar(car.getId()));
+		modelRepository.deleteAll(models);
+		brandRepository.deleteAll(brands);
+		userRepository.delete(client);
+	}
+
+	@Test
+	void adminCarListIssuesConstantQueries() throws Exception {
+		RequestBuilder request = get("/admin/cars").param("plate", tag).with(user("admin").roles("ADMIN"));
+		assertConstantQueries(request);
+	}
+
+	@Test
+	void adminRentalListIssuesConstantQueries() throws Exception {
+		RequestBuilder request = get("/admin/rentals").param("email", client.getEmail()).with(user("admin").roles("ADMIN"));
+		assertConstantQueries(request);
+	}
+
+	@Test
+	void myRentalsIssuesConstantQueries() throws Exception {
+		RequestBuilder request = get("/user/rentals/my").with(user(client.getEmail()).roles("USER"));
+		assertConstantQueries(request);
+	}
+
+	@Test
+	void catalogIssuesConstantQueries() throws Exception {
+		RequestBuilder request = get("/user/cars").param("city", city).with(user(client.getEmail()).roles("USER"));
+		assertConstantQueries(request);
+	}
+
+	/**
+	 * Сравнивает число запросов страницы при {@link #SMALL} и {@link #LARGE} строках.
+	 */
+	private void assertConstantQueries(RequestBuilder request) throws Exception {
+		seed(SMALL);
+		long small = countQueries(request);
+		seed(LARGE - SMALL);
+		long large = countQueries(request);
+		assertThat(large).isEqualTo(small);
+	}
+
+	private long countQueries(RequestBuilder request) throws Exception {
+		SqlStatementCounter.reset();
+		mockMvc.perform(request).andExpect(status().isOk());
+		return SqlStatementCounter.count();
+	}
+
+	/**
+	 * Создает автомобили (каждый со своей маркой и моделью) и по одной аренде на каждый.
+	 */
+	private void seed(int count) {
+		for (int i = 0; i < count; i++) {
+			int n = cars.size();
+			Brand brand = new Brand();
+			brand.setName("qc-" + tag + "-" + n);
+			brand = brandRepository.save(brand);
+			brands.add(brand);
+
+			Model model = new Model();
+			model.setName("Модель " + n);
+			model.setBrand(brand);
+			model = modelRepository.save(model);
+			models.add(model);
+
+			Car car = new Car();
+			car.setLicensePlate(tag + "-" + n);
+			car.setYearOfManufacture(2020);
+			car.setColor("Белый");
+			car.setCity(city);
+			car.setPricePerDay(300000 + n * 100);
+			car.setStatus("AVAILABLE");
+			car.setBrand(brand);
+			car.setModel(model);
+			car = carService.saveCar(car);
+			cars.add(car);
+
+			Rental rental = new Rental();
+			rental.setCar(car);
+			rental.setClient(client);
+			rental.setStartDate(LocalDate.now());
+			rental.setEndDate(LocalDate.now().plusDays(1));
+			rental.setTotalPrice(300000);
+			rental.setStatus("PAID");
+			rental.setCreatedAt(LocalDateTime.now().minusMinutes(n));
+			rentals.add(rentalRepository.save(rental));
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.car_rental.cluster;
+
+import com.example.car_rental.event.CarChangedEvent;
+import com.example.car_rental.event.CarsBulkChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ClusterInvalidationPublisherTests {
+
+	@Test
+	void coalescesRepeatedChangesIntoOneNotify() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		ClusterInvalidationPublisher publisher = new ClusterInvalidationPublisher(jdbcTemplate);
+
+		publisher.onCarChanged(new CarChangedEvent(7L, null));
+		publisher.onCarChanged(new CarChangedEvent(7L, null));
+		publisher.publish(InvalidationType.USER, "ivan@example.com");
+		publisher.flush();
+		publisher.flush();
+
+		ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate, times(1)).queryForObject(eq("SELECT pg_notify(?, ?)"), eq(Object.class),
+				eq(ClusterInvalidationPublisher.CHANNEL), payload.capture());
+		assertThat(payload.getValue()).isEqualTo(publisher.getNodeId() + "\nCAR 7\nUSER ivan@example.com");
+	}
+
+	@Test
+	void collapsesLargeBurstsToFullInvalidation() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		ClusterInvalidationPublisher publisher = new ClusterInvalidationPublisher(jdbcTemplate);
+		List<Long> ids = new ArrayList<>();
+		for (long id = 1; id <= ClusterInvalidationPublisher.MAX_KEYS_PER_TYPE + 1; id++) {
+			ids.add(id);
+		}
+
+		publisher.onCarsBulkChanged(new CarsBulkChangedEvent(ids));
+		publisher.onCarChanged(new CarChangedEvent(5L, null));
+		publisher.flush();
+
+		verify(jdbcTemplate).queryForObject(eq("SELECT pg_notify(?, ?)"), eq(Object.class),
+				eq(ClusterInvalidationPublisher.CHANNEL), eq(publisher.getNodeId() + "\nCAR *"));
+	}
+
+	@Test
+	void sendsNothingWithoutChanges() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		ClusterInvalidationPublisher publisher = new ClusterInvalidationPublisher(jdbcTemplate);
+
+		publisher.flush();
+
+		verify(jdbcTemplate, never()).queryForObject(eq("SELECT pg_notify(?, ?)"), eq(Object.class),
+				eq(ClusterInvalidationPublisher.CHANNEL), anyString());
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.car_rental.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidationMessageTests {
+
+	@Test
+	void roundTripsChanges() {
+		Map<InvalidationType, Set<String>> changes = new EnumMap<>(InvalidationType.class);
+		changes.put(InvalidationType.CAR, Set.of("42"));
+		changes.put(InvalidationType.USER, Set.of("ivan@example.com"));
+
+		List<String> payloads = InvalidationMessage.encode("node-1", changes);
+		InvalidationMessage message = InvalidationMessage.decode(payloads.get(0));
+
+		assertThat(payloads).hasSize(1);
+		assertThat(message.nodeId()).isEqualTo("node-1");
+		assertThat(message.changes()).isEqualTo(changes);
+	}
+
+	@Test
+	void splitsLargeBatchesBelowNotifyLimit() {
+		Set<String> ids = new LinkedHashSet<>();
+		for (int i = 0; i < 2000; i++) {
+			ids.add(String.valueOf(1_000_000 + i));
+		}
+		Map<InvalidationType, Set<String>> changes = new EnumMap<>(InvalidationType.class);
+		changes.put(InvalidationType.CAR, ids);
+
+		List<String> payloads = InvalidationMessage.encode("node-1", changes);
+
+		assertThat(payloads.size()).isGreaterThan(1);
+		assertThat(payloads).allMatch(p -> p.getBytes().length <= InvalidationMessage.MAX_PAYLOAD_BYTES);
+		Set<String> decoded = new LinkedHashSet<>();
+		payloads.forEach(p -> decoded.addAll(InvalidationMessage.decode(p).changes().get(InvalidationType.CAR)));
+		assertThat(decoded).isEqualTo(ids);
+	}
+
+	@Test
+	void skipsUnknownLines() {
+		InvalidationMessage message = InvalidationMessage.decode("node-1\nRENTAL 5\nBRAND 3");
+
+		assertThat(message.changes()).containsOnlyKeys(InvalidationType.BRAND);
+	}
+}
@@ -0,0 +1,169 @@
+package com.example.car_rental.config;
+
+import com.example.car_rental.index.CarAvailabilityIndex;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки входа и каталога при смешанной нагрузке: хеширование BCrypt на потоках
+ * запросов (прежний {@link BCryptPasswordEncoder}) против {@link BoundedPasswordEncoder}.
+ * <p>
+ * {@value #REQUEST_THREADS} потоков имитируют потоки Tomcat. Каждый запрос с вероятностью
+ * {@value #LOGIN_SHARE} - вход (проверка пароля), иначе - поиск по каталогу из 100 тыс.
+ * автомобилей. Выводятся p50 и p99 по каждому типу запросов и число отклоненных входов.
+ * <p>
+ * Не является тестом и не запускается при сборке. Запуск:
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.example.car_rental.config.PasswordHashingBenchmark -Dexec.classpathScope=test}
+ * или из IDE.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class PasswordHashingBenchmark {
+
+	/**
+	 * Потоков, имитирующих потоки Tomcat
+	 */
+	private static final int REQUEST_THREADS = 64;
+
+	/**
+	 * Доля входов среди запросов
+	 */
+	private static final double LOGIN_SHARE = 0.3;
+
+	/**
+	 * Автомобилей в индексе каталога
+	 */
+	private static final int CARS = 100_000;
+
+	/**
+	 * Длительность нагрузки для одного кодировщика в секундах
+	 */
+	private static final long DURATION_SECONDS = 20;
+
+	/**
+	 * Города автомобилей и запросов каталога
+	 */
+	private static final String[] CITIES = {"Ижевск", "Воткинск", "Сарапул", "Глазов", "Можга"};
+
+	/**
+	 * Выполняет нагрузку с прежним и ограниченным кодировщиком и печатает задержки.
+	 *
+	 * @param args не используются
+	 * @throws Exception при ошибке выполнения
+	 */
+	public static void main(String[] args) throws Exception {
+		CarAvailabilityIndex index = new CarAvailabilityIndex();
+		index.rebuild(generate(CARS, new Random(42)));
+		String hash = new BCryptPasswordEncoder(SecurityConfig.PASSWORD_STRENGTH).encode("Secret#2024");
+
+		System.out.printf("%-10s %14s %14s %14s %14s %10s%n",
+				"encoder", "login p50, ms", "login p99, ms", "catalog p50", "catalog p99", "rejected");
+		run("direct", new BCryptPasswordEncoder(SecurityConfig.PASSWORD_STRENGTH), hash, index);
+		BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(SecurityConfig.PASSWORD_STRENGTH,
+				SecurityConfig.PASSWORD_HASHING_THREADS, SecurityConfig.PASSWORD_HASHING_QUEUE);
+		run("bounded", bounded, hash, index);
+		bounded.shutdown();
+	}
+
+	/**
+	 * Выполняет смешанную нагрузку с указанным кодировщиком и печатает строку результатов.
+	 */
+	private static void run(String name, PasswordEncoder encoder, String hash, CarAvailabilityIndex index)
+			throws InterruptedException {
+		List<long[]> logins = new ArrayList<>();
+		List<long[]> catalog = new ArrayList<>();
+		LongAdder rejected = new LongAdder();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+		ExecutorService requests = Executors.newFixedThreadPool(REQUEST_THREADS);
+		for (int t = 0; t < REQUEST_THREADS; t++) {
+			long[] loginSamples = new long[20_000];
+			long[] catalogSamples = new long[200_000];
+			int[] counts = new int[2];
+			synchronized (logins) {
+				logins.add(loginSamples);
+				catalog.add(catalogSamples);
+			}
+			requests.submit(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (System.nanoTime() < deadline) {
+					long started = System.nanoTime();
+					if (random.nextDouble() < LOGIN_SHARE) {
+						try {
+							encoder.matches("Secret#2024", hash);
+						} catch (AuthenticationServiceException e) {
+							rejected.increment();
+							continue;
+						}
+						if (counts[0] < loginSamples.length) {
+							loginSamples[counts[0]++] = System.nanoTime() - started;
+						}
+					} else {
+						index.search(null, null, null, CITIES[random.nextInt(CITIES.length)],
+								null, null, "priceAsc", 0, 12);
+						if (counts[1] < catalogSamples.length) {
+							catalogSamples[counts[1]++] = System.nanoTime() - started;
+						}
+					}
+				}
+				// Незаполненный хвост помечается -1 и не учитывается
+				Arrays.fill(loginSamples, counts[0], loginSamples.length, -1);
+				Arrays.fill(catalogSamples, counts[1], catalogSamples.length, -1);
+			});
+		}
+		requests.shutdown();
+		requests.awaitTermination(DURATION_SECONDS + 60, TimeUnit.SECONDS);
+
+		long[] login = merge(logins);
+		long[] browse = merge(catalog);
+		System.out.printf("%-10s %14.1f %14.1f %14.2f %14.2f %10d%n", name,
+				percentile(login, 0.5), percentile(login, 0.99),
+				percentile(browse, 0.5), percentile(browse, 0.99), rejected.sum());
+	}
+
+	/**
+	 * Объединяет и сортирует измерения всех потоков.
+	 */
+	private static long[] merge(List<long[]> samples) {
+		return samples.stream()
+				.flatMapToLong(Arrays::stream)
+				.filter(v -> v >= 0)
+				.sorted()
+				.toArray();
+	}
+
+	/**
+	 * Процентиль отсортированных измерений в миллисекундах.
+	 */
+	private static double percentile(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		return sorted[Math.max((int) Math.ceil(p * sorted.length) - 1, 0)] / 1_000_000.0;
+	}
+
+	/**
+	 * Создает строки индекса со случайными атрибутами.
+	 */
+	private static List<CarAvailabilityIndex.Row> generate(int n, Random random) {
+		List<CarAvailabilityIndex.Row> rows = new ArrayList<>(n);
+		for (int i = 1; i <= n; i++) {
+			rows.add(new CarAvailabilityIndex.Row(i, "AVAILABLE", CITIES[random.nextInt(CITIES.length)],
+					(long) random.nextInt(30) + 1, "Марка", 2010 + random.nextInt(15), "Черный",
+					100_000 + random.nextInt(900_000)));
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,145 @@
+package com.example.car_rental.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTests {
+
+	private static final String SERVICE_METHOD = "com.example.car_rental.service.CarService.getAllCars";
+
+	private final HikariDataSource primary = mock(HikariDataSource.class);
+
+	private final HikariDataSource replica = mock(HikariDataSource.class);
+
+	private final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, 10_000, 5_000);
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.clear();
+		ReplicaRoutingDataSource.unbindRequest();
+	}
+
+	@Test
+	void readOnlyServiceTransactionsGoToReplica() throws SQLException {
+		begin(SERVICE_METHOD, true);
+
+		routing.getConnection();
+
+		verify(replica).getConnection();
+		verify(primary, never()).getConnection();
+	}
+
+	@Test
+	void repositoryAndWriteTransactionsGoToPrimary() throws SQLException {
+		begin("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById", true);
+		routing.getConnection();
+		TransactionSynchronizationManager.clear();
+		begin(SERVICE_METHOD, false);
+		routing.getConnection();
+
+		verify(primary, times(2)).getConnection();
+		verify(replica, never()).getConnection();
+	}
+
+	@Test
+	void writePinsRestOfRequestAndSetsCookie() throws SQLException {
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		ReplicaRoutingDataSource.bindRequest(response, false);
+		commitWrite(1);
+
+		begin(SERVICE_METHOD, true);
+		routing.getConnection();
+
+		verify(primary, times(2)).getConnection();
+		verify(replica, never()).getConnection();
+		ArgumentCaptor<Cookie> cookie = ArgumentCaptor.forClass(Cookie.class);
+		verify(response).addCookie(cookie.capture());
+		assertThat(cookie.getValue().getName()).isEqualTo(ReplicaRoutingDataSource.COOKIE);
+		assertThat(Long.parseLong(cookie.getValue().getValue())).isGreaterThan(System.currentTimeMillis());
+	}
+
+	@Test
+	void transactionWithoutChangedRowsDoesNotPin() throws SQLException {
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		ReplicaRoutingDataSource.bindRequest(response, false);
+		commitWrite(0);
+
+		begin(SERVICE_METHOD, true);
+		routing.getConnection();
+
+		verify(replica).getConnection();
+		verify(response, never()).addCookie(any());
+	}
+
+	@Test
+	void countsConnectionsOutsideTransactionSeparately() throws SQLException {
+		routing.getConnection();
+		begin("com.example.car_rental.service.CarService.saveCar", false);
+		routing.getConnection();
+
+		assertThat(routing.getStats().getPrimaryNonTransactional()).isEqualTo(1);
+		assertThat(routing.getStats().getPrimaryWrites()).isEqualTo(1);
+	}
+
+	@Test
+	void unreachableReplicaFallsBackToPrimary() throws SQLException {
+		when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+		routing.checkReplica();
+		begin(SERVICE_METHOD, true);
+
+		routing.getConnection();
+
+		verify(primary).getConnection();
+		assertThat(routing.getStats().isReplicaUsable()).isFalse();
+	}
+
+	/**
+	 * Выполняет и фиксирует пишущую транзакцию, изменившую заданное число строк.
+	 */
+	private void commitWrite(int rows) throws SQLException {
+		Connection connection = mock(Connection.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		when(primary.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(statement.executeUpdate()).thenReturn(rows);
+		begin("com.example.car_rental.service.CarService.saveCar", false);
+
+		routing.getConnection().prepareStatement("UPDATE cars SET status = ?").executeUpdate();
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCommit();
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationManager.clear();
+	}
+
+	private static void begin(String name, boolean readOnly) {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionName(name);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.initSynchronization();
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.car_rental.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlStatementCounterTests {
+
+	@Test
+	void countsJdbcTemplateStatementsInCurrentThread() throws SQLException {
+		DataSource target = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		when(target.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(statement.executeUpdate()).thenReturn(1);
+		when(connection.createStatement()).thenReturn(mock(Statement.class));
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(new SqlStatementCounter(target));
+
+		SqlStatementCounter.reset();
+		jdbcTemplate.update("UPDATE cars SET status = ? WHERE id = ?", "AVAILABLE", 1L);
+		jdbcTemplate.execute("ANALYZE cars");
+
+		assertThat(SqlStatementCounter.count()).isEqualTo(2);
+		SqlStatementCounter.reset();
+		assertThat(SqlStatementCounter.count()).isZero();
+	}
+}
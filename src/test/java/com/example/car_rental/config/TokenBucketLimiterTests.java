@@ -0,0 +1,66 @@
+package com.example.car_rental.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTests {
+
+	@Test
+	void rejectsAttemptsBeyondCapacity() {
+		AtomicLong now = new AtomicLong();
+		TokenBucketLimiter limiter = new TokenBucketLimiter(3, 60, TimeUnit.SECONDS, 100, now::get);
+
+		assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+		assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+		assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+		assertThat(limiter.tryAcquire("10.0.0.1")).isFalse();
+		assertThat(limiter.tryAcquire("10.0.0.2")).isTrue();
+		assertThat(limiter.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	void refillsOverTime() {
+		AtomicLong now = new AtomicLong();
+		TokenBucketLimiter limiter = new TokenBucketLimiter(3, 60, TimeUnit.SECONDS, 100, now::get);
+		for (int i = 0; i < 3; i++) {
+			limiter.tryAcquire("a@example.com");
+		}
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(19));
+		assertThat(limiter.tryAcquire("a@example.com")).isFalse();
+		now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertThat(limiter.tryAcquire("a@example.com")).isTrue();
+	}
+
+	@Test
+	void evictsOnlyFullBuckets() {
+		AtomicLong now = new AtomicLong();
+		TokenBucketLimiter limiter = new TokenBucketLimiter(3, 60, TimeUnit.SECONDS, 100, now::get);
+		limiter.tryAcquire("old");
+		now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+		limiter.tryAcquire("recent");
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+		assertThat(limiter.evictIdle()).isEqualTo(1);
+		assertThat(limiter.size()).isEqualTo(1);
+	}
+
+	@Test
+	void rejectsNewKeysWhenFullUntilEviction() {
+		AtomicLong now = new AtomicLong();
+		TokenBucketLimiter limiter = new TokenBucketLimiter(1, 60, TimeUnit.SECONDS, 2, now::get);
+		limiter.tryAcquire("a");
+		limiter.tryAcquire("b");
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+		assertThat(limiter.tryAcquire("c")).isFalse();
+		assertThat(limiter.size()).isEqualTo(2);
+
+		limiter.evictIdle();
+		assertThat(limiter.tryAcquire("c")).isTrue();
+	}
+}
@@ -0,0 +1,49 @@
+package com.example.car_rental.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTests {
+
+	@Test
+	void neverFiresBeforeDeadline() {
+		TimingWheel<Long> wheel = new TimingWheel<>(100, 8, 0);
+		wheel.schedule(1L, 250);
+		wheel.schedule(2L, 300);
+
+		assertThat(wheel.advance(299)).isEmpty();
+		assertThat(wheel.advance(300)).containsExactly(1L, 2L);
+		assertThat(wheel.size()).isZero();
+	}
+
+	@Test
+	void keepsDeadlinesBeyondOneRotation() {
+		TimingWheel<Long> wheel = new TimingWheel<>(100, 8, 0);
+		wheel.schedule(1L, 100);
+		wheel.schedule(2L, 900);
+
+		assertThat(wheel.advance(100)).containsExactly(1L);
+		assertThat(wheel.advance(800)).isEmpty();
+		assertThat(wheel.advance(900)).containsExactly(2L);
+	}
+
+	@Test
+	void firesOverdueDeadlinesOnNextTick() {
+		TimingWheel<Long> wheel = new TimingWheel<>(100, 8, 0);
+		wheel.advance(5_000);
+		wheel.schedule(1L, 1_000);
+
+		assertThat(wheel.advance(5_100)).containsExactly(1L);
+	}
+
+	@Test
+	void catchesUpAfterLongPause() {
+		TimingWheel<Long> wheel = new TimingWheel<>(100, 8, 0);
+		for (long id = 1; id <= 50; id++) {
+			wheel.schedule(id, id * 100);
+		}
+
+		assertThat(wheel.advance(60_000)).hasSize(50);
+	}
+}
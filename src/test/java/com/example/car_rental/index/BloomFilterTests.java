@@ -0,0 +1,48 @@
+package com.example.car_rental.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+
+	@Test
+	void neverForgetsAddedValues() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("user" + i + "@example.com");
+		}
+
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+		}
+		assertThat(filter.isSaturated()).isFalse();
+	}
+
+	@Test
+	void keepsFalsePositiveRateNearConfigured() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("+7900" + String.format("%07d", i));
+		}
+
+		int falsePositives = 0;
+		for (int i = 10_000; i < 110_000; i++) {
+			if (filter.mightContain("+7900" + String.format("%07d", i))) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives).isLessThan(2_000);
+	}
+
+	@Test
+	void reportsSaturationPastExpectedInsertions() {
+		BloomFilter filter = new BloomFilter(10, 0.01);
+		for (int i = 0; i <= 10; i++) {
+			filter.put("1234 " + i);
+		}
+
+		assertThat(filter.isSaturated()).isTrue();
+		assertThat(filter.mightContain(null)).isFalse();
+	}
+}
@@ -0,0 +1,185 @@
+package com.example.car_rental.index;
+
+import com.example.car_rental.model.Brand;
+import com.example.car_rental.model.Car;
+import com.example.car_rental.model.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Сравнение индекса каталога {@link CarAvailabilityIndex} с прежней фильтрацией
+ * каталога потоками по списку сущностей на 10 тыс., 100 тыс. и 1 млн автомобилей.
+ * <p>
+ * Не является тестом и не запускается при сборке. Запуск:
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.example.car_rental.index.CarAvailabilityIndexBenchmark -Dexec.classpathScope=test}
+ * или из IDE. Для 1 млн автомобилей нужен heap не менее 2 ГБ.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+public class CarAvailabilityIndexBenchmark {
+
+	/**
+	 * Города автомобилей
+	 */
+	private static final String[] CITIES = {"Ижевск", "Воткинск", "Сарапул", "Глазов", "Можга"};
+
+	/**
+	 * Цвета автомобилей
+	 */
+	private static final String[] COLORS = {"Черный", "Белый", "Серый", "Красный", "Синий", "Зеленый"};
+
+	/**
+	 * Статусы автомобилей; повторы задают долю статуса в автопарке
+	 */
+	private static final String[] STATUSES = {"AVAILABLE", "AVAILABLE", "AVAILABLE", "AVAILABLE", "RENTED", "MAINTENANCE"};
+
+	/**
+	 * Количество марок
+	 */
+	private static final int BRANDS = 30;
+
+	/**
+	 * Прогревочных прогонов перед измерением
+	 */
+	private static final int WARMUP = 20;
+
+	/**
+	 * Измеряемых прогонов
+	 */
+	private static final int ITERATIONS = 50;
+
+	/**
+	 * Параметры одного запроса каталога.
+	 */
+	private record Query(Long brandId, Integer year, String color, String city,
+			Integer minPrice, Integer maxPrice, String sortOrder) {
+	}
+
+	/**
+	 * Печатает среднее время запроса каталога потоками и по индексу для каждого размера автопарка.
+	 *
+	 * @param args не используются
+	 */
+	public static void main(String[] args) {
+		List<Query> queries = List.of(
+				new Query(null, null, null, null, null, null, "default"),
+				new Query(null, null, null, "Ижевск", null, null, "priceAsc"),
+				new Query(5L, null, null, null, 2000, 6000, "priceDesc"),
+				new Query(7L, 2020, "Черный", "Глазов", null, null, "default"));
+
+		System.out.printf("%-10s %18s %18s %10s%n", "cars", "streams, us/query", "index, us/query", "speedup");
+		for (int n : new int[]{10_000, 100_000, 1_000_000}) {
+			List<Car> cars = generate(n, new Random(42));
+			CarAvailabilityIndex index = new CarAvailabilityIndex();
+			index.rebuild(cars.stream().map(CarIndexMaintainer::toRow).toList());
+
+			double streams = measure(() -> {
+				for (Query q : queries) {
+					streamPath(cars, q);
+				}
+			}) / queries.size();
+			double indexed = measure(() -> {
+				for (Query q : queries) {
+					index.search(q.brandId(), q.year(), q.color(), q.city(), q.minPrice(), q.maxPrice(), q.sortOrder(), 0, 12);
+					index.facets(q.brandId(), q.year(), q.color(), q.city(), q.minPrice(), q.maxPrice());
+				}
+			}) / queries.size();
+			System.out.printf("%-10d %18.1f %18.1f %9.1fx%n", n, streams, indexed, streams / indexed);
+		}
+	}
+
+	/**
+	 * Прежний путь каталога: фильтрация, сортировка и фасеты потоками по всем автомобилям.
+	 */
+	private static int streamPath(List<Car> all, Query q) {
+		List<Car> cars = all.stream()
+				.filter(car -> "AVAILABLE".equals(car.getStatus()))
+				.collect(Collectors.toList());
+		if (q.brandId() != null) {
+			cars = cars.stream().filter(c -> c.getBrand() != null && q.brandId().equals(c.getBrand().getId())).collect(Collectors.toList());
+		}
+		if (q.year() != null) {
+			cars = cars.stream().filter(c -> q.year().equals(c.getYearOfManufacture())).collect(Collectors.toList());
+		}
+		if (q.color() != null) {
+			cars = cars.stream().filter(c -> q.color().equalsIgnoreCase(c.getColor())).collect(Collectors.toList());
+		}
+		if (q.city() != null) {
+			cars = cars.stream().filter(c -> q.city().equalsIgnoreCase(c.getCity())).collect(Collectors.toList());
+		}
+		if (q.minPrice() != null) {
+			int min = q.minPrice() * 100;
+			cars = cars.stream().filter(c -> c.getPricePerDay() != null && c.getPricePerDay() >= min).collect(Collectors.toList());
+		}
+		if (q.maxPrice() != null) {
+			int max = q.maxPrice() * 100;
+			cars = cars.stream().filter(c -> c.getPricePerDay() != null && c.getPricePerDay() <= max).collect(Collectors.toList());
+		}
+		if ("priceAsc".equals(q.sortOrder())) {
+			cars.sort((c1, c2) -> c1.getPricePerDay().compareTo(c2.getPricePerDay()));
+		} else if ("priceDesc".equals(q.sortOrder())) {
+			cars.sort((c1, c2) -> c2.getPricePerDay().compareTo(c1.getPricePerDay()));
+		}
+		Set<Brand> brands = cars.stream().map(Car::getBrand).filter(Objects::nonNull).collect(Collectors.toSet());
+		List<Integer> years = cars.stream().map(Car::getYearOfManufacture).filter(Objects::nonNull).distinct().sorted().toList();
+		Set<String> colors = cars.stream().map(Car::getColor).filter(Objects::nonNull).collect(Collectors.toSet());
+		Set<String> cities = cars.stream().map(Car::getCity).filter(Objects::nonNull).collect(Collectors.toSet());
+		int min = all.stream().filter(c -> "AVAILABLE".equals(c.getStatus())).mapToInt(Car::getPricePerDay).min().orElse(0);
+		return cars.size() + brands.size() + years.size() + colors.size() + cities.size() + min;
+	}
+
+	/**
+	 * Возвращает среднее время выполнения задачи в микросекундах.
+	 */
+	private static double measure(Runnable task) {
+		for (int i = 0; i < WARMUP; i++) {
+			task.run();
+		}
+		long started = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			task.run();
+		}
+		return (System.nanoTime() - started) / 1_000.0 / ITERATIONS;
+	}
+
+	/**
+	 * Генерирует автопарк заданного размера.
+	 */
+	private static List<Car> generate(int n, Random random) {
+		List<Brand> brands = new ArrayList<>();
+		List<Model> models = new ArrayList<>();
+		for (long b = 1; b <= BRANDS; b++) {
+			Brand brand = new Brand();
+			brand.setId(b);
+			brand.setName("Марка " + b);
+			brands.add(brand);
+			Model model = new Model();
+			model.setId(b);
+			model.setName("Модель " + b);
+			model.setBrand(brand);
+			models.add(model);
+		}
+		List<Car> cars = new ArrayList<>(n);
+		for (long id = 1; id <= n; id++) {
+			int b = random.nextInt(BRANDS);
+			Car car = new Car();
+			car.setId(id);
+			car.setBrand(brands.get(b));
+			car.setModel(models.get(b));
+			car.setLicensePlate("А" + id);
+			car.setYearOfManufacture(2010 + random.nextInt(15));
+			car.setColor(COLORS[random.nextInt(COLORS.length)]);
+			car.setCity(CITIES[random.nextInt(CITIES.length)]);
+			car.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+			car.setPricePerDay((1000 + random.nextInt(9000)) * 100);
+			cars.add(car);
+		}
+		return cars;
+	}
+}
@@ -0,0 +1,58 @@
+package com.example.car_rental.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarOccupancyCalendarTests {
+
+	@Test
+	void matchesBitSetAcrossWordBoundaries() {
+		Random random = new Random(42);
+		for (int round = 0; round < 1000; round++) {
+			long[] words = new long[CarOccupancyCalendar.WORDS];
+			BitSet expected = new BitSet();
+			for (int i = 0; i < 3; i++) {
+				int from = random.nextInt(CarOccupancyCalendar.WINDOW_DAYS);
+				int to = from + random.nextInt(CarOccupancyCalendar.WINDOW_DAYS - from + 1);
+				CarOccupancyCalendar.set(words, from, to);
+				expected.set(from, to);
+			}
+
+			int start = random.nextInt(CarOccupancyCalendar.WINDOW_DAYS);
+			int end = start + random.nextInt(CarOccupancyCalendar.WINDOW_DAYS - start + 1);
+			int set = expected.nextSetBit(start);
+			int clear = expected.nextClearBit(start);
+			assertThat(CarOccupancyCalendar.nextSet(words, start, end)).isEqualTo(set >= 0 && set < end ? set : -1);
+			assertThat(CarOccupancyCalendar.nextClear(words, start, end)).isEqualTo(clear < end ? clear : -1);
+		}
+	}
+
+	@Test
+	void findsFirstDayFreeInBothMaps() {
+		long[] paid = new long[CarOccupancyCalendar.WORDS];
+		long[] held = new long[CarOccupancyCalendar.WORDS];
+		CarOccupancyCalendar.set(paid, 0, 60);
+		CarOccupancyCalendar.set(held, 60, 130);
+		CarOccupancyCalendar.set(paid, 131, 200);
+
+		assertThat(CarOccupancyCalendar.nextFree(paid, held, 0, CarOccupancyCalendar.WINDOW_DAYS)).isEqualTo(130);
+		assertThat(CarOccupancyCalendar.nextFree(paid, held, 131, CarOccupancyCalendar.WINDOW_DAYS)).isEqualTo(200);
+
+		CarOccupancyCalendar.set(paid, 200, CarOccupancyCalendar.WINDOW_DAYS);
+		assertThat(CarOccupancyCalendar.nextFree(paid, held, 131, CarOccupancyCalendar.WINDOW_DAYS)).isEqualTo(-1);
+	}
+
+	@Test
+	void clampsDaysToWindow() {
+		LocalDate origin = LocalDate.of(2025, 1, 1);
+
+		assertThat(CarOccupancyCalendar.offset(origin, origin.minusDays(3))).isZero();
+		assertThat(CarOccupancyCalendar.offset(origin, origin.plusDays(10))).isEqualTo(10);
+		assertThat(CarOccupancyCalendar.offset(origin, origin.plusYears(2))).isEqualTo(CarOccupancyCalendar.WINDOW_DAYS);
+	}
+}
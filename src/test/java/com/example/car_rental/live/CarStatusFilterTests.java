@@ -0,0 +1,47 @@
+package com.example.car_rental.live;
+
+import com.example.car_rental.index.CarAvailabilityIndex.Row;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarStatusFilterTests {
+
+	private static final Row CAR = new Row(7, "RENTED", "Ижевск", 3L, "Lada", 2021, "Белый", 250_000);
+
+	@Test
+	void emptyFilterMatchesEveryCar() {
+		assertThat(new CarStatusFilter(null, null, null, null, null, null).matches(CAR)).isTrue();
+		assertThat(new CarStatusFilter(0L, 0, "", " ", 0, 0).matches(CAR)).isTrue();
+	}
+
+	@Test
+	void matchesLikeCatalogSearch() {
+		assertThat(new CarStatusFilter(3L, 2021, "белый", "ИЖЕВСК", 2000, 3000).matches(CAR)).isTrue();
+		assertThat(new CarStatusFilter(4L, null, null, null, null, null).matches(CAR)).isFalse();
+		assertThat(new CarStatusFilter(null, 2020, null, null, null, null).matches(CAR)).isFalse();
+		assertThat(new CarStatusFilter(null, null, null, "Сарапул", null, null).matches(CAR)).isFalse();
+		assertThat(new CarStatusFilter(null, null, null, null, 2600, null).matches(CAR)).isFalse();
+		assertThat(new CarStatusFilter(null, null, null, null, null, 2400).matches(CAR)).isFalse();
+	}
+
+	@Test
+	void encodesStatusChange() {
+		assertThat(CarStatusHub.json(CAR)).isEqualTo("{\"id\":7,\"status\":\"RENTED\"}");
+		assertThat(CarStatusHub.json(new Row(8, null, null, null, null, null, null, null)))
+				.isEqualTo("{\"id\":8,\"status\":null}");
+		assertThat(CarStatusHub.periodJson(7, false)).isEqualTo("{\"id\":7,\"free\":false}");
+	}
+
+	@Test
+	void periodRequiresBothDatesInOrder() {
+		LocalDate day = LocalDate.of(2025, 6, 1);
+
+		assertThat(new CarStatusFilter(null, null, null, null, null, null).hasPeriod()).isFalse();
+		assertThat(new CarStatusFilter(null, null, null, null, null, null, day, null).hasPeriod()).isFalse();
+		assertThat(new CarStatusFilter(null, null, null, null, null, null, day, day).hasPeriod()).isFalse();
+		assertThat(new CarStatusFilter(null, null, null, null, null, null, day, day.plusDays(3)).hasPeriod()).isTrue();
+	}
+}
@@ -0,0 +1,36 @@
+package com.example.car_rental.live;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashboardHubTests {
+
+	@Test
+	void frameContainsOnlyChangedValues() {
+		Map<String, Long> previous = new TreeMap<>(Map.of("revenue", 1000L, "activeRentals", 3L,
+				"cars:AVAILABLE", 5L, "cars:RENTED", 1L));
+		Map<String, Long> current = new TreeMap<>(Map.of("revenue", 1500L, "activeRentals", 3L,
+				"cars:AVAILABLE", 5L, "cars:RESERVED", 1L));
+
+		Map<String, Long> changed = DashboardHub.changes(previous, current);
+
+		assertThat(changed).containsExactly(Map.entry("cars:RENTED", 0L), Map.entry("cars:RESERVED", 1L),
+				Map.entry("revenue", 1500L));
+		assertThat(DashboardHub.changes(current, current)).isEmpty();
+		assertThat(DashboardHub.changes(null, current)).isEqualTo(current);
+	}
+
+	@Test
+	void encodesCarCountsAsNestedObject() {
+		Map<String, Long> frame = new TreeMap<>(Map.of("revenue", 1500L, "activeRentals", 2L,
+				"cars:AVAILABLE", 5L, "cars:RENTED", 0L));
+
+		assertThat(DashboardHub.json(frame))
+				.isEqualTo("{\"activeRentals\":2,\"revenue\":1500,\"cars\":{\"AVAILABLE\":5,\"RENTED\":0}}");
+		assertThat(DashboardHub.json(Map.of())).isEqualTo("{}");
+	}
+}
@@ -0,0 +1,43 @@
+package com.example.car_rental.repository;
+
+import com.example.car_rental.model.Car;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetTests {
+
+	@Test
+	void parsesValueAndIdAroundLastSeparator() {
+		Keyset.Cursor<String> cursor = Keyset.parse("Lada|Vesta|42", value -> value);
+
+		assertThat(cursor.value()).isEqualTo("Lada|Vesta");
+		assertThat(cursor.id()).isEqualTo(42);
+	}
+
+	@Test
+	void treatsMalformedCursorAsNoCursor() {
+		assertThat(Keyset.parse(null, Integer::valueOf)).isNull();
+		assertThat(Keyset.parse("  ", Integer::valueOf)).isNull();
+		assertThat(Keyset.parse("300000", Integer::valueOf)).isNull();
+		assertThat(Keyset.parse("300000|abc", Integer::valueOf)).isNull();
+		assertThat(Keyset.parse("cheap|42", Integer::valueOf)).isNull();
+		assertThat(Keyset.parse("2025-13-45|42", LocalDate::parse)).isNull();
+	}
+
+	@Test
+	void writesNullKeyAsNullValue() {
+		Keyset.Field<Car, Integer> price = new Keyset.Field<>(
+				(root, cb) -> root.get("pricePerDay"), Car::getPricePerDay, Integer::valueOf, Integer.MIN_VALUE);
+		Keyset<Car> keyset = new Keyset<Car>("price", Car::getId).field("price", price);
+		Car car = new Car();
+		car.setId(7L);
+
+		Keyset.Cursor<Integer> cursor = Keyset.parse(keyset.cursorOf(price, car), price.parser());
+
+		assertThat(cursor.value()).isEqualTo(Integer.MIN_VALUE);
+		assertThat(cursor.id()).isEqualTo(7);
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.car_rental.service;
+
+import com.example.car_rental.model.Brand;
+import com.example.car_rental.model.Model;
+import com.example.car_rental.repository.BrandRepository;
+import com.example.car_rental.repository.ModelRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReferenceDataCacheTests {
+
+	@Test
+	void servesBrandModelTreeFromSingleLoad() {
+		BrandRepository brands = mock(BrandRepository.class);
+		ModelRepository models = mock(ModelRepository.class);
+		Brand lada = brand(1L, "Lada");
+		when(brands.findAll(any(Sort.class))).thenReturn(List.of(lada, brand(2L, "Kia")));
+		when(models.findAll()).thenReturn(List.of(model(11L, "Vesta", lada), model(10L, "Granta", lada)));
+		ReferenceDataCache cache = new ReferenceDataCache(brands, models);
+
+		assertThat(cache.getBrands()).extracting(Brand::getName).containsExactly("Lada", "Kia");
+		assertThat(cache.getModelsByBrand(1L)).extracting(Model::getName).containsExactly("Granta", "Vesta");
+		assertThat(cache.getModelsByBrand(2L)).isEmpty();
+		assertThat(cache.getModel(11L).getBrand().getName()).isEqualTo("Lada");
+		assertThat(cache.getBrand(3L)).isNull();
+
+		verify(brands, times(1)).findAll(any(Sort.class));
+		verify(models, times(1)).findAll();
+	}
+
+	@Test
+	void reloadsAfterInvalidation() {
+		BrandRepository brands = mock(BrandRepository.class);
+		ModelRepository models = mock(ModelRepository.class);
+		when(brands.findAll(any(Sort.class)))
+				.thenReturn(List.of(brand(1L, "Lada")))
+				.thenReturn(List.of(brand(1L, "LADA")));
+		ReferenceDataCache cache = new ReferenceDataCache(brands, models);
+
+		assertThat(cache.getBrand(1L).getName()).isEqualTo("Lada");
+		cache.invalidate();
+
+		assertThat(cache.getBrand(1L).getName()).isEqualTo("LADA");
+		verify(brands, times(2)).findAll(any(Sort.class));
+	}
+
+	@Test
+	void returnsCopiesThatDoNotAffectCache() {
+		BrandRepository brands = mock(BrandRepository.class);
+		ModelRepository models = mock(ModelRepository.class);
+		when(brands.findAll(any(Sort.class))).thenReturn(List.of(brand(1L, "Lada")));
+		ReferenceDataCache cache = new ReferenceDataCache(brands, models);
+
+		cache.getBrand(1L).setName("Изменено");
+
+		assertThat(cache.getBrand(1L).getName()).isEqualTo("Lada");
+	}
+
+	private static Brand brand(Long id, String name) {
+		Brand brand = new Brand();
+		brand.setId(id);
+		brand.setName(name);
+		return brand;
+	}
+
+	private static Model model(Long id, String name, Brand brand) {
+		Model model = new Model();
+		model.setId(id);
+		model.setName(name);
+		model.setBrand(brand);
+		return model;
+	}
+}
@@ -0,0 +1,131 @@
+package com.example.car_rental.service;
+
+import com.example.car_rental.model.Brand;
+import com.example.car_rental.model.Car;
+import com.example.car_rental.model.Model;
+import com.example.car_rental.model.Rental;
+import com.example.car_rental.model.User;
+import com.example.car_rental.repository.BrandRepository;
+import com.example.car_rental.repository.CarRepository;
+import com.example.car_rental.repository.ModelRepository;
+import com.example.car_rental.repository.RentalRepository;
+import com.example.car_rental.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка агрегатов выручки: отмена оплаченной аренды вычитает вклад из тех же строк,
+ * в которые он был добавлен при оплате, даже если автомобиль перенесен в другой город.
+ *
+ * @author ИжДрайв
+ * @version 1.0
+ */
+@SpringBootTest
+class RentalRollupServiceTests {
+
+	@Autowired
+	private RentalService rentalService;
+
+	@Autowired
+	private CarService carService;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	@Autowired
+	private BrandRepository brandRepository;
+
+	@Autowired
+	private ModelRepository modelRepository;
+
+	@Autowired
+	private RentalRepository rentalRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Brand brand;
+	private Model model;
+	private Car car;
+	private User client;
+
+	@BeforeEach
+	void createCar() {
+		String tag = UUID.randomUUID().toString().substring(0, 8);
+		brand = new Brand();
+		brand.setName("ro-" + tag);
+		brand = brandRepository.save(brand);
+		model = new Model();
+		model.setName("ro-" + tag);
+		model.setBrand(brand);
+		model = modelRepository.save(model);
+
+		car = new Car();
+		car.setLicensePlate("ro-" + tag);
+		car.setCity("Ижевск");
+		car.setPricePerDay(300000);
+		car.setStatus("AVAILABLE");
+		car.setBrand(brand);
+		car.setModel(model);
+		car = carService.saveCar(car);
+
+		client = new User();
+		client.setEmail("ro-" + tag + "@test.local");
+		client.setPassword("x");
+		client.setRole("ROLE_USER");
+		client = userRepository.save(client);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		rentalRepository.deleteAll(rentalRepository.findByClient_EmailOrderByCreatedAtDesc(client.getEmail()));
+		jdbcTemplate.update("DELETE FROM rental_rollups WHERE brand_id = ?", brand.getId());
+		carService.deleteCar(car.getId());
+		modelRepository.delete(model);
+		brandRepository.delete(brand);
+		userRepository.delete(client);
+	}
+
+	@Test
+	void cancellationReversesRowsOfPaymentAfterCarMoved() {
+		Rental rental = new Rental();
+		rental.setCar(car);
+		rental.setStartDate(LocalDate.now().plusDays(1));
+		rental.setEndDate(LocalDate.now().plusDays(4));
+		rental.setTotalPrice(900000);
+		Long rentalId = rentalService.createRental(rental, client.getEmail()).getId();
+		rentalService.confirmPayment(rentalId);
+		assertThat(totals("Ижевск")).containsEntry("revenue", 900000L).containsEntry("rented_days", 3L);
+
+		Car moved = carRepository.findById(car.getId()).orElseThrow();
+		moved.setCity("Сарапул");
+		carService.saveCar(moved);
+		rentalService.cancelRental(rentalId);
+
+		assertThat(totals("Ижевск")).containsEntry("revenue", 0L).containsEntry("rented_days", 0L);
+		assertThat(totals("Сарапул")).containsEntry("revenue", 0L).containsEntry("rented_days", 0L);
+	}
+
+	/**
+	 * Сумма выручки и занятых дней в агрегатах марки автомобиля по городу.
+	 */
+	private Map<String, Object> totals(String city) {
+		return jdbcTemplate.queryForMap("""
+				SELECT COALESCE(SUM(revenue), 0)::bigint AS revenue, COALESCE(SUM(rented_days), 0)::bigint AS rented_days
+				FROM rental_rollups WHERE brand_id = ? AND city = ?
+				""", brand.getId(), city);
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.car_rental.service;
+
+import com.example.car_rental.model.User;
+import com.example.car_rental.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheTests {
+
+	@Test
+	void servesRepeatedLookupsFromCache() {
+		UserRepository repository = mock(UserRepository.class);
+		when(repository.findByEmail("ivan@example.com")).thenReturn(user(1L, "ivan@example.com", "Иван"));
+		UserCache cache = new UserCache(repository);
+
+		assertThat(cache.get("ivan@example.com").getFirstName()).isEqualTo("Иван");
+		assertThat(cache.get("ivan@example.com").getId()).isEqualTo(1L);
+
+		verify(repository, times(1)).findByEmail("ivan@example.com");
+		assertThat(cache.getStats().getHits()).isEqualTo(1);
+		assertThat(cache.getStats().getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	void reloadsAfterEviction() {
+		UserRepository repository = mock(UserRepository.class);
+		when(repository.findByEmail("ivan@example.com"))
+				.thenReturn(user(1L, "ivan@example.com", "Иван"))
+				.thenReturn(user(1L, "ivan@example.com", "Иоанн"));
+		UserCache cache = new UserCache(repository);
+
+		cache.get("ivan@example.com");
+		cache.evict("ivan@example.com");
+
+		assertThat(cache.get("ivan@example.com").getFirstName()).isEqualTo("Иоанн");
+		verify(repository, times(2)).findByEmail("ivan@example.com");
+	}
+
+	@Test
+	void doesNotCacheMissingUsers() {
+		UserRepository repository = mock(UserRepository.class);
+		UserCache cache = new UserCache(repository);
+
+		assertThat(cache.get("nobody@example.com")).isNull();
+		assertThat(cache.get("nobody@example.com")).isNull();
+
+		verify(repository, times(2)).findByEmail("nobody@example.com");
+		assertThat(cache.getStats().getSize()).isZero();
+	}
+
+	private static User user(Long id, String email, String firstName) {
+		User user = new User();
+		user.setId(id);
+		user.setEmail(email);
+		user.setFirstName(firstName);
+		user.setRole("ROLE_USER");
+		return user;
+	}
+}